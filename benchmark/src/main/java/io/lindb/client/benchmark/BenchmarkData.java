@@ -0,0 +1,89 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.lindb.client.api.Point;
+
+/**
+ * Generate data points for benchmarks.
+ */
+public final class BenchmarkData {
+	/**
+	 * Histogram bucket bounds, last bucket is +Inf.
+	 */
+	public static final double[] BOUNDS = new double[] { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000,
+			10_000, Double.POSITIVE_INFINITY };
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Create tags with given tag count, tag values vary by series.
+	 *
+	 * @param tagCount number of tags
+	 * @param series   series index
+	 * @return tags
+	 */
+	public static Map<String, String> tags(int tagCount, int series) {
+		Map<String, String> tags = new HashMap<>();
+		for (int i = 0; i < tagCount; i++) {
+			tags.put("tag_key_" + i, "tag_value_" + (series % (10 * (i + 1))));
+		}
+		return tags;
+	}
+
+	/**
+	 * Create a point with 5 simple fields.
+	 *
+	 * @param metric    metric name
+	 * @param tags      tags
+	 * @param timestamp timestamp
+	 * @return point
+	 */
+	public static Point simplePoint(String metric, Map<String, String> tags, long timestamp) {
+		return Point.builder(metric, timestamp).namespace("benchmark").addTags(tags)
+				.addSum("count", 1.0)
+				.addSum("bytes", 1024.0)
+				.addLast("last", 12.5)
+				.addMin("min", 1.0)
+				.addMax("max", 99.0)
+				.build();
+	}
+
+	/**
+	 * Create a point with a histogram compound field.
+	 *
+	 * @param metric    metric name
+	 * @param tags      tags
+	 * @param timestamp timestamp
+	 * @return point
+	 */
+	public static Point compoundPoint(String metric, Map<String, String> tags, long timestamp) {
+		double[] values = new double[BOUNDS.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		return Point.builder(metric, timestamp).namespace("benchmark").addTags(tags)
+				.addHistogram(100, 5_000, 1, 9_000, BOUNDS, values)
+				.build();
+	}
+}
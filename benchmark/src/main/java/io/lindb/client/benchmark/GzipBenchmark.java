@@ -0,0 +1,116 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lindb.client.api.Point;
+import io.lindb.client.api.RowBuilder;
+
+/**
+ * Benchmark of gzip compression of an encoded batch, same as the write
+ * pipeline does before sending. Points of several metrics/series are in random
+ * arrival order, or sorted by series as the write pipeline does with
+ * sortBatch(true).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GzipBenchmark {
+	@Param({ "100", "1000", "5000" })
+	int batchSize;
+
+	@Param({ "100" })
+	int series;
+
+	@Param({ "false", "true" })
+	boolean sorted;
+
+	private byte[] batch;
+	private ByteArrayOutputStream outputStream;
+	private int compressed;
+
+	@Setup
+	public void setup() throws IOException {
+		RowBuilder builder = new RowBuilder();
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		long now = System.currentTimeMillis();
+		List<Point> points = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			int s = i % series;
+			points.add(BenchmarkData.simplePoint("benchmark.gzip." + (s % 5), BenchmarkData.tags(5, s),
+					now + i / series * 10_000));
+		}
+		Collections.shuffle(points, new Random(42));
+		if (sorted) {
+			points.sort(Comparator.comparing(Point::getName)
+					.thenComparing(point -> new TreeMap<>(point.getTags()).toString())
+					.thenComparingLong(Point::getTimestamp));
+		}
+		for (Point point : points) {
+			buffer.write(builder.build(point, null));
+			builder.reset();
+		}
+		batch = buffer.toByteArray();
+		outputStream = new ByteArrayOutputStream();
+	}
+
+	@Benchmark
+	public byte[] gzip() throws IOException {
+		GZIPOutputStream gzip = new GZIPOutputStream(outputStream);
+		gzip.write(batch);
+		gzip.close();
+		byte[] data = outputStream.toByteArray();
+		outputStream.reset();
+		compressed = data.length;
+		return data;
+	}
+
+	@TearDown(Level.Trial)
+	public void report() {
+		System.out.printf("%nbatch size: %d, sorted: %b, raw bytes: %d, compressed bytes: %d, ratio: %.2f%n",
+				batchSize, sorted, batch.length, compressed, compressed == 0 ? 0 : (double) batch.length / compressed);
+	}
+}
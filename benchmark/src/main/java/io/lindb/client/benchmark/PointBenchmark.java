@@ -0,0 +1,85 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lindb.client.api.Point;
+
+/**
+ * Benchmark of building data point by {@link Point.Builder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointBenchmark {
+	@Param({ "0", "5", "20" })
+	int tagCount;
+
+	private String[] tagKeys;
+	private String[] tagValues;
+
+	@Setup
+	public void setup() {
+		tagKeys = new String[tagCount];
+		tagValues = new String[tagCount];
+		for (int i = 0; i < tagCount; i++) {
+			tagKeys[i] = "tag_key_" + i;
+			tagValues[i] = "tag_value_" + i;
+		}
+	}
+
+	@Benchmark
+	public Point simpleFields() {
+		Point.Builder builder = Point.builder("benchmark.point");
+		for (int i = 0; i < tagCount; i++) {
+			builder.addTag(tagKeys[i], tagValues[i]);
+		}
+		return builder.addSum("count", 1.0)
+				.addSum("bytes", 1024.0)
+				.addLast("last", 12.5)
+				.addMin("min", 1.0)
+				.addMax("max", 99.0)
+				.build();
+	}
+
+	@Benchmark
+	public Point histogram() {
+		Point.Builder builder = Point.builder("benchmark.point");
+		for (int i = 0; i < tagCount; i++) {
+			builder.addTag(tagKeys[i], tagValues[i]);
+		}
+		return builder.addHistogram(100, 5_000, 1, 9_000, BenchmarkData.BOUNDS, BenchmarkData.BOUNDS).build();
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lindb.client.api.Point;
+import io.lindb.client.api.RowBuilder;
+
+/**
+ * Benchmark of encoding data point into flat buffer by {@link RowBuilder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowBuilderBenchmark {
+	@Param({ "simple", "compound" })
+	String field;
+
+	@Param({ "0", "5", "20" })
+	int tagCount;
+
+	private RowBuilder builder;
+	private Point point;
+	private Map<String, String> defaultTags;
+
+	@Setup
+	public void setup() {
+		builder = new RowBuilder();
+		Map<String, String> tags = BenchmarkData.tags(tagCount, 1);
+		long now = System.currentTimeMillis();
+		if ("simple".equals(field)) {
+			point = BenchmarkData.simplePoint("benchmark.row", tags, now);
+		} else {
+			point = BenchmarkData.compoundPoint("benchmark.row", tags, now);
+		}
+		defaultTags = new HashMap<>();
+		defaultTags.put("region", "shanghai");
+	}
+
+	@Benchmark
+	public byte[] build() {
+		try {
+			return builder.build(point, defaultTags);
+		} finally {
+			builder.reset();
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.api.PointBatcher;
+import io.lindb.client.api.Write;
+import io.lindb.client.testing.FakeBroker;
+
+/**
+ * End-to-end benchmark of {@link Write#put} throughput against an in-process
+ * fake broker, with 1 to N producer threads, compared with producer-side
+ * chunk handoff by {@link PointBatcher}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+	@Param({ "1000" })
+	int batchSize;
+
+	@Param({ "1000" })
+	int series;
+
+	@Param({ "false", "true" })
+	boolean sortBatch;
+
+	@Param({ "false", "true" })
+	boolean encodeOnPut;
+
+	private FakeBroker broker;
+	private Client client;
+	private Write write;
+	private Map<String, String>[] tags;
+
+	@State(Scope.Thread)
+	public static class Producer {
+		int seq;
+	}
+
+	@State(Scope.Thread)
+	public static class Batching {
+		int seq;
+		PointBatcher batcher;
+
+		@Setup(Level.Trial)
+		public void setup(WriteBenchmark benchmark) {
+			batcher = benchmark.write.batcher();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			batcher.close();
+		}
+	}
+
+	@Setup(Level.Trial)
+	@SuppressWarnings("unchecked")
+	public void setup() throws Exception {
+		broker = FakeBroker.builder().build().start();
+		client = ClientFactory.create(broker.getEndpoint(), Options.builder().batchSize(batchSize)
+				.sortBatch(sortBatch).encodeOnPut(encodeOnPut).build());
+		write = client.write("benchmark");
+		tags = new Map[series];
+		for (int i = 0; i < series; i++) {
+			tags[i] = BenchmarkData.tags(5, i);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		System.out.printf("%n%s%n", write.stats());
+		write.close();
+		client.close();
+		broker.close();
+		System.out.printf("broker received points: %d, series: %d, invalid points: %d%n", broker.getPoints(),
+				broker.getSeries(), broker.getInvalidPoints());
+	}
+
+	private boolean put(Producer producer) throws InterruptedException {
+		int s = producer.seq++ % series;
+		return write.put(BenchmarkData.simplePoint("benchmark.write", tags[s], System.currentTimeMillis()), 1,
+				TimeUnit.SECONDS);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean put1(Producer producer) throws InterruptedException {
+		return put(producer);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean put4(Producer producer) throws InterruptedException {
+		return put(producer);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean putMax(Producer producer) throws InterruptedException {
+		return put(producer);
+	}
+
+	private boolean add(Batching batching) throws InterruptedException {
+		int s = batching.seq++ % series;
+		return batching.batcher.add(BenchmarkData.simplePoint("benchmark.write", tags[s], System.currentTimeMillis()),
+				1, TimeUnit.SECONDS);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean batcher4(Batching batching) throws InterruptedException {
+		return add(batching);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean batcherMax(Batching batching) throws InterruptedException {
+		return add(batching);
+	}
+}
@@ -23,6 +23,8 @@ import java.io.IOException;
 import io.lindb.client.api.BlockingWrite;
 import io.lindb.client.api.DataQuery;
 import io.lindb.client.api.EventListener;
+import io.lindb.client.api.ImportOptions;
+import io.lindb.client.api.Importer;
 import io.lindb.client.api.MetadataManager;
 import io.lindb.client.api.StateQuery;
 import io.lindb.client.api.Write;
@@ -59,6 +61,15 @@ public interface Client extends AutoCloseable {
 	 */
 	BlockingWrite blockingWrite(String database) throws IOException;
 
+	/**
+	 * Create a bulk import client.
+	 * 
+	 * @param database database name {@link String}
+	 * @param options  import options {@link ImportOptions}
+	 * @return import client {@link Importer}
+	 */
+	Importer importer(String database, ImportOptions options);
+
 	/**
 	 * Create metric data query client.
 	 * 
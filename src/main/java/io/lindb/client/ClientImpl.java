@@ -25,15 +25,20 @@ import io.lindb.client.api.BlockingWrite;
 import io.lindb.client.api.DataQuery;
 import io.lindb.client.api.DataQueryImpl;
 import io.lindb.client.api.EventListener;
+import io.lindb.client.api.ImportOptions;
+import io.lindb.client.api.Importer;
 import io.lindb.client.api.MetadataManager;
 import io.lindb.client.api.MetadataManagerImpl;
 import io.lindb.client.api.StateQuery;
 import io.lindb.client.api.StateQueryImpl;
 import io.lindb.client.api.Write;
 import io.lindb.client.api.WriteFactory;
+import io.lindb.client.api.WriteOptions;
 import io.lindb.client.internal.HttpClient;
 import io.lindb.client.internal.HttpOptions;
+import io.lindb.client.internal.Threads;
 import io.lindb.client.internal.WriteClient;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 /**
@@ -54,9 +59,15 @@ public class ClientImpl implements Client {
 		this.brokerEndpoint = brokerEndpoint;
 		this.options = options;
 		HttpOptions httpOptions = options.getHttpOptions();
-		this.client = new OkHttpClient.Builder().connectTimeout(httpOptions.getConnectTimeout(), TimeUnit.SECONDS)
+		OkHttpClient.Builder builder = new OkHttpClient.Builder()
+				.connectTimeout(httpOptions.getConnectTimeout(), TimeUnit.SECONDS)
 				.writeTimeout(httpOptions.getWriteTimeout(), TimeUnit.SECONDS)
-				.readTimeout(httpOptions.getReadTimeout(), TimeUnit.SECONDS).build();
+				.readTimeout(httpOptions.getReadTimeout(), TimeUnit.SECONDS);
+		if (httpOptions.isUseVirtualThreads()) {
+			// run http async calls on virtual threads
+			builder.dispatcher(new Dispatcher(Threads.newCachedExecutor("lin-http", true)));
+		}
+		this.client = builder.build();
 	}
 
 	/*
@@ -89,8 +100,10 @@ public class ClientImpl implements Client {
 	@Override
 	public Write write(String database, EventListener listener) throws IOException {
 		String url = String.format("%s%s?db=%s", this.brokerEndpoint, Constants.WRITE_API, database);
-		WriteClient client = new WriteClient(url, this.client);
-		return WriteFactory.createWrite(this.options.getWriteOptions(), client, listener);
+		WriteClient client = new WriteClient(database, url, this.client);
+		WriteOptions writeOptions = this.options.getWriteOptions();
+		return WriteFactory.createWrite(writeOptions, client, listener,
+				writeOptions.isSchemaAware() ? stateQuery() : null);
 	}
 
 	/**
@@ -105,10 +118,27 @@ public class ClientImpl implements Client {
 	@Override
 	public BlockingWrite blockingWrite(String database) throws IOException {
 		String url = String.format("%s%s?db=%s", this.brokerEndpoint, Constants.WRITE_API, database);
-		WriteClient client = new WriteClient(url, this.client);
+		WriteClient client = new WriteClient(database, url, this.client);
 		return WriteFactory.createBlockingWrite(this.options.getWriteOptions(), client);
 	}
 
+	/**
+	 * Create a bulk import client by given database name
+	 * 
+	 * @see io.lindb.client.Client#importer(java.lang.String,
+	 *      io.lindb.client.api.ImportOptions)
+	 * 
+	 * @param database database name {@link String}
+	 * @param options  import options {@link ImportOptions}
+	 * @return import client {@link Importer}
+	 */
+	@Override
+	public Importer importer(String database, ImportOptions options) {
+		String url = String.format("%s%s?db=%s", this.brokerEndpoint, Constants.WRITE_API, database);
+		WriteClient client = new WriteClient(database, url, this.client);
+		return WriteFactory.createImporter(options, this.options.getWriteOptions(), client);
+	}
+
 	/**
 	 * Create metric data query client.
 	 * 
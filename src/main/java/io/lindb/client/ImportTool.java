@@ -0,0 +1,149 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import io.lindb.client.api.ImportFormat;
+import io.lindb.client.api.ImportOptions;
+import io.lindb.client.api.ImportResult;
+import io.lindb.client.api.Importer;
+
+/**
+ * Command line bulk import tool.
+ * 
+ * <pre>
+ * java -cp lindb-client.jar io.lindb.client.ImportTool [options] broker database file
+ *   --format line|csv         input format, default line
+ *   --checkpoint path         checkpoint file, resume if exists
+ *   --parallelism n           parse/encode threads
+ *   --in-flight n             max batches being sent concurrently
+ *   --batch n                 points of each batch
+ *   --namespace ns            namespace of metrics
+ *   --precision ns|us|ms|s    unit of timestamps
+ *   --metric name             csv metric name
+ *   --name-column column      csv column of metric name
+ *   --timestamp-column column csv column of timestamp
+ *   --tag-column column       csv column as tag, repeatable
+ * </pre>
+ */
+public final class ImportTool {
+	private ImportTool() {
+	}
+
+	/**
+	 * Run import.
+	 * 
+	 * @param args command line arguments
+	 * @throws Exception import error
+	 */
+	public static void main(String[] args) throws Exception {
+		ImportOptions.Builder builder = ImportOptions.builder();
+		Path checkpoint = null;
+		String[] positional = new String[3];
+		int count = 0;
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (!arg.startsWith("--")) {
+				if (count == positional.length) {
+					usage();
+					return;
+				}
+				positional[count++] = arg;
+				continue;
+			}
+			if (i + 1 >= args.length) {
+				usage();
+				return;
+			}
+			String value = args[++i];
+			switch (arg) {
+			case "--format":
+				builder.format(ImportFormat.valueOf(value.toUpperCase()));
+				break;
+			case "--checkpoint":
+				checkpoint = Paths.get(value);
+				break;
+			case "--parallelism":
+				builder.parallelism(Integer.parseInt(value));
+				break;
+			case "--in-flight":
+				builder.maxInFlight(Integer.parseInt(value));
+				break;
+			case "--batch":
+				builder.batchSize(Integer.parseInt(value));
+				break;
+			case "--namespace":
+				builder.namespace(value);
+				break;
+			case "--precision":
+				builder.precision(precision(value));
+				break;
+			case "--metric":
+				builder.metricName(value);
+				break;
+			case "--name-column":
+				builder.nameColumn(value);
+				break;
+			case "--timestamp-column":
+				builder.timestampColumn(value);
+				break;
+			case "--tag-column":
+				builder.addTagColumn(value);
+				break;
+			default:
+				usage();
+				return;
+			}
+		}
+		if (count != positional.length) {
+			usage();
+			return;
+		}
+		try (Client client = ClientFactory.create(positional[0])) {
+			Importer importer = client.importer(positional[1], builder.build());
+			ImportResult result = importer.importFile(Paths.get(positional[2]), checkpoint);
+			System.out.println(result);
+		}
+	}
+
+	private static TimeUnit precision(String value) {
+		switch (value) {
+		case "ns":
+			return TimeUnit.NANOSECONDS;
+		case "us":
+			return TimeUnit.MICROSECONDS;
+		case "ms":
+			return TimeUnit.MILLISECONDS;
+		case "s":
+			return TimeUnit.SECONDS;
+		default:
+			throw new IllegalArgumentException("unknown precision: " + value);
+		}
+	}
+
+	private static void usage() {
+		System.err.println("usage: ImportTool [--format line|csv] [--checkpoint path] [--parallelism n]"
+				+ " [--in-flight n] [--batch n] [--namespace ns] [--precision ns|us|ms|s] [--metric name]"
+				+ " [--name-column column] [--timestamp-column column] [--tag-column column]..."
+				+ " broker database file");
+	}
+}
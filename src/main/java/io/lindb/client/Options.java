@@ -22,6 +22,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 
 import com.google.common.base.Preconditions;
 
+import io.lindb.client.api.CardinalityPolicy;
 import io.lindb.client.api.WriteOptions;
 import io.lindb.client.internal.HttpOptions;
 import io.lindb.client.util.StringUtils;
@@ -187,6 +188,296 @@ public final class Options {
 			return this;
 		}
 
+		/**
+		 * Set if using virtual threads for write consumers and http async calls.
+		 * Only take effect on JDK 21+, else using platform threads.
+		 * Default value: false.
+		 * 
+		 * @param useVirtualThreads {@link boolean}
+		 * @return builder
+		 */
+		public Builder useVirtualThreads(final boolean useVirtualThreads) {
+			this.httpOptions.useVirtualThreads(useVirtualThreads);
+			this.writeOptions.useVirtualThreads(useVirtualThreads);
+			return this;
+		}
+
+		/**
+		 * Set if register write statistics as JMX MBean.
+		 * Default value: false.
+		 * 
+		 * @param jmxEnabled {@link boolean}
+		 * @return builder
+		 */
+		public Builder jmxEnabled(final boolean jmxEnabled) {
+			this.writeOptions.jmxEnabled(jmxEnabled);
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of writing write statistics back into LinDB as points,
+		 * 0 means disable.
+		 * Default value: 0.
+		 * 
+		 * @param statsInterval {@link long}
+		 * @return builder
+		 */
+		public Builder statsInterval(final long statsInterval) {
+			Preconditions.checkArgument(statsInterval >= 0, "negative stats interval", statsInterval);
+			this.writeOptions.statsInterval(statsInterval);
+			return this;
+		}
+
+		/**
+		 * Set ttl(ms) of cumulative sum series state, series not updated within ttl
+		 * are evicted.
+		 * Default value: 600000ms.
+		 * 
+		 * @param cumulativeTtl {@link long}
+		 * @return builder
+		 */
+		public Builder cumulativeTtl(final long cumulativeTtl) {
+			Preconditions.checkArgument(cumulativeTtl > 0, "negative cumulative ttl", cumulativeTtl);
+			this.writeOptions.cumulativeTtl(cumulativeTtl);
+			return this;
+		}
+
+		/**
+		 * Set max distinct series per metric, new series over limit are handled by
+		 * cardinality policy, 0 means no limit.
+		 * Default value: 0.
+		 * 
+		 * @param maxSeriesPerMetric {@link int}
+		 * @return builder
+		 */
+		public Builder maxSeriesPerMetric(final int maxSeriesPerMetric) {
+			Preconditions.checkArgument(maxSeriesPerMetric >= 0, "negative max series per metric",
+					maxSeriesPerMetric);
+			this.writeOptions.maxSeriesPerMetric(maxSeriesPerMetric);
+			return this;
+		}
+
+		/**
+		 * Set policy of new series when metric exceeds series limit.
+		 * Default value: DROP.
+		 * 
+		 * @param cardinalityPolicy {@link CardinalityPolicy}
+		 * @return builder
+		 */
+		public Builder cardinalityPolicy(final CardinalityPolicy cardinalityPolicy) {
+			this.writeOptions.cardinalityPolicy(cardinalityPolicy);
+			return this;
+		}
+
+		/**
+		 * Set window(ms) of series limit, admitted series and cardinality estimates
+		 * of all metrics are reset when window elapsed.
+		 * Default value: 3600000ms.
+		 * 
+		 * @param cardinalityWindow {@link long}
+		 * @return builder
+		 */
+		public Builder cardinalityWindow(final long cardinalityWindow) {
+			Preconditions.checkArgument(cardinalityWindow > 0, "negative cardinality window", cardinalityWindow);
+			this.writeOptions.cardinalityWindow(cardinalityWindow);
+			return this;
+		}
+
+		/**
+		 * Set max metrics tracked by series limit, least recently used metric is
+		 * evicted when exceeded.
+		 * Default value: 1024.
+		 * 
+		 * @param maxCardinalityMetrics {@link int}
+		 * @return builder
+		 */
+		public Builder maxCardinalityMetrics(final int maxCardinalityMetrics) {
+			Preconditions.checkArgument(maxCardinalityMetrics > 0, "negative max cardinality metrics",
+					maxCardinalityMetrics);
+			this.writeOptions.maxCardinalityMetrics(maxCardinalityMetrics);
+			return this;
+		}
+
+		/**
+		 * Set number of heaviest metrics/series tracked by points and encoded bytes
+		 * per interval, 0 means disable.
+		 * Default value: 0.
+		 * 
+		 * @param topK {@link int}
+		 * @return builder
+		 */
+		public Builder topK(final int topK) {
+			Preconditions.checkArgument(topK >= 0, "negative top k", topK);
+			this.writeOptions.topK(topK);
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of heavy hitters tracking.
+		 * Default value: 60000ms.
+		 * 
+		 * @param topKInterval {@link long}
+		 * @return builder
+		 */
+		public Builder topKInterval(final long topKInterval) {
+			Preconditions.checkArgument(topKInterval > 0, "negative top k interval", topKInterval);
+			this.writeOptions.topKInterval(topKInterval);
+			return this;
+		}
+
+		/**
+		 * Set if align timestamp to smallest interval of database and drop points out of
+		 * database ahead/behind window before encoding, database options fetched by
+		 * state query and refreshed periodically.
+		 * Default value: false.
+		 * 
+		 * @param schemaAware {@link boolean}
+		 * @return builder
+		 */
+		public Builder schemaAware(final boolean schemaAware) {
+			this.writeOptions.schemaAware(schemaAware);
+			return this;
+		}
+
+		/**
+		 * Set refresh interval(ms) of database options for schema aware write.
+		 * Default value: 300000ms.
+		 * 
+		 * @param schemaRefreshInterval {@link long}
+		 * @return builder
+		 */
+		public Builder schemaRefreshInterval(final long schemaRefreshInterval) {
+			Preconditions.checkArgument(schemaRefreshInterval > 0, "negative schema refresh interval",
+					schemaRefreshInterval);
+			this.writeOptions.schemaRefreshInterval(schemaRefreshInterval);
+			return this;
+		}
+
+		/**
+		 * Set if sort points of each batch by namespace, name, series and timestamp
+		 * before sending, for better compression and broker locality.
+		 * Default value: false.
+		 * 
+		 * @param sortBatch {@link boolean}
+		 * @return builder
+		 */
+		public Builder sortBatch(final boolean sortBatch) {
+			this.writeOptions.sortBatch(sortBatch);
+			return this;
+		}
+
+		/**
+		 * Set max bytes(before compression) of a retry request, queued retry batches
+		 * are merged up to this size and batch size points before re-sending.
+		 * Default value: 4MB.
+		 * 
+		 * @param retryBatchBytes {@link int}
+		 * @return builder
+		 */
+		public Builder retryBatchBytes(final int retryBatchBytes) {
+			Preconditions.checkArgument(retryBatchBytes > 0, "negative retry batch bytes", retryBatchBytes);
+			this.writeOptions.retryBatchBytes(retryBatchBytes);
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of coalescing failure events, failures of same event type
+		 * are notified to listener once per interval, 0 means notify each failure.
+		 * Default value: 1s.
+		 * 
+		 * @param eventInterval {@link long}
+		 * @return builder
+		 */
+		public Builder eventInterval(final long eventInterval) {
+			Preconditions.checkArgument(eventInterval >= 0, "negative event interval", eventInterval);
+			this.writeOptions.eventInterval(eventInterval);
+			return this;
+		}
+
+		/**
+		 * Set max events waiting for dispatching to listener, events are dropped when
+		 * queue full, so a slow listener never blocks writing.
+		 * Default value: 1024.
+		 * 
+		 * @param eventQueue {@link int}
+		 * @return builder
+		 */
+		public Builder eventQueue(final int eventQueue) {
+			Preconditions.checkArgument(eventQueue > 0, "negative event queue", eventQueue);
+			this.writeOptions.eventQueue(eventQueue);
+			return this;
+		}
+
+		/**
+		 * Set if tracking acknowledgement of points, each put is given a sequence,
+		 * acked watermark and flush are available. Puts are serialized by a lock
+		 * to keep sequence order.
+		 * Default value: false.
+		 * 
+		 * @param ackTracking {@link boolean}
+		 * @return builder
+		 */
+		public Builder ackTracking(final boolean ackTracking) {
+			this.writeOptions.ackTracking(ackTracking);
+			return this;
+		}
+
+		/**
+		 * Set max points of producer-side chunk gathered by {@link io.lindb.client.api.PointBatcher},
+		 * chunk is handed to pipeline with one queue handoff when full.
+		 * Default value: 256.
+		 * 
+		 * @param chunkSize {@link int}
+		 * @return builder
+		 */
+		public Builder chunkSize(final int chunkSize) {
+			Preconditions.checkArgument(chunkSize > 0, "negative chunk size", chunkSize);
+			this.writeOptions.chunkSize(chunkSize);
+			return this;
+		}
+
+		/**
+		 * Set max linger time(ms) of producer-side chunk gathered by
+		 * {@link io.lindb.client.api.PointBatcher}, chunk not full is handed off after lingering.
+		 * Default value: 100ms.
+		 * 
+		 * @param chunkLinger {@link long}
+		 * @return builder
+		 */
+		public Builder chunkLinger(final long chunkLinger) {
+			Preconditions.checkArgument(chunkLinger > 0, "negative chunk linger", chunkLinger);
+			this.writeOptions.chunkLinger(chunkLinger);
+			return this;
+		}
+
+		/**
+		 * Set if encoding points on producer thread, each producer thread encodes into
+		 * its own row builder and batch, only encoded batches go into send queue and
+		 * decoder thread is not started. Not supported with ack tracking.
+		 * Default value: false.
+		 * 
+		 * @param encodeOnPut {@link boolean}
+		 * @return builder
+		 */
+		public Builder encodeOnPut(final boolean encodeOnPut) {
+			this.writeOptions.encodeOnPut(encodeOnPut);
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of collecting JVM runtime metrics(memory, memory pools,
+		 * gc, threads, class loading and buffer pools) into LinDB, 0 means disable.
+		 * Not supported with ack tracking.
+		 * Default value: 0.
+		 * 
+		 * @param runtimeMetricsInterval {@link long}
+		 * @return builder
+		 */
+		public Builder runtimeMetricsInterval(final long runtimeMetricsInterval) {
+			this.writeOptions.runtimeMetricsInterval(runtimeMetricsInterval);
+			return this;
+		}
+
 		/**
 		 * Return http/write options
 		 * 
@@ -0,0 +1,54 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks interface as typed metric, {@link MetricWriterProcessor} generates a
+ * writer class named interface name with {@code Writer} suffix in the same
+ * package, which implements each abstract method by recording its arguments
+ * as one record of metric.
+ * 
+ * Each parameter of method is marked with {@link Tag}, {@link Timestamp} or a
+ * field annotation({@link Sum}, {@link Last}, {@link Min}, {@link Max},
+ * {@link First}), method returns void or boolean(false if record rejected).
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Metric {
+	/**
+	 * Return the metric name.
+	 * 
+	 * @return metric name
+	 */
+	String value();
+
+	/**
+	 * Return the namespace of metric, empty for default namespace.
+	 * 
+	 * @return namespace
+	 */
+	String namespace() default "";
+}
@@ -0,0 +1,421 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.annotation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Annotation processor generates writer class of each {@link Metric}
+ * interface, each abstract method is implemented by recording its arguments
+ * with one {@link io.lindb.client.api.MetricRecorder} created from write, so
+ * metric name, tag keys and field names are encoded once per series and
+ * nothing is looked up by reflection on write.
+ * 
+ * Writer implements {@link AutoCloseable}, no-arg {@code flush} and
+ * {@code close} methods of interface are implemented by writer itself.
+ */
+@SupportedAnnotationTypes("io.lindb.client.annotation.Metric")
+public class MetricWriterProcessor extends AbstractProcessor {
+	private final static String RECORDER = "io.lindb.client.api.MetricRecorder";
+	private final static String FIELD_TYPE = "io.lindb.client.api.FieldType";
+	// max tags and fields of fixed arity record methods of recorder
+	private final static int MAX_ARITY_TAGS = 3;
+	private final static int MAX_ARITY_FIELDS = 2;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(Metric.class)) {
+			if (element.getKind() != ElementKind.INTERFACE) {
+				error(element, "@Metric only applies to interface");
+				continue;
+			}
+			TypeElement type = (TypeElement) element;
+			MetricWriter writer = parse(type);
+			if (writer == null) {
+				continue;
+			}
+			try (Writer out = processingEnv.getFiler()
+					.createSourceFile(writer.qualifiedName(), type).openWriter()) {
+				out.write(writer.source());
+			} catch (IOException e) {
+				error(type, "cannot write metric writer " + writer.qualifiedName() + ": " + e.getMessage());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parse metric interface, returns null if any error reported.
+	 */
+	private MetricWriter parse(TypeElement type) {
+		Metric metric = type.getAnnotation(Metric.class);
+		boolean valid = true;
+		if (metric.value().isEmpty()) {
+			error(type, "metric name cannot be empty");
+			valid = false;
+		}
+		if (!type.getTypeParameters().isEmpty()) {
+			error(type, "metric interface cannot be generic");
+			valid = false;
+		}
+		if (type.getModifiers().contains(Modifier.PRIVATE)) {
+			error(type, "metric interface cannot be private");
+			valid = false;
+		}
+		MetricWriter writer = new MetricWriter(type, metric);
+		for (ExecutableElement method : ElementFilter
+				.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+				continue;
+			}
+			if (method.getParameters().isEmpty()) {
+				String name = method.getSimpleName().toString();
+				TypeKind kind = method.getReturnType().getKind();
+				if ("flush".equals(name) && (kind == TypeKind.VOID || kind == TypeKind.BOOLEAN)
+						|| "close".equals(name) && kind == TypeKind.VOID) {
+					writer.lifecycle.add(method);
+					continue;
+				}
+			}
+			RecordMethod record = parse(method);
+			if (record == null) {
+				valid = false;
+			} else {
+				writer.methods.add(record);
+			}
+		}
+		return valid ? writer : null;
+	}
+
+	/**
+	 * Parse record method, returns null if any error reported.
+	 */
+	private RecordMethod parse(ExecutableElement method) {
+		boolean valid = true;
+		TypeKind returnKind = method.getReturnType().getKind();
+		if (returnKind != TypeKind.VOID && returnKind != TypeKind.BOOLEAN) {
+			error(method, "record method must return void or boolean");
+			valid = false;
+		}
+		if (!method.getTypeParameters().isEmpty()) {
+			error(method, "record method cannot be generic");
+			valid = false;
+		}
+		RecordMethod record = new RecordMethod(method);
+		Set<String> names = new HashSet<>();
+		TypeMirror string = processingEnv.getElementUtils().getTypeElement("java.lang.String").asType();
+		for (VariableElement param : method.getParameters()) {
+			String name = param.getSimpleName().toString();
+			Tag tag = param.getAnnotation(Tag.class);
+			String field = fieldName(param);
+			boolean timestamp = param.getAnnotation(Timestamp.class) != null;
+			int marks = (tag != null ? 1 : 0) + (field != null ? 1 : 0) + (timestamp ? 1 : 0);
+			if (marks != 1) {
+				error(param, "parameter must be marked with exactly one of @Tag, @Timestamp or field annotation");
+				valid = false;
+			} else if (tag != null) {
+				if (!processingEnv.getTypeUtils().isSameType(param.asType(), string)) {
+					error(param, "tag parameter must be String");
+					valid = false;
+				} else if (tag.value().isEmpty() || !names.add("tag:" + tag.value())) {
+					error(param, "tag key must be non-empty and unique: " + tag.value());
+					valid = false;
+				}
+				record.tagKeys.add(tag.value());
+				record.tagParams.add(name);
+			} else if (field != null) {
+				if (!isNumeric(param.asType().getKind())) {
+					error(param, "field parameter must be primitive number");
+					valid = false;
+				} else if (field.isEmpty() || !names.add("field:" + field)) {
+					error(param, "field name must be non-empty and unique: " + field);
+					valid = false;
+				}
+				record.fieldNames.add(field);
+				record.fieldTypes.add(fieldType(param));
+				record.fieldParams.add(name);
+			} else {
+				if (param.asType().getKind() != TypeKind.LONG || record.timestampParam != null) {
+					error(param, "timestamp parameter must be the only long parameter marked");
+					valid = false;
+				}
+				record.timestampParam = name;
+			}
+		}
+		if (record.fieldNames.isEmpty()) {
+			error(method, "record method must have at least one field parameter");
+			valid = false;
+		}
+		return valid ? record : null;
+	}
+
+	private static String fieldName(VariableElement param) {
+		if (param.getAnnotation(Sum.class) != null) {
+			return param.getAnnotation(Sum.class).value();
+		}
+		if (param.getAnnotation(Last.class) != null) {
+			return param.getAnnotation(Last.class).value();
+		}
+		if (param.getAnnotation(Min.class) != null) {
+			return param.getAnnotation(Min.class).value();
+		}
+		if (param.getAnnotation(Max.class) != null) {
+			return param.getAnnotation(Max.class).value();
+		}
+		if (param.getAnnotation(First.class) != null) {
+			return param.getAnnotation(First.class).value();
+		}
+		return null;
+	}
+
+	private static String fieldType(VariableElement param) {
+		if (param.getAnnotation(Sum.class) != null) {
+			return "Sum";
+		}
+		if (param.getAnnotation(Last.class) != null) {
+			return "Last";
+		}
+		if (param.getAnnotation(Min.class) != null) {
+			return "Min";
+		}
+		if (param.getAnnotation(Max.class) != null) {
+			return "Max";
+		}
+		return "First";
+	}
+
+	private static boolean isNumeric(TypeKind kind) {
+		switch (kind) {
+		case BYTE:
+		case SHORT:
+		case INT:
+		case LONG:
+		case FLOAT:
+		case DOUBLE:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+
+	/**
+	 * Writer class of metric interface.
+	 */
+	private final class MetricWriter {
+		private final TypeElement type;
+		private final Metric metric;
+		private final List<RecordMethod> methods = new ArrayList<>();
+		private final List<ExecutableElement> lifecycle = new ArrayList<>();
+
+		MetricWriter(TypeElement type, Metric metric) {
+			this.type = type;
+			this.metric = metric;
+		}
+
+		String packageName() {
+			PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+			return pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		}
+
+		/**
+		 * Return simple name of writer, names of enclosing types joined by '_'.
+		 */
+		String simpleName() {
+			StringBuilder name = new StringBuilder(type.getSimpleName());
+			for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+				name.insert(0, '_').insert(0, e.getSimpleName());
+			}
+			return name.append("Writer").toString();
+		}
+
+		String qualifiedName() {
+			String pkg = packageName();
+			return pkg.isEmpty() ? simpleName() : pkg + "." + simpleName();
+		}
+
+		String source() {
+			String metricName = literal(metric.value());
+			StringBuilder out = new StringBuilder();
+			if (!packageName().isEmpty()) {
+				out.append("package ").append(packageName()).append(";\n\n");
+			}
+			out.append("/**\n");
+			out.append(" * Writer of metric ").append(metric.value().replace("*/", "*&#47;"))
+					.append(", generated by ").append(MetricWriterProcessor.class.getName()).append(" from {@link ")
+					.append(type.getQualifiedName()).append("}.\n");
+			out.append(" */\n");
+			out.append("public final class ").append(simpleName()).append(" implements ")
+					.append(type.getQualifiedName()).append(", java.lang.AutoCloseable {\n");
+			for (int i = 0; i < methods.size(); i++) {
+				out.append("\tprivate final ").append(RECORDER).append(" recorder").append(i).append(";\n");
+			}
+			out.append("\n\t/**\n\t * Create writer, records are written by write.\n\t * \n");
+			out.append("\t * @param write write of database\n\t */\n");
+			out.append("\tpublic ").append(simpleName()).append("(io.lindb.client.api.Write write) {\n");
+			String namespace = metric.namespace().isEmpty() ? "null" : literal(metric.namespace());
+			for (int i = 0; i < methods.size(); i++) {
+				RecordMethod method = methods.get(i);
+				out.append("\t\tthis.recorder").append(i).append(" = write.recorder(").append(namespace).append(", ")
+						.append(metricName).append(",\n\t\t\t\tnew String[] {").append(literals(method.tagKeys))
+						.append(" },\n\t\t\t\tnew String[] {").append(literals(method.fieldNames))
+						.append(" },\n\t\t\t\tnew ").append(FIELD_TYPE).append("[] {");
+				for (int j = 0; j < method.fieldTypes.size(); j++) {
+					out.append(j == 0 ? " " : ", ").append(FIELD_TYPE).append('.').append(method.fieldTypes.get(j));
+				}
+				out.append(" });\n");
+			}
+			out.append("\t}\n");
+			for (int i = 0; i < methods.size(); i++) {
+				methods.get(i).source(out, "this.recorder" + i);
+			}
+			out.append("\n\t/**\n\t * Hand off records of all recorders immediately.\n\t * \n");
+			out.append("\t * @return false if records rejected by write\n\t */\n");
+			out.append("\tpublic boolean flushRecords() {\n\t\tboolean flushed = true;\n");
+			for (int i = 0; i < methods.size(); i++) {
+				out.append("\t\tflushed &= this.recorder").append(i).append(".flush();\n");
+			}
+			out.append("\t\treturn flushed;\n\t}\n");
+			boolean closeDeclared = false;
+			for (ExecutableElement method : lifecycle) {
+				boolean close = "close".equals(method.getSimpleName().toString());
+				closeDeclared |= close;
+				out.append("\n\t@Override\n\tpublic ").append(method.getReturnType()).append(' ')
+						.append(method.getSimpleName()).append("() {\n\t\t");
+				if (close) {
+					out.append("closeRecorders();\n");
+				} else if (method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+					out.append("return flushRecords();\n");
+				} else {
+					out.append("flushRecords();\n");
+				}
+				out.append("\t}\n");
+			}
+			if (!closeDeclared) {
+				out.append("\n\t@Override\n\tpublic void close() {\n\t\tcloseRecorders();\n\t}\n");
+			}
+			out.append("\n\tprivate void closeRecorders() {\n");
+			for (int i = 0; i < methods.size(); i++) {
+				out.append("\t\tthis.recorder").append(i).append(".close();\n");
+			}
+			out.append("\t}\n}\n");
+			return out.toString();
+		}
+	}
+
+	/**
+	 * Record method of metric interface.
+	 */
+	private final class RecordMethod {
+		private final ExecutableElement method;
+		private final List<String> tagKeys = new ArrayList<>();
+		private final List<String> tagParams = new ArrayList<>();
+		private final List<String> fieldNames = new ArrayList<>();
+		private final List<String> fieldTypes = new ArrayList<>();
+		private final List<String> fieldParams = new ArrayList<>();
+		private String timestampParam;
+
+		RecordMethod(ExecutableElement method) {
+			this.method = method;
+		}
+
+		void source(StringBuilder out, String recorder) {
+			out.append("\n\t@Override\n\tpublic ").append(method.getReturnType()).append(' ')
+					.append(method.getSimpleName()).append('(');
+			List<? extends VariableElement> params = method.getParameters();
+			for (int i = 0; i < params.size(); i++) {
+				VariableElement param = params.get(i);
+				out.append(i == 0 ? "" : ", ").append("final ").append(param.asType()).append(' ')
+						.append(param.getSimpleName());
+			}
+			out.append(") {\n\t\t");
+			if (method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+				out.append("return ");
+			}
+			out.append(recorder).append(".record(")
+					.append(timestampParam == null ? "System.currentTimeMillis()" : timestampParam);
+			if (tagParams.size() <= MAX_ARITY_TAGS && fieldParams.size() <= MAX_ARITY_FIELDS) {
+				// fixed arity record of recorder, no array allocated per call
+				for (String tagParam : tagParams) {
+					out.append(", ").append(tagParam);
+				}
+				for (String fieldParam : fieldParams) {
+					out.append(", (double) ").append(fieldParam);
+				}
+			} else {
+				out.append(", new String[] {").append(join(tagParams)).append(" }, ");
+				if (fieldParams.size() == 1) {
+					out.append("(double) ").append(fieldParams.get(0));
+				} else {
+					out.append("new double[] {").append(join(fieldParams)).append(" }");
+				}
+			}
+			out.append(");\n\t}\n");
+		}
+	}
+
+	private String literal(String value) {
+		return processingEnv.getElementUtils().getConstantExpression(value);
+	}
+
+	private String literals(List<String> values) {
+		StringBuilder out = new StringBuilder();
+		for (String value : values) {
+			out.append(out.length() == 0 ? " " : ", ").append(literal(value));
+		}
+		return out.toString();
+	}
+
+	private static String join(List<String> names) {
+		StringBuilder out = new StringBuilder();
+		for (String name : names) {
+			out.append(out.length() == 0 ? " " : ", ").append(name);
+		}
+		return out.toString();
+	}
+}
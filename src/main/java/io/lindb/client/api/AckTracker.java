@@ -0,0 +1,296 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Track acknowledgement of sequenced puts. Each accepted point is given a
+ * monotonically increasing sequence, decoder groups points into batches of
+ * contiguous sequence range, the acked watermark advances over a batch once
+ * all points of it are resolved(written successfully or dropped and reported
+ * to listener), so every sequence at or below watermark is settled.
+ * 
+ * Settled is not durable, lost watermark is the last sequence of the latest
+ * settled batch which has dropped points, so sequences at or below acked
+ * watermark are durable only if lost watermark is not above the previous
+ * checkpoint. Flush futures covering dropped points complete exceptionally.
+ * Futures are completed outside of tracker lock.
+ */
+@ThreadSafe
+class AckTracker {
+	private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+	private final PriorityQueue<Flush> flushes = new PriorityQueue<>();
+	private long assigned;
+	private long registered;
+	private long acked;
+	private long lost;
+	private boolean closed;
+
+	/**
+	 * Batch of points with contiguous sequence range, ended with last sequence.
+	 */
+	static final class Batch {
+		private final long last;
+		private int pending;
+		private boolean lost;
+
+		private Batch(long last, int pending) {
+			this.last = last;
+			this.pending = pending;
+		}
+	}
+
+	private static final class Flush implements Comparable<Flush> {
+		private final long from;
+		private final long sequence;
+		private final CompletableFuture<Long> future;
+		// watermarks when flushed sequence settled
+		private long acked;
+		private long lost;
+
+		private Flush(long from, long sequence, CompletableFuture<Long> future) {
+			this.from = from;
+			this.sequence = sequence;
+			this.future = future;
+		}
+
+		@Override
+		public int compareTo(Flush o) {
+			return Long.compare(this.sequence, o.sequence);
+		}
+	}
+
+	/**
+	 * Assign next sequence, must be called in the same critical section as queue
+	 * offer, so queue order matches sequence order.
+	 *
+	 * @return sequence
+	 */
+	synchronized long assign() {
+		return ++this.assigned;
+	}
+
+	/**
+	 * Assign next sequences for points put in one handoff, same as
+	 * {@link #assign()}.
+	 *
+	 * @param points number of points
+	 * @return last sequence
+	 */
+	synchronized long assign(int points) {
+		this.assigned += points;
+		return this.assigned;
+	}
+
+	/**
+	 * Return the last assigned sequence.
+	 *
+	 * @return sequence
+	 */
+	synchronized long assigned() {
+		return this.assigned;
+	}
+
+	/**
+	 * Register batch ended with given sequence(points consumed by decoder so far).
+	 * Points dropped by decoder are not counted but mark the batch lost, empty
+	 * batch is settled immediately.
+	 *
+	 * @param last   last sequence consumed by decoder
+	 * @param points number of points sent in batch
+	 * @param lost   if decoder dropped points of batch
+	 * @return batch, null if no new points consumed
+	 */
+	Batch batch(long last, int points, boolean lost) {
+		List<Flush> done = null;
+		Batch batch;
+		synchronized (this) {
+			if (last <= this.registered) {
+				return null;
+			}
+			this.registered = last;
+			batch = new Batch(last, points);
+			batch.lost = lost;
+			this.batches.add(batch);
+			if (points == 0) {
+				done = advance();
+			}
+		}
+		complete(done);
+		return batch;
+	}
+
+	/**
+	 * Resolve points of entry.
+	 *
+	 * @param entry write entry
+	 * @param lost  false if written successfully, true if dropped
+	 */
+	void resolve(WriteEntry entry, boolean lost) {
+		Batch[] acks = entry == null ? null : entry.getAcks();
+		if (acks == null) {
+			return;
+		}
+		List<Flush> done = null;
+		synchronized (this) {
+			boolean settled = false;
+			for (Batch batch : acks) {
+				if (batch == null) {
+					continue;
+				}
+				batch.lost |= lost;
+				if (--batch.pending == 0) {
+					settled = true;
+				}
+			}
+			if (settled) {
+				done = advance();
+			}
+		}
+		complete(done);
+	}
+
+	/**
+	 * Advance watermarks over settled batches, returns flushes to complete after
+	 * releasing lock.
+	 */
+	private List<Flush> advance() {
+		List<Flush> done = null;
+		Batch head;
+		while ((head = this.batches.peek()) != null && head.pending <= 0) {
+			this.acked = head.last;
+			if (head.lost) {
+				this.lost = head.last;
+			}
+			this.batches.poll();
+			Flush flush;
+			while ((flush = this.flushes.peek()) != null && flush.sequence <= this.acked) {
+				flush.acked = this.acked;
+				flush.lost = this.lost;
+				if (done == null) {
+					done = new ArrayList<>();
+				}
+				done.add(this.flushes.poll());
+			}
+		}
+		notifyAll();
+		return done;
+	}
+
+	private static void complete(List<Flush> done) {
+		if (done == null) {
+			return;
+		}
+		for (Flush flush : done) {
+			if (flush.lost > flush.from) {
+				flush.future.completeExceptionally(new IllegalStateException(
+						"points dropped before flushed sequence, lost sequence: " + flush.lost));
+			} else {
+				flush.future.complete(flush.acked);
+			}
+		}
+	}
+
+	/**
+	 * Return the acked watermark.
+	 *
+	 * @return sequence
+	 */
+	synchronized long acked() {
+		return this.acked;
+	}
+
+	/**
+	 * Return the lost watermark, 0 if no points dropped.
+	 *
+	 * @return sequence
+	 */
+	synchronized long lost() {
+		return this.lost;
+	}
+
+	/**
+	 * Wait until watermark reaches given sequence, fails if points dropped
+	 * between current watermark(the batch of sequence if already acked) and
+	 * sequence, same as {@link #flush()}.
+	 *
+	 * @param sequence sequence
+	 * @param timeout  max wait time
+	 * @param unit     unit of timeout
+	 * @return false if not acked before timeout or points dropped
+	 * @throws InterruptedException thread interrupted
+	 */
+	synchronized boolean await(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+		long from = Math.min(this.acked, sequence - 1);
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (this.acked < sequence && !this.closed) {
+			long wait = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (wait <= 0) {
+				break;
+			}
+			wait(wait);
+		}
+		return this.acked >= sequence && this.lost <= from;
+	}
+
+	/**
+	 * Return future completed with watermark when all points assigned so far are
+	 * acked, completed exceptionally if points dropped after current watermark.
+	 *
+	 * @return future of watermark
+	 */
+	synchronized CompletableFuture<Long> flush() {
+		CompletableFuture<Long> future = new CompletableFuture<>();
+		if (this.closed) {
+			future.completeExceptionally(new IllegalStateException("write closed"));
+		} else if (this.acked >= this.assigned) {
+			future.complete(this.acked);
+		} else {
+			this.flushes.add(new Flush(this.acked, this.assigned, future));
+		}
+		return future;
+	}
+
+	/**
+	 * Fail pending flushes and wake waiters, sequences not acked are left
+	 * unsettled.
+	 */
+	void close() {
+		List<Flush> pending;
+		long acked;
+		synchronized (this) {
+			this.closed = true;
+			pending = new ArrayList<>(this.flushes);
+			this.flushes.clear();
+			acked = this.acked;
+			notifyAll();
+		}
+		for (Flush flush : pending) {
+			flush.future.completeExceptionally(new IllegalStateException("write closed, acked sequence: " + acked));
+		}
+	}
+}
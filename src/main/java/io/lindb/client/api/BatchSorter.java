@@ -0,0 +1,172 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.lindb.client.Constants;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Sort points of a batch by (namespace, name, series, timestamp) for better
+ * compression and broker locality, sorts a primitive index array instead of
+ * moving points.
+ * 
+ * Metrics are ordered lexicographically, series of a metric are grouped by hash
+ * of sorted tags, equal keys keep arrival order.
+ */
+@NotThreadSafe
+final class BatchSorter {
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private int[] index = new int[0];
+	private int[] metrics = new int[0];
+	private long[] series = new long[0];
+	private long[] timestamps = new long[0];
+
+	/**
+	 * Sort points, returns the index array, index[i] is the position in points of
+	 * the i-th point in sorted order, only first points.size() elements are valid.
+	 * 
+	 * @param points batch points
+	 * @return sorted index
+	 */
+	int[] sort(List<Point> points) {
+		int size = points.size();
+		ensureCapacity(size);
+		Map<String, Map<String, Integer>> names = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			Point point = points.get(i);
+			names.computeIfAbsent(namespace(point), k -> new HashMap<>()).put(point.getName(), 0);
+			this.series[i] = DeltaConverter.seriesHash(point);
+			this.timestamps[i] = point.getTimestamp();
+			this.index[i] = i;
+		}
+		// rank distinct metrics in lexicographical order
+		List<String> namespaces = new ArrayList<>(names.keySet());
+		Collections.sort(namespaces);
+		int rank = 0;
+		for (String ns : namespaces) {
+			Map<String, Integer> ranks = names.get(ns);
+			List<String> metricNames = new ArrayList<>(ranks.keySet());
+			Collections.sort(metricNames);
+			for (String name : metricNames) {
+				ranks.put(name, rank++);
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			Point point = points.get(i);
+			this.metrics[i] = names.get(namespace(point)).get(point.getName());
+		}
+		sort(0, size - 1);
+		return this.index;
+	}
+
+	private static String namespace(Point point) {
+		String ns = point.getNamespace();
+		return StringUtils.isEmpty(ns) ? Constants.DEFAULT_NAMESPACE : ns;
+	}
+
+	private void ensureCapacity(int size) {
+		if (this.index.length >= size) {
+			return;
+		}
+		int capacity = Math.max(size, this.index.length * 2);
+		this.index = new int[capacity];
+		this.metrics = new int[capacity];
+		this.series = new long[capacity];
+		this.timestamps = new long[capacity];
+	}
+
+	private int compare(int a, int b) {
+		int c = Integer.compare(this.metrics[a], this.metrics[b]);
+		if (c != 0) {
+			return c;
+		}
+		c = Long.compare(this.series[a], this.series[b]);
+		if (c != 0) {
+			return c;
+		}
+		c = Long.compare(this.timestamps[a], this.timestamps[b]);
+		if (c != 0) {
+			return c;
+		}
+		return Integer.compare(a, b);
+	}
+
+	/**
+	 * Quick sort index[lo, hi], recurses into smaller part to bound stack depth.
+	 */
+	private void sort(int lo, int hi) {
+		while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+			int p = partition(lo, hi);
+			if (p - lo < hi - p) {
+				sort(lo, p - 1);
+				lo = p + 1;
+			} else {
+				sort(p + 1, hi);
+				hi = p - 1;
+			}
+		}
+		for (int i = lo + 1; i <= hi; i++) {
+			int v = this.index[i];
+			int j = i - 1;
+			while (j >= lo && compare(this.index[j], v) > 0) {
+				this.index[j + 1] = this.index[j];
+				j--;
+			}
+			this.index[j + 1] = v;
+		}
+	}
+
+	private int partition(int lo, int hi) {
+		int mid = (lo + hi) >>> 1;
+		// median of three as pivot, move it to hi
+		if (compare(this.index[mid], this.index[lo]) < 0) {
+			swap(mid, lo);
+		}
+		if (compare(this.index[hi], this.index[lo]) < 0) {
+			swap(hi, lo);
+		}
+		if (compare(this.index[mid], this.index[hi]) < 0) {
+			swap(mid, hi);
+		}
+		int pivot = this.index[hi];
+		int i = lo;
+		for (int j = lo; j < hi; j++) {
+			if (compare(this.index[j], pivot) < 0) {
+				swap(i++, j);
+			}
+		}
+		swap(i, hi);
+		return i;
+	}
+
+	private void swap(int a, int b) {
+		int tmp = this.index[a];
+		this.index[a] = this.index[b];
+		this.index[b] = tmp;
+	}
+}
@@ -32,4 +32,19 @@ public interface BlockingWrite {
 	 * @throws IOException throws {@link IOException} when fail
 	 */
 	void write(List<Point> points) throws IOException;
+
+	/**
+	 * Write points of series encoded directly from primitive arrays, in batches
+	 * of batch size. Falls back to write points of series by default.
+	 * 
+	 * @param series columnar points of one series
+	 * @throws IOException throws {@link IOException} when fail, batches before
+	 *                     failed one are written
+	 */
+	default void writeSeries(Series series) throws IOException {
+		if (series == null || series.size() == 0) {
+			return;
+		}
+		write(series.points(0, series.size()));
+	}
 }
@@ -22,6 +22,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.GZIPOutputStream;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -34,12 +35,17 @@ import io.lindb.client.internal.WriteClient;
 @ThreadSafe
 public class BlockingWriteImpl implements BlockingWrite {
 	private final boolean useGZip;
+	private final int batchSize;
+	private final int maxBatchBytes;
 	private final Map<String, String> defaultTags;
 
 	private RowBuilder builder;
+	private final DeltaConverter converter;
 	private ByteArrayOutputStream buffer;
 	private WriteClient client;
 	private ByteArrayOutputStream outputStream; // for gzip compress
+	// guard builder/buffers, not using synchronized which pins virtual thread's carrier
+	private final ReentrantLock lock = new ReentrantLock();
 
 	/**
 	 * Create a write api instance with options and http client.
@@ -50,6 +56,8 @@ public class BlockingWriteImpl implements BlockingWrite {
 	 */
 	protected BlockingWriteImpl(WriteOptions options, WriteClient client) throws IOException {
 		this.useGZip = options.isUseGZip();
+		this.batchSize = options.getBatchSize();
+		this.maxBatchBytes = options.getRetryBatchBytes();
 
 		this.outputStream = new ByteArrayOutputStream();
 		this.defaultTags = options.getDefaultTags();
@@ -57,6 +65,7 @@ public class BlockingWriteImpl implements BlockingWrite {
 		this.client = client;
 		this.buffer = new ByteArrayOutputStream();
 		this.builder = new RowBuilder();
+		this.converter = new DeltaConverter(options.getCumulativeTtl());
 	}
 
 	/**
@@ -67,12 +76,57 @@ public class BlockingWriteImpl implements BlockingWrite {
 	 */
 	@Override
 	public void write(List<Point> points) throws IOException {
+		byte[] data = encode(points);
+		if (data == null) {
+			// all points are initial values of cumulative sum series
+			return;
+		}
+		// send data without holding lock, concurrent writes can be in-flight
+		client.sendMetric(data, useGZip);
+	}
+
+	/**
+	 * Write points of series encoded directly from primitive arrays, records are
+	 * patched from series template, no point objects created.
+	 * 
+	 * @param series columnar points of one series
+	 * @throws IOException throws {@link IOException} when fail
+	 */
+	@Override
+	public void writeSeries(Series series) throws IOException {
+		if (series == null || series.size() == 0) {
+			return;
+		}
+		SeriesTemplate template = SeriesTemplate.of(series, defaultTags);
+		int maxPoints = Math.max(1, Math.min(batchSize, maxBatchBytes / template.recordSize()));
+		for (int from = 0; from < series.size(); from += maxPoints) {
+			byte[] data = template.encode(from, Math.min(from + maxPoints, series.size()));
+			if (useGZip) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+				try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+					gzip.write(data);
+				}
+				data = out.toByteArray();
+			}
+			client.sendMetric(data, useGZip);
+		}
+	}
+
+	private byte[] encode(List<Point> points) throws IOException {
+		lock.lock();
 		try {
 			for (Point point : points) {
+				point = converter.convert(point);
+				if (point == null) {
+					continue;
+				}
 				byte[] data = builder.build(point, defaultTags);
 				buffer.write(data);
 				builder.reset();
 			}
+			if (buffer.size() == 0) {
+				return null;
+			}
 			byte[] data = buffer.toByteArray();
 
 			if (useGZip) {
@@ -83,13 +137,13 @@ public class BlockingWriteImpl implements BlockingWrite {
 				data = outputStream.toByteArray();
 				outputStream.reset();
 			}
-
-			client.sendMetric(data, useGZip);
+			return data;
 		} finally {
 			// need reset resource
 			buffer.reset();
 			builder.reset();
 			outputStream.reset();
+			lock.unlock();
 		}
 	}
 }
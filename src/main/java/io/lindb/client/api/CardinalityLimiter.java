@@ -0,0 +1,226 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.internal.Hashing;
+import io.lindb.client.internal.HyperLogLog;
+import io.lindb.client.internal.LongHashSet;
+
+/**
+ * Limit distinct series per metric before encoding.
+ *
+ * Admitted series of each metric are kept exactly(bounded by limit), distinct
+ * series and distinct values of each tag key are estimated by HyperLogLog with
+ * fixed memory, including rejected ones, so the offending tag key can be
+ * found. New series over limit are dropped, or the values of highest
+ * cardinality tag keys are collapsed into {@link #OVERFLOW_VALUE}, overflow
+ * series are also bounded by limit.
+ *
+ * All state is reset when window elapsed, so series gone for a window no
+ * longer count against the limit, and at most max metrics are tracked, the
+ * least recently used metric is evicted(its series admitted again). Tag values
+ * are estimated for at most {@link #MAX_TAG_KEYS} tag keys per metric.
+ */
+@NotThreadSafe
+class CardinalityLimiter {
+	/**
+	 * Tag value which offending tag values are collapsed into.
+	 */
+	static final String OVERFLOW_VALUE = "__overflow__";
+	private static final int PRECISION = 10;
+	/**
+	 * Max tag keys whose values are estimated per metric, values of further tag
+	 * keys(dynamic tag keys) are not tracked and those keys are collapsed last.
+	 */
+	static final int MAX_TAG_KEYS = 64;
+
+	private final int maxSeries;
+	private final CardinalityPolicy policy;
+	private final long window;
+	private final Map<String, MetricCardinality> metrics;
+	private long start;
+
+	/**
+	 * Create cardinality limiter.
+	 * 
+	 * @param maxSeries  max series per metric
+	 * @param policy     policy of new series over limit
+	 * @param window     window(ms) of state
+	 * @param maxMetrics max metrics tracked
+	 * @param now        current time(ms)
+	 */
+	CardinalityLimiter(int maxSeries, CardinalityPolicy policy, long window, int maxMetrics, long now) {
+		Preconditions.checkArgument(maxSeries > 0, "negative max series per metric", maxSeries);
+		Preconditions.checkNotNull(policy, "cardinality policy cannot be null");
+		Preconditions.checkArgument(window > 0, "negative cardinality window", window);
+		Preconditions.checkArgument(maxMetrics > 0, "negative max cardinality metrics", maxMetrics);
+		this.maxSeries = maxSeries;
+		this.policy = policy;
+		this.window = window;
+		this.start = now;
+		// access order for least recently used eviction
+		this.metrics = new LinkedHashMap<String, MetricCardinality>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, MetricCardinality> eldest) {
+				return size() > maxMetrics;
+			}
+		};
+	}
+
+	/**
+	 * Admit point, returns point itself if series admitted, the point with
+	 * collapsed tags for overflow policy, or null if dropped.
+	 * 
+	 * @param point data point
+	 * @param now   current time(ms), resets state if window elapsed
+	 * @return admitted point or null
+	 */
+	Point admit(Point point, long now) {
+		if (now - this.start >= this.window) {
+			this.metrics.clear();
+			this.start = now;
+		}
+		MetricCardinality metric = this.metrics.computeIfAbsent(metricKey(point),
+				k -> new MetricCardinality());
+		Map<String, String> tags = point.getTags();
+		if (tags != null) {
+			for (Map.Entry<String, String> tag : tags.entrySet()) {
+				HyperLogLog values = metric.tagValues(tag.getKey());
+				if (values != null) {
+					values.add(Hashing.hash(tag.getValue()));
+				}
+			}
+		}
+		long seriesHash = DeltaConverter.seriesHash(point);
+		metric.series.add(Hashing.mix(seriesHash));
+		if (metric.admitted.contains(seriesHash)) {
+			return point;
+		}
+		if (metric.admitted.size() < this.maxSeries) {
+			metric.admitted.add(seriesHash);
+			return point;
+		}
+		if (this.policy == CardinalityPolicy.DROP || tags == null || tags.isEmpty()) {
+			return null;
+		}
+		// collapse tag keys by estimated cardinality desc, until series known or
+		// overflow series budget(same as limit) available
+		List<String> keys = new ArrayList<>(tags.keySet());
+		keys.sort((k1, k2) -> Long.compare(metric.estimate(k2), metric.estimate(k1)));
+		Map<String, String> collapsed = new HashMap<>(tags);
+		Point overflow = point;
+		for (String key : keys) {
+			collapsed.put(key, OVERFLOW_VALUE);
+			overflow = point.withTags(new HashMap<>(collapsed));
+			seriesHash = DeltaConverter.seriesHash(overflow);
+			if (metric.admitted.contains(seriesHash)) {
+				return overflow;
+			}
+			if (metric.overflowSeries < this.maxSeries) {
+				metric.overflowSeries++;
+				metric.admitted.add(seriesHash);
+				return overflow;
+			}
+		}
+		// all tags collapsed, always admit it, so series bounded by 2 * limit + 1
+		metric.admitted.add(seriesHash);
+		return overflow;
+	}
+
+	/**
+	 * Return number of metrics tracked.
+	 * 
+	 * @return metrics
+	 */
+	int metrics() {
+		return this.metrics.size();
+	}
+
+	/**
+	 * Return estimated distinct series of metric, including rejected ones.
+	 * 
+	 * @param namespace namespace, null for default
+	 * @param name      metric name
+	 * @return estimated series
+	 */
+	long estimateSeries(String namespace, String name) {
+		MetricCardinality metric = this.metrics.get(metricKey(namespace, name));
+		return metric == null ? 0 : metric.series.estimate();
+	}
+
+	/**
+	 * Return estimated distinct values of tag key of metric.
+	 * 
+	 * @param namespace namespace, null for default
+	 * @param name      metric name
+	 * @param tagKey    tag key
+	 * @return estimated tag values
+	 */
+	long estimateTagValues(String namespace, String name, String tagKey) {
+		MetricCardinality metric = this.metrics.get(metricKey(namespace, name));
+		if (metric == null) {
+			return 0;
+		}
+		return metric.estimate(tagKey);
+	}
+
+	private static String metricKey(Point point) {
+		return metricKey(point.getNamespace(), point.getName());
+	}
+
+	private static String metricKey(String namespace, String name) {
+		return namespace == null ? name : namespace + ":" + name;
+	}
+
+	private static class MetricCardinality {
+		private final LongHashSet admitted = new LongHashSet(16);
+		private final HyperLogLog series = new HyperLogLog(PRECISION);
+		private final Map<String, HyperLogLog> tagValues = new HashMap<>();
+		private int overflowSeries;
+
+		/**
+		 * Return estimator of tag key, null if tag keys of metric reach max.
+		 */
+		private HyperLogLog tagValues(String tagKey) {
+			HyperLogLog values = this.tagValues.get(tagKey);
+			if (values == null && this.tagValues.size() < MAX_TAG_KEYS) {
+				values = new HyperLogLog(PRECISION);
+				this.tagValues.put(tagKey, values);
+			}
+			return values;
+		}
+
+		private long estimate(String tagKey) {
+			HyperLogLog values = this.tagValues.get(tagKey);
+			return values == null ? 0 : values.estimate();
+		}
+	}
+}
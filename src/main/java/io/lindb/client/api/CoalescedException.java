@@ -0,0 +1,57 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+/**
+ * Failure notified for several failures of same event type coalesced in one
+ * event interval. The first failure is the cause, following distinct failures
+ * up to a limit are attached as suppressed, exceptions of callers are never
+ * modified.
+ */
+public final class CoalescedException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private final int failures;
+	private final long omittedPoints;
+
+	CoalescedException(EventType type, int failures, long omittedPoints, Throwable first) {
+		super(failures + " " + type + " failures coalesced"
+				+ (omittedPoints > 0 ? ", " + omittedPoints + " points omitted" : ""), first, true, false);
+		this.failures = failures;
+		this.omittedPoints = omittedPoints;
+	}
+
+	/**
+	 * Return number of failures coalesced.
+	 * 
+	 * @return failures
+	 */
+	public int getFailures() {
+		return this.failures;
+	}
+
+	/**
+	 * Return number of failed points not included in notified points.
+	 * 
+	 * @return omitted points
+	 */
+	public long getOmittedPoints() {
+		return this.omittedPoints;
+	}
+}
@@ -18,6 +18,8 @@
  */
 package io.lindb.client.api;
 
+import java.util.List;
+
 /**
  * Data point compound field for storing histogram data.
  */
@@ -28,6 +30,7 @@ public class CompoundField implements Field {
 	private final double sum;
 	private final double[] bounds;
 	private final double[] values;
+	private final List<Exemplar> exemplars;
 
 	/**
 	 * Create a compound field instance.
@@ -41,12 +44,40 @@ public class CompoundField implements Field {
 	 * @param values value array
 	 */
 	protected CompoundField(double count, double sum, double min, double max, double[] bounds, double[] values) {
+		this(count, sum, min, max, bounds, values, null);
+	}
+
+	/**
+	 * Create a compound field instance with exemplars.
+	 * 
+	 * @param count     count value
+	 * @param sum       sum value
+	 * @param min       min value
+	 * @param max       max value
+	 * @param bounds    bound array
+	 * @param values    value array
+	 * @param exemplars exemplars, nullable
+	 */
+	CompoundField(double count, double sum, double min, double max, double[] bounds, double[] values,
+			List<Exemplar> exemplars) {
 		this.count = count;
 		this.sum = sum;
 		this.min = min;
 		this.max = max;
 		this.bounds = bounds;
 		this.values = values;
+		this.exemplars = exemplars;
+	}
+
+	/**
+	 * Return a copy of field with exemplars appended.
+	 * 
+	 * @param exemplars exemplars
+	 * @return field
+	 */
+	CompoundField withExemplars(List<Exemplar> exemplars) {
+		return new CompoundField(this.count, this.sum, this.min, this.max, this.bounds, this.values,
+				SimpleField.concat(this.exemplars, exemplars));
 	}
 
 	/*
@@ -56,7 +87,8 @@ public class CompoundField implements Field {
 	 */
 	@Override
 	public int write(RowBuilder builder) {
-		return builder.addCompoundField(this.count, this.sum, this.min, this.max, this.bounds, this.values);
+		return builder.addCompoundField(this.count, this.sum, this.min, this.max, this.bounds, this.values,
+				this.exemplars);
 	}
 
 	/**
@@ -67,4 +99,22 @@ public class CompoundField implements Field {
 	double getCount() {
 		return this.count;
 	}
+
+	/**
+	 * Return the bucket bounds.
+	 * 
+	 * @return bounds
+	 */
+	double[] getBounds() {
+		return this.bounds;
+	}
+
+	/**
+	 * Return the exemplars, null if no exemplars.
+	 * 
+	 * @return exemplars
+	 */
+	List<Exemplar> getExemplars() {
+		return this.exemplars;
+	}
 }
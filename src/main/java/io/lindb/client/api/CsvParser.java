@@ -0,0 +1,185 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Csv parser, columns are mapped by header row to metric name, timestamp, tags
+ * and fields. Empty or non-numeric field values are skipped.
+ */
+@NotThreadSafe
+final class CsvParser extends RecordParser {
+	private final static int FIELD = 0;
+	private final static int NAME = 1;
+	private final static int TIMESTAMP = 2;
+	private final static int TAG = 3;
+
+	private final byte separator;
+	private final TimeUnit precision;
+	private final byte[] metricName;
+	private final byte[][] columns;
+	private final int[] roles;
+	private final int[] starts;
+	private final int[] ends;
+
+	/**
+	 * Create csv parser with header row.
+	 * 
+	 * @param header  header row bytes
+	 * @param length  length of header row
+	 * @param options import options
+	 */
+	CsvParser(byte[] header, int length, ImportOptions options) {
+		this.separator = (byte) options.getSeparator();
+		this.precision = options.getPrecision();
+		this.metricName = StringUtils.isEmpty(options.getMetricName()) ? null
+				: options.getMetricName().getBytes(StandardCharsets.UTF_8);
+		int from = 0;
+		if (length >= 3 && header[0] == (byte) 0xEF && header[1] == (byte) 0xBB && header[2] == (byte) 0xBF) {
+			// utf-8 bom
+			from = 3;
+		}
+		byte[] line = Arrays.copyOfRange(header, from, length);
+		int[] starts = new int[line.length + 1];
+		int[] ends = new int[line.length + 1];
+		int count = split(line, trimEnd(line, line.length), starts, ends);
+		this.columns = new byte[count][];
+		this.roles = new int[count];
+		boolean hasName = false;
+		for (int i = 0; i < count; i++) {
+			String column = new String(line, starts[i], ends[i] - starts[i], StandardCharsets.UTF_8).trim();
+			this.columns[i] = column.getBytes(StandardCharsets.UTF_8);
+			if (column.equals(options.getNameColumn())) {
+				this.roles[i] = NAME;
+				hasName = true;
+			} else if (column.equals(options.getTimestampColumn())) {
+				this.roles[i] = TIMESTAMP;
+			} else if (options.getTagColumns().contains(column)) {
+				this.roles[i] = TAG;
+			} else {
+				this.roles[i] = FIELD;
+			}
+		}
+		Preconditions.checkArgument(hasName || this.metricName != null, "name column not found in csv header: %s",
+				options.getNameColumn());
+		this.starts = new int[count];
+		this.ends = new int[count];
+	}
+
+	@Override
+	int parse(byte[] line, int length, RecordEncoder encoder, long now) {
+		int end = trimEnd(line, length);
+		if (skipSpaces(line, 0, end) >= end) {
+			return EMPTY;
+		}
+		int count = split(line, end, this.starts, this.ends);
+		if (count < 0) {
+			return INVALID;
+		}
+		encoder.reset();
+		if (this.metricName != null) {
+			encoder.name(this.metricName, 0, this.metricName.length);
+		}
+		encoder.timestamp(now);
+		for (int i = 0; i < count; i++) {
+			int from = this.starts[i];
+			int to = this.ends[i];
+			switch (this.roles[i]) {
+			case NAME:
+				encoder.name(line, from, to);
+				break;
+			case TIMESTAMP:
+				if (from < to) {
+					long timestamp = parseLong(line, from, to);
+					if (timestamp == Long.MIN_VALUE) {
+						return INVALID;
+					}
+					encoder.timestamp(this.precision.toMillis(timestamp));
+				}
+				break;
+			case TAG:
+				encoder.addTag(this.columns[i], 0, this.columns[i].length, line, from, to);
+				break;
+			default:
+				double value = parseDouble(line, from, to);
+				if (!Double.isNaN(value)) {
+					encoder.addField(this.columns[i], 0, this.columns[i].length, value);
+				}
+				break;
+			}
+		}
+		return OK;
+	}
+
+	/**
+	 * Split line into columns, quoted values are unquoted in place.
+	 * 
+	 * @return number of columns, -1 if more columns than header
+	 */
+	private int split(byte[] line, int end, int[] starts, int[] ends) {
+		int count = 0;
+		int i = 0;
+		while (true) {
+			if (count == starts.length) {
+				return -1;
+			}
+			if (i < end && line[i] == '"') {
+				int w = ++i;
+				starts[count] = w;
+				while (i < end) {
+					byte c = line[i++];
+					if (c == '"') {
+						if (i < end && line[i] == '"') {
+							// escaped quote
+							line[w++] = line[i++];
+							continue;
+						}
+						break;
+					}
+					line[w++] = c;
+				}
+				ends[count] = w;
+				while (i < end && line[i] != this.separator) {
+					i++;
+				}
+			} else {
+				starts[count] = i;
+				while (i < end && line[i] != this.separator) {
+					i++;
+				}
+				ends[count] = i;
+			}
+			count++;
+			if (i >= end) {
+				return count;
+			}
+			// skip separator
+			i++;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+/**
+ * Monotonic cumulative sum field, converted into delta {@link FieldType#Sum}
+ * field by {@link DeltaConverter} before encoding.
+ */
+final class CumulativeSumField implements Field {
+	private final String name;
+	private final double value;
+
+	/**
+	 * Create cumulative sum field instance.
+	 * 
+	 * @param name  field name
+	 * @param value cumulative total value
+	 */
+	CumulativeSumField(String name, double value) {
+		this.name = name;
+		this.value = value;
+	}
+
+	/**
+	 * Return the field name.
+	 * 
+	 * @return name
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * Return the cumulative total value.
+	 * 
+	 * @return value
+	 */
+	double getValue() {
+		return value;
+	}
+
+	/*
+	 * Cumulative value cannot be written directly, it must be converted into
+	 * delta first.
+	 * 
+	 * @see io.lindb.client.api.Field#write(io.lindb.client.api.RowBuilder)
+	 */
+	@Override
+	public int write(RowBuilder builder) {
+		throw new IllegalStateException("cumulative sum field must be converted into delta before writing");
+	}
+}
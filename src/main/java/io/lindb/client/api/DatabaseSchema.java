@@ -0,0 +1,147 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.lindb.client.model.DatabaseOption;
+import io.lindb.client.model.Interval;
+import io.lindb.client.util.StringUtils;
+import io.lindb.client.util.TimeUtils;
+
+/**
+ * Timestamp rules of database, smallest interval for alignment and
+ * ahead/behind window of accepted timestamps.
+ */
+@Immutable
+final class DatabaseSchema {
+	private final static Logger LOGGER = LoggerFactory.getLogger(DatabaseSchema.class);
+	/**
+	 * No alignment and accepts all timestamps.
+	 */
+	static final DatabaseSchema NONE = new DatabaseSchema(0, Long.MAX_VALUE, Long.MAX_VALUE);
+
+	private final long interval;
+	private final long ahead;
+	private final long behind;
+
+	/**
+	 * Create database schema.
+	 *
+	 * @param interval smallest interval(ms), 0 means no alignment
+	 * @param ahead    max ahead(ms) of now
+	 * @param behind   max behind(ms) of now
+	 */
+	DatabaseSchema(long interval, long ahead, long behind) {
+		this.interval = interval;
+		this.ahead = ahead;
+		this.behind = behind;
+	}
+
+	/**
+	 * Build schema from database option, invalid or missing setting means no
+	 * restriction.
+	 *
+	 * @param option database option
+	 * @return database schema
+	 */
+	static DatabaseSchema of(DatabaseOption option) {
+		if (option == null) {
+			return NONE;
+		}
+		long interval = 0;
+		List<Interval> intervals = option.getIntervals();
+		if (intervals != null) {
+			for (Interval i : intervals) {
+				long value = parse(i.getInterval(), 0);
+				if (value > 0 && (interval == 0 || value < interval)) {
+					interval = value;
+				}
+			}
+		}
+		return new DatabaseSchema(interval, parse(option.getAhead(), Long.MAX_VALUE),
+				parse(option.getBehind(), Long.MAX_VALUE));
+	}
+
+	private static long parse(String duration, long defaultValue) {
+		if (StringUtils.isEmpty(duration)) {
+			return defaultValue;
+		}
+		try {
+			return TimeUtils.parseDuration(duration);
+		} catch (IllegalArgumentException e) {
+			LOGGER.warn("ignore invalid duration of database option: {}", duration);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Round timestamp down to smallest interval.
+	 *
+	 * @param timestamp timestamp(ms)
+	 * @return aligned timestamp
+	 */
+	long align(long timestamp) {
+		if (interval <= 0) {
+			return timestamp;
+		}
+		return timestamp - Math.floorMod(timestamp, interval);
+	}
+
+	/**
+	 * Check if timestamp is too far ahead of now.
+	 *
+	 * @param timestamp timestamp(ms)
+	 * @param now       current time(ms)
+	 * @return if true out of window
+	 */
+	boolean isAhead(long timestamp, long now) {
+		return timestamp - now > ahead;
+	}
+
+	/**
+	 * Check if timestamp is too far behind now.
+	 *
+	 * @param timestamp timestamp(ms)
+	 * @param now       current time(ms)
+	 * @return if true out of window
+	 */
+	boolean isBehind(long timestamp, long now) {
+		return now - timestamp > behind;
+	}
+
+	/**
+	 * Return smallest interval(ms), 0 means no alignment.
+	 *
+	 * @return interval
+	 */
+	long getInterval() {
+		return interval;
+	}
+
+	@Override
+	public String toString() {
+		return "DatabaseSchema [interval=" + interval + ", ahead=" + ahead + ", behind=" + behind + "]";
+	}
+}
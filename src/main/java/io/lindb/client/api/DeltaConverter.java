@@ -0,0 +1,349 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.Constants;
+import io.lindb.client.internal.Hashing;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Convert monotonic cumulative sum fields into delta sum fields.
+ *
+ * Keeps the last value of each series(namespace + metric + tags + field) in a
+ * primitive open addressing map keyed by 64-bit series hash, so no per series
+ * objects are allocated. A value less than the last value is treated as
+ * counter reset, the new value is the delta. Series not updated within ttl are
+ * evicted.
+ */
+@NotThreadSafe
+public final class DeltaConverter {
+	private static final int INITIAL_CAPACITY = 64;
+	private static final long EMPTY = 0L;
+
+	private final long ttl;
+	private long[] keys;
+	private double[] values;
+	private long[] updated;
+	private int size;
+	private int mask;
+	private long nextEvict;
+
+	/**
+	 * Create converter, evicts series state not updated within ttl.
+	 * 
+	 * @param ttl series state ttl(ms)
+	 */
+	public DeltaConverter(long ttl) {
+		Preconditions.checkArgument(ttl > 0, "negative cumulative ttl", ttl);
+		this.ttl = ttl;
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Convert cumulative sum fields of point into delta sum fields.
+	 * 
+	 * @param point data point
+	 * @return converted point, or null if point has no fields after conversion
+	 */
+	public Point convert(Point point) {
+		return convert(point, System.currentTimeMillis());
+	}
+
+	/**
+	 * Convert cumulative sum fields of point into delta sum fields.
+	 * 
+	 * @param point data point
+	 * @param now   current time(ms) for ttl
+	 * @return converted point, or null if point has no fields after conversion
+	 */
+	Point convert(Point point, long now) {
+		if (!point.hasCumulativeFields()) {
+			return point;
+		}
+		if (now >= this.nextEvict) {
+			evict(now);
+			this.nextEvict = now + this.ttl;
+		}
+		List<Field> fields = point.getSimpleFields();
+		List<Field> converted = new ArrayList<>(fields.size());
+		long seriesHash = seriesHash(point);
+		for (Field field : fields) {
+			if (!(field instanceof CumulativeSumField)) {
+				converted.add(field);
+				continue;
+			}
+			CumulativeSumField cumulative = (CumulativeSumField) field;
+			double delta = delta(fieldHash(seriesHash, cumulative.getName()), cumulative.getValue(), now);
+			if (!Double.isNaN(delta)) {
+				converted.add(new SimpleField(cumulative.getName(), FieldType.Sum, delta));
+			}
+		}
+		if (converted.isEmpty()) {
+			return null;
+		}
+		return point.withSimpleFields(converted);
+	}
+
+	/**
+	 * Convert cumulative values of one series(e.g. count, sum and buckets of a
+	 * histogram) into deltas in place. The whole series is treated as counter
+	 * reset if any value is less than its last value, values are kept as deltas
+	 * counting from 0.
+	 * 
+	 * @param key    series hash
+	 * @param values cumulative values, replaced by deltas
+	 * @param length number of values
+	 * @param now    current time(ms) for ttl
+	 * @return false if the first values of series, only initializes the state
+	 */
+	public boolean deltas(long key, double[] values, int length, long now) {
+		return deltas(key, values, length, now, null);
+	}
+
+	/**
+	 * Convert cumulative values of one series into deltas in place, keeping the
+	 * replaced last values so that the conversion can be rolled back with
+	 * {@link #restore(long, double[], int, int)} if the deltas are not written.
+	 * 
+	 * @param key    series hash
+	 * @param values cumulative values, replaced by deltas
+	 * @param length number of values
+	 * @param now    current time(ms) for ttl
+	 * @param last   replaced last values, valid if returns true, nullable
+	 * @return false if the first values of series, only initializes the state
+	 */
+	public boolean deltas(long key, double[] values, int length, long now, double[] last) {
+		if (now >= this.nextEvict) {
+			evict(now);
+			this.nextEvict = now + this.ttl;
+		}
+		boolean first = false;
+		boolean reset = false;
+		for (int i = 0; i < length; i++) {
+			int idx = find(valueKey(key, i));
+			if (idx < 0) {
+				first = true;
+			} else {
+				if (values[i] < this.values[idx]) {
+					reset = true;
+				}
+				if (last != null) {
+					last[i] = this.values[idx];
+				}
+			}
+		}
+		for (int i = 0; i < length; i++) {
+			double delta = delta(valueKey(key, i), values[i], now);
+			if (!first && !reset) {
+				values[i] = delta;
+			}
+		}
+		return !first;
+	}
+
+	/**
+	 * Restore last values of one series replaced by
+	 * {@link #deltas(long, double[], int, long, double[])}, so that the same
+	 * cumulative values are converted into the same deltas again. Series evicted
+	 * in between are not restored.
+	 * 
+	 * @param key    series hash
+	 * @param last   last values before conversion
+	 * @param offset offset of first value in last
+	 * @param length number of values
+	 */
+	public void restore(long key, double[] last, int offset, int length) {
+		for (int i = 0; i < length; i++) {
+			int idx = find(valueKey(key, i));
+			if (idx >= 0) {
+				this.values[idx] = last[offset + i];
+			}
+		}
+	}
+
+	private static long valueKey(long key, int i) {
+		return Hashing.mix(Hashing.hash(key, i));
+	}
+
+	private int find(long key) {
+		if (key == EMPTY) {
+			key = 1;
+		}
+		int idx = index(key);
+		while (this.keys[idx] != EMPTY) {
+			if (this.keys[idx] == key) {
+				return idx;
+			}
+			idx = (idx + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Return delta of cumulative value since last value of series, NaN if the
+	 * first value of series.
+	 * 
+	 * @param key   series hash
+	 * @param value cumulative value
+	 * @param now   current time(ms)
+	 * @return delta value
+	 */
+	double delta(long key, double value, long now) {
+		if (key == EMPTY) {
+			key = 1;
+		}
+		int idx = index(key);
+		while (this.keys[idx] != EMPTY) {
+			if (this.keys[idx] == key) {
+				double last = this.values[idx];
+				this.values[idx] = value;
+				this.updated[idx] = now;
+				// counter reset(process restart etc.), counting from 0
+				return value < last ? value : value - last;
+			}
+			idx = (idx + 1) & this.mask;
+		}
+		this.keys[idx] = key;
+		this.values[idx] = value;
+		this.updated[idx] = now;
+		this.size++;
+		if (this.size > (this.keys.length >> 1) + (this.keys.length >> 2)) {
+			rehash(this.keys.length << 1);
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Evict series state not updated within ttl.
+	 * 
+	 * @param now current time(ms)
+	 * @return the number of evicted series
+	 */
+	int evict(long now) {
+		long expired = now - this.ttl;
+		int evicted = 0;
+		int idx = 0;
+		while (idx < this.keys.length) {
+			if (this.keys[idx] != EMPTY && this.updated[idx] < expired) {
+				remove(idx);
+				evicted++;
+				// slot refilled by backward shift, check it again
+				continue;
+			}
+			idx++;
+		}
+		if (this.keys.length > INITIAL_CAPACITY && this.size < this.keys.length >> 3) {
+			rehash(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(this.size) << 2));
+		}
+		return evicted;
+	}
+
+	/**
+	 * Return the number of series in state.
+	 * 
+	 * @return series count
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	private void remove(int idx) {
+		// backward shift deletion for linear probing
+		int hole = idx;
+		int next = (hole + 1) & this.mask;
+		while (this.keys[next] != EMPTY) {
+			int home = index(this.keys[next]);
+			// move entry if its home slot is not in (hole, next]
+			if (((next - home) & this.mask) >= ((next - hole) & this.mask)) {
+				this.keys[hole] = this.keys[next];
+				this.values[hole] = this.values[next];
+				this.updated[hole] = this.updated[next];
+				hole = next;
+			}
+			next = (next + 1) & this.mask;
+		}
+		this.keys[hole] = EMPTY;
+		this.size--;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = this.keys;
+		double[] oldValues = this.values;
+		long[] oldUpdated = this.updated;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			long key = oldKeys[i];
+			if (key == EMPTY) {
+				continue;
+			}
+			int idx = index(key);
+			while (this.keys[idx] != EMPTY) {
+				idx = (idx + 1) & this.mask;
+			}
+			this.keys[idx] = key;
+			this.values[idx] = oldValues[i];
+			this.updated[idx] = oldUpdated[i];
+			this.size++;
+		}
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.values = new double[capacity];
+		this.updated = new long[capacity];
+		this.mask = capacity - 1;
+		this.size = 0;
+	}
+
+	private int index(long key) {
+		return (int) (Hashing.mix(key) & this.mask);
+	}
+
+	/**
+	 * Hash series identity, tags are hashed in key order.
+	 */
+	static long seriesHash(Point point) {
+		String ns = point.getNamespace();
+		long h = Hashing.hash(Hashing.SEED, StringUtils.isEmpty(ns) ? Constants.DEFAULT_NAMESPACE : ns);
+		h = Hashing.hash(h, point.getName());
+		Map<String, String> tags = point.getTags();
+		if (tags != null && !tags.isEmpty()) {
+			String[] tagKeys = tags.keySet().toArray(new String[0]);
+			Arrays.sort(tagKeys);
+			for (String key : tagKeys) {
+				h = Hashing.hash(h, key);
+				h = Hashing.hash(h, tags.get(key));
+			}
+		}
+		return h;
+	}
+
+	static long fieldHash(long seriesHash, String field) {
+		return Hashing.mix(Hashing.hash(seriesHash, field));
+	}
+}
@@ -0,0 +1,271 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.lindb.client.internal.Threads;
+
+/**
+ * Dispatch write events to {@link EventListener} on a dedicated thread, so a
+ * slow listener never stalls write pipeline threads. Failures of same event
+ * type are coalesced and notified once per interval as
+ * {@link CoalescedException}(a single failure is notified as is), with at most
+ * {@link #MAX_POINTS} points, acks are notified per batch. Events are
+ * dropped(and counted) when queue is full.
+ */
+@ThreadSafe
+class EventDispatcher implements Runnable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(EventDispatcher.class);
+	/**
+	 * Max exceptions attached as suppressed to a coalesced failure.
+	 */
+	private final static int MAX_SUPPRESSED = 8;
+	/**
+	 * Max points kept in a coalesced failure, rest are counted as omitted.
+	 */
+	final static int MAX_POINTS = 10_000;
+
+	private final EventListener listener;
+	private final long interval;
+	private final boolean ackEnabled;
+	private final BlockingQueue<Event> queue;
+	private final LongAdder droppedEvents;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private final Map<EventType, Failure> failures = new EnumMap<>(EventType.class);
+	private volatile boolean started;
+	private volatile boolean running = true;
+
+	/**
+	 * Create event dispatcher.
+	 *
+	 * @param listener event listener
+	 * @param interval coalescing interval(ms) of failures, 0 means notify each
+	 *                 failure
+	 * @param capacity max events waiting for dispatching
+	 * @param dropped  counter of events dropped when queue full
+	 */
+	EventDispatcher(EventListener listener, long interval, int capacity, LongAdder dropped) {
+		this.listener = listener;
+		this.interval = interval;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.droppedEvents = dropped;
+		this.ackEnabled = overridesOnSuccess(listener);
+	}
+
+	/**
+	 * Start dispatch thread, events are notified on caller thread before
+	 * started.
+	 *
+	 * @param virtual if using virtual thread
+	 */
+	void start(boolean virtual) {
+		Threads.newThread("lin-event", this, virtual).start();
+		this.started = true;
+	}
+
+	/**
+	 * Check if listener implements onSuccess, skip acks if not.
+	 */
+	private static boolean overridesOnSuccess(EventListener listener) {
+		try {
+			return listener.getClass().getMethod("onSuccess", int.class, long.class, long.class)
+					.getDeclaringClass() != EventListener.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Enqueue failure event.
+	 *
+	 * @param type   event type
+	 * @param points points of failed
+	 * @param e      exception
+	 */
+	void error(EventType type, List<Point> points, Throwable e) {
+		offer(new Event(type, points, e, 0, 0, 0));
+	}
+
+	/**
+	 * Enqueue ack event of a batch written successfully.
+	 *
+	 * @param points       number of points
+	 * @param bytes        bytes sent
+	 * @param latencyNanos send latency(ns)
+	 */
+	void success(int points, long bytes, long latencyNanos) {
+		if (this.ackEnabled) {
+			offer(new Event(null, null, null, points, bytes, latencyNanos));
+		}
+	}
+
+	private void offer(Event event) {
+		if (!this.started) {
+			synchronized (this) {
+				dispatch(event);
+				flush();
+			}
+			return;
+		}
+		if (!this.queue.offer(event)) {
+			this.droppedEvents.increment();
+		}
+	}
+
+	@Override
+	public void run() {
+		long nextFlush = System.currentTimeMillis() + this.interval;
+		try {
+			while (this.running || !this.queue.isEmpty()) {
+				long wait = Math.max(nextFlush - System.currentTimeMillis(), 1);
+				Event event = this.queue.poll(wait, TimeUnit.MILLISECONDS);
+				if (event != null) {
+					dispatch(event);
+				}
+				if (this.interval <= 0 || System.currentTimeMillis() >= nextFlush) {
+					flush();
+					nextFlush = System.currentTimeMillis() + this.interval;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			flush();
+			this.done.countDown();
+		}
+	}
+
+	private void dispatch(Event event) {
+		if (event.type == null) {
+			try {
+				this.listener.onSuccess(event.count, event.bytes, event.latencyNanos);
+			} catch (Throwable e) {
+				LOGGER.warn("event listener handle success failure", e);
+			}
+			return;
+		}
+		Failure failure = this.failures.get(event.type);
+		if (failure == null) {
+			failure = new Failure();
+			this.failures.put(event.type, failure);
+		}
+		failure.add(event.e);
+		if (event.points != null) {
+			int kept = Math.max(0, Math.min(event.points.size(), MAX_POINTS - failure.points.size()));
+			if (kept == event.points.size()) {
+				failure.points.addAll(event.points);
+			} else {
+				failure.points.addAll(event.points.subList(0, kept));
+				failure.omittedPoints += event.points.size() - kept;
+			}
+		}
+	}
+
+	/**
+	 * Notify coalesced failures.
+	 */
+	private void flush() {
+		for (Map.Entry<EventType, Failure> entry : this.failures.entrySet()) {
+			try {
+				Failure failure = entry.getValue();
+				this.listener.onError(entry.getKey(), failure.points, failure.exception(entry.getKey()));
+			} catch (Throwable e) {
+				LOGGER.warn("event listener handle error failure", e);
+			}
+		}
+		this.failures.clear();
+	}
+
+	/**
+	 * Stop dispatching after all queued events notified.
+	 *
+	 * @param timeout max wait time
+	 * @param unit    unit of timeout
+	 * @throws InterruptedException thread interrupted
+	 */
+	void close(long timeout, TimeUnit unit) throws InterruptedException {
+		this.running = false;
+		if (this.started) {
+			this.done.await(timeout, unit);
+		}
+	}
+
+	private static class Failure {
+		private final List<Point> points = new ArrayList<>();
+		// first failure and following distinct ones, up to max suppressed
+		private final List<Throwable> causes = new ArrayList<>();
+		private int failures;
+		private long omittedPoints;
+
+		private void add(Throwable e) {
+			this.failures++;
+			if (e != null && this.causes.size() <= MAX_SUPPRESSED && !this.causes.contains(e)) {
+				this.causes.add(e);
+			}
+		}
+
+		/**
+		 * Return the failure itself if not coalesced, otherwise an aggregate
+		 * exception.
+		 */
+		private Throwable exception(EventType type) {
+			Throwable first = this.causes.isEmpty() ? null : this.causes.get(0);
+			if (this.failures == 1 && this.omittedPoints == 0) {
+				return first;
+			}
+			CoalescedException e = new CoalescedException(type, this.failures, this.omittedPoints, first);
+			for (int i = 1; i < this.causes.size(); i++) {
+				e.addSuppressed(this.causes.get(i));
+			}
+			return e;
+		}
+	}
+
+	private static class Event {
+		private final EventType type;
+		private final List<Point> points;
+		private final Throwable e;
+		private final int count;
+		private final long bytes;
+		private final long latencyNanos;
+
+		private Event(EventType type, List<Point> points, Throwable e, int count, long bytes, long latencyNanos) {
+			this.type = type;
+			this.points = points;
+			this.e = e;
+			this.count = count;
+			this.bytes = bytes;
+			this.latencyNanos = latencyNanos;
+		}
+	}
+}
@@ -21,7 +21,9 @@ package io.lindb.client.api;
 import java.util.List;
 
 /**
- * Error event listener when write data failure.
+ * Event listener of write data, notified on a dedicated dispatch thread, so a
+ * slow listener never blocks write pipeline. Failures of same event type are
+ * coalesced per event interval.
  */
 public interface EventListener {
 
@@ -33,4 +35,15 @@ public interface EventListener {
 	 * @param e      exception
 	 */
 	void onError(EventType event, List<Point> points, final Throwable e);
+
+	/**
+	 * onSuccess will be called when a batch written successfully, acks are not
+	 * dispatched if not overridden.
+	 *
+	 * @param points       number of points in batch
+	 * @param bytes        bytes sent(after compression)
+	 * @param latencyNanos send latency(ns)
+	 */
+	default void onSuccess(int points, long bytes, long latencyNanos) {
+	}
 }
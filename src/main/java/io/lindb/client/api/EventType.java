@@ -34,4 +34,17 @@ public enum EventType {
 	 * retry failure
 	 */
 	retry,
+	/**
+	 * new series dropped/collapsed by series limit of metric
+	 */
+	cardinality,
+	/**
+	 * timestamp out of database ahead/behind window
+	 */
+	timestamp,
+	/**
+	 * points rejected by broker with non-retryable error, isolated by splitting
+	 * batch
+	 */
+	invalid,
 }
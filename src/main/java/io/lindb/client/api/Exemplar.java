@@ -0,0 +1,141 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Trace exemplar(trace id, span id and duration) of a field, links metric
+ * value to a sampled trace.
+ */
+@Immutable
+public final class Exemplar {
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final byte[] traceId;
+	private final byte[] spanId;
+	private final long duration;
+
+	/**
+	 * Create exemplar with trace/span id bytes, the arrays are not copied and
+	 * must not be modified after.
+	 * 
+	 * @param traceId  trace id
+	 * @param spanId   span id
+	 * @param duration duration of span(unit defined by metric, e.g. us)
+	 */
+	public Exemplar(byte[] traceId, byte[] spanId, long duration) {
+		Preconditions.checkNotNull(traceId, "trace id cannot be null");
+		Preconditions.checkNotNull(spanId, "span id cannot be null");
+		this.traceId = traceId;
+		this.spanId = spanId;
+		this.duration = duration;
+	}
+
+	/**
+	 * Create exemplar with W3C trace context hex trace/span id, e.g.
+	 * 4bf92f3577b34da6a3ce929d0e0e4736/00f067aa0ba902b7.
+	 * 
+	 * @param traceId  hex trace id
+	 * @param spanId   hex span id
+	 * @param duration duration of span(unit defined by metric, e.g. us)
+	 * @return exemplar
+	 * @throws IllegalArgumentException invalid hex id
+	 */
+	public static Exemplar of(CharSequence traceId, CharSequence spanId, long duration) {
+		return new Exemplar(fromHex(traceId), fromHex(spanId), duration);
+	}
+
+	/**
+	 * Return the trace id, the array must not be modified.
+	 * 
+	 * @return trace id
+	 */
+	public byte[] getTraceId() {
+		return traceId;
+	}
+
+	/**
+	 * Return the span id, the array must not be modified.
+	 * 
+	 * @return span id
+	 */
+	public byte[] getSpanId() {
+		return spanId;
+	}
+
+	/**
+	 * Return the duration.
+	 * 
+	 * @return duration
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Exemplar)) {
+			return false;
+		}
+		Exemplar other = (Exemplar) obj;
+		return this.duration == other.duration && Arrays.equals(this.traceId, other.traceId)
+				&& Arrays.equals(this.spanId, other.spanId);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * Arrays.hashCode(this.traceId) + Arrays.hashCode(this.spanId))
+				+ Long.hashCode(this.duration);
+	}
+
+	@Override
+	public String toString() {
+		return toHex(this.traceId) + "/" + toHex(this.spanId) + "=" + this.duration;
+	}
+
+	private static byte[] fromHex(CharSequence hex) {
+		Preconditions.checkNotNull(hex, "id cannot be null");
+		Preconditions.checkArgument(hex.length() % 2 == 0, "hex id length must be even: %s", hex);
+		byte[] bytes = new byte[hex.length() / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			int hi = Character.digit(hex.charAt(i * 2), 16);
+			int lo = Character.digit(hex.charAt(i * 2 + 1), 16);
+			Preconditions.checkArgument(hi >= 0 && lo >= 0, "invalid hex id: %s", hex);
+			bytes[i] = (byte) (hi << 4 | lo);
+		}
+		return bytes;
+	}
+
+	private static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Lock-free, fixed-size exemplar reservoir of a series, keeps at most one
+ * exemplar per bucket(one bucket for simple field, histogram buckets for
+ * compound field) until drained at each write interval:
+ * 
+ * <pre>
+ * // request path, with tracing on for every request
+ * reservoir.offer(ExemplarReservoir.bucketOf(bounds, latency), latency, traceId, spanId);
+ * // flush path
+ * Point.builder("http.latency").addHistogram(count, sum, min, max, bounds, values)
+ * 		.addExemplars(reservoir.drain()).build();
+ * </pre>
+ * 
+ * Memory is bounded by bucket count, offers not sampled cost one volatile
+ * read(slowest policy) or one atomic increment and one random draw(random
+ * policy) and never allocate, so offering every traced request is cheap.
+ */
+@ThreadSafe
+public final class ExemplarReservoir {
+	private final AtomicReferenceArray<Exemplar> slots;
+	// offers of each bucket in current interval, random policy only
+	private final AtomicLongArray offers;
+
+	private ExemplarReservoir(int buckets, boolean random) {
+		Preconditions.checkArgument(buckets > 0, "buckets must be > 0");
+		this.slots = new AtomicReferenceArray<>(buckets);
+		this.offers = random ? new AtomicLongArray(buckets) : null;
+	}
+
+	/**
+	 * Create reservoir which keeps the slowest(max duration) exemplar of each
+	 * bucket per interval.
+	 * 
+	 * @param buckets number of buckets
+	 * @return reservoir
+	 */
+	public static ExemplarReservoir slowest(int buckets) {
+		return new ExemplarReservoir(buckets, false);
+	}
+
+	/**
+	 * Create reservoir which keeps a uniformly random exemplar of each bucket
+	 * per interval(reservoir sampling of size 1).
+	 * 
+	 * @param buckets number of buckets
+	 * @return reservoir
+	 */
+	public static ExemplarReservoir random(int buckets) {
+		return new ExemplarReservoir(buckets, true);
+	}
+
+	/**
+	 * Return index of the first bound which is greater than or equal to value,
+	 * last bucket if value is greater than all bounds.
+	 * 
+	 * @param bounds ascending bucket upper bounds
+	 * @param value  observed value
+	 * @return bucket index
+	 */
+	public static int bucketOf(double[] bounds, double value) {
+		int low = 0;
+		int high = bounds.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (bounds[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Return number of buckets.
+	 * 
+	 * @return buckets
+	 */
+	public int buckets() {
+		return this.slots.length();
+	}
+
+	/**
+	 * Offer trace of bucket, hex ids are decoded only if sampled.
+	 * 
+	 * @param bucket   bucket index
+	 * @param duration duration of span
+	 * @param traceId  hex trace id
+	 * @param spanId   hex span id
+	 * @return true if sampled
+	 * @throws IllegalArgumentException invalid hex id of sampled trace
+	 */
+	public boolean offer(int bucket, long duration, CharSequence traceId, CharSequence spanId) {
+		if (!sample(bucket, duration)) {
+			return false;
+		}
+		return store(bucket, Exemplar.of(traceId, spanId, duration));
+	}
+
+	/**
+	 * Offer trace of bucket, id arrays are kept if sampled and must not be
+	 * modified after.
+	 * 
+	 * @param bucket   bucket index
+	 * @param duration duration of span
+	 * @param traceId  trace id
+	 * @param spanId   span id
+	 * @return true if sampled
+	 */
+	public boolean offer(int bucket, long duration, byte[] traceId, byte[] spanId) {
+		if (!sample(bucket, duration)) {
+			return false;
+		}
+		return store(bucket, new Exemplar(traceId, spanId, duration));
+	}
+
+	/**
+	 * Remove and return exemplars of current interval in bucket order, a new
+	 * interval starts after drain.
+	 * 
+	 * @return exemplars, empty if no trace offered
+	 */
+	public List<Exemplar> drain() {
+		List<Exemplar> exemplars = null;
+		for (int i = 0; i < this.slots.length(); i++) {
+			if (this.slots.get(i) == null) {
+				continue;
+			}
+			if (this.offers != null) {
+				this.offers.set(i, 0);
+			}
+			Exemplar exemplar = this.slots.getAndSet(i, null);
+			if (exemplar != null) {
+				if (exemplars == null) {
+					exemplars = new ArrayList<>(this.slots.length() - i);
+				}
+				exemplars.add(exemplar);
+			}
+		}
+		return exemplars == null ? Collections.emptyList() : exemplars;
+	}
+
+	/**
+	 * Decide if trace is sampled without allocation.
+	 */
+	private boolean sample(int bucket, long duration) {
+		if (this.offers == null) {
+			Exemplar current = this.slots.get(bucket);
+			return current == null || duration > current.getDuration();
+		}
+		long n = this.offers.incrementAndGet(bucket);
+		// replace with probability 1/n, so each offer of interval is kept equally
+		return n <= 1 || ThreadLocalRandom.current().nextLong(n) == 0;
+	}
+
+	private boolean store(int bucket, Exemplar exemplar) {
+		if (this.offers != null) {
+			this.slots.set(bucket, exemplar);
+			return true;
+		}
+		while (true) {
+			Exemplar current = this.slots.get(bucket);
+			if (current != null && exemplar.getDuration() <= current.getDuration()) {
+				// slower trace stored concurrently
+				return false;
+			}
+			if (this.slots.compareAndSet(bucket, current, exemplar)) {
+				return true;
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Heavy hitter item(metric or series) with estimated volume.
+ */
+@Immutable
+public final class HeavyHitter {
+	private final String key;
+	private final long count;
+	private final long error;
+
+	HeavyHitter(String key, long count, long error) {
+		this.key = key;
+		this.count = count;
+		this.error = error;
+	}
+
+	/**
+	 * Return the item key, metric as ns:name, series as ns:name{k=v,...}.
+	 * 
+	 * @return key
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Return the estimated count(points or bytes), overestimated at most by
+	 * error.
+	 * 
+	 * @return count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Return the max overestimation of count.
+	 * 
+	 * @return error
+	 */
+	public long getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return key + "=" + count + "(±" + error + ")";
+	}
+}
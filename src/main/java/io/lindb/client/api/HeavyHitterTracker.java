@@ -0,0 +1,156 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.Constants;
+import io.lindb.client.internal.Hashing;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Track heaviest metrics and series by points and encoded bytes per interval
+ * using {@link SpaceSaving} sketches with fixed memory.
+ *
+ * Recording and rotation are guarded by tracker lock(called by decoder thread,
+ * or producer threads and flusher when encoding on put), the snapshot of last
+ * completed interval is published for any thread.
+ */
+@ThreadSafe
+class HeavyHitterTracker {
+	/**
+	 * Counters per top item, more counters make counts more accurate.
+	 */
+	private static final int COUNTERS_PER_ITEM = 4;
+
+	private final int k;
+	private final long interval;
+	private final SpaceSaving<Point> metricsByPoints;
+	private final SpaceSaving<Point> metricsByBytes;
+	private final SpaceSaving<Point> seriesByPoints;
+	private final SpaceSaving<Point> seriesByBytes;
+	private long start;
+	private volatile HeavyHitters last = HeavyHitters.EMPTY;
+
+	/**
+	 * Create tracker.
+	 * 
+	 * @param k        number of top items
+	 * @param interval interval(ms)
+	 * @param now      current time(ms)
+	 */
+	HeavyHitterTracker(int k, long interval, long now) {
+		Preconditions.checkArgument(k > 0, "negative top k", k);
+		Preconditions.checkArgument(interval > 0, "negative top k interval", interval);
+		this.k = k;
+		this.interval = interval;
+		this.metricsByPoints = new SpaceSaving<>(k * COUNTERS_PER_ITEM, HeavyHitterTracker::metricKey);
+		this.metricsByBytes = new SpaceSaving<>(k * COUNTERS_PER_ITEM, HeavyHitterTracker::metricKey);
+		this.seriesByPoints = new SpaceSaving<>(k * COUNTERS_PER_ITEM, HeavyHitterTracker::seriesKey);
+		this.seriesByBytes = new SpaceSaving<>(k * COUNTERS_PER_ITEM, HeavyHitterTracker::seriesKey);
+		this.start = now;
+	}
+
+	/**
+	 * Record encoded point, allocates nothing(tracked points are labeled only
+	 * when interval rotated).
+	 * 
+	 * @param point data point
+	 * @param bytes encoded bytes
+	 */
+	synchronized void record(Point point, int bytes) {
+		long metricHash = Hashing.hash(Hashing.hash(Hashing.SEED, namespace(point)), point.getName());
+		long seriesHash = Hashing.mix(Hashing.hash(metricHash, tagsHash(point.getTags())));
+		metricHash = Hashing.mix(metricHash);
+		this.metricsByPoints.add(metricHash, point, 1);
+		this.metricsByBytes.add(metricHash, point, bytes);
+		this.seriesByPoints.add(seriesHash, point, 1);
+		this.seriesByBytes.add(seriesHash, point, bytes);
+	}
+
+	/**
+	 * Complete current interval and publish snapshot if interval elapsed.
+	 * 
+	 * @param now current time(ms)
+	 */
+	synchronized void rotate(long now) {
+		if (now - this.start < this.interval) {
+			return;
+		}
+		this.last = new HeavyHitters(this.start, now, this.metricsByPoints.top(this.k),
+				this.metricsByBytes.top(this.k), this.seriesByPoints.top(this.k), this.seriesByBytes.top(this.k));
+		this.metricsByPoints.clear();
+		this.metricsByBytes.clear();
+		this.seriesByPoints.clear();
+		this.seriesByBytes.clear();
+		this.start = now;
+	}
+
+	/**
+	 * Return heavy hitters of last completed interval.
+	 * 
+	 * @return heavy hitters
+	 */
+	HeavyHitters snapshot() {
+		return this.last;
+	}
+
+	/**
+	 * Hash tags independent of iteration order by summing hash of each tag, so
+	 * tags are neither sorted nor copied.
+	 */
+	private static long tagsHash(Map<String, String> tags) {
+		long h = 0;
+		if (tags != null) {
+			for (Map.Entry<String, String> tag : tags.entrySet()) {
+				h += Hashing.mix(Hashing.hash(Hashing.hash(Hashing.SEED, tag.getKey()), tag.getValue()));
+			}
+		}
+		return h;
+	}
+
+	private static String namespace(Point point) {
+		return StringUtils.isEmpty(point.getNamespace()) ? Constants.DEFAULT_NAMESPACE : point.getNamespace();
+	}
+
+	private static String metricKey(Point point) {
+		return namespace(point) + ":" + point.getName();
+	}
+
+	private static String seriesKey(Point point) {
+		StringBuilder key = new StringBuilder(metricKey(point)).append('{');
+		Map<String, String> tags = point.getTags();
+		if (tags != null && !tags.isEmpty()) {
+			String[] tagKeys = tags.keySet().toArray(new String[0]);
+			Arrays.sort(tagKeys);
+			for (int i = 0; i < tagKeys.length; i++) {
+				if (i > 0) {
+					key.append(',');
+				}
+				key.append(tagKeys[i]).append('=').append(tags.get(tagKeys[i]));
+			}
+		}
+		return key.append('}').toString();
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Top-k metrics and series by points and encoded bytes of the last completed
+ * interval.
+ */
+@Immutable
+public final class HeavyHitters {
+	/**
+	 * Empty heavy hitters, when tracking disabled or no interval completed.
+	 */
+	public static final HeavyHitters EMPTY = new HeavyHitters(0, 0, Collections.emptyList(),
+			Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+	private final long start;
+	private final long end;
+	private final List<HeavyHitter> metricsByPoints;
+	private final List<HeavyHitter> metricsByBytes;
+	private final List<HeavyHitter> seriesByPoints;
+	private final List<HeavyHitter> seriesByBytes;
+
+	HeavyHitters(long start, long end, List<HeavyHitter> metricsByPoints, List<HeavyHitter> metricsByBytes,
+			List<HeavyHitter> seriesByPoints, List<HeavyHitter> seriesByBytes) {
+		this.start = start;
+		this.end = end;
+		this.metricsByPoints = Collections.unmodifiableList(metricsByPoints);
+		this.metricsByBytes = Collections.unmodifiableList(metricsByBytes);
+		this.seriesByPoints = Collections.unmodifiableList(seriesByPoints);
+		this.seriesByBytes = Collections.unmodifiableList(seriesByBytes);
+	}
+
+	/**
+	 * Return the start time(ms) of interval.
+	 * 
+	 * @return start time
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * Return the end time(ms) of interval.
+	 * 
+	 * @return end time
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Return top metrics by points.
+	 * 
+	 * @return heavy hitters
+	 */
+	public List<HeavyHitter> getMetricsByPoints() {
+		return metricsByPoints;
+	}
+
+	/**
+	 * Return top metrics by encoded bytes.
+	 * 
+	 * @return heavy hitters
+	 */
+	public List<HeavyHitter> getMetricsByBytes() {
+		return metricsByBytes;
+	}
+
+	/**
+	 * Return top series by points.
+	 * 
+	 * @return heavy hitters
+	 */
+	public List<HeavyHitter> getSeriesByPoints() {
+		return seriesByPoints;
+	}
+
+	/**
+	 * Return top series by encoded bytes.
+	 * 
+	 * @return heavy hitters
+	 */
+	public List<HeavyHitter> getSeriesByBytes() {
+		return seriesByBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "HeavyHitters [start=" + start + ", end=" + end + ", metricsByPoints=" + metricsByPoints
+				+ ", metricsByBytes=" + metricsByBytes + ", seriesByPoints=" + seriesByPoints + ", seriesByBytes="
+				+ seriesByBytes + "]";
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Import progress of each file region, saved as properties file. Offset of
+ * region is the end of last sent batch, so import resumes from it.
+ */
+@ThreadSafe
+final class ImportCheckpoint {
+	private final static String IDENTITY = "identity";
+	private final static String REGIONS = "regions";
+	private final static String REGION = "region.";
+
+	private final Path path;
+	private final String identity;
+	private final long[] boundaries;
+	private final long[] offsets;
+	private final int resumed;
+	private long lastSave;
+
+	private ImportCheckpoint(Path path, String identity, long[] boundaries, long[] offsets, int resumed) {
+		this.path = path;
+		this.identity = identity;
+		this.boundaries = boundaries;
+		this.offsets = offsets;
+		this.resumed = resumed;
+	}
+
+	/**
+	 * Open checkpoint, load progress if checkpoint file exists.
+	 * 
+	 * @param path       checkpoint file
+	 * @param identity   identity of import file and options
+	 * @param boundaries region boundaries, region i is [boundaries[i],
+	 *                   boundaries[i+1])
+	 * @return checkpoint
+	 * @throws IOException read checkpoint error or checkpoint not matching
+	 */
+	static ImportCheckpoint open(Path path, String identity, long[] boundaries) throws IOException {
+		int regions = boundaries.length - 1;
+		long[] offsets = new long[regions];
+		System.arraycopy(boundaries, 0, offsets, 0, regions);
+		int resumed = 0;
+		if (Files.exists(path)) {
+			Properties props = new Properties();
+			try (InputStream in = Files.newInputStream(path)) {
+				props.load(in);
+			}
+			if (!identity.equals(props.getProperty(IDENTITY))
+					|| !String.valueOf(regions).equals(props.getProperty(REGIONS))) {
+				throw new IOException("checkpoint " + path + " does not match import file/options");
+			}
+			for (int i = 0; i < regions; i++) {
+				String offset = props.getProperty(REGION + i);
+				if (offset != null) {
+					offsets[i] = Math.max(boundaries[i], Math.min(Long.parseLong(offset), boundaries[i + 1]));
+				}
+				if (offsets[i] > boundaries[i]) {
+					resumed++;
+				}
+			}
+		}
+		return new ImportCheckpoint(path, identity, boundaries, offsets, resumed);
+	}
+
+	/**
+	 * Return the offset region resumes from.
+	 * 
+	 * @param region region index
+	 * @return file offset
+	 */
+	synchronized long offset(int region) {
+		return this.offsets[region];
+	}
+
+	/**
+	 * Return the number of regions resumed from loaded progress.
+	 * 
+	 * @return regions
+	 */
+	int resumed() {
+		return this.resumed;
+	}
+
+	/**
+	 * Update progress of region.
+	 * 
+	 * @param region region index
+	 * @param offset file offset all data before it sent
+	 */
+	synchronized void update(int region, long offset) {
+		this.offsets[region] = Math.max(this.offsets[region], Math.min(offset, this.boundaries[region + 1]));
+	}
+
+	/**
+	 * Save checkpoint if not saved within interval.
+	 * 
+	 * @param interval min save interval(ms)
+	 * @throws IOException write checkpoint error
+	 */
+	synchronized void saveIfDue(long interval) throws IOException {
+		if (System.currentTimeMillis() - this.lastSave >= interval) {
+			save();
+		}
+	}
+
+	/**
+	 * Save checkpoint, replace checkpoint file atomically if supported.
+	 * 
+	 * @throws IOException write checkpoint error
+	 */
+	synchronized void save() throws IOException {
+		Properties props = new Properties();
+		props.setProperty(IDENTITY, this.identity);
+		props.setProperty(REGIONS, String.valueOf(this.offsets.length));
+		for (int i = 0; i < this.offsets.length; i++) {
+			props.setProperty(REGION + i, String.valueOf(this.offsets[i]));
+		}
+		Path tmp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+		try (OutputStream out = Files.newOutputStream(tmp)) {
+			props.store(out, "lindb import checkpoint");
+		}
+		try {
+			Files.move(tmp, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, this.path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		this.lastSave = System.currentTimeMillis();
+	}
+
+	/**
+	 * Delete checkpoint file after import done.
+	 * 
+	 * @throws IOException delete error
+	 */
+	synchronized void delete() throws IOException {
+		Files.deleteIfExists(this.path);
+	}
+}
@@ -0,0 +1,36 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+/**
+ * Input file format of bulk import.
+ */
+public enum ImportFormat {
+	/**
+	 * Influx line protocol, measurement[,tag=value...] field=value[,...]
+	 * [timestamp], string fields are skipped.
+	 */
+	LINE,
+	/**
+	 * Comma separated values with header row, columns are mapped to metric name,
+	 * timestamp, tags and fields by name. Quoted values must not contain line
+	 * breaks.
+	 */
+	CSV,
+}
@@ -0,0 +1,521 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Bulk import configuration options.
+ */
+public final class ImportOptions {
+	/**
+	 * Import options builder.
+	 */
+	@NotThreadSafe
+	public static class Builder {
+		private ImportFormat format = DEFAULT_FORMAT;
+		private int parallelism = DEFAULT_PARALLELISM;
+		private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+		private int batchSize = DEFAULT_BATCH_SIZE;
+		private long regionSize = DEFAULT_REGION_SIZE;
+		private int maxRetries = DEFAULT_MAX_RETRIES;
+		private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+		private String namespace;
+		private FieldType fieldType = DEFAULT_FIELD_TYPE;
+		private final Map<String, FieldType> fieldTypes = new HashMap<>();
+		private TimeUnit precision;
+		private char separator = DEFAULT_SEPARATOR;
+		private String metricName;
+		private String nameColumn;
+		private String timestampColumn = DEFAULT_TIMESTAMP_COLUMN;
+		private final Set<String> tagColumns = new HashSet<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Return the import options with setting.
+		 * 
+		 * @return import options
+		 */
+		public ImportOptions build() {
+			if (this.format == ImportFormat.CSV) {
+				Preconditions.checkArgument(StringUtils.isNotEmpty(this.metricName)
+						|| StringUtils.isNotEmpty(this.nameColumn), "csv import requires metric name or name column");
+			}
+			return new ImportOptions(this);
+		}
+
+		/**
+		 * Set input file format.
+		 * Default value: LINE.
+		 * 
+		 * @param format {@link ImportFormat}
+		 * @return builder
+		 */
+		public Builder format(final ImportFormat format) {
+			Preconditions.checkNotNull(format, "import format cannot be null");
+			this.format = format;
+			return this;
+		}
+
+		/**
+		 * Set number of threads parsing/encoding file regions.
+		 * Default value: available processors.
+		 * 
+		 * @param parallelism {@link int}
+		 * @return builder
+		 */
+		public Builder parallelism(final int parallelism) {
+			Preconditions.checkArgument(parallelism > 0, "parallelism must be positive", parallelism);
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		/**
+		 * Set max number of batches being sent concurrently.
+		 * Default value: 4.
+		 * 
+		 * @param maxInFlight {@link int}
+		 * @return builder
+		 */
+		public Builder maxInFlight(final int maxInFlight) {
+			Preconditions.checkArgument(maxInFlight > 0, "max in-flight batches must be positive", maxInFlight);
+			this.maxInFlight = maxInFlight;
+			return this;
+		}
+
+		/**
+		 * Set points of each send batch.
+		 * Default value: 1000.
+		 * 
+		 * @param batchSize {@link int}
+		 * @return builder
+		 */
+		public Builder batchSize(final int batchSize) {
+			Preconditions.checkArgument(batchSize > 0, "negative batch size", batchSize);
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Set size of file region parsed by one task, regions are extended to line
+		 * end. Checkpoint can only be resumed with the same region size.
+		 * Default value: 8MB, max 1GB.
+		 * 
+		 * @param regionSize {@link long}
+		 * @return builder
+		 */
+		public Builder regionSize(final long regionSize) {
+			Preconditions.checkArgument(regionSize > 0 && regionSize <= MAX_REGION_SIZE,
+					"region size must be in (0, 1GB]", regionSize);
+			this.regionSize = regionSize;
+			return this;
+		}
+
+		/**
+		 * Set max retry count if send batch failure.
+		 * Default value: 3.
+		 * 
+		 * @param maxRetries {@link int}
+		 * @return builder
+		 */
+		public Builder maxRetries(final int maxRetries) {
+			Preconditions.checkArgument(maxRetries >= 0, "negative max retries", maxRetries);
+			this.maxRetries = maxRetries;
+			return this;
+		}
+
+		/**
+		 * Set min interval of saving checkpoint file, checkpoint is also saved when
+		 * region done or import failed.
+		 * Default value: 1000ms.
+		 * 
+		 * @param checkpointInterval {@link long}
+		 * @return builder
+		 */
+		public Builder checkpointInterval(final long checkpointInterval) {
+			Preconditions.checkArgument(checkpointInterval >= 0, "negative checkpoint interval",
+					checkpointInterval);
+			this.checkpointInterval = checkpointInterval;
+			return this;
+		}
+
+		/**
+		 * Set namespace of imported metrics.
+		 * 
+		 * @param namespace {@link String}
+		 * @return builder
+		 */
+		public Builder namespace(final String namespace) {
+			this.namespace = namespace;
+			return this;
+		}
+
+		/**
+		 * Set type of imported fields.
+		 * Default value: Last.
+		 * 
+		 * @param fieldType {@link FieldType}
+		 * @return builder
+		 */
+		public Builder fieldType(final FieldType fieldType) {
+			Preconditions.checkNotNull(fieldType, "field type cannot be null");
+			this.fieldType = fieldType;
+			return this;
+		}
+
+		/**
+		 * Set type of imported field by field name.
+		 * 
+		 * @param name      {@link String}
+		 * @param fieldType {@link FieldType}
+		 * @return builder
+		 */
+		public Builder addFieldType(final String name, final FieldType fieldType) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(name), "field name cannot be empty");
+			Preconditions.checkNotNull(fieldType, "field type cannot be null");
+			this.fieldTypes.put(name, fieldType);
+			return this;
+		}
+
+		/**
+		 * Set unit of timestamps in file.
+		 * Default value: nanoseconds for line protocol, milliseconds for csv.
+		 * 
+		 * @param precision {@link TimeUnit}
+		 * @return builder
+		 */
+		public Builder precision(final TimeUnit precision) {
+			Preconditions.checkNotNull(precision, "precision cannot be null");
+			this.precision = precision;
+			return this;
+		}
+
+		/**
+		 * Set column separator of csv.
+		 * Default value: ','.
+		 * 
+		 * @param separator {@link char}
+		 * @return builder
+		 */
+		public Builder separator(final char separator) {
+			Preconditions.checkArgument(separator != '"' && separator != '\n' && separator != '\r',
+					"invalid separator");
+			this.separator = separator;
+			return this;
+		}
+
+		/**
+		 * Set metric name of csv rows, used if name column not set.
+		 * 
+		 * @param metricName {@link String}
+		 * @return builder
+		 */
+		public Builder metricName(final String metricName) {
+			this.metricName = metricName;
+			return this;
+		}
+
+		/**
+		 * Set csv column holding metric name.
+		 * 
+		 * @param nameColumn {@link String}
+		 * @return builder
+		 */
+		public Builder nameColumn(final String nameColumn) {
+			this.nameColumn = nameColumn;
+			return this;
+		}
+
+		/**
+		 * Set csv column holding timestamp, rows without timestamp use import time.
+		 * Default value: timestamp.
+		 * 
+		 * @param timestampColumn {@link String}
+		 * @return builder
+		 */
+		public Builder timestampColumn(final String timestampColumn) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(timestampColumn), "timestamp column cannot be empty");
+			this.timestampColumn = timestampColumn;
+			return this;
+		}
+
+		/**
+		 * Add csv column as tag, other columns except name/timestamp are fields.
+		 * 
+		 * @param tagColumn {@link String}
+		 * @return builder
+		 */
+		public Builder addTagColumn(final String tagColumn) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(tagColumn), "tag column cannot be empty");
+			this.tagColumns.add(tagColumn);
+			return this;
+		}
+	}
+
+	/**
+	 * Default import format.
+	 */
+	public static final ImportFormat DEFAULT_FORMAT = ImportFormat.LINE;
+	/**
+	 * Default parallelism.
+	 */
+	public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+	/**
+	 * Default max in-flight batches.
+	 */
+	public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+	/**
+	 * Default batch size.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1_000;
+	/**
+	 * Default region size, 8MB.
+	 */
+	public static final long DEFAULT_REGION_SIZE = 8L * 1024 * 1024;
+	/**
+	 * Max region size, 1GB.
+	 */
+	public static final long MAX_REGION_SIZE = 1024L * 1024 * 1024;
+	/**
+	 * Default max retries.
+	 */
+	public static final int DEFAULT_MAX_RETRIES = 3;
+	/**
+	 * Default checkpoint interval(ms).
+	 */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 1_000;
+	/**
+	 * Default field type.
+	 */
+	public static final FieldType DEFAULT_FIELD_TYPE = FieldType.Last;
+	/**
+	 * Default csv separator.
+	 */
+	public static final char DEFAULT_SEPARATOR = ',';
+	/**
+	 * Default csv timestamp column.
+	 */
+	public static final String DEFAULT_TIMESTAMP_COLUMN = "timestamp";
+
+	/**
+	 * Create import options builder instance
+	 * 
+	 * @return builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private final ImportFormat format;
+	private final int parallelism;
+	private final int maxInFlight;
+	private final int batchSize;
+	private final long regionSize;
+	private final int maxRetries;
+	private final long checkpointInterval;
+	private final String namespace;
+	private final FieldType fieldType;
+	private final Map<String, FieldType> fieldTypes;
+	private final TimeUnit precision;
+	private final char separator;
+	private final String metricName;
+	private final String nameColumn;
+	private final String timestampColumn;
+	private final Set<String> tagColumns;
+
+	private ImportOptions(Builder builder) {
+		this.format = builder.format;
+		this.parallelism = builder.parallelism;
+		this.maxInFlight = builder.maxInFlight;
+		this.batchSize = builder.batchSize;
+		this.regionSize = builder.regionSize;
+		this.maxRetries = builder.maxRetries;
+		this.checkpointInterval = builder.checkpointInterval;
+		this.namespace = builder.namespace;
+		this.fieldType = builder.fieldType;
+		this.fieldTypes = Collections.unmodifiableMap(new HashMap<>(builder.fieldTypes));
+		if (builder.precision != null) {
+			this.precision = builder.precision;
+		} else {
+			this.precision = builder.format == ImportFormat.LINE ? TimeUnit.NANOSECONDS : TimeUnit.MILLISECONDS;
+		}
+		this.separator = builder.separator;
+		this.metricName = builder.metricName;
+		this.nameColumn = builder.nameColumn;
+		this.timestampColumn = builder.timestampColumn;
+		this.tagColumns = Collections.unmodifiableSet(new HashSet<>(builder.tagColumns));
+	}
+
+	/**
+	 * Return the input file format.
+	 * 
+	 * @return format
+	 */
+	public ImportFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Return the number of threads parsing/encoding file regions.
+	 * 
+	 * @return parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Return the max number of batches being sent concurrently.
+	 * 
+	 * @return max in-flight batches
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Return the points of each send batch.
+	 * 
+	 * @return batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Return the size of file region parsed by one task.
+	 * 
+	 * @return region size(bytes)
+	 */
+	public long getRegionSize() {
+		return regionSize;
+	}
+
+	/**
+	 * Return the max retry count if send batch failure.
+	 * 
+	 * @return max retries
+	 */
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * Return the min interval of saving checkpoint file.
+	 * 
+	 * @return interval(ms)
+	 */
+	public long getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Return the namespace of imported metrics.
+	 * 
+	 * @return namespace
+	 */
+	public String getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * Return the type of imported fields.
+	 * 
+	 * @return field type
+	 */
+	public FieldType getFieldType() {
+		return fieldType;
+	}
+
+	/**
+	 * Return the type of imported fields by field name.
+	 * 
+	 * @return field types
+	 */
+	public Map<String, FieldType> getFieldTypes() {
+		return fieldTypes;
+	}
+
+	/**
+	 * Return the unit of timestamps in file.
+	 * 
+	 * @return precision
+	 */
+	public TimeUnit getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Return the column separator of csv.
+	 * 
+	 * @return separator
+	 */
+	public char getSeparator() {
+		return separator;
+	}
+
+	/**
+	 * Return the metric name of csv rows.
+	 * 
+	 * @return metric name
+	 */
+	public String getMetricName() {
+		return metricName;
+	}
+
+	/**
+	 * Return the csv column holding metric name.
+	 * 
+	 * @return name column
+	 */
+	public String getNameColumn() {
+		return nameColumn;
+	}
+
+	/**
+	 * Return the csv column holding timestamp.
+	 * 
+	 * @return timestamp column
+	 */
+	public String getTimestampColumn() {
+		return timestampColumn;
+	}
+
+	/**
+	 * Return the csv columns as tags.
+	 * 
+	 * @return tag columns
+	 */
+	public Set<String> getTagColumns() {
+		return tagColumns;
+	}
+}
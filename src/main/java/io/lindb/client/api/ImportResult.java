@@ -0,0 +1,130 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Result of {@link Importer} importing a file.
+ */
+@Immutable
+public final class ImportResult {
+	private final long points;
+	private final long skippedLines;
+	private final long rejectedPoints;
+	private final long batches;
+	private final long sentBytes;
+	private final int regions;
+	private final int resumedRegions;
+	private final long elapsedMillis;
+
+	ImportResult(long points, long skippedLines, long rejectedPoints, long batches, long sentBytes, int regions,
+			int resumedRegions, long elapsedMillis) {
+		this.points = points;
+		this.skippedLines = skippedLines;
+		this.rejectedPoints = rejectedPoints;
+		this.batches = batches;
+		this.sentBytes = sentBytes;
+		this.regions = regions;
+		this.resumedRegions = resumedRegions;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Return the points written by this run.
+	 * 
+	 * @return points
+	 */
+	public long getPoints() {
+		return points;
+	}
+
+	/**
+	 * Return the malformed lines skipped.
+	 * 
+	 * @return lines
+	 */
+	public long getSkippedLines() {
+		return skippedLines;
+	}
+
+	/**
+	 * Return the points of batches rejected by broker with non-retryable
+	 * status(bad data), which are skipped.
+	 * 
+	 * @return points
+	 */
+	public long getRejectedPoints() {
+		return rejectedPoints;
+	}
+
+	/**
+	 * Return the batches sent.
+	 * 
+	 * @return batches
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * Return the bytes sent(compressed if using gzip).
+	 * 
+	 * @return bytes
+	 */
+	public long getSentBytes() {
+		return sentBytes;
+	}
+
+	/**
+	 * Return the number of file regions.
+	 * 
+	 * @return regions
+	 */
+	public int getRegions() {
+		return regions;
+	}
+
+	/**
+	 * Return the regions resumed from checkpoint, partially or fully imported by
+	 * previous run.
+	 * 
+	 * @return regions
+	 */
+	public int getResumedRegions() {
+		return resumedRegions;
+	}
+
+	/**
+	 * Return the elapsed time of this run.
+	 * 
+	 * @return elapsed(ms)
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportResult [points=" + points + ", skippedLines=" + skippedLines + ", rejectedPoints="
+				+ rejectedPoints + ", batches=" + batches
+				+ ", sentBytes=" + sentBytes + ", regions=" + regions + ", resumedRegions=" + resumedRegions
+				+ ", elapsedMillis=" + elapsedMillis + "]";
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Bulk import api, loads Influx line protocol or csv file into database.
+ */
+public interface Importer {
+	/**
+	 * Import file.
+	 * 
+	 * @param file file to import
+	 * @return import result
+	 * @throws IOException          read file or send data error
+	 * @throws InterruptedException thread interrupted
+	 */
+	ImportResult importFile(Path file) throws IOException, InterruptedException;
+
+	/**
+	 * Import file, resume from checkpoint if it exists. Progress is saved into
+	 * checkpoint while importing and when import failed, checkpoint is deleted
+	 * after all regions imported. Batches sent after last checkpoint saving are
+	 * sent again when resumed.
+	 * 
+	 * @param file       file to import
+	 * @param checkpoint checkpoint file
+	 * @return import result
+	 * @throws IOException          read file, send data or checkpoint not matching
+	 *                              file/options
+	 * @throws InterruptedException thread interrupted
+	 */
+	ImportResult importFile(Path file, Path checkpoint) throws IOException, InterruptedException;
+}
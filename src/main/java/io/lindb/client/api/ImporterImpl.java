@@ -0,0 +1,416 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.lindb.client.internal.WriteClient;
+
+/**
+ * Implement bulk import api. File is split into regions at line end, regions
+ * are memory-mapped, parsed and encoded by fork-join pool, each task sends its
+ * batches in order with bounded number of batches in flight overall.
+ */
+@ThreadSafe
+public class ImporterImpl implements Importer {
+	private final static Logger LOGGER = LoggerFactory.getLogger(ImporterImpl.class);
+	private final static int MAX_LOGGED_LINES = 10;
+	private final static int SCAN_BUFFER = 64 * 1024;
+	private final static long RETRY_BACKOFF = 100; // ms
+	private final static long CANCEL_TIMEOUT = 30; // s
+
+	private final ImportOptions options;
+	private final Map<String, String> defaultTags;
+	private final boolean useGZip;
+	private final WriteClient client;
+
+	/**
+	 * Create an import api instance with options and http client.
+	 * 
+	 * @param options      import options
+	 * @param writeOptions write options, for default tags and gzip
+	 * @param client       http write client
+	 */
+	protected ImporterImpl(ImportOptions options, WriteOptions writeOptions, WriteClient client) {
+		this.options = options;
+		this.defaultTags = writeOptions.getDefaultTags();
+		this.useGZip = writeOptions.isUseGZip();
+		this.client = client;
+	}
+
+	/**
+	 * Import file.
+	 * 
+	 * @param file file to import
+	 * @return import result
+	 * @throws IOException          read file or send data error
+	 * @throws InterruptedException thread interrupted
+	 */
+	@Override
+	public ImportResult importFile(Path file) throws IOException, InterruptedException {
+		return importFile(file, null);
+	}
+
+	/**
+	 * Import file, resume from checkpoint if it exists.
+	 * 
+	 * @param file       file to import
+	 * @param checkpoint checkpoint file
+	 * @return import result
+	 * @throws IOException          read file, send data or checkpoint not matching
+	 *                              file/options
+	 * @throws InterruptedException thread interrupted
+	 */
+	@Override
+	public ImportResult importFile(Path file, Path checkpoint) throws IOException, InterruptedException {
+		long begin = System.currentTimeMillis();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long start = 0;
+			byte[] header = null;
+			if (this.options.getFormat() == ImportFormat.CSV) {
+				start = lineEnd(channel, 0, size);
+				header = new byte[(int) start];
+				channel.read(ByteBuffer.wrap(header), 0);
+				// validate header
+				new CsvParser(header, header.length, this.options);
+			}
+			long[] boundaries = boundaries(channel, start, size);
+			ImportCheckpoint progress = null;
+			if (checkpoint != null) {
+				String identity = file.toAbsolutePath() + ":" + size + ":" + Files.getLastModifiedTime(file).toMillis()
+						+ ":" + this.options.getFormat() + ":" + this.options.getRegionSize();
+				progress = ImportCheckpoint.open(checkpoint, identity, boundaries);
+			}
+			ImportRun run = new ImportRun(channel, boundaries, header, progress);
+			run.execute();
+			return new ImportResult(run.points.sum(), run.skippedLines.sum(), run.rejectedPoints.sum(),
+					run.batches.sum(), run.sentBytes.sum(), boundaries.length - 1, progress == null ? 0 : progress.resumed(),
+					System.currentTimeMillis() - begin);
+		}
+	}
+
+	/**
+	 * Split [start, size) into regions of region size, extended to line end.
+	 */
+	private long[] boundaries(FileChannel channel, long start, long size) throws IOException {
+		List<Long> boundaries = new ArrayList<>();
+		boundaries.add(start);
+		long pos = start;
+		while (pos < size) {
+			long next = pos + this.options.getRegionSize();
+			pos = next >= size ? size : lineEnd(channel, next - 1, size);
+			if (pos - boundaries.get(boundaries.size() - 1) > Integer.MAX_VALUE) {
+				throw new IOException("line too long near offset " + next);
+			}
+			boundaries.add(pos);
+		}
+		long[] result = new long[boundaries.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = boundaries.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Return offset after first line feed at or after pos, size if not found.
+	 */
+	private static long lineEnd(FileChannel channel, long pos, long size) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER);
+		while (pos < size) {
+			buf.clear();
+			int n = channel.read(buf, pos);
+			if (n <= 0) {
+				break;
+			}
+			byte[] data = buf.array();
+			for (int i = 0; i < n; i++) {
+				if (data[i] == '\n') {
+					return pos + i + 1;
+				}
+			}
+			pos += n;
+		}
+		return size;
+	}
+
+	/**
+	 * State of one import run.
+	 */
+	private class ImportRun {
+		private final FileChannel channel;
+		private final long[] boundaries;
+		private final byte[] header;
+		private final ImportCheckpoint progress;
+		private final Semaphore inFlight = new Semaphore(options.getMaxInFlight());
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+		private final AtomicInteger loggedLines = new AtomicInteger();
+		private final LongAdder points = new LongAdder();
+		private final LongAdder skippedLines = new LongAdder();
+		private final LongAdder rejectedPoints = new LongAdder();
+		private final LongAdder batches = new LongAdder();
+		private final LongAdder sentBytes = new LongAdder();
+		private volatile boolean cancelled;
+
+		ImportRun(FileChannel channel, long[] boundaries, byte[] header, ImportCheckpoint progress) {
+			this.channel = channel;
+			this.boundaries = boundaries;
+			this.header = header;
+			this.progress = progress;
+		}
+
+		void execute() throws IOException, InterruptedException {
+			ForkJoinPool pool = new ForkJoinPool(options.getParallelism(), p -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+				thread.setName("lin-import-" + thread.getPoolIndex());
+				return thread;
+			}, null, false);
+			try {
+				ForkJoinTask<Void> task = pool.submit(new RegionTask(this, 0, this.boundaries.length - 1));
+				task.get();
+			} catch (ExecutionException e) {
+				this.failure.compareAndSet(null, e.getCause());
+			} catch (InterruptedException e) {
+				this.cancelled = true;
+				pool.shutdownNow();
+				pool.awaitTermination(CANCEL_TIMEOUT, TimeUnit.SECONDS);
+				saveProgress();
+				throw e;
+			} finally {
+				pool.shutdown();
+			}
+			Throwable e = this.failure.get();
+			if (e == null) {
+				if (this.progress != null) {
+					this.progress.delete();
+				}
+				return;
+			}
+			saveProgress();
+			if (e instanceof IOException) {
+				throw (IOException) e;
+			}
+			if (e instanceof InterruptedException) {
+				throw (InterruptedException) e;
+			}
+			throw new IOException("import failure", e);
+		}
+
+		private void saveProgress() {
+			if (this.progress == null) {
+				return;
+			}
+			try {
+				this.progress.save();
+			} catch (IOException e) {
+				LOGGER.error("save import checkpoint failure", e);
+			}
+		}
+
+		void process(int region) {
+			try {
+				region(region);
+			} catch (Throwable e) {
+				this.failure.compareAndSet(null, e);
+			}
+		}
+
+		private void region(int region) throws IOException, InterruptedException {
+			long from = this.progress == null ? this.boundaries[region] : this.progress.offset(region);
+			long to = this.boundaries[region + 1];
+			if (from >= to) {
+				return;
+			}
+			MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+			RecordParser parser = this.header == null ? new LineProtocolParser(options.getPrecision())
+					: new CsvParser(this.header, this.header.length, options);
+			RecordEncoder encoder = new RecordEncoder(options.getNamespace(), defaultTags, options.getFieldType(),
+					options.getFieldTypes());
+			ByteArrayOutputStream compressed = useGZip ? new ByteArrayOutputStream() : null;
+			byte[] line = new byte[256];
+			int limit = buffer.limit();
+			int pos = 0;
+			long now = System.currentTimeMillis();
+			while (pos < limit) {
+				if (this.failure.get() != null || this.cancelled) {
+					return;
+				}
+				int lineStart = pos;
+				int length = 0;
+				while (pos < limit) {
+					byte b = buffer.get(pos++);
+					if (b == '\n') {
+						break;
+					}
+					if (length == line.length) {
+						line = Arrays.copyOf(line, length * 2);
+					}
+					line[length++] = b;
+				}
+				int state = parser.parse(line, length, encoder, now);
+				if (state == RecordParser.EMPTY) {
+					continue;
+				}
+				if (state != RecordParser.OK || !encoder.finish()) {
+					skip(from + lineStart, line, length);
+					continue;
+				}
+				if (encoder.batchPoints() >= options.getBatchSize()) {
+					send(encoder, compressed, region, from + pos);
+				}
+			}
+			if (encoder.batchPoints() > 0) {
+				send(encoder, compressed, region, to);
+			}
+			if (this.progress != null) {
+				this.progress.update(region, to);
+				this.progress.saveIfDue(options.getCheckpointInterval());
+			}
+		}
+
+		private void skip(long offset, byte[] line, int length) {
+			this.skippedLines.increment();
+			if (this.loggedLines.incrementAndGet() <= MAX_LOGGED_LINES) {
+				LOGGER.warn("skip malformed line at offset {}: {}", offset,
+						new String(line, 0, Math.min(length, 256), StandardCharsets.UTF_8));
+			}
+		}
+
+		private void send(RecordEncoder encoder, ByteArrayOutputStream compressed, int region, long offset)
+				throws IOException, InterruptedException {
+			byte[] data;
+			if (compressed != null) {
+				compressed.reset();
+				try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+					gzip.write(encoder.batch(), 0, encoder.batchBytes());
+				}
+				data = compressed.toByteArray();
+			} else {
+				data = Arrays.copyOf(encoder.batch(), encoder.batchBytes());
+			}
+			int batchPoints = encoder.batchPoints();
+			encoder.clearBatch();
+			boolean sent;
+			this.inFlight.acquire();
+			try {
+				sent = sendWithRetry(data);
+			} finally {
+				this.inFlight.release();
+			}
+			if (sent) {
+				this.points.add(batchPoints);
+				this.batches.increment();
+				this.sentBytes.add(data.length);
+			} else {
+				// rejected for data itself, retry or resume cannot succeed
+				this.rejectedPoints.add(batchPoints);
+			}
+			if (this.progress != null) {
+				this.progress.update(region, offset);
+				this.progress.saveIfDue(options.getCheckpointInterval());
+			}
+		}
+
+		/**
+		 * Send batch, retry retryable failures, returns false if batch rejected
+		 * with non-retryable status.
+		 */
+		private boolean sendWithRetry(byte[] data) throws IOException, InterruptedException {
+			for (int attempt = 0;; attempt++) {
+				int status;
+				IOException failure = null;
+				try {
+					status = client.write(data, useGZip);
+				} catch (IOException e) {
+					status = -1;
+					failure = e;
+				}
+				if (WriteClient.isSuccessful(status)) {
+					return true;
+				}
+				if (!WriteClient.isRetryable(status)) {
+					LOGGER.warn("import batch rejected, status: {}, skip batch", status);
+					return false;
+				}
+				if (attempt >= options.getMaxRetries() || this.cancelled) {
+					throw failure != null ? failure : new IOException("send import batch failure, status: " + status);
+				}
+				LOGGER.warn("send import batch failure, retry {}: {}", attempt + 1,
+						failure != null ? failure.getMessage() : "status " + status);
+				Thread.sleep(RETRY_BACKOFF << attempt);
+			}
+		}
+	}
+
+	/**
+	 * Fork-join task of regions [from, to).
+	 */
+	private static class RegionTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient ImportRun run;
+		private final int from;
+		private final int to;
+
+		RegionTask(ImportRun run, int from, int to) {
+			this.run = run;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= 1) {
+				if (this.to > this.from) {
+					this.run.process(this.from);
+				}
+				return;
+			}
+			int mid = (this.from + this.to) >>> 1;
+			invokeAll(new RegionTask(this.run, this.from, mid), new RegionTask(this.run, mid, this.to));
+		}
+	}
+}
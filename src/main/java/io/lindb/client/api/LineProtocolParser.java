@@ -0,0 +1,198 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Influx line protocol parser, measurement[,tag=value...] field=value[,...]
+ * [timestamp]. Integer(i/u suffix), float and boolean fields are imported,
+ * string fields are skipped.
+ */
+@NotThreadSafe
+final class LineProtocolParser extends RecordParser {
+	private final TimeUnit precision;
+
+	/**
+	 * Create line protocol parser.
+	 * 
+	 * @param precision unit of timestamps
+	 */
+	LineProtocolParser(TimeUnit precision) {
+		this.precision = precision;
+	}
+
+	@Override
+	int parse(byte[] line, int length, RecordEncoder encoder, long now) {
+		int end = trimEnd(line, length);
+		int i = skipSpaces(line, 0, end);
+		if (i >= end || line[i] == '#') {
+			return EMPTY;
+		}
+		encoder.reset();
+		// measurement
+		int start = i;
+		int w = i;
+		for (; i < end; i++) {
+			byte c = line[i];
+			if (c == '\\' && i + 1 < end) {
+				line[w++] = line[++i];
+			} else if (c == ',' || c == ' ') {
+				break;
+			} else {
+				line[w++] = c;
+			}
+		}
+		encoder.name(line, start, w);
+		// tags
+		while (i < end && line[i] == ',') {
+			int keyFrom = ++i;
+			int keyTo = keyFrom;
+			for (; i < end; i++) {
+				byte c = line[i];
+				if (c == '\\' && i + 1 < end) {
+					line[keyTo++] = line[++i];
+				} else if (c == '=' || c == ',' || c == ' ') {
+					break;
+				} else {
+					line[keyTo++] = c;
+				}
+			}
+			if (i >= end || line[i] != '=') {
+				return INVALID;
+			}
+			int valueFrom = ++i;
+			int valueTo = valueFrom;
+			for (; i < end; i++) {
+				byte c = line[i];
+				if (c == '\\' && i + 1 < end) {
+					line[valueTo++] = line[++i];
+				} else if (c == ',' || c == ' ') {
+					break;
+				} else {
+					line[valueTo++] = c;
+				}
+			}
+			encoder.addTag(line, keyFrom, keyTo, line, valueFrom, valueTo);
+		}
+		if (i >= end || line[i] != ' ') {
+			return INVALID;
+		}
+		// fields
+		i = skipSpaces(line, i, end);
+		while (true) {
+			int keyFrom = i;
+			int keyTo = keyFrom;
+			for (; i < end; i++) {
+				byte c = line[i];
+				if (c == '\\' && i + 1 < end) {
+					line[keyTo++] = line[++i];
+				} else if (c == '=' || c == ',' || c == ' ') {
+					break;
+				} else {
+					line[keyTo++] = c;
+				}
+			}
+			if (i >= end || line[i] != '=' || ++i >= end) {
+				return INVALID;
+			}
+			if (line[i] == '"') {
+				// string field, skip it
+				for (i++; i < end && line[i] != '"'; i++) {
+					if (line[i] == '\\') {
+						i++;
+					}
+				}
+				if (i >= end) {
+					return INVALID;
+				}
+				i++;
+			} else {
+				int valueFrom = i;
+				while (i < end && line[i] != ',' && line[i] != ' ') {
+					i++;
+				}
+				double value = fieldValue(line, valueFrom, i);
+				if (Double.isNaN(value)) {
+					return INVALID;
+				}
+				encoder.addField(line, keyFrom, keyTo, value);
+			}
+			if (i < end && line[i] == ',') {
+				i++;
+				continue;
+			}
+			break;
+		}
+		// timestamp
+		i = skipSpaces(line, i, end);
+		if (i < end) {
+			long timestamp = parseLong(line, i, end);
+			if (timestamp == Long.MIN_VALUE) {
+				return INVALID;
+			}
+			encoder.timestamp(precision.toMillis(timestamp));
+		} else {
+			encoder.timestamp(now);
+		}
+		return OK;
+	}
+
+	private static double fieldValue(byte[] b, int from, int to) {
+		if (from >= to) {
+			return Double.NaN;
+		}
+		byte last = b[to - 1];
+		if (last == 'i' || last == 'u') {
+			long value = parseLong(b, from, to - 1);
+			return value == Long.MIN_VALUE ? Double.NaN : value;
+		}
+		switch (b[from]) {
+		case 't':
+		case 'T':
+			return isBoolean(b, from, to, "true") ? 1 : Double.NaN;
+		case 'f':
+		case 'F':
+			return isBoolean(b, from, to, "false") ? 0 : Double.NaN;
+		default:
+			return parseDouble(b, from, to);
+		}
+	}
+
+	private static boolean isBoolean(byte[] b, int from, int to, String word) {
+		// t, T, true, True, TRUE and so on
+		int length = to - from;
+		if (length == 1) {
+			return true;
+		}
+		if (length != word.length()) {
+			return false;
+		}
+		boolean upper = b[from + 1] >= 'A' && b[from + 1] <= 'Z';
+		for (int i = 1; i < length; i++) {
+			char c = word.charAt(i);
+			if (b[from + i] != (upper ? Character.toUpperCase(c) : c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
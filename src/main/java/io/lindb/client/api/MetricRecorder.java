@@ -0,0 +1,468 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.internal.Threads;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Typed recording handle of one metric shape(namespace, name, tag keys and
+ * simple fields) of {@link Write}, used by writers generated for
+ * {@link io.lindb.client.annotation.Metric} interfaces.
+ * 
+ * Record of each tag values combination is encoded once into a
+ * {@link RecordTemplate}, each record copies the template into a chunk and
+ * patches timestamp and field values in place, chunks are handed to write
+ * pipeline as pre-encoded records. Chunks are striped by producer thread(lock
+ * is mostly uncontended), chunks lingering longer than chunk linger are handed
+ * off by write periodically.
+ */
+@ThreadSafe
+public final class MetricRecorder implements AutoCloseable {
+	// max cached templates, records of series beyond are encoded one by one
+	private final static int MAX_TEMPLATES = 4096;
+
+	private final WriteImpl write;
+	private final String namespace;
+	private final String name;
+	private final String[] tagKeys;
+	private final String[] fieldNames;
+	private final FieldType[] fieldTypes;
+	private final int chunkSize;
+	private final long lingerNanos;
+	private final Map<SeriesKey, RecordTemplate> templates = new ConcurrentHashMap<>();
+	private final Chunk[] chunks;
+
+	/**
+	 * Create recording handle.
+	 * 
+	 * @param write      write which chunks handed to
+	 * @param namespace  namespace of metric, nullable
+	 * @param name       metric name
+	 * @param tagKeys    tag keys
+	 * @param fieldNames simple field names
+	 * @param fieldTypes simple field types
+	 * @param chunkSize  max records of chunk
+	 * @param linger     max linger time(ms) of chunk
+	 */
+	MetricRecorder(WriteImpl write, String namespace, String name, String[] tagKeys, String[] fieldNames,
+			FieldType[] fieldTypes, int chunkSize, long linger) {
+		Preconditions.checkArgument(!StringUtils.isEmpty(name), "metric name cannot be empty");
+		Preconditions.checkNotNull(tagKeys, "tag keys cannot be null");
+		Preconditions.checkNotNull(fieldNames, "field names cannot be null");
+		Preconditions.checkNotNull(fieldTypes, "field types cannot be null");
+		Preconditions.checkArgument(fieldNames.length > 0, "metric must have at least one field");
+		Preconditions.checkArgument(fieldNames.length == fieldTypes.length,
+				"field names length not equals field types length");
+		for (String tagKey : tagKeys) {
+			Preconditions.checkArgument(!StringUtils.isEmpty(tagKey), "tag key cannot be empty");
+		}
+		for (int i = 0; i < fieldNames.length; i++) {
+			Preconditions.checkArgument(!StringUtils.isEmpty(fieldNames[i]), "field name cannot be empty");
+			Preconditions.checkNotNull(fieldTypes[i], "field type cannot be null");
+		}
+		this.write = write;
+		this.namespace = namespace;
+		this.name = name;
+		this.tagKeys = tagKeys.clone();
+		this.fieldNames = fieldNames.clone();
+		this.fieldTypes = fieldTypes.clone();
+		this.chunkSize = chunkSize;
+		this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(linger);
+		int stripes = Threads.stripes();
+		this.chunks = new Chunk[stripes];
+		for (int i = 0; i < stripes; i++) {
+			this.chunks[i] = new Chunk();
+		}
+	}
+
+	/**
+	 * Record single field value of series without tags, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param value     field value
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, double value) {
+		return record(timestamp, 0, null, null, null, 1, value, 0);
+	}
+
+	/**
+	 * Record single field value of series with one tag, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tag1      value of first tag key
+	 * @param value     field value
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String tag1, double value) {
+		return record(timestamp, 1, tag1, null, null, 1, value, 0);
+	}
+
+	/**
+	 * Record single field value of series with two tags, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tag1      value of first tag key
+	 * @param tag2      value of second tag key
+	 * @param value     field value
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String tag1, String tag2, double value) {
+		return record(timestamp, 2, tag1, tag2, null, 1, value, 0);
+	}
+
+	/**
+	 * Record single field value of series with three tags, hand off chunk if
+	 * full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tag1      value of first tag key
+	 * @param tag2      value of second tag key
+	 * @param tag3      value of third tag key
+	 * @param value     field value
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String tag1, String tag2, String tag3, double value) {
+		return record(timestamp, 3, tag1, tag2, tag3, 1, value, 0);
+	}
+
+	/**
+	 * Record two field values of series without tags, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param value1    value of first field
+	 * @param value2    value of second field
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, double value1, double value2) {
+		return record(timestamp, 0, null, null, null, 2, value1, value2);
+	}
+
+	/**
+	 * Record two field values of series with one tag, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tag1      value of first tag key
+	 * @param value1    value of first field
+	 * @param value2    value of second field
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String tag1, double value1, double value2) {
+		return record(timestamp, 1, tag1, null, null, 2, value1, value2);
+	}
+
+	/**
+	 * Record two field values of series with two tags, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tag1      value of first tag key
+	 * @param tag2      value of second tag key
+	 * @param value1    value of first field
+	 * @param value2    value of second field
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String tag1, String tag2, double value1, double value2) {
+		return record(timestamp, 2, tag1, tag2, null, 2, value1, value2);
+	}
+
+	/**
+	 * Record two field values of series with three tags, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tag1      value of first tag key
+	 * @param tag2      value of second tag key
+	 * @param tag3      value of third tag key
+	 * @param value1    value of first field
+	 * @param value2    value of second field
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String tag1, String tag2, String tag3, double value1, double value2) {
+		return record(timestamp, 3, tag1, tag2, tag3, 2, value1, value2);
+	}
+
+	/**
+	 * Record single field value of series, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tagValues tag values in order of tag keys
+	 * @param value     field value
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String[] tagValues, double value) {
+		Preconditions.checkArgument(this.fieldNames.length == 1, "metric has %s fields", this.fieldNames.length);
+		checkTags(tagValues);
+		Chunk chunk = chunk();
+		synchronized (chunk) {
+			if (!this.write.accepting()) {
+				this.write.stats.rejectedPoints.increment();
+				return false;
+			}
+			RecordTemplate template = template(chunk, tagValues);
+			if (template == null) {
+				return false;
+			}
+			int offset = chunk.append(template, timestamp);
+			template.set(chunk.buffer, offset, 0, value);
+			return chunk.count < this.chunkSize || chunk.handoff();
+		}
+	}
+
+	/**
+	 * Record field values of series, hand off chunk if full.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param tagValues tag values in order of tag keys
+	 * @param values    field values in order of field names
+	 * @return false if record dropped by series limit, or records of chunk
+	 *         rejected by write(queue full or write closed)
+	 */
+	public boolean record(long timestamp, String[] tagValues, double[] values) {
+		Preconditions.checkArgument(values != null && values.length == this.fieldNames.length,
+				"values length not equals fields length %s", this.fieldNames.length);
+		checkTags(tagValues);
+		Chunk chunk = chunk();
+		synchronized (chunk) {
+			if (!this.write.accepting()) {
+				this.write.stats.rejectedPoints.increment();
+				return false;
+			}
+			RecordTemplate template = template(chunk, tagValues);
+			if (template == null) {
+				return false;
+			}
+			int offset = chunk.append(template, timestamp);
+			for (int i = 0; i < values.length; i++) {
+				template.set(chunk.buffer, offset, i, values[i]);
+			}
+			return chunk.count < this.chunkSize || chunk.handoff();
+		}
+	}
+
+	/**
+	 * Record of fixed arity, tag values are put into tag values array of chunk so
+	 * no array is allocated per record.
+	 */
+	private boolean record(long timestamp, int tags, String tag1, String tag2, String tag3, int fields,
+			double value1, double value2) {
+		Preconditions.checkArgument(this.tagKeys.length == tags, "metric has %s tags", this.tagKeys.length);
+		Preconditions.checkArgument(this.fieldNames.length == fields, "metric has %s fields",
+				this.fieldNames.length);
+		Chunk chunk = chunk();
+		synchronized (chunk) {
+			if (!this.write.accepting()) {
+				// checked under lock, so no record enters chunk after close flushed it
+				this.write.stats.rejectedPoints.increment();
+				return false;
+			}
+			String[] tagValues = chunk.tagValues;
+			if (tags > 0) {
+				tagValues[0] = tag1;
+			}
+			if (tags > 1) {
+				tagValues[1] = tag2;
+			}
+			if (tags > 2) {
+				tagValues[2] = tag3;
+			}
+			RecordTemplate template = template(chunk, tagValues);
+			if (template == null) {
+				return false;
+			}
+			int offset = chunk.append(template, timestamp);
+			template.set(chunk.buffer, offset, 0, value1);
+			if (fields > 1) {
+				template.set(chunk.buffer, offset, 1, value2);
+			}
+			return chunk.count < this.chunkSize || chunk.handoff();
+		}
+	}
+
+	/**
+	 * Hand off records of all chunks immediately.
+	 * 
+	 * @return false if records rejected by write(queue full or write closed)
+	 */
+	public boolean flush() {
+		boolean flushed = true;
+		for (Chunk chunk : this.chunks) {
+			synchronized (chunk) {
+				flushed &= chunk.count == 0 || chunk.handoff();
+			}
+		}
+		return flushed;
+	}
+
+	/**
+	 * Hand off chunks lingering longer than chunk linger.
+	 *
+	 * @param nowNanos current time(ns)
+	 */
+	void handoffIfLingering(long nowNanos) {
+		for (Chunk chunk : this.chunks) {
+			synchronized (chunk) {
+				if (chunk.count > 0 && nowNanos - chunk.firstNanos >= this.lingerNanos) {
+					chunk.handoff();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the number of cached series templates.
+	 * 
+	 * @return templates
+	 */
+	int templates() {
+		return this.templates.size();
+	}
+
+	/**
+	 * Hand off left records, then detach from write.
+	 */
+	@Override
+	public void close() {
+		flush();
+		this.write.unregister(this);
+	}
+
+	private Chunk chunk() {
+		return this.chunks[Threads.stripe(this.chunks.length)];
+	}
+
+	private void checkTags(String[] tagValues) {
+		Preconditions.checkArgument(tagValues != null && tagValues.length == this.tagKeys.length,
+				"tag values length not equals tag keys length %s", this.tagKeys.length);
+	}
+
+	/**
+	 * Return template of series, cached by tag values, null if series dropped by
+	 * series limit. Template is looked up by series key probe of chunk, so must
+	 * be called with chunk locked.
+	 */
+	private RecordTemplate template(Chunk chunk, String[] tagValues) {
+		RecordTemplate template = this.templates.get(chunk.probe.set(tagValues));
+		if (template != null) {
+			return template;
+		}
+		Point.Builder builder = Point.builder(this.name).namespace(this.namespace);
+		for (int i = 0; i < tagValues.length; i++) {
+			builder.addTag(this.tagKeys[i], tagValues[i]);
+		}
+		for (int i = 0; i < this.fieldNames.length; i++) {
+			builder.addSimpleField(this.fieldNames[i], this.fieldTypes[i], 0);
+		}
+		template = this.write.template(builder.build());
+		if (template != null && this.templates.size() < MAX_TEMPLATES) {
+			// copy array of tag values, caller may reuse it
+			this.templates.putIfAbsent(new SeriesKey().set(tagValues.clone()), template);
+		}
+		return template;
+	}
+
+	/**
+	 * Tag values of series as template cache key, mutable so one probe of each
+	 * chunk is reused for lookups.
+	 */
+	private static final class SeriesKey {
+		private String[] tagValues;
+		private int hash;
+
+		SeriesKey set(String[] tagValues) {
+			this.tagValues = tagValues;
+			this.hash = Arrays.hashCode(tagValues);
+			return this;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof SeriesKey && this.hash == ((SeriesKey) obj).hash
+					&& Arrays.equals(this.tagValues, ((SeriesKey) obj).tagValues);
+		}
+	}
+
+	/**
+	 * Records of producer threads in one stripe, guarded by itself.
+	 */
+	private final class Chunk {
+		private final String[] tagValues = new String[tagKeys.length];
+		private final SeriesKey probe = new SeriesKey();
+		private byte[] buffer = new byte[0];
+		private int length;
+		private int count;
+		private long firstNanos;
+
+		/**
+		 * Copy template into chunk, returns offset of record.
+		 */
+		int append(RecordTemplate template, long timestamp) {
+			int size = template.recordSize();
+			if (this.length + size > this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer, Math.max(this.length + size, this.buffer.length * 2));
+			}
+			if (this.count == 0) {
+				this.firstNanos = System.nanoTime();
+			}
+			int offset = this.length;
+			this.length = template.write(timestamp, this.buffer, offset);
+			this.count++;
+			return offset;
+		}
+
+		/**
+		 * Hand off records without waiting for queue space, records are copied by
+		 * write so buffer is reused.
+		 */
+		boolean handoff() {
+			int records = this.count;
+			int bytes = this.length;
+			this.count = 0;
+			this.length = 0;
+			try {
+				return write.writeRecords(this.buffer, 0, bytes, 0, TimeUnit.MILLISECONDS, true) == records;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+	}
+}
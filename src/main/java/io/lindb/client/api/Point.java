@@ -103,6 +103,27 @@ public class Point {
 			return this.addSimpleField(name, FieldType.Sum, value);
 		}
 
+		/**
+		 * Add monotonic cumulative sum field with name and total value, write api
+		 * converts it into delta sum field by the last value of the same series.
+		 * The first value of series only initializes the state, so it is not
+		 * written.
+		 * 
+		 * @param name  field name
+		 * @param value cumulative total value
+		 * @return builder
+		 */
+		public Builder addCumulativeSum(String name, double value) {
+			if (StringUtils.isEmpty(name)) {
+				LOGGER.warn("field name cannot be empty");
+				return this;
+			}
+			if (this.point.compoundField == null) {
+				this.point.cumulative = true;
+			}
+			return this.addSimpleField(new CumulativeSumField(name, value));
+		}
+
 		/**
 		 * Add min simple field with name and value.
 		 * 
@@ -178,6 +199,36 @@ public class Point {
 			return this;
 		}
 
+		/**
+		 * Add exemplars to the last added field(simple or histogram field), for
+		 * example exemplars drained from {@link ExemplarReservoir}.
+		 * Notice: cumulative sum field cannot have exemplars
+		 * 
+		 * @param exemplars exemplars of field
+		 * @return builder
+		 */
+		public Builder addExemplars(List<Exemplar> exemplars) {
+			if (exemplars == null || exemplars.isEmpty()) {
+				return this;
+			}
+			if (this.point.compoundField != null) {
+				this.point.compoundField = this.point.compoundField.withExemplars(exemplars);
+				return this;
+			}
+			List<Field> fields = this.point.simpleFields;
+			if (fields == null || fields.isEmpty()) {
+				LOGGER.warn("point has no field, ignore exemplars");
+				return this;
+			}
+			Field last = fields.get(fields.size() - 1);
+			if (!(last instanceof SimpleField)) {
+				LOGGER.warn("cumulative sum field cannot have exemplars, ignore exemplars");
+				return this;
+			}
+			fields.set(fields.size() - 1, ((SimpleField) last).withExemplars(exemplars));
+			return this;
+		}
+
 		/**
 		 * Return the point with setting.
 		 * 
@@ -187,7 +238,7 @@ public class Point {
 			return this.point;
 		}
 
-		private Builder addSimpleField(String name, FieldType type, double value) {
+		Builder addSimpleField(String name, FieldType type, double value) {
 			if (StringUtils.isEmpty(name)) {
 				LOGGER.warn("field name cannot be empty");
 				return this;
@@ -252,6 +303,7 @@ public class Point {
 	private Map<String, String> tags;
 	private List<Field> simpleFields;
 	private CompoundField compoundField;
+	private boolean cumulative;
 
 	private Point(String name, long timestamp) {
 		this.name = name;
@@ -312,6 +364,75 @@ public class Point {
 		return compoundField;
 	}
 
+	/**
+	 * Return if point has cumulative sum fields which need converting into delta.
+	 * 
+	 * @return if true has cumulative fields
+	 */
+	boolean hasCumulativeFields() {
+		return cumulative;
+	}
+
+	/**
+	 * Return a copy of this point with given simple fields.
+	 * 
+	 * @param fields simple fields
+	 * @return new point
+	 */
+	Point withSimpleFields(List<Field> fields) {
+		Point point = new Point(this.name, this.timestamp);
+		point.namespace = this.namespace;
+		point.tags = this.tags;
+		point.simpleFields = fields;
+		return point;
+	}
+
+	/**
+	 * Return a copy of this point with given compound field.
+	 * 
+	 * @param field compound field
+	 * @return new point
+	 */
+	Point withCompoundField(CompoundField field) {
+		Point point = new Point(this.name, this.timestamp);
+		point.namespace = this.namespace;
+		point.tags = this.tags;
+		point.compoundField = field;
+		return point;
+	}
+
+	/**
+	 * Return a copy of this point with given tags.
+	 * 
+	 * @param tags tags
+	 * @return new point
+	 */
+	Point withTags(Map<String, String> tags) {
+		Point point = new Point(this.name, this.timestamp);
+		point.namespace = this.namespace;
+		point.tags = tags;
+		point.simpleFields = this.simpleFields;
+		point.compoundField = this.compoundField;
+		point.cumulative = this.cumulative;
+		return point;
+	}
+
+	/**
+	 * Return a copy of this point with given timestamp.
+	 * 
+	 * @param timestamp timestamp(ms)
+	 * @return new point
+	 */
+	Point withTimestamp(long timestamp) {
+		Point point = new Point(this.name, timestamp);
+		point.namespace = this.namespace;
+		point.tags = this.tags;
+		point.simpleFields = this.simpleFields;
+		point.compoundField = this.compoundField;
+		point.cumulative = this.cumulative;
+		return point;
+	}
+
 	/**
 	 * Check point if it is valid.
 	 * 
@@ -0,0 +1,157 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Producer-side batching handle of {@link Write}, gathers points into a chunk
+ * and hands the whole chunk to write pipeline with one queue handoff, instead
+ * of one handoff per point. Intended to be owned by one producer thread(lock
+ * is uncontended), chunk lingering longer than chunk linger is handed off by
+ * write periodically.
+ */
+@ThreadSafe
+public final class PointBatcher implements AutoCloseable {
+	private final WriteImpl write;
+	private final int chunkSize;
+	private final long lingerNanos;
+	private List<Point> chunk;
+	private long firstNanos;
+
+	/**
+	 * Create batching handle.
+	 *
+	 * @param write     write which chunks handed to
+	 * @param chunkSize max points of chunk
+	 * @param linger    max linger time(ms) of chunk
+	 */
+	PointBatcher(WriteImpl write, int chunkSize, long linger) {
+		this.write = write;
+		this.chunkSize = chunkSize;
+		this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(linger);
+		this.chunk = new ArrayList<>(chunkSize);
+	}
+
+	/**
+	 * Add point into chunk, hand off chunk if full.
+	 *
+	 * @param point metric data point
+	 * @return false if points of chunk rejected by write(queue full or write
+	 *         closed)
+	 */
+	public synchronized boolean add(Point point) {
+		if (!this.write.accepting()) {
+			// checked under lock, so no point enters chunk after close flushed it
+			this.write.stats.rejectedPoints.increment();
+			return false;
+		}
+		if (this.chunk.isEmpty()) {
+			this.firstNanos = System.nanoTime();
+		}
+		this.chunk.add(point);
+		return this.chunk.size() < this.chunkSize || handoff();
+	}
+
+	/**
+	 * Add point into chunk, hand off chunk if full, waiting up to timeout for
+	 * space of batch queue. Full chunk is swapped out under lock and handed off
+	 * outside, so linger handoff and other producers are not blocked meanwhile.
+	 *
+	 * @param point   metric data point
+	 * @param timeout handoff timeout
+	 * @param unit    unit of timeout
+	 * @return false if points of chunk rejected by write(queue full or write
+	 *         closed)
+	 * @throws InterruptedException thread interrupted
+	 */
+	public boolean add(Point point, long timeout, TimeUnit unit) throws InterruptedException {
+		List<Point> points;
+		synchronized (this) {
+			if (!this.write.accepting()) {
+				this.write.stats.rejectedPoints.increment();
+				return false;
+			}
+			if (this.chunk.isEmpty()) {
+				this.firstNanos = System.nanoTime();
+			}
+			this.chunk.add(point);
+			if (this.chunk.size() < this.chunkSize) {
+				return true;
+			}
+			points = this.chunk;
+			this.chunk = new ArrayList<>(this.chunkSize);
+		}
+		return rejected(points, this.write.putAll(points, timeout, unit, true));
+	}
+
+	/**
+	 * Hand off points of chunk immediately.
+	 *
+	 * @return false if points of chunk rejected by write(queue full or write
+	 *         closed)
+	 */
+	public synchronized boolean flush() {
+		return this.chunk.isEmpty() || handoff();
+	}
+
+	/**
+	 * Hand off chunk if lingering longer than chunk linger.
+	 *
+	 * @param nowNanos current time(ns)
+	 * @return false if points of chunk rejected by write
+	 */
+	synchronized boolean handoffIfLingering(long nowNanos) {
+		if (!this.chunk.isEmpty() && nowNanos - this.firstNanos >= this.lingerNanos) {
+			return handoff();
+		}
+		return true;
+	}
+
+	private boolean handoff() {
+		List<Point> points = this.chunk;
+		this.chunk = new ArrayList<>(this.chunkSize);
+		return rejected(points, this.write.putAll(points, true));
+	}
+
+	/**
+	 * Report points of chunk not put by write as dropped, producers were told
+	 * they were added.
+	 */
+	private boolean rejected(List<Point> points, int put) {
+		if (put == points.size()) {
+			return true;
+		}
+		this.write.dropped(points.subList(put, points.size()), "batch queue full or write closed");
+		return false;
+	}
+
+	/**
+	 * Hand off left points, then detach from write.
+	 */
+	@Override
+	public void close() {
+		flush();
+		this.write.unregister(this);
+	}
+}
@@ -0,0 +1,270 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounded FIFO queue of points waiting for encoding, same as array blocking
+ * queue, but a chunk of points is handed over with one lock acquisition and
+ * one consumer wakeup.
+ */
+@ThreadSafe
+class PointQueue {
+	private final Point[] items;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private int head;
+	private int count;
+
+	/**
+	 * Create point queue.
+	 *
+	 * @param capacity max points in queue
+	 */
+	PointQueue(int capacity) {
+		this.items = new Point[capacity];
+	}
+
+	/**
+	 * Insert point if queue not full.
+	 *
+	 * @param point point
+	 * @return if inserted
+	 */
+	boolean offer(Point point) {
+		this.lock.lock();
+		try {
+			if (this.count == this.items.length) {
+				return false;
+			}
+			enqueue(point);
+			this.notEmpty.signal();
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Insert point, waiting up to timeout for space.
+	 *
+	 * @param point   point
+	 * @param timeout max wait time
+	 * @param unit    unit of timeout
+	 * @return if inserted
+	 * @throws InterruptedException thread interrupted
+	 */
+	boolean offer(Point point, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while (this.count == this.items.length) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = this.notFull.awaitNanos(nanos);
+			}
+			enqueue(point);
+			this.notEmpty.signal();
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Insert point, waiting for space if queue full.
+	 *
+	 * @param point point
+	 * @throws InterruptedException thread interrupted
+	 */
+	void put(Point point) throws InterruptedException {
+		this.lock.lockInterruptibly();
+		try {
+			while (this.count == this.items.length) {
+				this.notFull.await();
+			}
+			enqueue(point);
+			this.notEmpty.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Insert points as many as queue can hold, in list order.
+	 *
+	 * @param points points
+	 * @return number of inserted points(head of list)
+	 */
+	int offer(List<Point> points) {
+		this.lock.lock();
+		try {
+			int n = Math.min(points.size(), this.items.length - this.count);
+			for (int i = 0; i < n; i++) {
+				enqueue(points.get(i));
+			}
+			if (n > 0) {
+				this.notEmpty.signal();
+			}
+			return n;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Insert points in list order, waiting up to timeout for space.
+	 *
+	 * @param points  points
+	 * @param timeout max wait time
+	 * @param unit    unit of timeout
+	 * @return number of inserted points(head of list)
+	 * @throws InterruptedException thread interrupted
+	 */
+	int offer(List<Point> points, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		int size = points.size();
+		int n = 0;
+		this.lock.lockInterruptibly();
+		try {
+			while (true) {
+				int free = Math.min(size - n, this.items.length - this.count);
+				for (int i = 0; i < free; i++) {
+					enqueue(points.get(n++));
+				}
+				if (free > 0) {
+					this.notEmpty.signal();
+				}
+				if (n == size || nanos <= 0) {
+					return n;
+				}
+				nanos = this.notFull.awaitNanos(nanos);
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve and remove head point, null if empty.
+	 *
+	 * @return point
+	 */
+	Point poll() {
+		this.lock.lock();
+		try {
+			return this.count == 0 ? null : dequeue();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve and remove head point, waiting up to timeout if empty.
+	 *
+	 * @param timeout max wait time
+	 * @param unit    unit of timeout
+	 * @return point, null if timeout
+	 * @throws InterruptedException thread interrupted
+	 */
+	Point poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while (this.count == 0) {
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+			return dequeue();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Return points in queue order without removing.
+	 *
+	 * @return points
+	 */
+	Point[] toArray() {
+		this.lock.lock();
+		try {
+			Point[] result = new Point[this.count];
+			for (int i = 0; i < this.count; i++) {
+				result[i] = this.items[(this.head + i) % this.items.length];
+			}
+			return result;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Return the number of points in queue.
+	 *
+	 * @return queue depth
+	 */
+	int size() {
+		this.lock.lock();
+		try {
+			return this.count;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Check if queue is empty.
+	 *
+	 * @return if empty
+	 */
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+	private void enqueue(Point point) {
+		int tail = this.head + this.count;
+		if (tail >= this.items.length) {
+			tail -= this.items.length;
+		}
+		this.items[tail] = point;
+		this.count++;
+	}
+
+	private Point dequeue() {
+		Point point = this.items[this.head];
+		this.items[this.head] = null;
+		if (++this.head == this.items.length) {
+			this.head = 0;
+		}
+		this.count--;
+		this.notFull.signal();
+		return point;
+	}
+}
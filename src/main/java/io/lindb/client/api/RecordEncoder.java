@@ -0,0 +1,331 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import io.lindb.client.Constants;
+import io.lindb.client.flat.metrics.v1.KeyValue;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.flat.metrics.v1.SimpleField;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Encode metric records from utf-8 byte ranges into a batch, for parsers which
+ * should not create strings of each name/tag/field. Strings of record are
+ * copied into an arena, then written into flat buffer in same layout as
+ * {@link RowBuilder}.
+ */
+@NotThreadSafe
+class RecordEncoder {
+	private final FlatBufferBuilder fb = new FlatBufferBuilder();
+	private final ByteBuffer namespace;
+	private final ByteBuffer[] defaultTags;
+	private final FieldType fieldType;
+	// utf-8 names of typed fields, matched against name bytes without decoding
+	private final byte[][] typedFields;
+	private final FieldType[] typedFieldTypes;
+
+	// strings of current record, each string is [from, to) of arena
+	private byte[] arena = new byte[256];
+	private ByteBuffer view = ByteBuffer.wrap(arena);
+	private int arenaSize;
+	private int name = -1;
+	private int[] tags = new int[16]; // key, value string index
+	private int tagCount;
+	private int[] fields = new int[8]; // name string index
+	private FieldType[] types = new FieldType[8];
+	private double[] values = new double[8];
+	private int fieldCount;
+	private int[] strings = new int[64]; // from, to of each string
+	private int stringCount;
+	private long timestamp;
+	// encoded size-prefixed records
+	private byte[] batch = new byte[64 * 1024];
+	private int batchBytes;
+	private int batchPoints;
+
+	/**
+	 * Create record encoder.
+	 * 
+	 * @param namespace   namespace of metric, default namespace if empty
+	 * @param defaultTags default tags for metric
+	 * @param fieldType   type of fields
+	 * @param fieldTypes  type of fields by name
+	 */
+	RecordEncoder(String namespace, Map<String, String> defaultTags, FieldType fieldType,
+			Map<String, FieldType> fieldTypes) {
+		if (StringUtils.isEmpty(namespace)) {
+			namespace = Constants.DEFAULT_NAMESPACE;
+		}
+		this.namespace = ByteBuffer.wrap(namespace.getBytes(StandardCharsets.UTF_8));
+		if (defaultTags == null) {
+			this.defaultTags = new ByteBuffer[0];
+		} else {
+			this.defaultTags = new ByteBuffer[defaultTags.size() * 2];
+			int i = 0;
+			for (Map.Entry<String, String> tag : defaultTags.entrySet()) {
+				this.defaultTags[i++] = ByteBuffer.wrap(tag.getKey().getBytes(StandardCharsets.UTF_8));
+				this.defaultTags[i++] = ByteBuffer.wrap(tag.getValue().getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		this.fieldType = fieldType;
+		this.typedFields = new byte[fieldTypes.size()][];
+		this.typedFieldTypes = new FieldType[fieldTypes.size()];
+		int i = 0;
+		for (Map.Entry<String, FieldType> type : fieldTypes.entrySet()) {
+			this.typedFields[i] = type.getKey().getBytes(StandardCharsets.UTF_8);
+			this.typedFieldTypes[i++] = type.getValue();
+		}
+	}
+
+	/**
+	 * Start a new record.
+	 */
+	void reset() {
+		this.arenaSize = 0;
+		this.stringCount = 0;
+		this.name = -1;
+		this.tagCount = 0;
+		this.fieldCount = 0;
+		this.timestamp = 0;
+	}
+
+	/**
+	 * Set metric name.
+	 * 
+	 * @param src  source bytes
+	 * @param from from index, inclusive
+	 * @param to   to index, exclusive
+	 */
+	void name(byte[] src, int from, int to) {
+		this.name = string(src, from, to);
+	}
+
+	/**
+	 * Add tag, ignored if key or value is empty.
+	 * 
+	 * @param key       key bytes
+	 * @param keyFrom   from index of key, inclusive
+	 * @param keyTo     to index of key, exclusive
+	 * @param value     value bytes
+	 * @param valueFrom from index of value, inclusive
+	 * @param valueTo   to index of value, exclusive
+	 */
+	void addTag(byte[] key, int keyFrom, int keyTo, byte[] value, int valueFrom, int valueTo) {
+		if (keyFrom >= keyTo || valueFrom >= valueTo) {
+			return;
+		}
+		if (this.tagCount * 2 == this.tags.length) {
+			this.tags = Arrays.copyOf(this.tags, this.tags.length * 2);
+		}
+		this.tags[this.tagCount * 2] = string(key, keyFrom, keyTo);
+		this.tags[this.tagCount * 2 + 1] = string(value, valueFrom, valueTo);
+		this.tagCount++;
+	}
+
+	/**
+	 * Add field, ignored if name is empty.
+	 * 
+	 * @param src   name bytes
+	 * @param from  from index of name, inclusive
+	 * @param to    to index of name, exclusive
+	 * @param value field value
+	 */
+	void addField(byte[] src, int from, int to, double value) {
+		if (from >= to) {
+			return;
+		}
+		if (this.fieldCount == this.fields.length) {
+			int size = this.fields.length * 2;
+			this.fields = Arrays.copyOf(this.fields, size);
+			this.types = Arrays.copyOf(this.types, size);
+			this.values = Arrays.copyOf(this.values, size);
+		}
+		this.types[this.fieldCount] = fieldType(src, from, to);
+		this.fields[this.fieldCount] = string(src, from, to);
+		this.values[this.fieldCount] = value;
+		this.fieldCount++;
+	}
+
+	private FieldType fieldType(byte[] src, int from, int to) {
+		int length = to - from;
+		for (int i = 0; i < this.typedFields.length; i++) {
+			byte[] typed = this.typedFields[i];
+			if (typed.length != length) {
+				continue;
+			}
+			int j = 0;
+			while (j < length && typed[j] == src[from + j]) {
+				j++;
+			}
+			if (j == length) {
+				return this.typedFieldTypes[i];
+			}
+		}
+		return this.fieldType;
+	}
+
+	/**
+	 * Set timestamp.
+	 * 
+	 * @param timestamp timestamp(ms)
+	 */
+	void timestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Append current record into batch.
+	 * 
+	 * @return false if record invalid(no name or fields)
+	 */
+	boolean finish() {
+		if (this.name < 0 || this.fieldCount == 0) {
+			return false;
+		}
+		try {
+			int nameOffset = createString(this.name);
+			int namespaceOffset = createString(this.namespace);
+			int size = this.tagCount + this.defaultTags.length / 2;
+			int tagOffset = 0;
+			if (size != 0) {
+				int[] offsets = new int[size];
+				for (int i = 0; i < this.tagCount; i++) {
+					int keyOffset = createString(this.tags[i * 2]);
+					int valueOffset = createString(this.tags[i * 2 + 1]);
+					offsets[i] = KeyValue.createKeyValue(this.fb, keyOffset, valueOffset);
+				}
+				for (int i = 0; i < this.defaultTags.length; i += 2) {
+					int keyOffset = createString(this.defaultTags[i]);
+					int valueOffset = createString(this.defaultTags[i + 1]);
+					offsets[this.tagCount + i / 2] = KeyValue.createKeyValue(this.fb, keyOffset, valueOffset);
+				}
+				tagOffset = Metric.createKeyValuesVector(this.fb, offsets);
+			}
+			int[] fieldOffsets = new int[this.fieldCount];
+			for (int i = 0; i < this.fieldCount; i++) {
+				int fieldNameOffset = createString(this.fields[i]);
+				SimpleField.startSimpleField(this.fb);
+				SimpleField.addName(this.fb, fieldNameOffset);
+				SimpleField.addType(this.fb, this.types[i].value());
+				SimpleField.addValue(this.fb, this.values[i]);
+				fieldOffsets[i] = SimpleField.endSimpleField(this.fb);
+			}
+			int fieldOffset = this.fb.createVectorOfTables(fieldOffsets);
+
+			Metric.startMetric(this.fb);
+			Metric.addNamespace(this.fb, namespaceOffset);
+			Metric.addName(this.fb, nameOffset);
+			Metric.addTimestamp(this.fb, this.timestamp);
+			if (size != 0) {
+				Metric.addKeyValues(this.fb, tagOffset);
+			}
+			Metric.addHash(this.fb, 1000);
+			Metric.addSimpleFields(this.fb, fieldOffset);
+			this.fb.finishSizePrefixed(Metric.endMetric(this.fb));
+
+			ByteBuffer data = this.fb.dataBuffer();
+			int length = data.remaining();
+			if (this.batch.length - this.batchBytes < length) {
+				this.batch = Arrays.copyOf(this.batch, Math.max(this.batch.length * 2, this.batchBytes + length));
+			}
+			data.get(this.batch, this.batchBytes, length);
+			this.batchBytes += length;
+			this.batchPoints++;
+			return true;
+		} finally {
+			this.fb.clear();
+		}
+	}
+
+	/**
+	 * Return the batch buffer, valid data is [0, batch bytes).
+	 * 
+	 * @return batch buffer
+	 */
+	byte[] batch() {
+		return this.batch;
+	}
+
+	/**
+	 * Return the bytes of batch.
+	 * 
+	 * @return bytes
+	 */
+	int batchBytes() {
+		return this.batchBytes;
+	}
+
+	/**
+	 * Return the points of batch.
+	 * 
+	 * @return points
+	 */
+	int batchPoints() {
+		return this.batchPoints;
+	}
+
+	/**
+	 * Clear batch after sent.
+	 */
+	void clearBatch() {
+		this.batchBytes = 0;
+		this.batchPoints = 0;
+	}
+
+	private int string(byte[] src, int from, int to) {
+		int length = to - from;
+		if (this.arenaSize + length > this.arena.length) {
+			this.arena = Arrays.copyOf(this.arena, Math.max(this.arena.length * 2, this.arenaSize + length));
+			this.view = ByteBuffer.wrap(this.arena);
+		}
+		System.arraycopy(src, from, this.arena, this.arenaSize, length);
+		if (this.stringCount * 2 == this.strings.length) {
+			this.strings = Arrays.copyOf(this.strings, this.strings.length * 2);
+		}
+		this.strings[this.stringCount * 2] = this.arenaSize;
+		this.strings[this.stringCount * 2 + 1] = this.arenaSize + length;
+		this.arenaSize += length;
+		return this.stringCount++;
+	}
+
+	private int createString(int index) {
+		// cast to buffer, keep compatible with java 8 runtime
+		Buffer buffer = this.view;
+		buffer.clear();
+		buffer.position(this.strings[index * 2]);
+		buffer.limit(this.strings[index * 2 + 1]);
+		return this.fb.createString(this.view);
+	}
+
+	private int createString(ByteBuffer constant) {
+		// flat buffer consumes source buffer
+		((Buffer) constant).rewind();
+		return this.fb.createString(constant);
+	}
+}
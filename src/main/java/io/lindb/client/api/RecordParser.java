@@ -0,0 +1,180 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parse a text line of import file into {@link RecordEncoder}, numbers are
+ * parsed from bytes directly.
+ */
+abstract class RecordParser {
+	/**
+	 * Line parsed into encoder.
+	 */
+	final static int OK = 0;
+	/**
+	 * Blank or comment line.
+	 */
+	final static int EMPTY = 1;
+	/**
+	 * Malformed line.
+	 */
+	final static int INVALID = 2;
+
+	private final static long MAX_EXACT = 1L << 53;
+	private final static double[] POW10 = new double[23];
+
+	static {
+		POW10[0] = 1;
+		for (int i = 1; i < POW10.length; i++) {
+			POW10[i] = POW10[i - 1] * 10;
+		}
+	}
+
+	/**
+	 * Parse line into encoder, bytes of line may be modified(unescape in place).
+	 * 
+	 * @param line    line bytes, without line feed
+	 * @param length  length of line
+	 * @param encoder record encoder
+	 * @param now     import time(ms), timestamp of lines without it
+	 * @return {@link #OK}, {@link #EMPTY} or {@link #INVALID}
+	 */
+	abstract int parse(byte[] line, int length, RecordEncoder encoder, long now);
+
+	/**
+	 * Parse decimal/scientific number, plain decimal with at most 15 significant
+	 * digits is parsed without creating string.
+	 * 
+	 * @param b    bytes
+	 * @param from from index, inclusive
+	 * @param to   to index, exclusive
+	 * @return value, NaN if invalid
+	 */
+	static double parseDouble(byte[] b, int from, int to) {
+		if (from >= to) {
+			return Double.NaN;
+		}
+		int i = from;
+		boolean negative = b[i] == '-';
+		if (negative || b[i] == '+') {
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int scale = 0;
+		boolean dot = false;
+		for (; i < to; i++) {
+			byte c = b[i];
+			if (c >= '0' && c <= '9') {
+				if (++digits > 18) {
+					return parseSlow(b, from, to);
+				}
+				mantissa = mantissa * 10 + (c - '0');
+				if (dot) {
+					scale++;
+				}
+			} else if (c == '.' && !dot) {
+				dot = true;
+			} else {
+				return parseSlow(b, from, to);
+			}
+		}
+		if (digits == 0 || mantissa > MAX_EXACT || scale >= POW10.length) {
+			return parseSlow(b, from, to);
+		}
+		// both exact, single rounding
+		double value = scale == 0 ? mantissa : mantissa / POW10[scale];
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parse integer number.
+	 * 
+	 * @param b    bytes
+	 * @param from from index, inclusive
+	 * @param to   to index, exclusive
+	 * @return value, {@link Long#MIN_VALUE} if invalid
+	 */
+	static long parseLong(byte[] b, int from, int to) {
+		if (from >= to) {
+			return Long.MIN_VALUE;
+		}
+		int i = from;
+		boolean negative = b[i] == '-';
+		if (negative || b[i] == '+') {
+			i++;
+		}
+		if (i == to || to - i > 19) {
+			return Long.MIN_VALUE;
+		}
+		long value = 0;
+		for (; i < to; i++) {
+			byte c = b[i];
+			if (c < '0' || c > '9' || value > (Long.MAX_VALUE - (c - '0')) / 10) {
+				// not digit or overflow
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Return length of line without trailing spaces and line break.
+	 * 
+	 * @param line   line bytes
+	 * @param length length of line
+	 * @return trimmed length
+	 */
+	static int trimEnd(byte[] line, int length) {
+		while (length > 0) {
+			byte c = line[length - 1];
+			if (c != '\r' && c != '\n' && c != ' ' && c != '\t') {
+				break;
+			}
+			length--;
+		}
+		return length;
+	}
+
+	/**
+	 * Return index of first non space byte from i.
+	 * 
+	 * @param line line bytes
+	 * @param i    from index
+	 * @param end  end index
+	 * @return index
+	 */
+	static int skipSpaces(byte[] line, int i, int end) {
+		while (i < end && (line[i] == ' ' || line[i] == '\t')) {
+			i++;
+		}
+		return i;
+	}
+
+	private static double parseSlow(byte[] b, int from, int to) {
+		try {
+			return Double.parseDouble(new String(b, from, to - from, StandardCharsets.ISO_8859_1));
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+}
@@ -0,0 +1,240 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+import io.lindb.client.flat.metrics.v1.KeyValue;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.flat.metrics.v1.SimpleField;
+import io.lindb.client.flat.metrics.v1.SimpleFieldType;
+
+/**
+ * Lazy points of size-prefixed Metric records written by
+ * {@link Write#writeRecords(byte[], int, int, long, java.util.concurrent.TimeUnit)},
+ * records are decoded into points only when reported to
+ * {@link EventListener}.
+ */
+final class RecordPoints extends AbstractList<Point> implements RandomAccess {
+	private final byte[] data;
+	private final int[] offsets;
+
+	/**
+	 * Create lazy points of records.
+	 * 
+	 * @param data    records
+	 * @param offsets offset of each record in data
+	 */
+	RecordPoints(byte[] data, int[] offsets) {
+		this.data = data;
+		this.offsets = offsets;
+	}
+
+	@Override
+	public Point get(int i) {
+		if (i < 0 || i >= this.offsets.length) {
+			throw new IndexOutOfBoundsException("index: " + i + ", size: " + this.offsets.length);
+		}
+		return point(this.data, this.offsets[i]);
+	}
+
+	@Override
+	public int size() {
+		return this.offsets.length;
+	}
+
+	/**
+	 * Return offset of each size-prefixed record.
+	 * 
+	 * @param data   records
+	 * @param offset offset of first record
+	 * @param length length of records
+	 * @return offsets
+	 * @throws IllegalArgumentException truncated record
+	 */
+	static int[] offsets(byte[] data, int offset, int length) {
+		int[] offsets = new int[16];
+		int count = 0;
+		int end = offset + length;
+		while (offset < end) {
+			if (offset + 4 > end) {
+				throw new IllegalArgumentException("truncated record size prefix at: " + offset);
+			}
+			int size = length(data, offset);
+			if (size <= 0 || size > end - offset - 4) {
+				throw new IllegalArgumentException("invalid record size: " + size + " at: " + offset);
+			}
+			if (count == offsets.length) {
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			offsets[count++] = offset;
+			offset += 4 + size;
+		}
+		return Arrays.copyOf(offsets, count);
+	}
+
+	/**
+	 * Decode size-prefixed record into point.
+	 * 
+	 * @param data   records
+	 * @param offset offset of record
+	 * @return point
+	 */
+	static Point point(byte[] data, int offset) {
+		ByteBuffer buf = ByteBuffer.wrap(data, offset + 4, length(data, offset));
+		return decode(Metric.getRootAsMetric(buf.slice()));
+	}
+
+	/**
+	 * Return position of timestamp of size-prefixed record, walking root table
+	 * vtable directly, -1 if timestamp absent(default 0 omitted).
+	 * 
+	 * @param data   records
+	 * @param offset offset of record
+	 * @return position of little endian timestamp or -1
+	 */
+	static int timestampPosition(byte[] data, int offset) {
+		int table = offset + 4 + length(data, offset + 4);
+		int vtable = table - length(data, table);
+		// timestamp is field 2, after vtable size/table size header
+		int field = 4 + 2 * 2;
+		if (field >= uint16(data, vtable)) {
+			return -1;
+		}
+		int fieldOffset = uint16(data, vtable + field);
+		return fieldOffset == 0 ? -1 : table + fieldOffset;
+	}
+
+	/**
+	 * Read timestamp at position.
+	 * 
+	 * @param data     records
+	 * @param position position of timestamp, -1 if absent
+	 * @return timestamp
+	 */
+	static long timestamp(byte[] data, int position) {
+		if (position < 0) {
+			return 0;
+		}
+		long timestamp = 0;
+		for (int i = 7; i >= 0; i--) {
+			timestamp = timestamp << 8 | (data[position + i] & 0xff);
+		}
+		return timestamp;
+	}
+
+	/**
+	 * Overwrite timestamp at position in place.
+	 * 
+	 * @param data      records
+	 * @param position  position of timestamp
+	 * @param timestamp new timestamp
+	 */
+	static void timestamp(byte[] data, int position, long timestamp) {
+		for (int i = 0; i < 8; i++) {
+			data[position + i] = (byte) (timestamp >>> (i * 8));
+		}
+	}
+
+	private static int uint16(byte[] data, int offset) {
+		return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8;
+	}
+
+	private static int length(byte[] data, int offset) {
+		return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16
+				| (data[offset + 3] & 0xff) << 24;
+	}
+
+	private static Point decode(Metric metric) {
+		Point.Builder builder = Point.builder(metric.name(), metric.timestamp()).namespace(metric.namespace());
+		KeyValue kv = new KeyValue();
+		for (int i = 0; i < metric.keyValuesLength(); i++) {
+			metric.keyValues(kv, i);
+			builder.addTag(kv.key(), kv.value());
+		}
+		SimpleField field = new SimpleField();
+		for (int i = 0; i < metric.simpleFieldsLength(); i++) {
+			metric.simpleFields(field, i);
+			FieldType type = fieldType(field.type());
+			if (type != null) {
+				builder.addSimpleField(field.name(), type, field.value());
+				builder.addExemplars(exemplars(field.exemplarsLength(), field::exemplars));
+			}
+		}
+		io.lindb.client.flat.metrics.v1.CompoundField compound = metric.compoundField();
+		if (compound != null && compound.valuesLength() > 0
+				&& compound.valuesLength() == compound.explicitBoundsLength()) {
+			double[] bounds = new double[compound.explicitBoundsLength()];
+			double[] values = new double[compound.valuesLength()];
+			// RowBuilder writes vectors in reverse, keep buckets in ascending bound order
+			boolean reversed = compound.explicitBounds(0) > compound.explicitBounds(bounds.length - 1);
+			for (int i = 0; i < bounds.length; i++) {
+				int idx = reversed ? bounds.length - 1 - i : i;
+				bounds[i] = compound.explicitBounds(idx);
+				values[i] = compound.values(idx);
+			}
+			builder.addHistogram(compound.count(), compound.sum(), compound.min(), compound.max(), bounds, values);
+			builder.addExemplars(exemplars(compound.exemplarsLength(), compound::exemplars));
+		}
+		return builder.build();
+	}
+
+	private static List<Exemplar> exemplars(int length, IntFunction<io.lindb.client.flat.metrics.v1.Exemplar> get) {
+		if (length == 0) {
+			return null;
+		}
+		List<Exemplar> exemplars = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			io.lindb.client.flat.metrics.v1.Exemplar exemplar = get.apply(i);
+			byte[] traceId = new byte[exemplar.traceIdLength()];
+			for (int j = 0; j < traceId.length; j++) {
+				traceId[j] = exemplar.traceId(j);
+			}
+			byte[] spanId = new byte[exemplar.spanIdLength()];
+			for (int j = 0; j < spanId.length; j++) {
+				spanId[j] = exemplar.spanId(j);
+			}
+			exemplars.add(new Exemplar(traceId, spanId, exemplar.duration()));
+		}
+		return exemplars;
+	}
+
+	private static FieldType fieldType(byte type) {
+		switch (type) {
+		case SimpleFieldType.Last:
+			return FieldType.Last;
+		case SimpleFieldType.DeltaSum:
+			return FieldType.Sum;
+		case SimpleFieldType.Min:
+			return FieldType.Min;
+		case SimpleFieldType.Max:
+			return FieldType.Max;
+		case SimpleFieldType.First:
+			return FieldType.First;
+		default:
+			return null;
+		}
+	}
+}
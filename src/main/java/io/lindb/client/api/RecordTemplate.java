@@ -0,0 +1,193 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Encoded record template of a point, metric name, tags, field names and
+ * histogram bounds are encoded once, record of each write is copied from
+ * template then timestamp and value slots are patched in place.
+ *
+ * Value slots are simple field values in order, or count, sum, min, max and
+ * bucket values of histogram field.
+ */
+@Immutable
+final class RecordTemplate {
+	// sentinel/marker bit patterns, both non-default values so flat buffer
+	// always writes the scalars, record layout stays the same for any value.
+	private final static long SENTINEL = 0x0101010101010101L;
+	private final static long MARKER = 0x0202020202020202L;
+	private final static int HISTOGRAM_SCALARS = 4;
+
+	private final byte[] record;
+	private final int timestampOffset;
+	private final int[] valueOffsets;
+
+	private RecordTemplate(byte[] record, int timestampOffset, int[] valueOffsets) {
+		this.record = record;
+		this.timestampOffset = timestampOffset;
+		this.valueOffsets = valueOffsets;
+	}
+
+	/**
+	 * Create template of point, locate timestamp and value slots by diffing
+	 * records encoded with sentinel and marker values. Timestamp, field values
+	 * and exemplars of point are not kept.
+	 * 
+	 * @param point       point
+	 * @param defaultTags default tags for metric
+	 * @return template
+	 * @throws IllegalArgumentException point has no field or has cumulative sum
+	 *                                  field
+	 */
+	static RecordTemplate of(Point point, Map<String, String> defaultTags) {
+		if (!point.validate()) {
+			throw new IllegalArgumentException("invalid point of record template: " + point.getName());
+		}
+		if (point.hasCumulativeFields()) {
+			throw new IllegalArgumentException("cumulative sum field not supported by record template");
+		}
+		RowBuilder builder = new RowBuilder();
+		double sentinel = Double.longBitsToDouble(SENTINEL);
+		double[] values = new double[slots(point)];
+		Arrays.fill(values, sentinel);
+		byte[] record = encode(builder, variant(point, SENTINEL, values), defaultTags);
+		int timestampOffset = offset(record, encode(builder, variant(point, MARKER, values), defaultTags));
+		int[] valueOffsets = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Double.longBitsToDouble(MARKER);
+			valueOffsets[i] = offset(record, encode(builder, variant(point, SENTINEL, values), defaultTags));
+			values[i] = sentinel;
+		}
+		return new RecordTemplate(record, timestampOffset, valueOffsets);
+	}
+
+	private static int slots(Point point) {
+		CompoundField compound = point.getCompoundField();
+		if (compound != null) {
+			return HISTOGRAM_SCALARS + compound.getBounds().length;
+		}
+		return point.getSimpleFields().size();
+	}
+
+	private static Point variant(Point point, long timestamp, double[] values) {
+		CompoundField compound = point.getCompoundField();
+		if (compound != null) {
+			return point.withTimestamp(timestamp).withCompoundField(new CompoundField(values[0], values[1],
+					values[2], values[3], compound.getBounds(),
+					Arrays.copyOfRange(values, HISTOGRAM_SCALARS, values.length)));
+		}
+		List<Field> fields = new ArrayList<>(values.length);
+		for (int i = 0; i < values.length; i++) {
+			SimpleField field = (SimpleField) point.getSimpleFields().get(i);
+			fields.add(new SimpleField(field.getName(), field.getType(), values[i]));
+		}
+		return point.withTimestamp(timestamp).withSimpleFields(fields);
+	}
+
+	private static byte[] encode(RowBuilder builder, Point point, Map<String, String> defaultTags) {
+		try {
+			return builder.build(point, defaultTags);
+		} finally {
+			builder.reset();
+		}
+	}
+
+	private static int offset(byte[] record, byte[] variant) {
+		if (variant.length == record.length) {
+			for (int i = 0; i < record.length; i++) {
+				if (record[i] == variant[i]) {
+					continue;
+				}
+				if (i + Long.BYTES <= record.length && getLong(record, i) == SENTINEL
+						&& getLong(variant, i) == MARKER) {
+					return i;
+				}
+				break;
+			}
+		}
+		throw new IllegalStateException("cannot locate scalar slot of record");
+	}
+
+	/**
+	 * Return the size of each record.
+	 * 
+	 * @return bytes
+	 */
+	int recordSize() {
+		return record.length;
+	}
+
+	/**
+	 * Return the number of value slots.
+	 * 
+	 * @return slots
+	 */
+	int slots() {
+		return valueOffsets.length;
+	}
+
+	/**
+	 * Copy template record into dest and set its timestamp, values keep the
+	 * sentinel until set.
+	 * 
+	 * @param timestamp timestamp(ms) of record
+	 * @param dest      dest buffer
+	 * @param offset    offset of record in dest
+	 * @return offset after record
+	 */
+	int write(long timestamp, byte[] dest, int offset) {
+		System.arraycopy(record, 0, dest, offset, record.length);
+		putLong(dest, offset + timestampOffset, timestamp);
+		return offset + record.length;
+	}
+
+	/**
+	 * Set value slot of record written into dest.
+	 * 
+	 * @param dest   dest buffer
+	 * @param offset offset of record in dest
+	 * @param slot   value slot
+	 * @param value  value
+	 */
+	void set(byte[] dest, int offset, int slot, double value) {
+		putLong(dest, offset + valueOffsets[slot], Double.doubleToRawLongBits(value));
+	}
+
+	private static long getLong(byte[] data, int offset) {
+		long value = 0;
+		for (int i = Long.BYTES - 1; i >= 0; i--) {
+			value = (value << 8) | (data[offset + i] & 0xFF);
+		}
+		return value;
+	}
+
+	private static void putLong(byte[] data, int offset, long value) {
+		for (int i = 0; i < Long.BYTES; i++) {
+			data[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+}
@@ -146,11 +146,28 @@ public class RowBuilder {
 	 * @return field offset
 	 */
 	public int addSimpleField(String name, FieldType type, double value) {
+		return addSimpleField(name, type, value, null);
+	}
+
+	/**
+	 * Write simple field with exemplars into flat buffer.
+	 * 
+	 * @param name      field name
+	 * @param type      field type
+	 * @param value     field value
+	 * @param exemplars exemplars of field, nullable
+	 * @return field offset
+	 */
+	public int addSimpleField(String name, FieldType type, double value, List<Exemplar> exemplars) {
 		int nameOffset = this.fb.createString(name);
+		int exemplarsOffset = addExemplars(exemplars);
 		SimpleField.startSimpleField(this.fb);
 		SimpleField.addName(this.fb, nameOffset);
 		SimpleField.addType(this.fb, type.value());
 		SimpleField.addValue(this.fb, value);
+		if (exemplarsOffset != 0) {
+			SimpleField.addExemplars(this.fb, exemplarsOffset);
+		}
 
 		return SimpleField.endSimpleField(this.fb);
 	}
@@ -167,6 +184,24 @@ public class RowBuilder {
 	 * @return field offset
 	 */
 	public int addCompoundField(double count, double sum, double min, double max, double[] bounds, double[] values) {
+		return addCompoundField(count, sum, min, max, bounds, values, null);
+	}
+
+	/**
+	 * Write compound field with exemplars into flat buffer.
+	 * 
+	 * @param count     count value
+	 * @param sum       sum value
+	 * @param min       min value
+	 * @param max       max value
+	 * @param bounds    bound array
+	 * @param values    value array
+	 * @param exemplars exemplars of field, nullable
+	 * @return field offset
+	 */
+	public int addCompoundField(double count, double sum, double min, double max, double[] bounds, double[] values,
+			List<Exemplar> exemplars) {
+		int exemplarsOffset = addExemplars(exemplars);
 		CompoundField.startExplicitBoundsVector(this.fb, bounds.length);
 		for (double bound : bounds) {
 			this.fb.addDouble(bound);
@@ -186,10 +221,31 @@ public class RowBuilder {
 		CompoundField.addMax(this.fb, max);
 		CompoundField.addExplicitBounds(this.fb, boundsOffset);
 		CompoundField.addValues(this.fb, valuesOffset);
+		if (exemplarsOffset != 0) {
+			CompoundField.addExemplars(this.fb, exemplarsOffset);
+		}
 
 		return CompoundField.endCompoundField(this.fb);
 	}
 
+	/**
+	 * Write exemplars vector into flat buffer, returns 0 if no exemplars.
+	 */
+	private int addExemplars(List<Exemplar> exemplars) {
+		if (exemplars == null || exemplars.isEmpty()) {
+			return 0;
+		}
+		int[] offsets = new int[exemplars.size()];
+		for (int i = 0; i < offsets.length; i++) {
+			Exemplar exemplar = exemplars.get(i);
+			int spanIdOffset = this.fb.createByteVector(exemplar.getSpanId());
+			int traceIdOffset = this.fb.createByteVector(exemplar.getTraceId());
+			offsets[i] = io.lindb.client.flat.metrics.v1.Exemplar.createExemplar(this.fb, spanIdOffset,
+					traceIdOffset, exemplar.getDuration());
+		}
+		return this.fb.createVectorOfTables(offsets);
+	}
+
 	/**
 	 * Reset flat buffer for reusing.
 	 */
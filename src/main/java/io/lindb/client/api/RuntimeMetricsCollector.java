@@ -0,0 +1,475 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collect JVM runtime metrics from platform MXBeans and write them as
+ * pre-encoded records by {@link Write#writeRecords}.
+ *
+ * Series(memory areas, memory pools, collectors, threads, class loading and
+ * buffer pools) are registered once with default tags into
+ * {@link RecordTemplate}s, each collect copies templates into one reused
+ * buffer and patches timestamp and values, so no points are built and no
+ * names/tags are encoded(MXBean getters may still allocate). Gc pauses are
+ * recorded from gc notifications into per collector histograms and written
+ * only for intervals with pauses.
+ */
+class RuntimeMetricsCollector implements Runnable, AutoCloseable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(RuntimeMetricsCollector.class);
+	/**
+	 * Metric name of heap/non-heap memory.
+	 */
+	static final String MEMORY_METRIC = "jvm.memory";
+	/**
+	 * Metric name of memory pools.
+	 */
+	static final String MEMORY_POOL_METRIC = "jvm.memory.pool";
+	/**
+	 * Metric name of garbage collector count/time.
+	 */
+	static final String GC_METRIC = "jvm.gc";
+	/**
+	 * Metric name of gc pause(ms) histogram.
+	 */
+	static final String GC_PAUSE_METRIC = "jvm.gc.pause";
+	/**
+	 * Metric name of threads.
+	 */
+	static final String THREADS_METRIC = "jvm.threads";
+	/**
+	 * Metric name of class loading.
+	 */
+	static final String CLASSES_METRIC = "jvm.classes";
+	/**
+	 * Metric name of buffer pools(direct/mapped).
+	 */
+	static final String BUFFER_POOL_METRIC = "jvm.buffer.pool";
+	/**
+	 * Bucket bounds(ms) of gc pause histogram.
+	 */
+	static final double[] GC_PAUSE_BOUNDS = new double[] { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000,
+			5_000, Double.POSITIVE_INFINITY };
+	/**
+	 * Notification type of gc(com.sun.management.GarbageCollectionNotificationInfo).
+	 */
+	static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+
+	private final Write write;
+	private final List<Sampler> samplers = new ArrayList<>();
+	private final Map<String, PauseSampler> pauses = new HashMap<>();
+	private final List<NotificationEmitter> emitters = new ArrayList<>();
+	private final NotificationListener listener = this::onNotification;
+	private final byte[] buffer;
+
+	/**
+	 * Create collector, register series of platform MXBeans and gc notification
+	 * listeners.
+	 * 
+	 * @param write       write which records written into
+	 * @param defaultTags default tags applied to each series
+	 */
+	RuntimeMetricsCollector(Write write, Map<String, String> defaultTags) {
+		this.write = write;
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		this.samplers.add(new MemorySampler(memory, true, defaultTags));
+		this.samplers.add(new MemorySampler(memory, false, defaultTags));
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			this.samplers.add(new MemoryPoolSampler(pool, defaultTags));
+		}
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			this.samplers.add(new GcSampler(gc, defaultTags));
+			// durations of concurrent cycle collectors are not pauses
+			if (gc instanceof NotificationEmitter && !isConcurrentCycle(gc.getName(), null)) {
+				PauseSampler pause = new PauseSampler(gc.getName(), defaultTags);
+				this.pauses.put(gc.getName(), pause);
+				this.samplers.add(pause);
+				NotificationEmitter emitter = (NotificationEmitter) gc;
+				emitter.addNotificationListener(this.listener, null, null);
+				this.emitters.add(emitter);
+			}
+		}
+		this.samplers.add(new ThreadSampler(ManagementFactory.getThreadMXBean(), defaultTags));
+		this.samplers.add(new ClassSampler(ManagementFactory.getClassLoadingMXBean(), defaultTags));
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			this.samplers.add(new BufferPoolSampler(pool, defaultTags));
+		}
+		int size = 0;
+		for (Sampler sampler : this.samplers) {
+			size += sampler.template.recordSize();
+		}
+		this.buffer = new byte[size];
+	}
+
+	@Override
+	public void run() {
+		try {
+			collect(System.currentTimeMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Throwable e) {
+			LOGGER.warn("collect runtime metrics failure", e);
+		}
+	}
+
+	/**
+	 * Sample all series into records then write them without waiting for queue
+	 * space, records rejected are counted by write statistics.
+	 * 
+	 * @param timestamp timestamp(ms) of records
+	 * @return number of records written
+	 * @throws InterruptedException thread interrupted
+	 */
+	int collect(long timestamp) throws InterruptedException {
+		int length = 0;
+		for (Sampler sampler : this.samplers) {
+			int end = sampler.template.write(timestamp, this.buffer, length);
+			if (sampler.sample(this.buffer, length)) {
+				length = end;
+			}
+		}
+		if (length == 0) {
+			return 0;
+		}
+		return this.write.writeRecords(this.buffer, 0, length, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Record gc pause from gc notification.
+	 */
+	private void onNotification(Notification notification, Object handback) {
+		if (!GC_NOTIFICATION.equals(notification.getType())
+				|| !(notification.getUserData() instanceof CompositeData)) {
+			return;
+		}
+		CompositeData data = (CompositeData) notification.getUserData();
+		Object name = data.get("gcName");
+		Object action = data.get("gcAction");
+		if (isConcurrentCycle(String.valueOf(name), action == null ? null : action.toString())) {
+			return;
+		}
+		PauseSampler pause = this.pauses.get(name);
+		Object info = data.get("gcInfo");
+		if (pause != null && info instanceof CompositeData) {
+			pause.record(((Number) ((CompositeData) info).get("duration")).longValue());
+		}
+	}
+
+	/**
+	 * Check if notification of collector reports a concurrent cycle instead of a
+	 * stop-the-world pause, such as "ZGC Cycles", "ZGC Major Cycles", "Shenandoah
+	 * Cycles" and "G1 Concurrent GC"(reported as "end of concurrent GC pause"),
+	 * whose duration is mostly spent running with application threads.
+	 * 
+	 * @param gcName   name of collector
+	 * @param gcAction action of gc notification, null if unknown
+	 * @return true if concurrent cycle
+	 */
+	static boolean isConcurrentCycle(String gcName, String gcAction) {
+		if (gcName.endsWith(" Cycles") || gcName.contains("Concurrent")) {
+			return true;
+		}
+		return gcAction != null && (gcAction.contains("cycle") || gcAction.contains("concurrent"));
+	}
+
+	/**
+	 * Record gc pause(ms) of collector, for testing.
+	 * 
+	 * @param gcName   name of collector
+	 * @param duration pause(ms)
+	 */
+	void recordPause(String gcName, long duration) {
+		PauseSampler pause = this.pauses.get(gcName);
+		if (pause != null) {
+			pause.record(duration);
+		}
+	}
+
+	/**
+	 * Return names of collectors which pauses are recorded.
+	 * 
+	 * @return collector names
+	 */
+	List<String> pauseCollectors() {
+		return new ArrayList<>(this.pauses.keySet());
+	}
+
+	/**
+	 * Remove gc notification listeners.
+	 */
+	@Override
+	public void close() {
+		for (NotificationEmitter emitter : this.emitters) {
+			try {
+				emitter.removeNotificationListener(this.listener);
+			} catch (ListenerNotFoundException e) {
+				// already removed
+			}
+		}
+		this.emitters.clear();
+	}
+
+	private static Point.Builder series(String name, Map<String, String> tags) {
+		return Point.builder(name).addTags(tags);
+	}
+
+	private static Map<String, String> tags(String... keyValues) {
+		Map<String, String> tags = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			tags.put(keyValues[i], keyValues[i + 1]);
+		}
+		return tags;
+	}
+
+	/**
+	 * Series with record template, sets values of record copied from template.
+	 */
+	private abstract static class Sampler {
+		final RecordTemplate template;
+
+		Sampler(Point point, Map<String, String> defaultTags) {
+			this.template = RecordTemplate.of(point, defaultTags);
+		}
+
+		/**
+		 * Set values of record written at offset.
+		 * 
+		 * @param dest   records buffer
+		 * @param offset offset of record
+		 * @return false if record is skipped
+		 */
+		abstract boolean sample(byte[] dest, int offset);
+
+		final void usage(byte[] dest, int offset, MemoryUsage usage) {
+			this.template.set(dest, offset, 0, usage.getUsed());
+			this.template.set(dest, offset, 1, usage.getCommitted());
+			this.template.set(dest, offset, 2, usage.getMax());
+		}
+	}
+
+	private final static class MemorySampler extends Sampler {
+		private final MemoryMXBean memory;
+		private final boolean heap;
+
+		MemorySampler(MemoryMXBean memory, boolean heap, Map<String, String> defaultTags) {
+			super(series(MEMORY_METRIC, tags("area", heap ? "heap" : "nonheap"))
+					.addLast("used", 0).addLast("committed", 0).addLast("max", 0).build(), defaultTags);
+			this.memory = memory;
+			this.heap = heap;
+		}
+
+		@Override
+		boolean sample(byte[] dest, int offset) {
+			usage(dest, offset, this.heap ? this.memory.getHeapMemoryUsage() : this.memory.getNonHeapMemoryUsage());
+			return true;
+		}
+	}
+
+	private final static class MemoryPoolSampler extends Sampler {
+		private final MemoryPoolMXBean pool;
+		private final boolean collectionUsage;
+
+		MemoryPoolSampler(MemoryPoolMXBean pool, Map<String, String> defaultTags) {
+			super(point(pool), defaultTags);
+			this.pool = pool;
+			this.collectionUsage = this.template.slots() > 3;
+		}
+
+		private static Point point(MemoryPoolMXBean pool) {
+			Point.Builder builder = series(MEMORY_POOL_METRIC,
+					tags("pool", pool.getName(), "area", pool.getType() == MemoryType.HEAP ? "heap" : "nonheap"))
+					.addLast("used", 0).addLast("committed", 0).addLast("max", 0);
+			if (pool.getCollectionUsage() != null) {
+				builder.addLast("used_after_gc", 0);
+			}
+			return builder.build();
+		}
+
+		@Override
+		boolean sample(byte[] dest, int offset) {
+			MemoryUsage usage = this.pool.getUsage();
+			if (usage == null) {
+				// pool not valid any more
+				return false;
+			}
+			usage(dest, offset, usage);
+			if (this.collectionUsage) {
+				MemoryUsage afterGc = this.pool.getCollectionUsage();
+				this.template.set(dest, offset, 3, afterGc == null ? 0 : afterGc.getUsed());
+			}
+			return true;
+		}
+	}
+
+	private final static class GcSampler extends Sampler {
+		private final GarbageCollectorMXBean gc;
+		private long count;
+		private long time;
+
+		GcSampler(GarbageCollectorMXBean gc, Map<String, String> defaultTags) {
+			super(series(GC_METRIC, tags("gc", gc.getName())).addSum("count", 0).addSum("time", 0).build(),
+					defaultTags);
+			this.gc = gc;
+			this.count = Math.max(0, gc.getCollectionCount());
+			this.time = Math.max(0, gc.getCollectionTime());
+		}
+
+		@Override
+		boolean sample(byte[] dest, int offset) {
+			long count = Math.max(0, this.gc.getCollectionCount());
+			long time = Math.max(0, this.gc.getCollectionTime());
+			this.template.set(dest, offset, 0, count - this.count);
+			this.template.set(dest, offset, 1, time - this.time);
+			this.count = count;
+			this.time = time;
+			return true;
+		}
+	}
+
+	/**
+	 * Gc pause histogram of collector, recorded by notification thread and
+	 * drained by collect thread.
+	 */
+	private final static class PauseSampler extends Sampler {
+		private final long[] buckets = new long[GC_PAUSE_BOUNDS.length];
+		private long count;
+		private long sum;
+		private long min = Long.MAX_VALUE;
+		private long max;
+
+		PauseSampler(String gcName, Map<String, String> defaultTags) {
+			super(series(GC_PAUSE_METRIC, tags("gc", gcName))
+					.addHistogram(0, 0, 0, 0, GC_PAUSE_BOUNDS, new double[GC_PAUSE_BOUNDS.length]).build(),
+					defaultTags);
+		}
+
+		synchronized void record(long duration) {
+			this.buckets[ExemplarReservoir.bucketOf(GC_PAUSE_BOUNDS, duration)]++;
+			this.count++;
+			this.sum += duration;
+			this.min = Math.min(this.min, duration);
+			this.max = Math.max(this.max, duration);
+		}
+
+		@Override
+		synchronized boolean sample(byte[] dest, int offset) {
+			if (this.count == 0) {
+				return false;
+			}
+			this.template.set(dest, offset, 0, this.count);
+			this.template.set(dest, offset, 1, this.sum);
+			this.template.set(dest, offset, 2, this.min);
+			this.template.set(dest, offset, 3, this.max);
+			for (int i = 0; i < this.buckets.length; i++) {
+				this.template.set(dest, offset, 4 + i, this.buckets[i]);
+			}
+			Arrays.fill(this.buckets, 0);
+			this.count = 0;
+			this.sum = 0;
+			this.min = Long.MAX_VALUE;
+			this.max = 0;
+			return true;
+		}
+	}
+
+	private final static class ThreadSampler extends Sampler {
+		private final ThreadMXBean threads;
+		private long started;
+
+		ThreadSampler(ThreadMXBean threads, Map<String, String> defaultTags) {
+			super(series(THREADS_METRIC, null).addLast("count", 0).addLast("daemon", 0).addLast("peak", 0)
+					.addSum("started", 0).build(), defaultTags);
+			this.threads = threads;
+			this.started = threads.getTotalStartedThreadCount();
+		}
+
+		@Override
+		boolean sample(byte[] dest, int offset) {
+			long started = this.threads.getTotalStartedThreadCount();
+			this.template.set(dest, offset, 0, this.threads.getThreadCount());
+			this.template.set(dest, offset, 1, this.threads.getDaemonThreadCount());
+			this.template.set(dest, offset, 2, this.threads.getPeakThreadCount());
+			this.template.set(dest, offset, 3, started - this.started);
+			this.started = started;
+			return true;
+		}
+	}
+
+	private final static class ClassSampler extends Sampler {
+		private final ClassLoadingMXBean classes;
+		private long unloaded;
+
+		ClassSampler(ClassLoadingMXBean classes, Map<String, String> defaultTags) {
+			super(series(CLASSES_METRIC, null).addLast("loaded", 0).addSum("unloaded", 0).build(), defaultTags);
+			this.classes = classes;
+			this.unloaded = classes.getUnloadedClassCount();
+		}
+
+		@Override
+		boolean sample(byte[] dest, int offset) {
+			long unloaded = this.classes.getUnloadedClassCount();
+			this.template.set(dest, offset, 0, this.classes.getLoadedClassCount());
+			this.template.set(dest, offset, 1, unloaded - this.unloaded);
+			this.unloaded = unloaded;
+			return true;
+		}
+	}
+
+	private final static class BufferPoolSampler extends Sampler {
+		private final BufferPoolMXBean pool;
+
+		BufferPoolSampler(BufferPoolMXBean pool, Map<String, String> defaultTags) {
+			super(series(BUFFER_POOL_METRIC, tags("pool", pool.getName())).addLast("count", 0)
+					.addLast("used", 0).addLast("capacity", 0).build(), defaultTags);
+			this.pool = pool;
+		}
+
+		@Override
+		boolean sample(byte[] dest, int offset) {
+			this.template.set(dest, offset, 0, this.pool.getCount());
+			this.template.set(dest, offset, 1, this.pool.getMemoryUsed());
+			this.template.set(dest, offset, 2, this.pool.getTotalCapacity());
+			return true;
+		}
+	}
+}
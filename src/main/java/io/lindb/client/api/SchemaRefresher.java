@@ -0,0 +1,97 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.List;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.lindb.client.model.Database;
+import io.lindb.client.util.JsonUtil;
+
+/**
+ * Fetch options of database by state query, keep latest timestamp rules for
+ * schema aware write. Fetch failure keeps previous rules.
+ */
+@ThreadSafe
+class SchemaRefresher implements Runnable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(SchemaRefresher.class);
+
+	private final String database;
+	private final StateQuery stateQuery;
+	private volatile DatabaseSchema schema = DatabaseSchema.NONE;
+
+	/**
+	 * Create database schema refresher.
+	 *
+	 * @param database   database name
+	 * @param stateQuery state query for database options
+	 */
+	SchemaRefresher(String database, StateQuery stateQuery) {
+		this.database = database;
+		this.stateQuery = stateQuery;
+	}
+
+	@Override
+	public void run() {
+		try {
+			refresh();
+		} catch (Throwable e) {
+			LOGGER.warn("refresh options of database: {} failure", database, e);
+		}
+	}
+
+	/**
+	 * Fetch database options, then replace current timestamp rules.
+	 *
+	 * @return if database found
+	 * @throws Exception fetch failure
+	 */
+	boolean refresh() throws Exception {
+		List<?> databases = this.stateQuery.databases();
+		if (databases == null) {
+			return false;
+		}
+		for (Object item : databases) {
+			// state query returns json objects, convert them into database
+			Database db = item instanceof Database ? (Database) item
+					: JsonUtil.toObject(JsonUtil.toString(item), Database.class);
+			if (db != null && this.database.equals(db.getName())) {
+				DatabaseSchema latest = DatabaseSchema.of(db.getOption());
+				LOGGER.debug("refresh options of database: {}, {}", database, latest);
+				this.schema = latest;
+				return true;
+			}
+		}
+		LOGGER.warn("database: {} not found when refresh options", database);
+		return false;
+	}
+
+	/**
+	 * Return current timestamp rules of database.
+	 *
+	 * @return database schema
+	 */
+	DatabaseSchema schema() {
+		return this.schema;
+	}
+}
@@ -0,0 +1,411 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Columnar points of one time series, timestamps and field values are held in
+ * primitive arrays for bulk backfill without per point objects.
+ * 
+ * Arrays are not copied, must not be modified until write of series returns.
+ * Points kept by write for failure reporting(send failure, dropped points)
+ * hold a copy of their values, so arrays can be reused once write returns.
+ */
+public final class Series {
+	/**
+	 * Series builder.
+	 */
+	@NotThreadSafe
+	public static class Builder {
+		private final String name;
+		private String namespace;
+		private final Map<String, String> tags = new HashMap<>();
+		private long[] timestamps;
+		private final List<String> fieldNames = new ArrayList<>();
+		private final List<FieldType> fieldTypes = new ArrayList<>();
+		private final List<double[]> fieldValues = new ArrayList<>();
+
+		private Builder(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Set the namespace of series.
+		 * 
+		 * @param namespace namespace of metric
+		 * @return builder
+		 */
+		public Builder namespace(String namespace) {
+			this.namespace = namespace;
+			return this;
+		}
+
+		/**
+		 * Add tag key/value into the tags of series.
+		 * 
+		 * @param key   tag key
+		 * @param value tag value
+		 * @return builder
+		 */
+		public Builder addTag(String key, String value) {
+			Preconditions.checkArgument(!StringUtils.isEmpty(key) && !StringUtils.isEmpty(value),
+					"tag key/value cannot be empty");
+			this.tags.put(key, value);
+			return this;
+		}
+
+		/**
+		 * Add tags into the tags of series.
+		 * 
+		 * @param tags tags of series
+		 * @return builder
+		 */
+		public Builder addTags(Map<String, String> tags) {
+			if (tags != null) {
+				tags.forEach(this::addTag);
+			}
+			return this;
+		}
+
+		/**
+		 * Set timestamps of points.
+		 * 
+		 * @param timestamps timestamp(ms) of each point
+		 * @return builder
+		 */
+		public Builder timestamps(long[] timestamps) {
+			this.timestamps = timestamps;
+			return this;
+		}
+
+		/**
+		 * Add sum field with value of each point.
+		 * 
+		 * @param name   field name
+		 * @param values field values
+		 * @return builder
+		 */
+		public Builder addSum(String name, double[] values) {
+			return addField(name, FieldType.Sum, values);
+		}
+
+		/**
+		 * Add min field with value of each point.
+		 * 
+		 * @param name   field name
+		 * @param values field values
+		 * @return builder
+		 */
+		public Builder addMin(String name, double[] values) {
+			return addField(name, FieldType.Min, values);
+		}
+
+		/**
+		 * Add max field with value of each point.
+		 * 
+		 * @param name   field name
+		 * @param values field values
+		 * @return builder
+		 */
+		public Builder addMax(String name, double[] values) {
+			return addField(name, FieldType.Max, values);
+		}
+
+		/**
+		 * Add last field with value of each point.
+		 * 
+		 * @param name   field name
+		 * @param values field values
+		 * @return builder
+		 */
+		public Builder addLast(String name, double[] values) {
+			return addField(name, FieldType.Last, values);
+		}
+
+		/**
+		 * Add first field with value of each point.
+		 * 
+		 * @param name   field name
+		 * @param values field values
+		 * @return builder
+		 */
+		public Builder addFirst(String name, double[] values) {
+			return addField(name, FieldType.First, values);
+		}
+
+		/**
+		 * Add field with type and value of each point.
+		 * 
+		 * @param name   field name
+		 * @param type   field type
+		 * @param values field values
+		 * @return builder
+		 */
+		public Builder addField(String name, FieldType type, double[] values) {
+			Preconditions.checkArgument(!StringUtils.isEmpty(name), "field name cannot be empty");
+			Preconditions.checkNotNull(type, "field type cannot be null");
+			Preconditions.checkNotNull(values, "field values cannot be null");
+			this.fieldNames.add(name);
+			this.fieldTypes.add(type);
+			this.fieldValues.add(values);
+			return this;
+		}
+
+		/**
+		 * Return the series with setting.
+		 * 
+		 * @return series
+		 */
+		public Series build() {
+			Preconditions.checkArgument(!StringUtils.isEmpty(name), "metric name cannot be empty");
+			Preconditions.checkNotNull(timestamps, "timestamps cannot be null");
+			Preconditions.checkArgument(!fieldValues.isEmpty(), "series must have at least one field");
+			for (int i = 0; i < fieldValues.size(); i++) {
+				Preconditions.checkArgument(fieldValues.get(i).length == timestamps.length,
+						"values length of field %s not equals timestamps length", fieldNames.get(i));
+			}
+			return new Series(this);
+		}
+	}
+
+	/**
+	 * Create a builder instance with metric name.
+	 * 
+	 * @param name name of metric
+	 * @return builder
+	 */
+	public static Builder builder(String name) {
+		return new Builder(name);
+	}
+
+	private final String name;
+	private final String namespace;
+	private final Map<String, String> tags;
+	private final long[] timestamps;
+	private final String[] fieldNames;
+	private final FieldType[] fieldTypes;
+	private final double[][] fieldValues;
+
+	private Series(Builder builder) {
+		this.name = builder.name;
+		this.namespace = builder.namespace;
+		this.tags = builder.tags.isEmpty() ? null : Collections.unmodifiableMap(new HashMap<>(builder.tags));
+		this.timestamps = builder.timestamps;
+		this.fieldNames = builder.fieldNames.toArray(new String[0]);
+		this.fieldTypes = builder.fieldTypes.toArray(new FieldType[0]);
+		this.fieldValues = builder.fieldValues.toArray(new double[0][]);
+	}
+
+	private Series(Series series, Map<String, String> tags) {
+		this.name = series.name;
+		this.namespace = series.namespace;
+		this.tags = tags;
+		this.timestamps = series.timestamps;
+		this.fieldNames = series.fieldNames;
+		this.fieldTypes = series.fieldTypes;
+		this.fieldValues = series.fieldValues;
+	}
+
+	/**
+	 * Return the metric name.
+	 * 
+	 * @return name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Return the namespace.
+	 * 
+	 * @return ns
+	 */
+	public String getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * Return the tags.
+	 * 
+	 * @return tags, null if no tags
+	 */
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	/**
+	 * Return the number of points.
+	 * 
+	 * @return size
+	 */
+	public int size() {
+		return timestamps.length;
+	}
+
+	/**
+	 * Return the timestamp of point.
+	 * 
+	 * @param index index of point
+	 * @return timestamp(ms)
+	 */
+	long timestamp(int index) {
+		return timestamps[index];
+	}
+
+	/**
+	 * Return the number of fields.
+	 * 
+	 * @return fields
+	 */
+	int fields() {
+		return fieldNames.length;
+	}
+
+	/**
+	 * Return the field value of point.
+	 * 
+	 * @param field index of field
+	 * @param index index of point
+	 * @return value
+	 */
+	double value(int field, int index) {
+		return fieldValues[field][index];
+	}
+
+	/**
+	 * Materialize point of series, only for reporting failures and templates.
+	 * 
+	 * @param timestamp timestamp(ms) of point, may be aligned
+	 * @param values    value of each field
+	 * @return point
+	 */
+	Point point(long timestamp, double[] values) {
+		Point.Builder builder = Point.builder(name, timestamp).namespace(namespace).addTags(tags);
+		for (int i = 0; i < fieldNames.length; i++) {
+			builder.addSimpleField(fieldNames[i], fieldTypes[i], values[i]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Materialize point of series, only for reporting failures.
+	 * 
+	 * @param index     index of point
+	 * @param timestamp timestamp(ms) of point, may be aligned
+	 * @return point
+	 */
+	Point point(int index, long timestamp) {
+		double[] values = new double[fieldValues.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = fieldValues[i][index];
+		}
+		return point(timestamp, values);
+	}
+
+	/**
+	 * Return a copy of this series with given tags.
+	 * 
+	 * @param tags tags
+	 * @return new series
+	 */
+	Series withTags(Map<String, String> tags) {
+		return new Series(this, tags);
+	}
+
+	/**
+	 * Return points view of series, timestamps and field values are copied into
+	 * the view so it stays valid after arrays of series are reused, points are
+	 * materialized only when accessed(failure report, split).
+	 * 
+	 * @param index      index of each point
+	 * @param timestamps written timestamp of each point, owned by view
+	 * @param size       number of points
+	 * @return points
+	 */
+	List<Point> points(int[] index, long[] timestamps, int size) {
+		double[][] values = new double[fieldValues.length][size];
+		for (int i = 0; i < values.length; i++) {
+			for (int j = 0; j < size; j++) {
+				values[i][j] = fieldValues[i][index[j]];
+			}
+		}
+		return new SeriesPoints(timestamps, values, size);
+	}
+
+	/**
+	 * Return points view of [from, to) of series.
+	 * 
+	 * @param from from index, inclusive
+	 * @param to   to index, exclusive
+	 * @return points
+	 */
+	List<Point> points(int from, int to) {
+		double[][] values = new double[fieldValues.length][];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Arrays.copyOfRange(fieldValues[i], from, to);
+		}
+		return new SeriesPoints(Arrays.copyOfRange(timestamps, from, to), values, to - from);
+	}
+
+	/**
+	 * Lazy points of series over copied values.
+	 */
+	private class SeriesPoints extends AbstractList<Point> implements RandomAccess {
+		private final long[] timestamps;
+		private final double[][] values;
+		private final int size;
+
+		SeriesPoints(long[] timestamps, double[][] values, int size) {
+			this.timestamps = timestamps;
+			this.values = values;
+			this.size = size;
+		}
+
+		@Override
+		public Point get(int i) {
+			if (i < 0 || i >= size) {
+				throw new IndexOutOfBoundsException("index: " + i + ", size: " + size);
+			}
+			double[] point = new double[values.length];
+			for (int j = 0; j < point.length; j++) {
+				point[j] = values[j][i];
+			}
+			return point(timestamps[i], point);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Encoded record template of series. Record of each point is copied from
+ * template then timestamp and field values are patched in place, so metric
+ * name, tags and field names are encoded once per series.
+ */
+@Immutable
+final class SeriesTemplate {
+	private final Series series;
+	private final RecordTemplate template;
+
+	private SeriesTemplate(Series series, RecordTemplate template) {
+		this.series = series;
+		this.template = template;
+	}
+
+	/**
+	 * Create template of series.
+	 * 
+	 * @param series      series
+	 * @param defaultTags default tags for metric
+	 * @return template
+	 */
+	static SeriesTemplate of(Series series, Map<String, String> defaultTags) {
+		return new SeriesTemplate(series, RecordTemplate.of(series.point(0, new double[series.fields()]), defaultTags));
+	}
+
+	/**
+	 * Return the size of each record.
+	 * 
+	 * @return bytes
+	 */
+	int recordSize() {
+		return template.recordSize();
+	}
+
+	/**
+	 * Write record of point into dest.
+	 * 
+	 * @param index     index of point
+	 * @param timestamp timestamp(ms) of point, may be aligned
+	 * @param dest      dest buffer
+	 * @param offset    offset of dest
+	 */
+	void write(int index, long timestamp, byte[] dest, int offset) {
+		template.write(timestamp, dest, offset);
+		for (int i = 0; i < template.slots(); i++) {
+			template.set(dest, offset, i, series.value(i, index));
+		}
+	}
+
+	/**
+	 * Encode points [from, to) of series.
+	 * 
+	 * @param from from index, inclusive
+	 * @param to   to index, exclusive
+	 * @return encoded records
+	 */
+	byte[] encode(int from, int to) {
+		int recordSize = template.recordSize();
+		byte[] data = new byte[recordSize * (to - from)];
+		for (int i = from; i < to; i++) {
+			write(i, series.timestamp(i), data, (i - from) * recordSize);
+		}
+		return data;
+	}
+}
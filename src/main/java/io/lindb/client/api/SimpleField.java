@@ -18,6 +18,9 @@
  */
 package io.lindb.client.api;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Data point simpel field.
  */
@@ -26,6 +29,7 @@ public final class SimpleField implements Field {
 	private final String name;
 	private final FieldType type;
 	private final double value;
+	private final List<Exemplar> exemplars;
 
 	/**
 	 * Create simple field instance.
@@ -35,9 +39,78 @@ public final class SimpleField implements Field {
 	 * @param value field value
 	 */
 	protected SimpleField(String name, FieldType type, double value) {
+		this(name, type, value, null);
+	}
+
+	/**
+	 * Create simple field instance with exemplars.
+	 * 
+	 * @param name      field name
+	 * @param type      field type
+	 * @param value     field value
+	 * @param exemplars exemplars, nullable
+	 */
+	SimpleField(String name, FieldType type, double value, List<Exemplar> exemplars) {
 		this.name = name;
 		this.type = type;
 		this.value = value;
+		this.exemplars = exemplars;
+	}
+
+	/**
+	 * Return the field name.
+	 * 
+	 * @return name
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * Return the field type.
+	 * 
+	 * @return type
+	 */
+	FieldType getType() {
+		return type;
+	}
+
+	/**
+	 * Return the field value.
+	 * 
+	 * @return value
+	 */
+	double getValue() {
+		return value;
+	}
+
+	/**
+	 * Return the exemplars, null if no exemplars.
+	 * 
+	 * @return exemplars
+	 */
+	List<Exemplar> getExemplars() {
+		return exemplars;
+	}
+
+	/**
+	 * Return a copy of field with exemplars appended.
+	 * 
+	 * @param exemplars exemplars
+	 * @return field
+	 */
+	SimpleField withExemplars(List<Exemplar> exemplars) {
+		return new SimpleField(this.name, this.type, this.value, concat(this.exemplars, exemplars));
+	}
+
+	static List<Exemplar> concat(List<Exemplar> exemplars, List<Exemplar> more) {
+		if (exemplars == null) {
+			return new ArrayList<>(more);
+		}
+		List<Exemplar> result = new ArrayList<>(exemplars.size() + more.size());
+		result.addAll(exemplars);
+		result.addAll(more);
+		return result;
 	}
 
 	/*
@@ -47,6 +120,6 @@ public final class SimpleField implements Field {
 	 */
 	@Override
 	public int write(RowBuilder builder) {
-		return builder.addSimpleField(this.name, this.type, this.value);
+		return builder.addSimpleField(this.name, this.type, this.value, this.exemplars);
 	}
 }
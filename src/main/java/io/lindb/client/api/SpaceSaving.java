@@ -0,0 +1,183 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.internal.LongIntHashMap;
+
+/**
+ * Space-Saving top-k sketch with fixed capacity, counters are kept in an
+ * indexed min-heap keyed by 64-bit item hash, so updates are O(log capacity)
+ * and hits allocate nothing.
+ *
+ * Each count overestimates the true weight by at most its error, any item
+ * with weight greater than total/capacity is guaranteed tracked. Tracked items
+ * are kept as is and labeled only when top items are returned, so replacing
+ * counters allocates nothing either.
+ *
+ * @param <T> item type
+ */
+@NotThreadSafe
+class SpaceSaving<T> {
+	private final int capacity;
+	private final Function<T, String> label;
+	private final long[] hashes;
+	private final Object[] items;
+	private final long[] counts;
+	private final long[] errors;
+	private final LongIntHashMap index;
+	private int size;
+
+	/**
+	 * Create sketch with capacity counters.
+	 * 
+	 * @param capacity number of counters
+	 * @param label    item label function, only called for returned top items
+	 */
+	SpaceSaving(int capacity, Function<T, String> label) {
+		Preconditions.checkArgument(capacity > 0, "negative capacity", capacity);
+		this.capacity = capacity;
+		this.label = label;
+		this.hashes = new long[capacity];
+		this.items = new Object[capacity];
+		this.counts = new long[capacity];
+		this.errors = new long[capacity];
+		this.index = new LongIntHashMap(capacity, -1);
+	}
+
+	/**
+	 * Add weight of item.
+	 * 
+	 * @param hash   item hash
+	 * @param item   item, kept while tracked
+	 * @param weight weight
+	 */
+	void add(long hash, T item, long weight) {
+		int idx = this.index.get(hash);
+		if (idx >= 0) {
+			this.counts[idx] += weight;
+			siftDown(idx);
+			return;
+		}
+		if (this.size < this.capacity) {
+			int i = this.size++;
+			set(i, hash, item, weight, 0);
+			siftUp(i);
+			return;
+		}
+		// replace the min counter, new item inherits its count as error
+		this.index.remove(this.hashes[0]);
+		long min = this.counts[0];
+		set(0, hash, item, min + weight, min);
+		siftDown(0);
+	}
+
+	/**
+	 * Return top k items by count desc.
+	 * 
+	 * @param k number of items
+	 * @return heavy hitters
+	 */
+	@SuppressWarnings("unchecked")
+	List<HeavyHitter> top(int k) {
+		Integer[] order = new Integer[this.size];
+		for (int i = 0; i < this.size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(this.counts[b], this.counts[a]));
+		int n = Math.min(k, this.size);
+		List<HeavyHitter> items = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			int idx = order[i];
+			items.add(new HeavyHitter(this.label.apply((T) this.items[idx]), this.counts[idx], this.errors[idx]));
+		}
+		return items;
+	}
+
+	/**
+	 * Remove all counters.
+	 */
+	void clear() {
+		this.index.clear();
+		for (int i = 0; i < this.size; i++) {
+			this.items[i] = null;
+		}
+		this.size = 0;
+	}
+
+	private void set(int i, long hash, T item, long count, long error) {
+		this.hashes[i] = hash;
+		this.items[i] = item;
+		this.counts[i] = count;
+		this.errors[i] = error;
+		this.index.put(hash, i);
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (this.counts[parent] <= this.counts[i]) {
+				return;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i) {
+		while (true) {
+			int left = (i << 1) + 1;
+			if (left >= this.size) {
+				return;
+			}
+			int right = left + 1;
+			int min = right < this.size && this.counts[right] < this.counts[left] ? right : left;
+			if (this.counts[i] <= this.counts[min]) {
+				return;
+			}
+			swap(i, min);
+			i = min;
+		}
+	}
+
+	private void swap(int i, int j) {
+		long hash = this.hashes[i];
+		Object item = this.items[i];
+		long count = this.counts[i];
+		long error = this.errors[i];
+		this.hashes[i] = this.hashes[j];
+		this.items[i] = this.items[j];
+		this.counts[i] = this.counts[j];
+		this.errors[i] = this.errors[j];
+		this.hashes[j] = hash;
+		this.items[j] = item;
+		this.counts[j] = count;
+		this.errors[j] = error;
+		this.index.put(this.hashes[i], i);
+		this.index.put(this.hashes[j], j);
+	}
+}
@@ -18,10 +18,16 @@
  */
 package io.lindb.client.api;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Async write metric api.
+ *
+ * Only {@link #put(Point)}, {@link #put(Point, long, TimeUnit)} and
+ * {@link #close()} are required, batch puts fall back to put loops and other
+ * pipeline features throw {@link UnsupportedOperationException} by default.
  */
 public interface Write {
 
@@ -44,6 +50,229 @@ public interface Write {
 	 */
 	boolean put(Point point, long timeout, TimeUnit unit) throws InterruptedException;
 
+	/**
+	 * Put metric points with one queue handoff, as many as batch queue can hold.
+	 * 
+	 * @param points metric data points
+	 * @return number of points put from head of points in iteration order, rest
+	 *         points are rejected(null or invalid points are ignored as put)
+	 */
+	default int putAll(Collection<Point> points) {
+		if (points == null) {
+			return 0;
+		}
+		int n = 0;
+		for (Point point : points) {
+			if (point != null && !put(point)) {
+				break;
+			}
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Put metric points with one queue handoff, waiting up to timeout for space.
+	 * 
+	 * @param points  metric data points
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return number of points put from head of points in iteration order, rest
+	 *         points are rejected(null or invalid points are ignored as put)
+	 * @throws InterruptedException thread interrupted
+	 */
+	default int putAll(Collection<Point> points, long timeout, TimeUnit unit) throws InterruptedException {
+		if (points == null) {
+			return 0;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int n = 0;
+		for (Point point : points) {
+			long wait = Math.max(deadline - System.nanoTime(), 0);
+			if (point != null && !put(point, wait, TimeUnit.NANOSECONDS)) {
+				break;
+			}
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Write points of series encoded directly from primitive arrays, in batches
+	 * put into send queue waiting up to timeout for space. Arrays of series are
+	 * read only until this returns, and can be reused after. Falls back to put
+	 * points of series by default.
+	 * 
+	 * @param series  columnar points of one series
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return number of points put from head of series, rest points are rejected
+	 * @throws InterruptedException  thread interrupted
+	 * @throws IllegalStateException ack tracking enabled
+	 */
+	default int writeSeries(Series series, long timeout, TimeUnit unit) throws InterruptedException {
+		if (series == null || series.size() == 0) {
+			return 0;
+		}
+		return putAll(series.points(0, series.size()), timeout, unit);
+	}
+
+	/**
+	 * Write size-prefixed Metric flat buffer records encoded by caller, in batches
+	 * put into send queue waiting up to timeout for space. Records out of
+	 * database window are dropped and timestamps are rounded to smallest interval,
+	 * series limit of metric is applied by decoding records into points(only if
+	 * limit enabled). Default tags and cumulative conversion are not applied.
+	 * 
+	 * @param records records buffer
+	 * @param offset  offset of first record
+	 * @param length  length of records
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return number of records put from head, rest records are rejected
+	 * @throws InterruptedException     thread interrupted
+	 * @throws IllegalArgumentException malformed size prefix
+	 * @throws IllegalStateException         ack tracking enabled
+	 * @throws UnsupportedOperationException records not supported by write
+	 */
+	default int writeRecords(byte[] records, int offset, int length, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		throw new UnsupportedOperationException("writeRecords");
+	}
+
+	/**
+	 * Create producer-side batching handle, each producer thread should own its
+	 * handle and close it when done.
+	 * 
+	 * @return batching handle
+	 * @throws UnsupportedOperationException batching not supported by write
+	 */
+	default PointBatcher batcher() {
+		throw new UnsupportedOperationException("batcher");
+	}
+
+	/**
+	 * Create typed recording handle of metric, records of each tag values
+	 * combination are encoded from a cached template and handed to pipeline in
+	 * chunks, used by writers generated for
+	 * {@link io.lindb.client.annotation.Metric} interfaces.
+	 * 
+	 * @param namespace  namespace of metric, nullable
+	 * @param name       metric name
+	 * @param tagKeys    tag keys
+	 * @param fieldNames simple field names
+	 * @param fieldTypes simple field types
+	 * @return recording handle
+	 * @throws IllegalArgumentException invalid metric shape
+	 * @throws IllegalStateException         ack tracking enabled
+	 * @throws UnsupportedOperationException recording not supported by write
+	 */
+	default MetricRecorder recorder(String namespace, String name, String[] tagKeys, String[] fieldNames,
+			FieldType[] fieldTypes) {
+		throw new UnsupportedOperationException("recorder");
+	}
+
+	/**
+	 * Put metric point, returns monotonically increasing sequence of point,
+	 * requires ack tracking enabled.
+	 * 
+	 * @param point metric data point
+	 * @return sequence, 0 if point ignored(null or invalid), -1 if rejected
+	 * @throws IllegalStateException         ack tracking disabled
+	 * @throws UnsupportedOperationException ack tracking not supported by write
+	 */
+	default long putSequenced(Point point) {
+		throw new UnsupportedOperationException("putSequenced");
+	}
+
+	/**
+	 * Put metric point with timeout, returns monotonically increasing sequence of
+	 * point, requires ack tracking enabled.
+	 * 
+	 * @param point   metric data point
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return sequence, 0 if point ignored(null or invalid), -1 if rejected
+	 * @throws InterruptedException  thread interrupted
+	 * @throws IllegalStateException         ack tracking disabled
+	 * @throws UnsupportedOperationException ack tracking not supported by write
+	 */
+	default long putSequenced(Point point, long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("putSequenced");
+	}
+
+	/**
+	 * Return the acked watermark, all points at or below it are settled(written
+	 * successfully, or dropped and reported to {@link EventListener}), requires
+	 * ack tracking enabled. Settled points are durable only if
+	 * {@link #lostSequence()} is not above the last checkpoint, so check it
+	 * before checkpointing upstream offsets at this watermark.
+	 * 
+	 * @return sequence
+	 * @throws IllegalStateException         ack tracking disabled
+	 * @throws UnsupportedOperationException ack tracking not supported by write
+	 */
+	default long ackedSequence() {
+		throw new UnsupportedOperationException("ackedSequence");
+	}
+
+	/**
+	 * Return the lost watermark, last sequence of the latest settled batch which
+	 * has dropped points(queue full after accepted, series limit, out of
+	 * database window, rejected by broker or retries exhausted), 0 if no points
+	 * dropped. Requires ack tracking enabled.
+	 * 
+	 * @return sequence
+	 * @throws IllegalStateException         ack tracking disabled
+	 * @throws UnsupportedOperationException ack tracking not supported by write
+	 */
+	default long lostSequence() {
+		throw new UnsupportedOperationException("lostSequence");
+	}
+
+	/**
+	 * Wait until all points at or below sequence are acked, requires ack tracking
+	 * enabled. Points are checked by batch from the acked watermark at call(the
+	 * batch of sequence if already acked), so dropped points following sequence
+	 * in the same batch also fail the wait, check {@link #lostSequence()} to tell
+	 * dropped from timed out.
+	 * 
+	 * @param sequence sequence returned by put
+	 * @param timeout  max wait time
+	 * @param unit     unit of timeout
+	 * @return true if acked before timeout and none of the points dropped
+	 * @throws InterruptedException          thread interrupted
+	 * @throws IllegalStateException         ack tracking disabled
+	 * @throws UnsupportedOperationException ack tracking not supported by write
+	 */
+	default boolean awaitAcked(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("awaitAcked");
+	}
+
+	/**
+	 * Send buffered points immediately, returns future completed with acked
+	 * watermark once all points put before are acked, completed exceptionally if
+	 * any of them dropped or write closed first. Requires ack tracking enabled.
+	 * 
+	 * @return future of acked watermark
+	 * @throws IllegalStateException         ack tracking disabled
+	 * @throws UnsupportedOperationException ack tracking not supported by write
+	 */
+	default CompletableFuture<Long> flush() {
+		throw new UnsupportedOperationException("flush");
+	}
+
+	/**
+	 * Return statistics snapshot of write pipeline, include queue depths, encode
+	 * time, batch size, compression ratio, send latency and drop/retry counts.
+	 * 
+	 * @return statistics snapshot
+	 * @throws UnsupportedOperationException statistics not supported by write
+	 */
+	default WriteStats stats() {
+		throw new UnsupportedOperationException("stats");
+	}
+
 	/**
 	 * Close write, release resources.
 	 * 
@@ -18,18 +18,26 @@
  */
 package io.lindb.client.api;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
- * Data write entry include data and retry count.
+ * Data write entry include data and retry count, retry count is tracked per
+ * point when entries merged for re-sending.
  */
 @NotThreadSafe
 public class WriteEntry {
 	private final byte[] data;
 	private final List<Point> points;
 	private int retry;
+	// retry count of each point, null if all points have same retry count
+	private int[] retries;
+	// ack batch of each point, null if ack tracking disabled
+	private AckTracker.Batch[] acks;
 
 	/**
 	 * Create write entry instance with data.
@@ -42,11 +50,29 @@ public class WriteEntry {
 		this.points = points;
 	}
 
+	private WriteEntry(byte[] data, List<Point> points, int[] retries, AckTracker.Batch[] acks) {
+		this(data, points);
+		this.acks = acks;
+		int max = 0;
+		boolean uniform = true;
+		for (int i = 0; i < retries.length; i++) {
+			max = Math.max(max, retries[i]);
+			uniform &= retries[i] == retries[0];
+		}
+		this.retry = max;
+		this.retries = uniform ? null : retries;
+	}
+
 	/**
 	 * Increase retry count.
 	 */
 	public void increaseRetry() {
 		this.retry++;
+		if (this.retries != null) {
+			for (int i = 0; i < this.retries.length; i++) {
+				this.retries[i]++;
+			}
+		}
 	}
 
 	/**
@@ -68,11 +94,180 @@ public class WriteEntry {
 	}
 
 	/**
-	 * Return the retry count.
+	 * Track all points of entry by ack batch.
+	 * 
+	 * @param batch ack batch
+	 */
+	void track(AckTracker.Batch batch) {
+		if (batch != null && this.points != null) {
+			this.acks = new AckTracker.Batch[this.points.size()];
+			Arrays.fill(this.acks, batch);
+		}
+	}
+
+	/**
+	 * Return ack batch of each point, null if ack tracking disabled.
+	 * 
+	 * @return ack batches
+	 */
+	AckTracker.Batch[] getAcks() {
+		return acks;
+	}
+
+	/**
+	 * Return the retry count, max retry count of points if merged.
 	 * 
 	 * @return retry count
 	 */
 	public int getRetry() {
 		return retry;
 	}
+
+	/**
+	 * Return the retry count of point.
+	 * 
+	 * @param index index of point
+	 * @return retry count
+	 */
+	public int getRetry(int index) {
+		return this.retries == null ? this.retry : this.retries[index];
+	}
+
+	/**
+	 * Merge entries into one entry for re-sending, data/points concatenated and
+	 * retry count kept per point.
+	 * 
+	 * @param entries entries with points
+	 * @return merged entry
+	 */
+	static WriteEntry merge(List<WriteEntry> entries) {
+		if (entries.size() == 1) {
+			return entries.get(0);
+		}
+		int bytes = 0;
+		int size = 0;
+		for (WriteEntry entry : entries) {
+			bytes += entry.data.length;
+			size += entry.points.size();
+		}
+		byte[] data = new byte[bytes];
+		List<Point> points = new ArrayList<>(size);
+		int[] retries = new int[size];
+		AckTracker.Batch[] acks = entries.get(0).acks == null ? null : new AckTracker.Batch[size];
+		int offset = 0;
+		for (WriteEntry entry : entries) {
+			System.arraycopy(entry.data, 0, data, offset, entry.data.length);
+			offset += entry.data.length;
+			if (acks != null && entry.acks != null) {
+				System.arraycopy(entry.acks, 0, acks, points.size(), entry.acks.length);
+			}
+			for (int i = 0; i < entry.points.size(); i++) {
+				retries[points.size()] = entry.getRetry(i);
+				points.add(entry.points.get(i));
+			}
+		}
+		return new WriteEntry(data, points, retries, acks);
+	}
+
+	/**
+	 * Partition entry by retry count of points.
+	 * 
+	 * @param maxRetry max retry count
+	 * @return [points can be retried, points reach max retry], null if no such
+	 *         points
+	 */
+	WriteEntry[] partition(int maxRetry) {
+		int[] offsets = null;
+		if (this.retries != null) {
+			offsets = recordOffsets(this.data, this.points.size());
+		}
+		if (offsets == null) {
+			// same retry count or not aligned, use max retry count of entry
+			return this.retry < maxRetry ? new WriteEntry[] { this, null } : new WriteEntry[] { null, this };
+		}
+		return new WriteEntry[] { select(offsets, maxRetry, false), select(offsets, maxRetry, true) };
+	}
+
+	private WriteEntry select(int[] offsets, int maxRetry, boolean exhausted) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<Point> selected = new ArrayList<>();
+		int[] selectedRetries = new int[this.points.size()];
+		AckTracker.Batch[] selectedAcks = this.acks == null ? null : new AckTracker.Batch[this.points.size()];
+		for (int i = 0; i < this.points.size(); i++) {
+			if ((this.retries[i] >= maxRetry) != exhausted) {
+				continue;
+			}
+			int end = i + 1 < offsets.length ? offsets[i + 1] : this.data.length;
+			out.write(this.data, offsets[i], end - offsets[i]);
+			selectedRetries[selected.size()] = this.retries[i];
+			if (selectedAcks != null) {
+				selectedAcks[selected.size()] = this.acks[i];
+			}
+			selected.add(this.points.get(i));
+		}
+		if (selected.isEmpty()) {
+			return null;
+		}
+		return new WriteEntry(out.toByteArray(), selected, Arrays.copyOf(selectedRetries, selected.size()),
+				selectedAcks == null ? null : Arrays.copyOf(selectedAcks, selected.size()));
+	}
+
+	/**
+	 * Split entry into two halves by size-prefixed records, each half keeps
+	 * aligned points and retry count.
+	 * 
+	 * @return two halves, or null if entry cannot be split(single point or points
+	 *         not aligned with records)
+	 */
+	WriteEntry[] split() {
+		if (this.data == null || this.points == null || this.points.size() < 2) {
+			return null;
+		}
+		int size = this.points.size();
+		int[] offsets = recordOffsets(this.data, size);
+		if (offsets == null) {
+			return null;
+		}
+		int mid = size / 2;
+		WriteEntry left = new WriteEntry(Arrays.copyOfRange(this.data, 0, offsets[mid]),
+				new ArrayList<>(this.points.subList(0, mid)), retries(0, mid), acks(0, mid));
+		WriteEntry right = new WriteEntry(Arrays.copyOfRange(this.data, offsets[mid], this.data.length),
+				new ArrayList<>(this.points.subList(mid, size)), retries(mid, size), acks(mid, size));
+		return new WriteEntry[] { left, right };
+	}
+
+	private int[] retries(int from, int to) {
+		if (this.retries != null) {
+			return Arrays.copyOfRange(this.retries, from, to);
+		}
+		int[] result = new int[to - from];
+		Arrays.fill(result, this.retry);
+		return result;
+	}
+
+	private AckTracker.Batch[] acks(int from, int to) {
+		return this.acks == null ? null : Arrays.copyOfRange(this.acks, from, to);
+	}
+
+	/**
+	 * Return start offsets of records, each record has 4 bytes little-endian size
+	 * prefix, null if data not matches records count.
+	 */
+	private static int[] recordOffsets(byte[] data, int records) {
+		int[] offsets = new int[records];
+		int offset = 0;
+		for (int i = 0; i < records; i++) {
+			if (offset + 4 > data.length) {
+				return null;
+			}
+			int size = (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16
+					| (data[offset + 3] & 0xff) << 24;
+			if (size < 0 || size > data.length - offset - 4) {
+				return null;
+			}
+			offsets[i] = offset;
+			offset += 4 + size;
+		}
+		return offset == data.length ? offsets : null;
+	}
 }
@@ -42,6 +42,23 @@ public class WriteFactory {
 		return new WriteImpl(options, client, listener);
 	}
 
+	/**
+	 * Retrun an async write api based on given write options and http client,
+	 * database options fetched by state query when schema aware write enabled.
+	 * 
+	 * @param options    write options
+	 * @param client     http write client
+	 * @param listener   the listener to listen events
+	 * @param stateQuery state query for database options
+	 *
+	 * @return write api {@link Write}
+	 * @throws IOException create error
+	 */
+	public static Write createWrite(WriteOptions options, WriteClient client, EventListener listener,
+			StateQuery stateQuery) throws IOException {
+		return new WriteImpl(options, client, listener, stateQuery);
+	}
+
 	/**
 	 * Retrun a blocking write api based on given write options and http client.
 	 * 
@@ -56,6 +73,19 @@ public class WriteFactory {
 		return new BlockingWriteImpl(options, client);
 	}
 
+	/**
+	 * Retrun a bulk import api based on given options and http client.
+	 * 
+	 * @param options      import options
+	 * @param writeOptions write options, for default tags and gzip
+	 * @param client       http write client
+	 *
+	 * @return import api {@link Importer}
+	 */
+	public static Importer createImporter(ImportOptions options, WriteOptions writeOptions, WriteClient client) {
+		return new ImporterImpl(options, writeOptions, client);
+	}
+
 	private WriteFactory() {
 	}
 }
@@ -20,23 +20,35 @@ package io.lindb.client.api;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPOutputStream;
 
 import javax.annotation.concurrent.ThreadSafe;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.lindb.client.internal.Threads;
 import io.lindb.client.internal.WriteClient;
+import io.lindb.client.internal.jfr.JfrEvents;
 
 /**
  * Implement an async write api.
@@ -44,20 +56,43 @@ import io.lindb.client.internal.WriteClient;
 @ThreadSafe
 public class WriteImpl implements Write {
 	private final static Logger LOGGER = LoggerFactory.getLogger(WriteImpl.class);
+	private final static AtomicInteger SEQ = new AtomicInteger();
+	/**
+	 * Max split sends of a rejected entry per halving level, enough to isolate a
+	 * few invalid points.
+	 */
+	private final static int MAX_SPLIT_SENDS_PER_LEVEL = 4;
+	/**
+	 * Marker point asking decoder to send current batch immediately.
+	 */
+	private final static Point FLUSH = Point.builder("").build();
 	private final WriteOptions options;
 	private final boolean useGZip;
 	private final long flushInterval;
 	private final int batchSize;
 	private final int maxRetry;
+	private final int retryBatchBytes;
+	private final boolean useVirtualThreads;
 	private final Map<String, String> defaultTags;
+	private final String database;
 
 	private RowBuilder builder;
 	private ByteArrayOutputStream buffer;
 	private WriteClient client;
-	private EventListener listener;
+	private final EventDispatcher dispatcher;
+	// keep sequence order same as queue order of points
+	private final Object putLock = new Object();
 	private final CountDownLatch latch;
+	private ObjectName mbeanName;
+	private ScheduledExecutorService statsReporter;
+	private ScheduledExecutorService runtimeExecutor;
+	private RuntimeMetricsCollector runtimeMetrics;
+	private ScheduledExecutorService schemaExecutor;
+	private ScheduledExecutorService lingerExecutor;
+	private final List<PointBatcher> batchers = new CopyOnWriteArrayList<>();
+	private final List<MetricRecorder> recorders = new CopyOnWriteArrayList<>();
 
-	BlockingQueue<Point> points;
+	PointQueue points;
 	BlockingQueue<WriteEntry> sendBuffers;
 	BlockingQueue<WriteEntry> retryQueue;
 
@@ -65,6 +100,22 @@ public class WriteImpl implements Write {
 	SendConsumer sendConsumer;
 	RetryConsumer retryConsumer;
 	AtomicBoolean running;
+	// cleared first on close, so new puts are rejected while producer-side chunks
+	// and encoders are drained, consumers keep running until drained
+	private volatile boolean accepting = true;
+	final WriteStatsRecorder stats;
+	final HeavyHitterTracker heavyHitters;
+	final SchemaRefresher schemaRefresher;
+	final AckTracker acks;
+	// cumulative sum state only accessed by decoder thread, or under its lock when
+	// encoding on put
+	private final DeltaConverter converter;
+	private final CardinalityLimiter limiter;
+	private final boolean encodeOnPut;
+	// encoders striped by producer thread when encode on put, fixed count so
+	// thread churn(pools, virtual threads) does not grow them
+	private final PutEncoder[] encoders;
+	private ScheduledExecutorService flusher;
 
 	/**
 	 * Create a write api instance with options and http client.
@@ -89,6 +140,20 @@ public class WriteImpl implements Write {
 		this(options, client, true, listener);
 	}
 
+	/**
+	 * Create a write api instance with options and http client.
+	 * 
+	 * @param options    write options
+	 * @param client     http write client
+	 * @param listener   the listener to listen events
+	 * @param stateQuery state query for database options of schema aware write
+	 * @throws IOException create error
+	 */
+	protected WriteImpl(WriteOptions options, WriteClient client, EventListener listener, StateQuery stateQuery)
+			throws IOException {
+		this(options, client, true, listener, stateQuery);
+	}
+
 	/**
 	 * Create a write api instance with options and http client.
 	 * 
@@ -112,50 +177,156 @@ public class WriteImpl implements Write {
 	 */
 	protected WriteImpl(WriteOptions options, WriteClient client, boolean startup, EventListener listener)
 			throws IOException {
+		this(options, client, startup, listener, null);
+	}
+
+	/**
+	 * Create a write api instance with options and http client.
+	 * 
+	 * @param options    write options
+	 * @param client     http write client
+	 * @param startup    if startup consumer threads
+	 * @param listener   the listener to listen events
+	 * @param stateQuery state query for database options of schema aware write
+	 * @throws IOException create error
+	 */
+	protected WriteImpl(WriteOptions options, WriteClient client, boolean startup, EventListener listener,
+			StateQuery stateQuery) throws IOException {
 		this.options = options;
 		this.useGZip = options.isUseGZip();
 		this.flushInterval = options.getFlushInterval();
 		this.batchSize = options.getBatchSize();
 		this.maxRetry = options.getMaxRetries();
+		this.retryBatchBytes = options.getRetryBatchBytes();
+		this.useVirtualThreads = options.isUseVirtualThreads();
 		this.defaultTags = options.getDefaultTags();
 
 		this.client = client;
-		this.points = new ArrayBlockingQueue<>(this.options.getBatchQueue());
+		this.database = client.getDatabase();
+		this.points = new PointQueue(this.options.getBatchQueue());
 		this.sendBuffers = new ArrayBlockingQueue<>(this.options.getSendQueue());
 		this.retryQueue = new ArrayBlockingQueue<>(this.options.getRetryQueue());
 		this.buffer = new ByteArrayOutputStream();
 		this.builder = new RowBuilder();
-		this.listener = listener;
 		this.decodeConsumer = new DecodeConsumer();
 		this.sendConsumer = new SendConsumer();
 		this.retryConsumer = new RetryConsumer();
 		this.running = new AtomicBoolean(true);
+		this.heavyHitters = options.getTopK() > 0
+				? new HeavyHitterTracker(options.getTopK(), options.getTopKInterval(), System.currentTimeMillis())
+				: null;
+		if (options.isSchemaAware() && stateQuery == null) {
+			LOGGER.warn("schema aware write disabled, state query not provided");
+		}
+		this.schemaRefresher = options.isSchemaAware() && stateQuery != null
+				? new SchemaRefresher(this.database, stateQuery)
+				: null;
+		this.encodeOnPut = options.isEncodeOnPut();
+		this.encoders = new PutEncoder[this.encodeOnPut ? Threads.stripes() : 0];
+		for (int i = 0; i < this.encoders.length; i++) {
+			this.encoders[i] = new PutEncoder();
+		}
+		if (this.encodeOnPut && options.isAckTracking()) {
+			throw new IllegalArgumentException("ack tracking not supported when encode on put");
+		}
+		if (options.getRuntimeMetricsInterval() > 0 && options.isAckTracking()) {
+			throw new IllegalArgumentException("ack tracking not supported when collecting runtime metrics");
+		}
+		this.acks = options.isAckTracking() ? new AckTracker() : null;
+		this.converter = new DeltaConverter(options.getCumulativeTtl());
+		this.limiter = options.getMaxSeriesPerMetric() > 0
+				? new CardinalityLimiter(options.getMaxSeriesPerMetric(), options.getCardinalityPolicy(),
+						options.getCardinalityWindow(), options.getMaxCardinalityMetrics(), System.currentTimeMillis())
+				: null;
+		this.stats = new WriteStatsRecorder(this);
+		this.dispatcher = listener != null
+				? new EventDispatcher(listener, options.getEventInterval(), options.getEventQueue(),
+						this.stats.droppedEvents)
+				: null;
 
+		if (options.isJmxEnabled()) {
+			this.registerMBean(client.getDatabase());
+		}
 		if (startup) {
 			this.startup();
 		}
 
-		latch = new CountDownLatch(3);
+		// no decoder thread when encode on put
+		latch = new CountDownLatch(this.encodeOnPut ? 2 : 3);
 	}
 
 	private void startup() throws IOException {
-		// decode process thread
-		Thread decodeProc = new Thread(this.decodeConsumer);
-		decodeProc.setName("lin-decoder");
-		decodeProc.setDaemon(true);
-		decodeProc.start();
+		if (this.dispatcher != null) {
+			// notify listener off pipeline threads
+			this.dispatcher.start(this.useVirtualThreads);
+		}
+		if (this.schemaRefresher != null) {
+			// fetch database options before accepting points, then refresh periodically
+			this.schemaRefresher.run();
+			long refreshInterval = this.options.getSchemaRefreshInterval();
+			this.schemaExecutor = Executors.newSingleThreadScheduledExecutor(
+					Threads.factory("lin-schema", this.useVirtualThreads));
+			this.schemaExecutor.scheduleAtFixedRate(this.schemaRefresher, refreshInterval, refreshInterval,
+					TimeUnit.MILLISECONDS);
+		}
+
+		if (this.encodeOnPut) {
+			// hand off batches lingering in encoders of idle producers
+			this.flusher = Executors.newSingleThreadScheduledExecutor(
+					Threads.factory("lin-flusher", this.useVirtualThreads));
+			this.flusher.scheduleAtFixedRate(this::handoffEncoders, this.flushInterval, this.flushInterval,
+					TimeUnit.MILLISECONDS);
+		} else {
+			// decode process thread
+			Threads.newThread("lin-decoder", this.decodeConsumer, this.useVirtualThreads).start();
+		}
 
 		// send process thread
-		Thread sendProc = new Thread(this.sendConsumer);
-		sendProc.setName("lin-sender");
-		sendProc.setDaemon(true);
-		sendProc.start();
+		Threads.newThread("lin-sender", this.sendConsumer, this.useVirtualThreads).start();
 
 		// retry send process thread
-		Thread resendProc = new Thread(this.retryConsumer);
-		resendProc.setName("lin-re-sender");
-		resendProc.setDaemon(true);
-		resendProc.start();
+		Threads.newThread("lin-re-sender", this.retryConsumer, this.useVirtualThreads).start();
+
+		long statsInterval = this.options.getStatsInterval();
+		if (statsInterval > 0) {
+			// write statistics back into LinDB
+			this.statsReporter = Executors.newSingleThreadScheduledExecutor(
+					Threads.factory("lin-stats", this.useVirtualThreads));
+			this.statsReporter.scheduleAtFixedRate(new WriteStatsReporter(this, this.stats), statsInterval,
+					statsInterval, TimeUnit.MILLISECONDS);
+		}
+
+		long runtimeMetricsInterval = this.options.getRuntimeMetricsInterval();
+		if (runtimeMetricsInterval > 0) {
+			// series of runtime metrics encoded once with default tags
+			this.runtimeMetrics = new RuntimeMetricsCollector(this, this.defaultTags);
+			this.runtimeExecutor = Executors.newSingleThreadScheduledExecutor(
+					Threads.factory("lin-runtime", this.useVirtualThreads));
+			this.runtimeExecutor.scheduleAtFixedRate(this.runtimeMetrics, runtimeMetricsInterval,
+					runtimeMetricsInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void registerMBean(String database) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(String.format("io.lindb.client:type=Write,database=%s,id=%d",
+					ObjectName.quote(database == null ? "" : database), SEQ.incrementAndGet()));
+			server.registerMBean(this.stats, name);
+			this.mbeanName = name;
+		} catch (Exception e) {
+			LOGGER.warn("register write statistics mbean failure", e);
+		}
+	}
+
+	/**
+	 * Return statistics snapshot of write pipeline.
+	 * 
+	 * @return statistics snapshot
+	 */
+	@Override
+	public WriteStats stats() {
+		return this.stats.snapshot();
 	}
 
 	/**
@@ -166,14 +337,26 @@ public class WriteImpl implements Write {
 	 */
 	@Override
 	public boolean put(Point point) {
-		if (!this.running.get()) {
+		if (this.acks != null) {
+			return putSequenced(point) >= 0;
+		}
+		if (!accepting()) {
 			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.increment();
 			return false;
 		}
 		if (point == null || !point.validate()) {
 			return true;
 		}
-		return this.points.offer(point);
+		if (this.encodeOnPut) {
+			try {
+				return encoded(encoder().put(point, 0, null));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return encoded(false);
+			}
+		}
+		return accepted(this.points.offer(point));
 	}
 
 	/**
@@ -187,31 +370,854 @@ public class WriteImpl implements Write {
 	 */
 	@Override
 	public boolean put(Point point, long timeout, TimeUnit unit) throws InterruptedException {
-		if (!this.running.get()) {
+		if (this.acks != null) {
+			return putSequenced(point, timeout, unit) >= 0;
+		}
+		if (!accepting()) {
 			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.increment();
 			return false;
 		}
 		if (point == null || !point.validate()) {
 			return true;
 		}
-		return this.points.offer(point, timeout, unit);
+		if (this.encodeOnPut) {
+			return encoded(encoder().put(point, timeout, unit));
+		}
+		return accepted(this.points.offer(point, timeout, unit));
+	}
+
+	/**
+	 * Put metric point, returns sequence of point.
+	 * 
+	 * @param point metric data point
+	 * @return sequence, 0 if point ignored(null or invalid), -1 if rejected
+	 */
+	@Override
+	public long putSequenced(Point point) {
+		AckTracker tracker = ackTracker();
+		if (!accepting()) {
+			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.increment();
+			return -1;
+		}
+		if (point == null || !point.validate()) {
+			return 0;
+		}
+		synchronized (this.putLock) {
+			return accepted(this.points.offer(point)) ? tracker.assign() : -1;
+		}
+	}
+
+	/**
+	 * Put metric point with timeout, returns sequence of point.
+	 * 
+	 * @param point   metric data point
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return sequence, 0 if point ignored(null or invalid), -1 if rejected
+	 * @throws InterruptedException thread interrupted
+	 */
+	@Override
+	public long putSequenced(Point point, long timeout, TimeUnit unit) throws InterruptedException {
+		AckTracker tracker = ackTracker();
+		if (!accepting()) {
+			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.increment();
+			return -1;
+		}
+		if (point == null || !point.validate()) {
+			return 0;
+		}
+		synchronized (this.putLock) {
+			return accepted(this.points.offer(point, timeout, unit)) ? tracker.assign() : -1;
+		}
+	}
+
+	/**
+	 * Return the acked watermark.
+	 * 
+	 * @return sequence
+	 */
+	@Override
+	public long ackedSequence() {
+		return ackTracker().acked();
+	}
+
+	/**
+	 * Return the lost watermark.
+	 * 
+	 * @return sequence
+	 */
+	@Override
+	public long lostSequence() {
+		return ackTracker().lost();
+	}
+
+	/**
+	 * Wait until all points at or below sequence are acked, fails if any of them
+	 * dropped.
+	 * 
+	 * @param sequence sequence returned by put
+	 * @param timeout  max wait time
+	 * @param unit     unit of timeout
+	 * @return true if acked before timeout and none of the points dropped
+	 * @throws InterruptedException thread interrupted
+	 */
+	@Override
+	public boolean awaitAcked(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+		return ackTracker().await(sequence, timeout, unit);
+	}
+
+	/**
+	 * Send buffered points immediately, future completes with acked watermark
+	 * once all points put before are acked, exceptionally if any dropped.
+	 * 
+	 * @return future of acked watermark
+	 */
+	@Override
+	public CompletableFuture<Long> flush() {
+		CompletableFuture<Long> future = ackTracker().flush();
+		if (!future.isDone()) {
+			// wake up decoder, it sends current batch when seeing marker
+			this.points.offer(FLUSH);
+		}
+		return future;
+	}
+
+	/**
+	 * Put metric points with one queue handoff, as many as batch queue can hold.
+	 * 
+	 * @param points metric data points
+	 * @return number of points put from head of points in iteration order, rest
+	 *         points are rejected(null or invalid points are ignored as put)
+	 */
+	@Override
+	public int putAll(Collection<Point> points) {
+		return putAll(points, false);
+	}
+
+	/**
+	 * Put metric points with one queue handoff, chunks of producer-side handles
+	 * are still put while write closing.
+	 * 
+	 * @param points metric data points
+	 * @param chunk  if points of producer-side chunk
+	 * @return number of points put from head of points
+	 */
+	int putAll(Collection<Point> points, boolean chunk) {
+		if (points == null || points.isEmpty()) {
+			return 0;
+		}
+		List<Point> valid = valid(points);
+		if (chunk ? !this.running.get() : !accepting()) {
+			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.add(valid.size());
+			return 0;
+		}
+		int n;
+		if (this.encodeOnPut) {
+			n = encode(valid, 0, null);
+		} else if (this.acks != null) {
+			synchronized (this.putLock) {
+				n = this.points.offer(valid);
+				this.acks.assign(n);
+			}
+		} else {
+			n = this.points.offer(valid);
+		}
+		return putCount(points, valid.size(), n);
+	}
+
+	/**
+	 * Put metric points with one queue handoff, waiting up to timeout for space.
+	 * 
+	 * @param points  metric data points
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return number of points put from head of points in iteration order, rest
+	 *         points are rejected(null or invalid points are ignored as put)
+	 * @throws InterruptedException thread interrupted
+	 */
+	@Override
+	public int putAll(Collection<Point> points, long timeout, TimeUnit unit) throws InterruptedException {
+		return putAll(points, timeout, unit, false);
+	}
+
+	/**
+	 * Put metric points with one queue handoff waiting up to timeout, chunks of
+	 * producer-side handles are still put while write closing.
+	 * 
+	 * @param points  metric data points
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @param chunk   if points of producer-side chunk
+	 * @return number of points put from head of points
+	 * @throws InterruptedException thread interrupted
+	 */
+	int putAll(Collection<Point> points, long timeout, TimeUnit unit, boolean chunk) throws InterruptedException {
+		if (points == null || points.isEmpty()) {
+			return 0;
+		}
+		List<Point> valid = valid(points);
+		if (chunk ? !this.running.get() : !accepting()) {
+			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.add(valid.size());
+			return 0;
+		}
+		int n;
+		if (this.encodeOnPut) {
+			n = encode(valid, timeout, unit);
+		} else if (this.acks != null) {
+			synchronized (this.putLock) {
+				n = this.points.offer(valid, timeout, unit);
+				this.acks.assign(n);
+			}
+		} else {
+			n = this.points.offer(valid, timeout, unit);
+		}
+		return putCount(points, valid.size(), n);
+	}
+
+	/**
+	 * Encode points on caller thread, returns number of points accepted from
+	 * head.
+	 */
+	private int encode(List<Point> points, long timeout, TimeUnit unit) {
+		PutEncoder encoder = encoder();
+		long deadline = unit == null ? 0 : System.nanoTime() + unit.toNanos(timeout);
+		int n = 0;
+		try {
+			for (Point point : points) {
+				long wait = unit == null ? 0 : Math.max(deadline - System.nanoTime(), 0);
+				if (!encoder.put(point, wait, unit == null ? null : TimeUnit.NANOSECONDS)) {
+					break;
+				}
+				n++;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return n;
+	}
+
+	private static List<Point> valid(Collection<Point> points) {
+		List<Point> valid = new ArrayList<>(points.size());
+		for (Point point : points) {
+			if (point != null && point.validate()) {
+				valid.add(point);
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Record accepted/rejected points, returns number of points put from head of
+	 * points, includes ignored points before first rejected.
+	 */
+	private int putCount(Collection<Point> points, int valid, int accepted) {
+		this.stats.putPoints.add(accepted);
+		if (accepted == valid) {
+			return points.size();
+		}
+		this.stats.rejectedPoints.add(valid - accepted);
+		JfrEvents.queueFull(this.database, "batch", this.options.getBatchQueue());
+		int index = 0;
+		int seen = 0;
+		for (Point point : points) {
+			if (point != null && point.validate() && seen++ == accepted) {
+				break;
+			}
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * Write points of series encoded directly from primitive arrays, records are
+	 * patched from series template, no point objects created.
+	 * 
+	 * @param series  columnar points of one series
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return number of points put from head of series, rest points are rejected
+	 * @throws InterruptedException thread interrupted
+	 */
+	@Override
+	public int writeSeries(Series series, long timeout, TimeUnit unit) throws InterruptedException {
+		if (this.acks != null) {
+			throw new IllegalStateException("series write not supported with ack tracking");
+		}
+		if (series == null || series.size() == 0) {
+			return 0;
+		}
+		int size = series.size();
+		if (!accepting()) {
+			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.add(size);
+			return 0;
+		}
+		long now = System.currentTimeMillis();
+		if (this.limiter != null) {
+			Point head = series.point(0, series.timestamp(0));
+			Point admitted;
+			synchronized (this.limiter) {
+				admitted = this.limiter.admit(head, now);
+			}
+			if (admitted == null) {
+				List<Point> limitedPoints = series.points(0, size);
+				this.stats.putPoints.add(size);
+				this.stats.limitedPoints.add(size);
+				this.stats.dropped(limitedPoints);
+				onError(EventType.cardinality, limitedPoints, new IllegalStateException(
+						"series limit exceeded, drop new series of metric: " + series.getName()));
+				return size;
+			}
+			if (admitted != head) {
+				this.stats.overflowPoints.add(size);
+				onError(EventType.cardinality, series.points(0, size), new IllegalStateException(
+						"series limit exceeded, collapse new series into overflow of metric: " + series.getName()));
+				series = series.withTags(admitted.getTags());
+			}
+		}
+		SeriesTemplate template = SeriesTemplate.of(series, this.defaultTags);
+		int recordSize = template.recordSize();
+		int maxPoints = Math.max(1, Math.min(this.batchSize, this.retryBatchBytes / recordSize));
+		DatabaseSchema schema = this.schemaRefresher == null ? null : this.schemaRefresher.schema();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		List<Point> windowPoints = new ArrayList<>();
+		int next = 0;
+		try {
+			while (next < size) {
+				long start = System.nanoTime();
+				int capacity = Math.min(maxPoints, size - next);
+				byte[] data = new byte[recordSize * capacity];
+				int[] index = new int[capacity];
+				long[] timestamps = new long[capacity];
+				// window dropped points of this batch, reported only if batch put
+				int dropped = windowPoints.size();
+				int ahead = 0;
+				int count = 0;
+				int end = next;
+				for (; end < size && count < capacity; end++) {
+					long timestamp = series.timestamp(end);
+					if (schema != null) {
+						boolean isAhead = schema.isAhead(timestamp, now);
+						if (isAhead || schema.isBehind(timestamp, now)) {
+							ahead += isAhead ? 1 : 0;
+							windowPoints.add(series.point(end, timestamp));
+							continue;
+						}
+						timestamp = schema.align(timestamp);
+					}
+					template.write(end, timestamp, data, count * recordSize);
+					index[count] = end;
+					timestamps[count] = timestamp;
+					count++;
+				}
+				long cost = System.nanoTime() - start;
+				if (count > 0) {
+					WriteEntry entry = new WriteEntry(
+							count == capacity ? data : Arrays.copyOf(data, count * recordSize),
+							series.points(index, timestamps, count));
+					if (!this.sendBuffers.offer(entry, Math.max(0, deadline - System.nanoTime()),
+							TimeUnit.NANOSECONDS)) {
+						windowPoints.subList(dropped, windowPoints.size()).clear();
+						this.stats.rejectedPoints.add(size - next);
+						JfrEvents.queueFull(this.database, "send", this.options.getSendQueue());
+						return next;
+					}
+					this.stats.encodedPoints.add(count);
+					this.stats.encodeNanos.add(cost);
+					this.stats.batches.increment();
+					JfrEvents.encode(this.database, count, entry.getData().length, cost);
+				}
+				int behind = windowPoints.size() - dropped - ahead;
+				this.stats.aheadPoints.add(ahead);
+				this.stats.behindPoints.add(behind);
+				this.stats.putPoints.add(end - next);
+				next = end;
+			}
+			return next;
+		} finally {
+			if (!windowPoints.isEmpty()) {
+				this.stats.dropped(windowPoints);
+				onError(EventType.timestamp, windowPoints, new IllegalStateException(
+						"timestamp out of database window, drop points of metric: " + series.getName()));
+			}
+		}
+	}
+
+	/**
+	 * Write records encoded by caller in batches of at most batch size records and
+	 * retry batch bytes, records are decoded into points only if reported to
+	 * listener or series limit of metric applied.
+	 * 
+	 * @param records records buffer
+	 * @param offset  offset of first record
+	 * @param length  length of records
+	 * @param timeout put timeout
+	 * @param unit    unit of timeout
+	 * @return number of records put from head, rest records are rejected
+	 * @throws InterruptedException     thread interrupted
+	 * @throws IllegalArgumentException malformed size prefix
+	 * @throws IllegalStateException    ack tracking enabled
+	 */
+	@Override
+	public int writeRecords(byte[] records, int offset, int length, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return writeRecords(records, offset, length, timeout, unit, false);
+	}
+
+	/**
+	 * Write records in batches, drop records out of database window and round
+	 * timestamp of kept records to smallest interval in place of copied batch.
+	 * Records are decoded for series limit unless admitted already(records of
+	 * recording handle templates).
+	 * 
+	 * @param records  records buffer
+	 * @param offset   offset of first record
+	 * @param length   length of records
+	 * @param timeout  put timeout
+	 * @param unit     unit of timeout
+	 * @param admitted if series limit applied by caller
+	 * @return number of records put from head, rest records are rejected
+	 * @throws InterruptedException thread interrupted
+	 */
+	int writeRecords(byte[] records, int offset, int length, long timeout, TimeUnit unit, boolean admitted)
+			throws InterruptedException {
+		if (this.acks != null) {
+			throw new IllegalStateException("record write not supported with ack tracking");
+		}
+		if (records == null || length == 0) {
+			return 0;
+		}
+		int[] offsets = RecordPoints.offsets(records, offset, length);
+		int size = offsets.length;
+		// records of recording handle chunks are still put while write closing
+		if (admitted ? !this.running.get() : !accepting()) {
+			LOGGER.warn("write closed.");
+			this.stats.rejectedPoints.add(size);
+			return 0;
+		}
+		DatabaseSchema schema = this.schemaRefresher == null ? null : this.schemaRefresher.schema();
+		CardinalityLimiter recordLimiter = admitted ? null : this.limiter;
+		RowBuilder rowBuilder = null;
+		long now = System.currentTimeMillis();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		List<Point> windowPoints = new ArrayList<>();
+		int end = offset + length;
+		int next = 0;
+		try {
+			while (next < size) {
+				long start = System.nanoTime();
+				int last = next;
+				int bytes = 0;
+				while (last < size && last - next < this.batchSize) {
+					int recordBytes = (last + 1 < size ? offsets[last + 1] : end) - offsets[last];
+					if (last > next && bytes + recordBytes > this.retryBatchBytes) {
+						break;
+					}
+					bytes += recordBytes;
+					last++;
+				}
+				// window dropped points of this batch, reported only if batch put
+				int dropped = windowPoints.size();
+				int ahead = 0;
+				byte[] data = new byte[bytes];
+				int[] entryOffsets = new int[last - next];
+				int count = 0;
+				int pos = 0;
+				for (int i = next; i < last; i++) {
+					int recordStart = offsets[i];
+					int recordBytes = (i + 1 < size ? offsets[i + 1] : end) - recordStart;
+					int position = RecordPoints.timestampPosition(records, recordStart);
+					long timestamp = RecordPoints.timestamp(records, position);
+					long aligned = timestamp;
+					if (schema != null) {
+						boolean isAhead = schema.isAhead(timestamp, now);
+						if (isAhead || schema.isBehind(timestamp, now)) {
+							ahead += isAhead ? 1 : 0;
+							windowPoints.add(RecordPoints.point(records, recordStart));
+							continue;
+						}
+						aligned = schema.align(timestamp);
+					}
+					Point point = null;
+					if (recordLimiter != null) {
+						Point decoded = RecordPoints.point(records, recordStart);
+						point = limit(decoded, now);
+						if (point == null) {
+							continue;
+						}
+						if (point == decoded) {
+							point = null;
+						}
+					}
+					if (point == null && (aligned == timestamp || position >= 0)) {
+						System.arraycopy(records, recordStart, data, pos, recordBytes);
+						if (aligned != timestamp) {
+							RecordPoints.timestamp(data, position - recordStart + pos, aligned);
+						}
+					} else {
+						// collapsed into overflow series, or timestamp absent, encode again
+						if (point == null) {
+							point = RecordPoints.point(records, recordStart);
+						}
+						if (rowBuilder == null) {
+							rowBuilder = new RowBuilder();
+						}
+						byte[] record = rowBuilder.build(point.withTimestamp(aligned), null);
+						rowBuilder.reset();
+						recordBytes = record.length;
+						if (pos + recordBytes > data.length) {
+							data = Arrays.copyOf(data, Math.max(pos + recordBytes, data.length * 2));
+						}
+						System.arraycopy(record, 0, data, pos, recordBytes);
+					}
+					entryOffsets[count++] = pos;
+					pos += recordBytes;
+				}
+				long cost = System.nanoTime() - start;
+				if (count > 0) {
+					if (pos < data.length) {
+						data = Arrays.copyOf(data, pos);
+					}
+					if (count < entryOffsets.length) {
+						entryOffsets = Arrays.copyOf(entryOffsets, count);
+					}
+					WriteEntry entry = new WriteEntry(data, new RecordPoints(data, entryOffsets));
+					if (!this.sendBuffers.offer(entry, Math.max(0, deadline - System.nanoTime()),
+							TimeUnit.NANOSECONDS)) {
+						windowPoints.subList(dropped, windowPoints.size()).clear();
+						this.stats.rejectedPoints.add(size - next);
+						JfrEvents.queueFull(this.database, "send", this.options.getSendQueue());
+						return next;
+					}
+					this.stats.encodedPoints.add(count);
+					this.stats.encodeNanos.add(cost);
+					this.stats.batches.increment();
+					JfrEvents.encode(this.database, count, data.length, cost);
+				}
+				int behind = windowPoints.size() - dropped - ahead;
+				this.stats.aheadPoints.add(ahead);
+				this.stats.behindPoints.add(behind);
+				this.stats.putPoints.add(last - next);
+				next = last;
+			}
+			return next;
+		} finally {
+			if (!windowPoints.isEmpty()) {
+				this.stats.dropped(windowPoints);
+				onError(EventType.timestamp, windowPoints,
+						new IllegalStateException("timestamp out of database window, drop records"));
+			}
+		}
+	}
+
+	/**
+	 * Create producer-side batching handle, points are gathered into chunks of
+	 * chunk size and handed to pipeline with one queue handoff, chunks lingering
+	 * longer than chunk linger are handed periodically.
+	 * 
+	 * @return batching handle
+	 */
+	@Override
+	public PointBatcher batcher() {
+		PointBatcher batcher = new PointBatcher(this, this.options.getChunkSize(), this.options.getChunkLinger());
+		synchronized (this.batchers) {
+			startLinger();
+			this.batchers.add(batcher);
+		}
+		return batcher;
+	}
+
+	/**
+	 * Create typed recording handle of metric, records of each tag values
+	 * combination are encoded from a cached template and handed to pipeline in
+	 * chunks of chunk size, chunks lingering longer than chunk linger are handed
+	 * periodically.
+	 * 
+	 * @param namespace  namespace of metric, nullable
+	 * @param name       metric name
+	 * @param tagKeys    tag keys
+	 * @param fieldNames simple field names
+	 * @param fieldTypes simple field types
+	 * @return recording handle
+	 */
+	@Override
+	public MetricRecorder recorder(String namespace, String name, String[] tagKeys, String[] fieldNames,
+			FieldType[] fieldTypes) {
+		if (this.acks != null) {
+			throw new IllegalStateException("record write not supported with ack tracking");
+		}
+		MetricRecorder recorder = new MetricRecorder(this, namespace, name, tagKeys, fieldNames, fieldTypes,
+				this.options.getChunkSize(), this.options.getChunkLinger());
+		synchronized (this.batchers) {
+			startLinger();
+			this.recorders.add(recorder);
+		}
+		return recorder;
+	}
+
+	/**
+	 * Create record template of series for recording handle, series limit of
+	 * metric applied, returns null if series dropped.
+	 * 
+	 * @param point series point
+	 * @return template or null
+	 */
+	RecordTemplate template(Point point) {
+		Point admitted = limit(point, System.currentTimeMillis());
+		return admitted == null ? null : RecordTemplate.of(admitted, this.defaultTags);
+	}
+
+	/**
+	 * Check if write accepts new points, false once closing.
+	 * 
+	 * @return if accepting
+	 */
+	boolean accepting() {
+		return this.accepting && this.running.get();
+	}
+
+	/**
+	 * Remove closed batching handle.
+	 * 
+	 * @param batcher batching handle
+	 */
+	void unregister(PointBatcher batcher) {
+		this.batchers.remove(batcher);
+	}
+
+	/**
+	 * Remove closed recording handle.
+	 * 
+	 * @param recorder recording handle
+	 */
+	void unregister(MetricRecorder recorder) {
+		this.recorders.remove(recorder);
+	}
+
+	/**
+	 * Start linger executor once, guarded by batchers.
+	 */
+	private void startLinger() {
+		if (this.lingerExecutor == null) {
+			long linger = this.options.getChunkLinger();
+			this.lingerExecutor = Executors.newSingleThreadScheduledExecutor(
+					Threads.factory("lin-linger", this.useVirtualThreads));
+			this.lingerExecutor.scheduleAtFixedRate(this::handoffLingering, linger, linger, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void handoffLingering() {
+		long now = System.nanoTime();
+		for (PointBatcher batcher : this.batchers) {
+			try {
+				batcher.handoffIfLingering(now);
+			} catch (Throwable e) {
+				LOGGER.warn("hand off lingering points failure", e);
+			}
+		}
+		for (MetricRecorder recorder : this.recorders) {
+			try {
+				recorder.handoffIfLingering(now);
+			} catch (Throwable e) {
+				LOGGER.warn("hand off lingering records failure", e);
+			}
+		}
+	}
+
+	private AckTracker ackTracker() {
+		if (this.acks == null) {
+			throw new IllegalStateException("ack tracking disabled, enable it by ackTracking option");
+		}
+		return this.acks;
+	}
+
+	private boolean encoded(boolean ok) {
+		if (ok) {
+			this.stats.putPoints.increment();
+		} else {
+			this.stats.rejectedPoints.increment();
+			JfrEvents.queueFull(this.database, "send", this.options.getSendQueue());
+		}
+		return ok;
+	}
+
+	private PutEncoder encoder() {
+		return this.encoders[Threads.stripe(this.encoders.length)];
+	}
+
+	private void handoffEncoders() {
+		long now = System.currentTimeMillis();
+		if (this.heavyHitters != null) {
+			// decoder thread not running, rotate heavy hitters here
+			this.heavyHitters.rotate(now);
+		}
+		for (PutEncoder encoder : this.encoders) {
+			try {
+				encoder.handoffIfLingering(now);
+			} catch (Throwable e) {
+				LOGGER.warn("hand off lingering batch failure", e);
+			}
+		}
+	}
+
+	private boolean accepted(boolean ok) {
+		if (ok) {
+			this.stats.putPoints.increment();
+		} else {
+			this.stats.rejectedPoints.increment();
+			JfrEvents.queueFull(this.database, "batch", this.options.getBatchQueue());
+		}
+		return ok;
+	}
+
+	/**
+	 * Drop point out of database ahead/behind window, then round timestamp to
+	 * smallest interval, returns null if point dropped.
+	 */
+	private Point window(Point point, long now) {
+		if (schemaRefresher == null || point == null) {
+			return point;
+		}
+		DatabaseSchema schema = schemaRefresher.schema();
+		long timestamp = point.getTimestamp();
+		boolean ahead = schema.isAhead(timestamp, now);
+		if (ahead || schema.isBehind(timestamp, now)) {
+			List<Point> windowPoints = Collections.singletonList(point);
+			if (ahead) {
+				stats.aheadPoints.increment();
+			} else {
+				stats.behindPoints.increment();
+			}
+			stats.dropped(windowPoints);
+			onError(EventType.timestamp, windowPoints, new IllegalStateException(
+					"timestamp out of database " + (ahead ? "ahead" : "behind") + " window, drop point of metric: "
+							+ point.getName()));
+			return null;
+		}
+		long aligned = schema.align(timestamp);
+		return aligned == timestamp ? point : point.withTimestamp(aligned);
+	}
+
+	/**
+	 * Apply series limit of metric, returns null if point dropped.
+	 */
+	private Point limit(Point point, long now) {
+		if (limiter == null || point == null) {
+			return point;
+		}
+		Point admitted;
+		// shared with series writers
+		synchronized (limiter) {
+			admitted = limiter.admit(point, now);
+		}
+		if (admitted == point) {
+			return point;
+		}
+		List<Point> limitedPoints = Collections.singletonList(point);
+		if (admitted == null) {
+			stats.limitedPoints.increment();
+			stats.dropped(limitedPoints);
+			onError(EventType.cardinality, limitedPoints, new IllegalStateException(
+					"series limit exceeded, drop new series of metric: " + point.getName()));
+		} else {
+			stats.overflowPoints.increment();
+			onError(EventType.cardinality, limitedPoints, new IllegalStateException(
+					"series limit exceeded, collapse new series into overflow of metric: " + point.getName()));
+		}
+		return admitted;
 	}
 
 	class DecodeConsumer implements Runnable {
 		private int batch = 0;
+		private long batchEncodeNanos = 0;
 		private List<Point> batchPoints = new ArrayList<>();
+		// encoded points of batch waiting for sorting, aligned with batch points
+		private final List<byte[]> batchData = new ArrayList<>();
+		private final BatchSorter sorter = options.isSortBatch() ? new BatchSorter() : null;
+		// sequence of last point taken from queue, only tracked if ack tracking
+		private long taken = 0;
+		// if points taken since last registered ack batch were dropped by decoder
+		private boolean lost = false;
 		long nextFlush = System.currentTimeMillis() + flushInterval;
 
 		private void batch(Point point) throws IOException {
+			long start = System.nanoTime();
 			try {
 				byte[] data = builder.build(point, defaultTags);
-				buffer.write(data);
+				if (sorter != null) {
+					batchData.add(data);
+				} else {
+					buffer.write(data);
+				}
 				batch++;
+				if (heavyHitters != null) {
+					heavyHitters.record(point, data.length);
+				}
+				long cost = System.nanoTime() - start;
+				batchEncodeNanos += cost;
+				stats.encodedPoints.increment();
+				stats.encodeNanos.add(cost);
 			} finally {
 				builder.reset();
 			}
 		}
 
+		/**
+		 * Return encoded data of current batch, points sorted by series if
+		 * required, batch points reordered to keep aligned with encoded data.
+		 */
+		private byte[] drain() throws IOException {
+			if (sorter != null && !batchData.isEmpty()) {
+				int size = batchData.size();
+				int[] index = sorter.sort(batchPoints);
+				List<Point> sortedPoints = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					buffer.write(batchData.get(index[i]));
+					sortedPoints.add(batchPoints.get(index[i]));
+				}
+				batchData.clear();
+				batchPoints = sortedPoints;
+			}
+			byte[] data = buffer.toByteArray();
+			buffer.reset();
+			return data;
+		}
+
+		/**
+		 * Create entry of current batch, register ack batch covering all points
+		 * taken so far if ack tracking.
+		 */
+		private WriteEntry entry() throws IOException {
+			WriteEntry entry = new WriteEntry(drain(), batchPoints);
+			if (acks != null) {
+				entry.track(acks.batch(taken, batchPoints.size(), lost));
+				lost = false;
+			}
+			return entry;
+		}
+
+		/**
+		 * Window, convert and limit point taken from queue, marks the batch lost if
+		 * dropped by window or limit.
+		 */
+		private Point admit(Point point, long now) {
+			Point admitted = window(point, now);
+			if (admitted != null) {
+				Point converted = converter.convert(admitted);
+				admitted = limit(converted, now);
+				// first value of cumulative series only initializes state, not lost
+				lost |= converted != null && admitted == null;
+			} else {
+				lost |= point != null;
+			}
+			return admitted;
+		}
+
 		@Override
 		public void run() {
 
@@ -227,6 +1233,9 @@ public class WriteImpl implements Write {
 			long now = System.currentTimeMillis();
 			long diff = this.nextFlush - now;
 			Point point = null;
+			if (heavyHitters != null) {
+				heavyHitters.rotate(now);
+			}
 			try {
 				if (diff > 0) {
 					// not reach next flush interval, poll with timeout
@@ -234,32 +1243,51 @@ public class WriteImpl implements Write {
 				} else {
 					point = points.poll();
 				}
+				boolean flush = point == FLUSH;
+				if (flush) {
+					point = null;
+				} else if (point != null) {
+					taken++;
+				}
+				point = admit(point, now);
 				if (point != null) {
-					batchPoints.add(point);
 					// if point not null, batch it.
 					batch(point);
+					// keep batch points aligned with encoded data
+					batchPoints.add(point);
 				}
 				// set point null, handle event listen
 				point = null;
 				// check if need to send
-				if (batch >= batchSize || (batch > 0 && diff <= 0)) {
-					byte[] d = buffer.toByteArray();
-					buffer.reset();
-					sendBuffers.put(new WriteEntry(d, batchPoints));
+				if (batch >= batchSize || (batch > 0 && (diff <= 0 || flush))) {
+					WriteEntry entry = entry();
+					sendBuffers.put(entry);
+					stats.batches.increment();
+					JfrEvents.encode(database, batch, entry.getData().length, batchEncodeNanos);
 					batch = 0;
+					batchEncodeNanos = 0;
 					// reset new batch points after put send queue
 					batchPoints = new ArrayList<>();
 					this.nextFlush = now + flushInterval;
-				} else if (diff <= 0) {
+				} else if (diff <= 0 || flush) {
+					if (acks != null) {
+						// settle points dropped by decoder
+						acks.batch(taken, 0, lost);
+						lost = false;
+					}
 					this.nextFlush = now + flushInterval;
 				}
 			} catch (Throwable e) {
 				LOGGER.error("decode data point failure", e);
+				lost = true;
 				if (point != null) {
 					List<Point> failPoints = new ArrayList<>();
 					failPoints.add(point);
+					stats.encodeFailures.increment();
+					stats.dropped(failPoints);
 					onError(EventType.decode, failPoints, e);
 				} else {
+					stats.dropped(batchPoints);
 					onError(EventType.decode, batchPoints, e);
 				}
 			} finally {
@@ -269,27 +1297,219 @@ public class WriteImpl implements Write {
 
 		public void processPending() {
 			Point[] pendingPoints = null;
+			WriteEntry entry = null;
 			try {
 				if (!points.isEmpty()) {
-					pendingPoints = points.toArray(new Point[0]);
+					pendingPoints = points.toArray();
+					long now = System.currentTimeMillis();
 					for (Point point : pendingPoints) {
-						batch(point);
+						if (point == FLUSH) {
+							continue;
+						}
+						taken++;
+						point = admit(point, now);
+						if (point != null) {
+							batch(point);
+							batchPoints.add(point);
+						}
 					}
 				}
 				if (batch > 0) {
 					ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-					sendData(outputStream, buffer.toByteArray());
+					stats.batches.increment();
+					entry = entry();
+					int status = sendData(outputStream, entry);
+					if (!WriteClient.isSuccessful(status) && !WriteClient.isRetryable(status)) {
+						split(outputStream, entry, status);
+					} else if (!WriteClient.isSuccessful(status) && acks != null) {
+						// no more retry when closing
+						acks.resolve(entry, true);
+					}
+				} else if (acks != null) {
+					acks.batch(taken, 0, lost);
 				}
 			} catch (Exception e) {
 				LOGGER.error("send last data failure when write close", e);
+				if (acks != null) {
+					acks.resolve(entry, true);
+				}
 				if (pendingPoints != null) {
 					List<Point> failPoints = Arrays.asList(pendingPoints);
+					stats.dropped(failPoints);
 					onError(EventType.send, failPoints, e);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Encoder of producer threads in one stripe when encode on put, points are
+	 * encoded on caller thread, only encoded batches go into send queue. Lock is
+	 * mostly uncontended, shared by producers of the same stripe and flusher.
+	 */
+	class PutEncoder {
+		private final RowBuilder builder = new RowBuilder();
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		// encoded points of batch waiting for sorting, aligned with batch points
+		private final List<byte[]> batchData = new ArrayList<>();
+		private final BatchSorter sorter = options.isSortBatch() ? new BatchSorter() : null;
+		private List<Point> batchPoints = new ArrayList<>();
+		private long batchEncodeNanos;
+		private long firstMillis;
+		// drained batch waiting for space of send queue
+		private WriteEntry pending;
+		private boolean closed;
+
+		/**
+		 * Encode point into batch of this producer, hand off batch if full.
+		 * 
+		 * @param point   valid point
+		 * @param timeout max wait time for space of send queue
+		 * @param unit    unit of timeout, null if not waiting
+		 * @return false if rejected, send queue full and batch full
+		 * @throws InterruptedException thread interrupted
+		 */
+		synchronized boolean put(Point point, long timeout, TimeUnit unit) throws InterruptedException {
+			if (closed) {
+				// checked under encoder lock, so no point enters batch after close drained it
+				return false;
+			}
+			if (batchPoints.size() >= batchSize) {
+				handoff(timeout, unit);
+				if (batchPoints.size() >= batchSize) {
+					return false;
+				}
+			}
+			long now = System.currentTimeMillis();
+			point = window(point, now);
+			if (point != null && (limiter != null || point.hasCumulativeFields())) {
+				// shared state of all producers
+				synchronized (converter) {
+					point = limit(converter.convert(point, now), now);
+				}
+			}
+			if (point == null) {
+				return true;
+			}
+			encode(point);
+			if (batchPoints.size() >= batchSize) {
+				handoff(0, null);
+			}
+			return true;
+		}
+
+		private void encode(Point point) {
+			long start = System.nanoTime();
+			try {
+				byte[] data = builder.build(point, defaultTags);
+				if (sorter != null) {
+					batchData.add(data);
+				} else {
+					buffer.write(data);
+				}
+				if (batchPoints.isEmpty()) {
+					firstMillis = System.currentTimeMillis();
+				}
+				batchPoints.add(point);
+				if (heavyHitters != null) {
+					heavyHitters.record(point, data.length);
+				}
+				long cost = System.nanoTime() - start;
+				batchEncodeNanos += cost;
+				stats.encodedPoints.increment();
+				stats.encodeNanos.add(cost);
+			} catch (Throwable e) {
+				LOGGER.error("encode data point failure", e);
+				List<Point> failPoints = Collections.singletonList(point);
+				stats.encodeFailures.increment();
+				stats.dropped(failPoints);
+				onError(EventType.decode, failPoints, e);
+			} finally {
+				builder.reset();
+			}
+		}
+
+		/**
+		 * Put pending and current batch into send queue, returns false if send queue
+		 * full.
+		 */
+		private boolean handoff(long timeout, TimeUnit unit) throws InterruptedException {
+			while (true) {
+				if (pending == null) {
+					if (batchPoints.isEmpty()) {
+						return true;
+					}
+					pending = drain();
+				}
+				boolean ok = unit == null ? sendBuffers.offer(pending) : sendBuffers.offer(pending, timeout, unit);
+				if (!ok) {
+					return false;
+				}
+				pending = null;
+			}
+		}
+
+		private WriteEntry drain() {
+			int batch = batchPoints.size();
+			if (sorter != null) {
+				int[] index = sorter.sort(batchPoints);
+				List<Point> sortedPoints = new ArrayList<>(batch);
+				for (int i = 0; i < batch; i++) {
+					byte[] data = batchData.get(index[i]);
+					buffer.write(data, 0, data.length);
+					sortedPoints.add(batchPoints.get(index[i]));
+				}
+				batchData.clear();
+				batchPoints = sortedPoints;
+			}
+			WriteEntry entry = new WriteEntry(buffer.toByteArray(), batchPoints);
+			buffer.reset();
+			stats.batches.increment();
+			JfrEvents.encode(database, batch, entry.getData().length, batchEncodeNanos);
+			batchPoints = new ArrayList<>();
+			batchEncodeNanos = 0;
+			return entry;
+		}
+
+		/**
+		 * Hand off batch lingering longer than flush interval.
+		 * 
+		 * @param now current time(ms)
+		 * @throws InterruptedException thread interrupted
+		 */
+		synchronized void handoffIfLingering(long now) throws InterruptedException {
+			if (pending != null || (!batchPoints.isEmpty() && now - firstMillis >= flushInterval)) {
+				handoff(0, null);
+			}
+		}
+
+		/**
+		 * Hand off left batches before write closing, dropped if send queue stays
+		 * full.
+		 */
+		synchronized void close() {
+			closed = true;
+			try {
+				if (handoff(flushInterval, TimeUnit.MILLISECONDS)) {
+					return;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			List<Point> failPoints = new ArrayList<>(batchPoints);
+			if (pending != null) {
+				failPoints.addAll(pending.getPoints());
+			}
+			pending = null;
+			batchPoints = new ArrayList<>();
+			batchData.clear();
+			buffer.reset();
+			LOGGER.warn("cannot put data into send queue when write close, drop {} points", failPoints.size());
+			stats.dropped(failPoints);
+			onError(EventType.send, failPoints, new RuntimeException("cannot put send queue"));
+		}
+	}
+
 	class SendConsumer implements Runnable {
 		private ByteArrayOutputStream outputStream;
 
@@ -328,15 +1548,22 @@ public class WriteImpl implements Write {
 					// write closing
 					return;
 				}
-				if (!sendData(outputStream, data)) {
-					if (!retryQueue.offer(entry)) {
-						LOGGER.warn("cannot put data into retry queue ignore this data when send failure");
-						onError(EventType.retry, entry.getPoints(), new RuntimeException("cannot put retry queue"));
-					}
+				int status = sendData(outputStream, entry);
+				if (WriteClient.isSuccessful(status)) {
+					return;
+				}
+				if (!WriteClient.isRetryable(status)) {
+					split(outputStream, entry, status);
+				} else if (!retryQueue.offer(entry)) {
+					LOGGER.warn("cannot put data into retry queue ignore this data when send failure");
+					JfrEvents.queueFull(database, "retry", options.getRetryQueue());
+					dropped(entry);
+					onError(EventType.retry, entry.getPoints(), new RuntimeException("cannot put retry queue"));
 				}
 			} catch (Throwable e) {
 				LOGGER.error("send data point failure", e);
 				if (entry != null && entry.getPoints() != null) {
+					dropped(entry);
 					onError(EventType.send, entry.getPoints(), e);
 				}
 			}
@@ -344,6 +1571,13 @@ public class WriteImpl implements Write {
 	}
 
 	class RetryConsumer implements Runnable {
+		private ByteArrayOutputStream outputStream;
+
+		public RetryConsumer() throws IOException {
+			if (useGZip) {
+				outputStream = new ByteArrayOutputStream();
+			}
+		}
 
 		@Override
 		public void run() {
@@ -357,6 +1591,38 @@ public class WriteImpl implements Write {
 			return running.get() || (!running.get() && !retryQueue.isEmpty());
 		}
 
+		/**
+		 * Merge queued entries following the first one up to batch size points and
+		 * retry batch bytes, so re-sending after broker recovered uses fewer and
+		 * larger requests.
+		 */
+		private WriteEntry coalesce(WriteEntry first) {
+			if (first.getPoints() == null) {
+				return first;
+			}
+			List<WriteEntry> entries = null;
+			int size = first.getPoints().size();
+			long bytes = first.getData().length;
+			WriteEntry next;
+			// only this consumer takes from retry queue, peeked entry is still head
+			while ((next = retryQueue.peek()) != null) {
+				if (next.getData() == null || next.getPoints() == null
+						|| size + next.getPoints().size() > batchSize
+						|| bytes + next.getData().length > retryBatchBytes) {
+					break;
+				}
+				retryQueue.poll();
+				if (entries == null) {
+					entries = new ArrayList<>();
+					entries.add(first);
+				}
+				entries.add(next);
+				size += next.getPoints().size();
+				bytes += next.getData().length;
+			}
+			return entries == null ? first : WriteEntry.merge(entries);
+		}
+
 		public void process() {
 			WriteEntry entry = null;
 			try {
@@ -365,21 +1631,42 @@ public class WriteImpl implements Write {
 					// write closing
 					return;
 				}
+				entry = coalesce(entry);
 				entry.increaseRetry();
-				if (!client.writeMetric(entry.getData(), useGZip)) {
-					if (entry.getRetry() < maxRetry) {
-						if (!retryQueue.offer(entry)) {
-							LOGGER.warn("cannot put data into retry queue ignore this data when re-send failure");
-							onError(EventType.retry, entry.getPoints(),
-									new RuntimeException("retry too many times"));
-						}
-					} else {
+				stats.retries.increment();
+				// entry holds raw data, compress it again if need
+				Object event = JfrEvents.beginRetry();
+				int status = -1;
+				try {
+					status = sendData(outputStream, entry);
+				} finally {
+					JfrEvents.endRetry(event, database, entry.getPoints() == null ? 0 : entry.getPoints().size(),
+							entry.getRetry(), WriteClient.isSuccessful(status));
+				}
+				if (WriteClient.isSuccessful(status)) {
+					return;
+				}
+				if (!WriteClient.isRetryable(status)) {
+					split(outputStream, entry, status);
+				} else {
+					// points of merged entry may have different retry count
+					WriteEntry[] parts = entry.partition(maxRetry);
+					if (parts[1] != null) {
 						LOGGER.warn("retry too many times ignore this data");
+						dropped(parts[1]);
+					}
+					if (parts[0] != null && !retryQueue.offer(parts[0])) {
+						LOGGER.warn("cannot put data into retry queue ignore this data when re-send failure");
+						JfrEvents.queueFull(database, "retry", options.getRetryQueue());
+						dropped(parts[0]);
+						onError(EventType.retry, parts[0].getPoints(),
+								new RuntimeException("retry too many times"));
 					}
 				}
 			} catch (Throwable e) {
 				LOGGER.error("re-send data point failure", e);
 				if (entry != null && entry.getPoints() != null) {
+					dropped(entry);
 					onError(EventType.send, entry.getPoints(), e);
 				}
 			}
@@ -393,25 +1680,184 @@ public class WriteImpl implements Write {
 	 */
 	@Override
 	public void close() throws Exception {
+		// reject new puts first, then drain producer-side chunks and encoders
+		this.accepting = false;
+		if (this.statsReporter != null) {
+			this.statsReporter.shutdownNow();
+		}
+		if (this.runtimeExecutor != null) {
+			this.runtimeExecutor.shutdownNow();
+			this.runtimeMetrics.close();
+		}
+		if (this.schemaExecutor != null) {
+			this.schemaExecutor.shutdownNow();
+		}
+		synchronized (this.batchers) {
+			if (this.lingerExecutor != null) {
+				this.lingerExecutor.shutdownNow();
+			}
+		}
+		for (PointBatcher batcher : this.batchers) {
+			// hand off points gathered by producers before stopping
+			batcher.flush();
+		}
+		for (MetricRecorder recorder : this.recorders) {
+			recorder.flush();
+		}
+		if (this.flusher != null) {
+			this.flusher.shutdownNow();
+		}
+		for (PutEncoder encoder : this.encoders) {
+			encoder.close();
+		}
 		this.running.set(false);
 		// trigger consume thread close.
 		this.sendBuffers.put(new WriteEntry(null, null));
 		this.retryQueue.put(new WriteEntry(null, null));
 
 		latch.await(15, TimeUnit.SECONDS);
+		if (this.dispatcher != null) {
+			// notify pending events after all consumer stopped
+			this.dispatcher.close(5, TimeUnit.SECONDS);
+		}
+		if (this.acks != null) {
+			this.acks.close();
+		}
+
+		if (this.mbeanName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.mbeanName);
+			} catch (Exception e) {
+				LOGGER.warn("unregister write statistics mbean failure", e);
+			}
+		}
 	}
 
-	private boolean sendData(ByteArrayOutputStream outputStream, byte[] data) throws Exception {
+	/**
+	 * Compress(if need) and send data of entry, returns http status code of
+	 * response, acks listener if successful.
+	 */
+	private int sendData(ByteArrayOutputStream outputStream, WriteEntry entry) throws Exception {
+		byte[] data = entry.getData();
+		stats.rawBytes.add(data.length);
 		if (useGZip) {
+			Object compressEvent = JfrEvents.beginCompress();
+			int rawBytes = data.length;
 			GZIPOutputStream gzip = new GZIPOutputStream(outputStream);
 			// compress using gzip
 			gzip.write(data);
 			gzip.close();
 			data = outputStream.toByteArray();
 			outputStream.reset();
+			JfrEvents.endCompress(compressEvent, database, rawBytes, data.length);
 		}
 
-		return client.writeMetric(data, useGZip);
+		long start = System.nanoTime();
+		Object sendEvent = JfrEvents.beginSend();
+		int status = -1;
+		try {
+			status = client.write(data, useGZip);
+			return status;
+		} finally {
+			long cost = System.nanoTime() - start;
+			boolean ok = WriteClient.isSuccessful(status);
+			stats.send(data.length, cost, ok);
+			JfrEvents.endSend(sendEvent, database, data.length, status);
+			if (ok && this.acks != null) {
+				this.acks.resolve(entry, false);
+			}
+			if (ok && this.dispatcher != null) {
+				this.dispatcher.success(entry.getPoints() == null ? 0 : entry.getPoints().size(), data.length, cost);
+			}
+		}
+	}
+
+	/**
+	 * Split entry rejected with non-retryable error(invalid points or payload
+	 * limit) recursively, then send each half again, so only the invalid points
+	 * are dropped. Retryable failure of a half goes into retry queue. Sends of one
+	 * rejected entry are bounded, left rejected halves are dropped as invalid
+	 * when exceeded(broker rejects every point).
+	 * 
+	 * @param outputStream compress buffer
+	 * @param entry        rejected entry
+	 * @param status       http status code of rejected response
+	 */
+	private void split(ByteArrayOutputStream outputStream, WriteEntry entry, int status) {
+		int points = entry.getPoints() == null ? 0 : entry.getPoints().size();
+		int budget = MAX_SPLIT_SENDS_PER_LEVEL * (32 - Integer.numberOfLeadingZeros(Math.max(points, 1)));
+		split(outputStream, entry, status, new int[] { budget });
+	}
+
+	private void split(ByteArrayOutputStream outputStream, WriteEntry entry, int status, int[] budget) {
+		WriteEntry[] parts = budget[0] > 0 ? entry.split() : null;
+		if (parts == null) {
+			invalid(entry, status);
+			return;
+		}
+		stats.splits.increment();
+		for (WriteEntry part : parts) {
+			if (budget[0] <= 0) {
+				invalid(part, status);
+				continue;
+			}
+			budget[0]--;
+			int partStatus;
+			try {
+				partStatus = sendData(outputStream, part);
+			} catch (Throwable e) {
+				LOGGER.error("send split data point failure", e);
+				dropped(part);
+				onError(EventType.send, part.getPoints(), e);
+				continue;
+			}
+			if (WriteClient.isSuccessful(partStatus)) {
+				continue;
+			}
+			if (!WriteClient.isRetryable(partStatus)) {
+				split(outputStream, part, partStatus, budget);
+			} else if (!retryQueue.offer(part)) {
+				LOGGER.warn("cannot put split data into retry queue ignore this data");
+				JfrEvents.queueFull(database, "retry", options.getRetryQueue());
+				dropped(part);
+				onError(EventType.retry, part.getPoints(), new RuntimeException("cannot put retry queue"));
+			}
+		}
+	}
+
+	private void invalid(WriteEntry entry, int status) {
+		List<Point> invalidPoints = entry.getPoints();
+		LOGGER.warn("write rejected by broker, status: {}, drop {} invalid points", status,
+				invalidPoints == null ? 0 : invalidPoints.size());
+		if (invalidPoints != null) {
+			stats.invalidPoints.add(invalidPoints.size());
+		}
+		dropped(entry);
+		onError(EventType.invalid, invalidPoints,
+				new IllegalStateException("write rejected by broker, status: " + status));
+	}
+
+	/**
+	 * Record points of entry dropped, they are settled as lost for ack tracking.
+	 */
+	/**
+	 * Report points handed off by producer-side chunks but not put by write, as
+	 * dropped send failure.
+	 * 
+	 * @param points points not put
+	 * @param reason reason of rejection
+	 */
+	void dropped(List<Point> points, String reason) {
+		LOGGER.warn("cannot put chunk into write, {}, drop {} points", reason, points.size());
+		this.stats.dropped(points);
+		onError(EventType.send, points, new IllegalStateException("cannot put chunk points, " + reason));
+	}
+
+	private void dropped(WriteEntry entry) {
+		stats.dropped(entry.getPoints());
+		if (this.acks != null) {
+			this.acks.resolve(entry, true);
+		}
 	}
 
 	/**
@@ -422,8 +1868,8 @@ public class WriteImpl implements Write {
 	 * @param e      expcetion
 	 */
 	protected void onError(EventType event, List<Point> points, final Throwable e) {
-		if (this.listener != null) {
-			this.listener.onError(event, points, e);
+		if (this.dispatcher != null) {
+			this.dispatcher.error(event, points, e);
 		}
 	}
 
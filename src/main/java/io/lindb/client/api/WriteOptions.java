@@ -44,6 +44,27 @@ public final class WriteOptions {
 		private int retryQueue = DEFAULT_RETRY_QUEUE;
 		private int batchQueue = DEFAULT_BATCH_QUEUE;
 		private int sendQueue = DEFAULT_SEND_QUEUE;
+		private boolean useVirtualThreads = DEFAULT_USE_VIRTUAL_THREADS;
+		private boolean jmxEnabled = DEFAULT_JMX_ENABLED;
+		private long statsInterval = DEFAULT_STATS_INTERVAL;
+		private long cumulativeTtl = DEFAULT_CUMULATIVE_TTL;
+		private int maxSeriesPerMetric = DEFAULT_MAX_SERIES_PER_METRIC;
+		private CardinalityPolicy cardinalityPolicy = DEFAULT_CARDINALITY_POLICY;
+		private long cardinalityWindow = DEFAULT_CARDINALITY_WINDOW;
+		private int maxCardinalityMetrics = DEFAULT_MAX_CARDINALITY_METRICS;
+		private int topK = DEFAULT_TOP_K;
+		private long topKInterval = DEFAULT_TOP_K_INTERVAL;
+		private boolean schemaAware = DEFAULT_SCHEMA_AWARE;
+		private long schemaRefreshInterval = DEFAULT_SCHEMA_REFRESH_INTERVAL;
+		private boolean sortBatch = DEFAULT_SORT_BATCH;
+		private int retryBatchBytes = DEFAULT_RETRY_BATCH_BYTES;
+		private long eventInterval = DEFAULT_EVENT_INTERVAL;
+		private int eventQueue = DEFAULT_EVENT_QUEUE;
+		private boolean ackTracking = DEFAULT_ACK_TRACKING;
+		private int chunkSize = DEFAULT_CHUNK_SIZE;
+		private long chunkLinger = DEFAULT_CHUNK_LINGER;
+		private boolean encodeOnPut = DEFAULT_ENCODE_ON_PUT;
+		private long runtimeMetricsInterval = DEFAULT_RUNTIME_METRICS_INTERVAL;
 
 		private Builder() {
 		}
@@ -165,6 +186,298 @@ public final class WriteOptions {
 			this.sendQueue = sendQueue;
 			return this;
 		}
+
+		/**
+		 * Set if running decode/send/retry consumers on virtual threads.
+		 * Only take effect on JDK 21+, else using platform threads.
+		 * Default value: false.
+		 * 
+		 * @param useVirtualThreads {@link boolean}
+		 * @return builder
+		 */
+		public Builder useVirtualThreads(final boolean useVirtualThreads) {
+			this.useVirtualThreads = useVirtualThreads;
+			return this;
+		}
+
+		/**
+		 * Set if register write statistics as JMX MBean.
+		 * Default value: false.
+		 * 
+		 * @param jmxEnabled {@link boolean}
+		 * @return builder
+		 */
+		public Builder jmxEnabled(final boolean jmxEnabled) {
+			this.jmxEnabled = jmxEnabled;
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of writing write statistics back into LinDB as points,
+		 * 0 means disable.
+		 * Default value: 0.
+		 * 
+		 * @param statsInterval {@link long}
+		 * @return builder
+		 */
+		public Builder statsInterval(final long statsInterval) {
+			Preconditions.checkArgument(statsInterval >= 0, "negative stats interval", statsInterval);
+			this.statsInterval = statsInterval;
+			return this;
+		}
+
+		/**
+		 * Set ttl(ms) of cumulative sum series state, series not updated within ttl
+		 * are evicted.
+		 * Default value: 600000ms.
+		 * 
+		 * @param cumulativeTtl {@link long}
+		 * @return builder
+		 */
+		public Builder cumulativeTtl(final long cumulativeTtl) {
+			Preconditions.checkArgument(cumulativeTtl > 0, "negative cumulative ttl", cumulativeTtl);
+			this.cumulativeTtl = cumulativeTtl;
+			return this;
+		}
+
+		/**
+		 * Set max distinct series per metric, new series over limit are handled by
+		 * cardinality policy, 0 means no limit.
+		 * Default value: 0.
+		 * 
+		 * @param maxSeriesPerMetric {@link int}
+		 * @return builder
+		 */
+		public Builder maxSeriesPerMetric(final int maxSeriesPerMetric) {
+			Preconditions.checkArgument(maxSeriesPerMetric >= 0, "negative max series per metric",
+					maxSeriesPerMetric);
+			this.maxSeriesPerMetric = maxSeriesPerMetric;
+			return this;
+		}
+
+		/**
+		 * Set policy of new series when metric exceeds series limit.
+		 * Default value: DROP.
+		 * 
+		 * @param cardinalityPolicy {@link CardinalityPolicy}
+		 * @return builder
+		 */
+		public Builder cardinalityPolicy(final CardinalityPolicy cardinalityPolicy) {
+			Preconditions.checkNotNull(cardinalityPolicy, "cardinality policy cannot be null");
+			this.cardinalityPolicy = cardinalityPolicy;
+			return this;
+		}
+
+		/**
+		 * Set window(ms) of series limit, admitted series and cardinality estimates
+		 * of all metrics are reset when window elapsed.
+		 * Default value: 3600000ms.
+		 * 
+		 * @param cardinalityWindow {@link long}
+		 * @return builder
+		 */
+		public Builder cardinalityWindow(final long cardinalityWindow) {
+			Preconditions.checkArgument(cardinalityWindow > 0, "negative cardinality window", cardinalityWindow);
+			this.cardinalityWindow = cardinalityWindow;
+			return this;
+		}
+
+		/**
+		 * Set max metrics tracked by series limit, least recently used metric is
+		 * evicted when exceeded.
+		 * Default value: 1024.
+		 * 
+		 * @param maxCardinalityMetrics {@link int}
+		 * @return builder
+		 */
+		public Builder maxCardinalityMetrics(final int maxCardinalityMetrics) {
+			Preconditions.checkArgument(maxCardinalityMetrics > 0, "negative max cardinality metrics",
+					maxCardinalityMetrics);
+			this.maxCardinalityMetrics = maxCardinalityMetrics;
+			return this;
+		}
+
+		/**
+		 * Set number of heaviest metrics/series tracked by points and encoded bytes
+		 * per interval, 0 means disable.
+		 * Default value: 0.
+		 * 
+		 * @param topK {@link int}
+		 * @return builder
+		 */
+		public Builder topK(final int topK) {
+			Preconditions.checkArgument(topK >= 0, "negative top k", topK);
+			this.topK = topK;
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of heavy hitters tracking.
+		 * Default value: 60000ms.
+		 * 
+		 * @param topKInterval {@link long}
+		 * @return builder
+		 */
+		public Builder topKInterval(final long topKInterval) {
+			Preconditions.checkArgument(topKInterval > 0, "negative top k interval", topKInterval);
+			this.topKInterval = topKInterval;
+			return this;
+		}
+
+		/**
+		 * Set if align timestamp to smallest interval of database and drop points out of
+		 * database ahead/behind window before encoding, database options fetched by
+		 * state query and refreshed periodically.
+		 * Default value: false.
+		 * 
+		 * @param schemaAware {@link boolean}
+		 * @return builder
+		 */
+		public Builder schemaAware(final boolean schemaAware) {
+			this.schemaAware = schemaAware;
+			return this;
+		}
+
+		/**
+		 * Set refresh interval(ms) of database options for schema aware write.
+		 * Default value: 300000ms.
+		 * 
+		 * @param schemaRefreshInterval {@link long}
+		 * @return builder
+		 */
+		public Builder schemaRefreshInterval(final long schemaRefreshInterval) {
+			Preconditions.checkArgument(schemaRefreshInterval > 0, "negative schema refresh interval",
+					schemaRefreshInterval);
+			this.schemaRefreshInterval = schemaRefreshInterval;
+			return this;
+		}
+
+		/**
+		 * Set if sort points of each batch by namespace, name, series and timestamp
+		 * before sending, for better compression and broker locality.
+		 * Default value: false.
+		 * 
+		 * @param sortBatch {@link boolean}
+		 * @return builder
+		 */
+		public Builder sortBatch(final boolean sortBatch) {
+			this.sortBatch = sortBatch;
+			return this;
+		}
+
+		/**
+		 * Set max bytes(before compression) of a retry request, queued retry batches
+		 * are merged up to this size and batch size points before re-sending.
+		 * Default value: 4MB.
+		 * 
+		 * @param retryBatchBytes {@link int}
+		 * @return builder
+		 */
+		public Builder retryBatchBytes(final int retryBatchBytes) {
+			Preconditions.checkArgument(retryBatchBytes > 0, "negative retry batch bytes", retryBatchBytes);
+			this.retryBatchBytes = retryBatchBytes;
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of coalescing failure events, failures of same event type
+		 * are notified to listener once per interval, 0 means notify each failure.
+		 * Default value: 1s.
+		 * 
+		 * @param eventInterval {@link long}
+		 * @return builder
+		 */
+		public Builder eventInterval(final long eventInterval) {
+			Preconditions.checkArgument(eventInterval >= 0, "negative event interval", eventInterval);
+			this.eventInterval = eventInterval;
+			return this;
+		}
+
+		/**
+		 * Set max events waiting for dispatching to listener, events are dropped when
+		 * queue full, so a slow listener never blocks writing.
+		 * Default value: 1024.
+		 * 
+		 * @param eventQueue {@link int}
+		 * @return builder
+		 */
+		public Builder eventQueue(final int eventQueue) {
+			Preconditions.checkArgument(eventQueue > 0, "negative event queue", eventQueue);
+			this.eventQueue = eventQueue;
+			return this;
+		}
+
+		/**
+		 * Set if tracking acknowledgement of points, each put is given a sequence,
+		 * acked watermark and flush are available. Puts are serialized by a lock
+		 * to keep sequence order.
+		 * Default value: false.
+		 * 
+		 * @param ackTracking {@link boolean}
+		 * @return builder
+		 */
+		public Builder ackTracking(final boolean ackTracking) {
+			this.ackTracking = ackTracking;
+			return this;
+		}
+
+		/**
+		 * Set max points of producer-side chunk gathered by {@link PointBatcher},
+		 * chunk is handed to pipeline with one queue handoff when full.
+		 * Default value: 256.
+		 * 
+		 * @param chunkSize {@link int}
+		 * @return builder
+		 */
+		public Builder chunkSize(final int chunkSize) {
+			Preconditions.checkArgument(chunkSize > 0, "negative chunk size", chunkSize);
+			this.chunkSize = chunkSize;
+			return this;
+		}
+
+		/**
+		 * Set max linger time(ms) of producer-side chunk gathered by
+		 * {@link PointBatcher}, chunk not full is handed off after lingering.
+		 * Default value: 100ms.
+		 * 
+		 * @param chunkLinger {@link long}
+		 * @return builder
+		 */
+		public Builder chunkLinger(final long chunkLinger) {
+			Preconditions.checkArgument(chunkLinger > 0, "negative chunk linger", chunkLinger);
+			this.chunkLinger = chunkLinger;
+			return this;
+		}
+
+		/**
+		 * Set if encoding points on producer thread, each producer thread encodes into
+		 * its own row builder and batch, only encoded batches go into send queue and
+		 * decoder thread is not started. Not supported with ack tracking.
+		 * Default value: false.
+		 * 
+		 * @param encodeOnPut {@link boolean}
+		 * @return builder
+		 */
+		public Builder encodeOnPut(final boolean encodeOnPut) {
+			this.encodeOnPut = encodeOnPut;
+			return this;
+		}
+
+		/**
+		 * Set interval(ms) of collecting JVM runtime metrics(memory, memory pools,
+		 * gc, threads, class loading and buffer pools) into LinDB, 0 means disable.
+		 * Not supported with ack tracking.
+		 * Default value: 0.
+		 * 
+		 * @param runtimeMetricsInterval {@link long}
+		 * @return builder
+		 */
+		public Builder runtimeMetricsInterval(final long runtimeMetricsInterval) {
+			Preconditions.checkArgument(runtimeMetricsInterval >= 0, "negative runtime metrics interval",
+					runtimeMetricsInterval);
+			this.runtimeMetricsInterval = runtimeMetricsInterval;
+			return this;
+		}
 	}
 
 	/**
@@ -195,6 +508,90 @@ public final class WriteOptions {
 	 * Default retry queue size.
 	 */
 	public static final int DEFAULT_RETRY_QUEUE = 1_00;
+	/**
+	 * Default using virtual threads.
+	 */
+	public static final boolean DEFAULT_USE_VIRTUAL_THREADS = false;
+	/**
+	 * Default register JMX MBean.
+	 */
+	public static final boolean DEFAULT_JMX_ENABLED = false;
+	/**
+	 * Default stats report interval(ms), disable.
+	 */
+	public static final long DEFAULT_STATS_INTERVAL = 0;
+	/**
+	 * Default cumulative sum series state ttl(ms).
+	 */
+	public static final long DEFAULT_CUMULATIVE_TTL = 10 * 60 * 1_000;
+	/**
+	 * Default max series per metric, no limit.
+	 */
+	public static final int DEFAULT_MAX_SERIES_PER_METRIC = 0;
+	/**
+	 * Default cardinality policy.
+	 */
+	public static final CardinalityPolicy DEFAULT_CARDINALITY_POLICY = CardinalityPolicy.DROP;
+	/**
+	 * Default window(ms) of series limit.
+	 */
+	public static final long DEFAULT_CARDINALITY_WINDOW = 60 * 60 * 1_000;
+	/**
+	 * Default max metrics tracked by series limit.
+	 */
+	public static final int DEFAULT_MAX_CARDINALITY_METRICS = 1024;
+	/**
+	 * Default top k of heavy hitters, disable.
+	 */
+	public static final int DEFAULT_TOP_K = 0;
+	/**
+	 * Default interval(ms) of heavy hitters tracking.
+	 */
+	public static final long DEFAULT_TOP_K_INTERVAL = 60_000;
+	/**
+	 * Default schema aware write, disable.
+	 */
+	public static final boolean DEFAULT_SCHEMA_AWARE = false;
+	/**
+	 * Default database options refresh interval(ms).
+	 */
+	public static final long DEFAULT_SCHEMA_REFRESH_INTERVAL = 5 * 60 * 1_000;
+	/**
+	 * Default sort batch by series, disable.
+	 */
+	public static final boolean DEFAULT_SORT_BATCH = false;
+	/**
+	 * Default max bytes(before compression) of merged retry request.
+	 */
+	public static final int DEFAULT_RETRY_BATCH_BYTES = 4 * 1024 * 1024;
+	/**
+	 * Default interval(ms) of coalescing failure events.
+	 */
+	public static final long DEFAULT_EVENT_INTERVAL = 1_000;
+	/**
+	 * Default max events waiting for dispatching to listener.
+	 */
+	public static final int DEFAULT_EVENT_QUEUE = 1024;
+	/**
+	 * Default ack tracking of sequenced puts, disable.
+	 */
+	public static final boolean DEFAULT_ACK_TRACKING = false;
+	/**
+	 * Default max points of producer-side chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 256;
+	/**
+	 * Default max linger time(ms) of producer-side chunk.
+	 */
+	public static final long DEFAULT_CHUNK_LINGER = 100;
+	/**
+	 * Default encode on put, disable.
+	 */
+	public static final boolean DEFAULT_ENCODE_ON_PUT = false;
+	/**
+	 * Default runtime metrics collect interval(ms), disable.
+	 */
+	public static final long DEFAULT_RUNTIME_METRICS_INTERVAL = 0;
 
 	/**
 	 * Create write options builder instance
@@ -213,6 +610,27 @@ public final class WriteOptions {
 	private Map<String, String> defaultTags;
 	private int maxRetries;
 	private int retryQueue;
+	private boolean useVirtualThreads;
+	private boolean jmxEnabled;
+	private long statsInterval;
+	private long cumulativeTtl;
+	private int maxSeriesPerMetric;
+	private CardinalityPolicy cardinalityPolicy;
+	private long cardinalityWindow;
+	private int maxCardinalityMetrics;
+	private int topK;
+	private long topKInterval;
+	private boolean schemaAware;
+	private long schemaRefreshInterval;
+	private boolean sortBatch;
+	private int retryBatchBytes;
+	private long eventInterval;
+	private int eventQueue;
+	private boolean ackTracking;
+	private int chunkSize;
+	private long chunkLinger;
+	private boolean encodeOnPut;
+	private long runtimeMetricsInterval;
 
 	private WriteOptions(final Builder builder) {
 		this.batchSize = builder.batchSize;
@@ -223,6 +641,27 @@ public final class WriteOptions {
 		this.retryQueue = builder.retryQueue;
 		this.batchQueue = builder.batchQueue;
 		this.sendQueue = builder.sendQueue;
+		this.useVirtualThreads = builder.useVirtualThreads;
+		this.jmxEnabled = builder.jmxEnabled;
+		this.statsInterval = builder.statsInterval;
+		this.cumulativeTtl = builder.cumulativeTtl;
+		this.maxSeriesPerMetric = builder.maxSeriesPerMetric;
+		this.cardinalityPolicy = builder.cardinalityPolicy;
+		this.cardinalityWindow = builder.cardinalityWindow;
+		this.maxCardinalityMetrics = builder.maxCardinalityMetrics;
+		this.topK = builder.topK;
+		this.topKInterval = builder.topKInterval;
+		this.schemaAware = builder.schemaAware;
+		this.schemaRefreshInterval = builder.schemaRefreshInterval;
+		this.sortBatch = builder.sortBatch;
+		this.retryBatchBytes = builder.retryBatchBytes;
+		this.eventInterval = builder.eventInterval;
+		this.eventQueue = builder.eventQueue;
+		this.ackTracking = builder.ackTracking;
+		this.chunkSize = builder.chunkSize;
+		this.chunkLinger = builder.chunkLinger;
+		this.encodeOnPut = builder.encodeOnPut;
+		this.runtimeMetricsInterval = builder.runtimeMetricsInterval;
 	}
 
 	/**
@@ -297,4 +736,193 @@ public final class WriteOptions {
 		return retryQueue;
 	}
 
+	/**
+	 * Return if using virtual threads for write consumers.
+	 * 
+	 * @return if true using virtual threads
+	 */
+	public boolean isUseVirtualThreads() {
+		return useVirtualThreads;
+	}
+
+	/**
+	 * Return if register write statistics as JMX MBean.
+	 * 
+	 * @return if true register MBean
+	 */
+	public boolean isJmxEnabled() {
+		return jmxEnabled;
+	}
+
+	/**
+	 * Return interval(ms) of writing statistics back into LinDB, 0 means disable.
+	 * 
+	 * @return interval
+	 */
+	public long getStatsInterval() {
+		return statsInterval;
+	}
+
+	/**
+	 * Return ttl(ms) of cumulative sum series state.
+	 * 
+	 * @return ttl
+	 */
+	public long getCumulativeTtl() {
+		return cumulativeTtl;
+	}
+
+	/**
+	 * Return max distinct series per metric, 0 means no limit.
+	 * 
+	 * @return max series
+	 */
+	public int getMaxSeriesPerMetric() {
+		return maxSeriesPerMetric;
+	}
+
+	/**
+	 * Return policy of new series when metric exceeds series limit.
+	 * 
+	 * @return cardinality policy
+	 */
+	public CardinalityPolicy getCardinalityPolicy() {
+		return cardinalityPolicy;
+	}
+
+	/**
+	 * Return window(ms) of series limit.
+	 * 
+	 * @return cardinality window
+	 */
+	public long getCardinalityWindow() {
+		return cardinalityWindow;
+	}
+
+	/**
+	 * Return max metrics tracked by series limit.
+	 * 
+	 * @return max metrics
+	 */
+	public int getMaxCardinalityMetrics() {
+		return maxCardinalityMetrics;
+	}
+
+	/**
+	 * Return number of heaviest metrics/series tracked, 0 means disable.
+	 * 
+	 * @return top k
+	 */
+	public int getTopK() {
+		return topK;
+	}
+
+	/**
+	 * Return interval(ms) of heavy hitters tracking.
+	 * 
+	 * @return interval
+	 */
+	public long getTopKInterval() {
+		return topKInterval;
+	}
+
+	/**
+	 * Return if align/filter timestamp based on database options.
+	 * 
+	 * @return if true schema aware
+	 */
+	public boolean isSchemaAware() {
+		return schemaAware;
+	}
+
+	/**
+	 * Return refresh interval(ms) of database options.
+	 * 
+	 * @return interval
+	 */
+	public long getSchemaRefreshInterval() {
+		return schemaRefreshInterval;
+	}
+
+	/**
+	 * Return if sort points of each batch by series before sending.
+	 * 
+	 * @return if true sort batch
+	 */
+	public boolean isSortBatch() {
+		return sortBatch;
+	}
+
+	/**
+	 * Return max bytes(before compression) of merged retry request.
+	 * 
+	 * @return max bytes
+	 */
+	public int getRetryBatchBytes() {
+		return retryBatchBytes;
+	}
+
+	/**
+	 * Return interval(ms) of coalescing failure events.
+	 * 
+	 * @return event interval
+	 */
+	public long getEventInterval() {
+		return eventInterval;
+	}
+
+	/**
+	 * Return max events waiting for dispatching to listener.
+	 * 
+	 * @return event queue size
+	 */
+	public int getEventQueue() {
+		return eventQueue;
+	}
+
+	/**
+	 * Return if tracking acknowledgement of points.
+	 * 
+	 * @return if true track acks
+	 */
+	public boolean isAckTracking() {
+		return ackTracking;
+	}
+
+	/**
+	 * Return max points of producer-side chunk.
+	 * 
+	 * @return chunk size
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Return max linger time(ms) of producer-side chunk.
+	 * 
+	 * @return chunk linger
+	 */
+	public long getChunkLinger() {
+		return chunkLinger;
+	}
+
+	/**
+	 * Return if encoding points on producer thread.
+	 * 
+	 * @return if true encode on put
+	 */
+	public boolean isEncodeOnPut() {
+		return encodeOnPut;
+	}
+
+	/**
+	 * Return interval(ms) of collecting JVM runtime metrics, 0 means disable.
+	 * 
+	 * @return interval
+	 */
+	public long getRuntimeMetricsInterval() {
+		return runtimeMetricsInterval;
+	}
+
 }
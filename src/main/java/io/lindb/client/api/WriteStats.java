@@ -0,0 +1,386 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Point-in-time statistics snapshot of {@link Write} pipeline.
+ * All counters are cumulative since write created.
+ */
+@Immutable
+public final class WriteStats {
+	private final long batchQueueSize;
+	private final long sendQueueSize;
+	private final long retryQueueSize;
+	private final long putPoints;
+	private final long rejectedPoints;
+	private final long droppedPoints;
+	private final long encodedPoints;
+	private final long encodeFailures;
+	private final long encodeNanos;
+	private final long batches;
+	private final long rawBytes;
+	private final long sentBytes;
+	private final long sends;
+	private final long sendFailures;
+	private final long retries;
+	private final long limitedPoints;
+	private final long overflowPoints;
+	private final long aheadPoints;
+	private final long behindPoints;
+	private final long invalidPoints;
+	private final long splits;
+	private final long droppedEvents;
+	private final double[] sendLatencyBounds;
+	private final long[] sendLatencyCounts;
+	private final HeavyHitters heavyHitters;
+
+	WriteStats(long batchQueueSize, long sendQueueSize, long retryQueueSize, long putPoints, long rejectedPoints,
+			long droppedPoints, long encodedPoints, long encodeFailures, long encodeNanos, long batches,
+			long rawBytes, long sentBytes, long sends, long sendFailures, long retries, long limitedPoints, long overflowPoints,
+			long aheadPoints, long behindPoints, long invalidPoints, long splits, long droppedEvents, double[] sendLatencyBounds, long[] sendLatencyCounts, HeavyHitters heavyHitters) {
+		this.batchQueueSize = batchQueueSize;
+		this.sendQueueSize = sendQueueSize;
+		this.retryQueueSize = retryQueueSize;
+		this.putPoints = putPoints;
+		this.rejectedPoints = rejectedPoints;
+		this.droppedPoints = droppedPoints;
+		this.encodedPoints = encodedPoints;
+		this.encodeFailures = encodeFailures;
+		this.encodeNanos = encodeNanos;
+		this.batches = batches;
+		this.rawBytes = rawBytes;
+		this.sentBytes = sentBytes;
+		this.sends = sends;
+		this.sendFailures = sendFailures;
+		this.retries = retries;
+		this.limitedPoints = limitedPoints;
+		this.overflowPoints = overflowPoints;
+		this.aheadPoints = aheadPoints;
+		this.behindPoints = behindPoints;
+		this.invalidPoints = invalidPoints;
+		this.splits = splits;
+		this.droppedEvents = droppedEvents;
+		this.sendLatencyBounds = sendLatencyBounds;
+		this.sendLatencyCounts = sendLatencyCounts;
+		this.heavyHitters = heavyHitters;
+	}
+
+	/**
+	 * Return the number of points waiting for encoding.
+	 *
+	 * @return queue depth
+	 */
+	public long getBatchQueueSize() {
+		return batchQueueSize;
+	}
+
+	/**
+	 * Return the number of batches waiting for sending.
+	 *
+	 * @return queue depth
+	 */
+	public long getSendQueueSize() {
+		return sendQueueSize;
+	}
+
+	/**
+	 * Return the number of batches waiting for re-sending.
+	 *
+	 * @return queue depth
+	 */
+	public long getRetryQueueSize() {
+		return retryQueueSize;
+	}
+
+	/**
+	 * Return the number of points accepted by put.
+	 *
+	 * @return point count
+	 */
+	public long getPutPoints() {
+		return putPoints;
+	}
+
+	/**
+	 * Return the number of points rejected by put(queue full or write closed).
+	 *
+	 * @return point count
+	 */
+	public long getRejectedPoints() {
+		return rejectedPoints;
+	}
+
+	/**
+	 * Return the number of accepted points which are dropped(encode/send/retry
+	 * failure).
+	 *
+	 * @return point count
+	 */
+	public long getDroppedPoints() {
+		return droppedPoints;
+	}
+
+	/**
+	 * Return the number of encoded points.
+	 *
+	 * @return point count
+	 */
+	public long getEncodedPoints() {
+		return encodedPoints;
+	}
+
+	/**
+	 * Return the number of points encode failure.
+	 *
+	 * @return point count
+	 */
+	public long getEncodeFailures() {
+		return encodeFailures;
+	}
+
+	/**
+	 * Return the total encode time(ns).
+	 *
+	 * @return encode time
+	 */
+	public long getEncodeNanos() {
+		return encodeNanos;
+	}
+
+	/**
+	 * Return the average encode time(ns) per point.
+	 *
+	 * @return average encode time
+	 */
+	public double getAvgEncodeNanos() {
+		return encodedPoints == 0 ? 0 : (double) encodeNanos / encodedPoints;
+	}
+
+	/**
+	 * Return the number of batches.
+	 *
+	 * @return batch count
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * Return the average points of batch.
+	 *
+	 * @return average batch size
+	 */
+	public double getAvgBatchSize() {
+		return batches == 0 ? 0 : (double) encodedPoints / batches;
+	}
+
+	/**
+	 * Return the bytes before compression.
+	 *
+	 * @return raw bytes
+	 */
+	public long getRawBytes() {
+		return rawBytes;
+	}
+
+	/**
+	 * Return the bytes sent to broker(after compression).
+	 *
+	 * @return sent bytes
+	 */
+	public long getSentBytes() {
+		return sentBytes;
+	}
+
+	/**
+	 * Return compression ratio(raw bytes / sent bytes).
+	 *
+	 * @return compression ratio
+	 */
+	public double getCompressionRatio() {
+		return sentBytes == 0 ? 0 : (double) rawBytes / sentBytes;
+	}
+
+	/**
+	 * Return the number of send requests(include retry).
+	 *
+	 * @return request count
+	 */
+	public long getSends() {
+		return sends;
+	}
+
+	/**
+	 * Return the number of failed send requests.
+	 *
+	 * @return request count
+	 */
+	public long getSendFailures() {
+		return sendFailures;
+	}
+
+	/**
+	 * Return the number of retries.
+	 *
+	 * @return retry count
+	 */
+	public long getRetries() {
+		return retries;
+	}
+
+	/**
+	 * Return the number of points dropped by series limit of metric.
+	 *
+	 * @return point count
+	 */
+	public long getLimitedPoints() {
+		return limitedPoints;
+	}
+
+	/**
+	 * Return the number of points whose tag values collapsed into overflow
+	 * series by series limit of metric.
+	 *
+	 * @return point count
+	 */
+	public long getOverflowPoints() {
+		return overflowPoints;
+	}
+
+	/**
+	 * Return the number of points dropped by schema aware write, timestamp too
+	 * far ahead of now.
+	 *
+	 * @return point count
+	 */
+	public long getAheadPoints() {
+		return aheadPoints;
+	}
+
+	/**
+	 * Return the number of points dropped by schema aware write, timestamp too
+	 * far behind now.
+	 *
+	 * @return point count
+	 */
+	public long getBehindPoints() {
+		return behindPoints;
+	}
+
+	/**
+	 * Return the number of points rejected by broker with non-retryable error,
+	 * isolated by splitting batch.
+	 *
+	 * @return point count
+	 */
+	public long getInvalidPoints() {
+		return invalidPoints;
+	}
+
+	/**
+	 * Return the number of batches split for isolating invalid points or payload
+	 * limit.
+	 *
+	 * @return split count
+	 */
+	public long getSplits() {
+		return splits;
+	}
+
+	/**
+	 * Return the number of events dropped for listener dispatch queue full.
+	 *
+	 * @return event count
+	 */
+	public long getDroppedEvents() {
+		return droppedEvents;
+	}
+
+	/**
+	 * Return upper bounds(ms) of send latency histogram buckets, last bucket is
+	 * +Inf.
+	 *
+	 * @return bucket bounds
+	 */
+	public double[] getSendLatencyBounds() {
+		return Arrays.copyOf(sendLatencyBounds, sendLatencyBounds.length);
+	}
+
+	/**
+	 * Return request count of send latency histogram buckets.
+	 *
+	 * @return bucket counts
+	 */
+	public long[] getSendLatencyCounts() {
+		return Arrays.copyOf(sendLatencyCounts, sendLatencyCounts.length);
+	}
+
+	/**
+	 * Return heaviest metrics/series by points and encoded bytes of last completed
+	 * interval, empty if tracking disabled.
+	 *
+	 * @return heavy hitters
+	 */
+	public HeavyHitters getHeavyHitters() {
+		return heavyHitters;
+	}
+
+	/**
+	 * Return the estimated send latency(ms) at given quantile, using the upper
+	 * bound of matched bucket.
+	 *
+	 * @param quantile quantile, [0, 1]
+	 * @return latency(ms)
+	 */
+	public double getSendLatency(double quantile) {
+		long total = 0;
+		for (long count : sendLatencyCounts) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < sendLatencyCounts.length; i++) {
+			seen += sendLatencyCounts[i];
+			if (seen >= rank) {
+				return sendLatencyBounds[i];
+			}
+		}
+		return sendLatencyBounds[sendLatencyBounds.length - 1];
+	}
+
+	@Override
+	public String toString() {
+		return "WriteStats [batchQueueSize=" + batchQueueSize + ", sendQueueSize=" + sendQueueSize
+				+ ", retryQueueSize=" + retryQueueSize + ", putPoints=" + putPoints + ", rejectedPoints="
+				+ rejectedPoints + ", droppedPoints=" + droppedPoints + ", encodedPoints=" + encodedPoints
+				+ ", encodeFailures=" + encodeFailures + ", avgEncodeNanos=" + getAvgEncodeNanos() + ", batches="
+				+ batches + ", rawBytes=" + rawBytes + ", sentBytes=" + sentBytes + ", sends=" + sends
+				+ ", sendFailures=" + sendFailures + ", retries=" + retries + ", limitedPoints=" + limitedPoints
+				+ ", overflowPoints=" + overflowPoints + ", aheadPoints=" + aheadPoints + ", behindPoints="
+				+ behindPoints + ", invalidPoints=" + invalidPoints + ", splits=" + splits
+				+ ", droppedEvents=" + droppedEvents + "]";
+	}
+}
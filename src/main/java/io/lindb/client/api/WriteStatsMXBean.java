@@ -0,0 +1,173 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+/**
+ * JMX management interface of {@link Write} pipeline statistics.
+ * Registered as io.lindb.client:type=Write,database=xxx,id=n.
+ */
+public interface WriteStatsMXBean {
+
+	/**
+	 * Return the number of points waiting for encoding.
+	 *
+	 * @return queue depth
+	 */
+	long getBatchQueueSize();
+
+	/**
+	 * Return the number of batches waiting for sending.
+	 *
+	 * @return queue depth
+	 */
+	long getSendQueueSize();
+
+	/**
+	 * Return the number of batches waiting for re-sending.
+	 *
+	 * @return queue depth
+	 */
+	long getRetryQueueSize();
+
+	/**
+	 * Return the number of points accepted by put.
+	 *
+	 * @return point count
+	 */
+	long getPutPoints();
+
+	/**
+	 * Return the number of points rejected by put.
+	 *
+	 * @return point count
+	 */
+	long getRejectedPoints();
+
+	/**
+	 * Return the number of accepted points which are dropped.
+	 *
+	 * @return point count
+	 */
+	long getDroppedPoints();
+
+	/**
+	 * Return the average encode time(ns) per point.
+	 *
+	 * @return average encode time
+	 */
+	double getAvgEncodeNanos();
+
+	/**
+	 * Return the average points of batch.
+	 *
+	 * @return average batch size
+	 */
+	double getAvgBatchSize();
+
+	/**
+	 * Return compression ratio(raw bytes / sent bytes).
+	 *
+	 * @return compression ratio
+	 */
+	double getCompressionRatio();
+
+	/**
+	 * Return the bytes sent to broker.
+	 *
+	 * @return sent bytes
+	 */
+	long getSentBytes();
+
+	/**
+	 * Return the number of send requests.
+	 *
+	 * @return request count
+	 */
+	long getSends();
+
+	/**
+	 * Return the number of failed send requests.
+	 *
+	 * @return request count
+	 */
+	long getSendFailures();
+
+	/**
+	 * Return the number of retries.
+	 *
+	 * @return retry count
+	 */
+	long getRetries();
+
+	/**
+	 * Return the number of points dropped by series limit.
+	 *
+	 * @return point count
+	 */
+	long getLimitedPoints();
+
+	/**
+	 * Return the number of points collapsed into overflow series.
+	 *
+	 * @return point count
+	 */
+	long getOverflowPoints();
+
+	/**
+	 * Return the number of points dropped for timestamp too far ahead.
+	 *
+	 * @return point count
+	 */
+	long getAheadPoints();
+
+	/**
+	 * Return the number of points dropped for timestamp too far behind.
+	 *
+	 * @return point count
+	 */
+	long getBehindPoints();
+
+	/**
+	 * Return the number of points rejected by broker as invalid.
+	 *
+	 * @return point count
+	 */
+	long getInvalidPoints();
+
+	/**
+	 * Return the number of split batches.
+	 *
+	 * @return split count
+	 */
+	long getSplits();
+
+	/**
+	 * Return the number of events dropped for listener dispatch queue full.
+	 *
+	 * @return event count
+	 */
+	long getDroppedEvents();
+
+	/**
+	 * Return the estimated p99 send latency(ms).
+	 *
+	 * @return latency(ms)
+	 */
+	double getSendLatencyP99();
+}
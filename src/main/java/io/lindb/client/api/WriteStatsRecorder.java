@@ -0,0 +1,243 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Record write pipeline statistics using striped counters, cheap enough for
+ * per point recording.
+ */
+@ThreadSafe
+class WriteStatsRecorder implements WriteStatsMXBean {
+	/**
+	 * Upper bounds(ms) of send latency histogram buckets.
+	 */
+	static final double[] SEND_LATENCY_BOUNDS = new double[] { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000,
+			5_000, 10_000, Double.POSITIVE_INFINITY };
+
+	private final WriteImpl write;
+
+	final LongAdder putPoints = new LongAdder();
+	final LongAdder rejectedPoints = new LongAdder();
+	final LongAdder droppedPoints = new LongAdder();
+	final LongAdder encodedPoints = new LongAdder();
+	final LongAdder encodeFailures = new LongAdder();
+	final LongAdder encodeNanos = new LongAdder();
+	final LongAdder batches = new LongAdder();
+	final LongAdder rawBytes = new LongAdder();
+	final LongAdder sentBytes = new LongAdder();
+	final LongAdder sends = new LongAdder();
+	final LongAdder sendFailures = new LongAdder();
+	final LongAdder retries = new LongAdder();
+	final LongAdder limitedPoints = new LongAdder();
+	final LongAdder overflowPoints = new LongAdder();
+	final LongAdder aheadPoints = new LongAdder();
+	final LongAdder behindPoints = new LongAdder();
+	final LongAdder invalidPoints = new LongAdder();
+	final LongAdder splits = new LongAdder();
+	final LongAdder droppedEvents = new LongAdder();
+	final LongAdder sendLatencySum = new LongAdder(); // ms
+	final LongAccumulator sendLatencyMin = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	final LongAccumulator sendLatencyMax = new LongAccumulator(Math::max, 0);
+	private final LongAdder[] sendLatencyCounts;
+
+	/**
+	 * Create write statistics recorder.
+	 *
+	 * @param write write api for queue depth
+	 */
+	WriteStatsRecorder(WriteImpl write) {
+		this.write = write;
+		this.sendLatencyCounts = new LongAdder[SEND_LATENCY_BOUNDS.length];
+		for (int i = 0; i < this.sendLatencyCounts.length; i++) {
+			this.sendLatencyCounts[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Record points dropped after accepted.
+	 *
+	 * @param points dropped points
+	 */
+	void dropped(Collection<Point> points) {
+		if (points != null) {
+			this.droppedPoints.add(points.size());
+		}
+	}
+
+	/**
+	 * Record a send request.
+	 *
+	 * @param bytes     sent bytes
+	 * @param costNanos send latency
+	 * @param ok        if send successfully
+	 */
+	void send(int bytes, long costNanos, boolean ok) {
+		this.sends.increment();
+		this.sentBytes.add(bytes);
+		if (!ok) {
+			this.sendFailures.increment();
+		}
+		long ms = TimeUnit.NANOSECONDS.toMillis(costNanos);
+		this.sendLatencySum.add(ms);
+		this.sendLatencyMin.accumulate(ms);
+		this.sendLatencyMax.accumulate(ms);
+		for (int i = 0; i < SEND_LATENCY_BOUNDS.length; i++) {
+			if (ms <= SEND_LATENCY_BOUNDS[i]) {
+				this.sendLatencyCounts[i].increment();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Return statistics snapshot.
+	 *
+	 * @return snapshot
+	 */
+	WriteStats snapshot() {
+		long[] counts = new long[this.sendLatencyCounts.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this.sendLatencyCounts[i].sum();
+		}
+		return new WriteStats(getBatchQueueSize(), getSendQueueSize(), getRetryQueueSize(), putPoints.sum(),
+				rejectedPoints.sum(), droppedPoints.sum(), encodedPoints.sum(), encodeFailures.sum(),
+				encodeNanos.sum(), batches.sum(), rawBytes.sum(), sentBytes.sum(), sends.sum(), sendFailures.sum(),
+				retries.sum(), limitedPoints.sum(), overflowPoints.sum(), aheadPoints.sum(),
+				behindPoints.sum(), invalidPoints.sum(), splits.sum(), droppedEvents.sum(), SEND_LATENCY_BOUNDS, counts,
+				write.heavyHitters == null ? HeavyHitters.EMPTY : write.heavyHitters.snapshot());
+	}
+
+	@Override
+	public long getBatchQueueSize() {
+		PointQueue queue = write.points;
+		return queue == null ? 0 : queue.size();
+	}
+
+	@Override
+	public long getSendQueueSize() {
+		Collection<?> queue = write.sendBuffers;
+		return queue == null ? 0 : queue.size();
+	}
+
+	@Override
+	public long getRetryQueueSize() {
+		Collection<?> queue = write.retryQueue;
+		return queue == null ? 0 : queue.size();
+	}
+
+	@Override
+	public long getPutPoints() {
+		return putPoints.sum();
+	}
+
+	@Override
+	public long getRejectedPoints() {
+		return rejectedPoints.sum();
+	}
+
+	@Override
+	public long getDroppedPoints() {
+		return droppedPoints.sum();
+	}
+
+	@Override
+	public double getAvgEncodeNanos() {
+		long encoded = encodedPoints.sum();
+		return encoded == 0 ? 0 : (double) encodeNanos.sum() / encoded;
+	}
+
+	@Override
+	public double getAvgBatchSize() {
+		long batch = batches.sum();
+		return batch == 0 ? 0 : (double) encodedPoints.sum() / batch;
+	}
+
+	@Override
+	public double getCompressionRatio() {
+		long sent = sentBytes.sum();
+		return sent == 0 ? 0 : (double) rawBytes.sum() / sent;
+	}
+
+	@Override
+	public long getSentBytes() {
+		return sentBytes.sum();
+	}
+
+	@Override
+	public long getSends() {
+		return sends.sum();
+	}
+
+	@Override
+	public long getSendFailures() {
+		return sendFailures.sum();
+	}
+
+	@Override
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	@Override
+	public long getLimitedPoints() {
+		return limitedPoints.sum();
+	}
+
+	@Override
+	public long getOverflowPoints() {
+		return overflowPoints.sum();
+	}
+
+	@Override
+	public long getAheadPoints() {
+		return aheadPoints.sum();
+	}
+
+	@Override
+	public long getBehindPoints() {
+		return behindPoints.sum();
+	}
+
+	@Override
+	public long getInvalidPoints() {
+		return invalidPoints.sum();
+	}
+
+	@Override
+	public long getSplits() {
+		return splits.sum();
+	}
+
+	@Override
+	public long getDroppedEvents() {
+		return droppedEvents.sum();
+	}
+
+	@Override
+	public double getSendLatencyP99() {
+		return snapshot().getSendLatency(0.99);
+	}
+}
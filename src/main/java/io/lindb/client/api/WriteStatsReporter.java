@@ -0,0 +1,125 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write statistics back into LinDB as points, counters are written as delta
+ * sum, queue depths/ratios are written as last.
+ */
+class WriteStatsReporter implements Runnable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(WriteStatsReporter.class);
+	/**
+	 * Metric name of write pipeline statistics.
+	 */
+	static final String WRITE_METRIC = "lindb.client.write";
+	/**
+	 * Metric name of send latency histogram.
+	 */
+	static final String SEND_LATENCY_METRIC = "lindb.client.write.send_latency";
+
+	private final Write write;
+	private final WriteStatsRecorder recorder;
+	private WriteStats last;
+
+	/**
+	 * Create write statistics reporter.
+	 *
+	 * @param write    write api which statistics points written into
+	 * @param recorder statistics recorder
+	 */
+	WriteStatsReporter(Write write, WriteStatsRecorder recorder) {
+		this.write = write;
+		this.recorder = recorder;
+		this.last = recorder.snapshot();
+	}
+
+	@Override
+	public void run() {
+		try {
+			report();
+		} catch (Throwable e) {
+			LOGGER.warn("report write statistics failure", e);
+		}
+	}
+
+	/**
+	 * Build statistics points since last report, then put them into write.
+	 */
+	void report() {
+		WriteStats now = this.recorder.snapshot();
+		WriteStats prev = this.last;
+		this.last = now;
+
+		long encoded = now.getEncodedPoints() - prev.getEncodedPoints();
+		long batches = now.getBatches() - prev.getBatches();
+		long rawBytes = now.getRawBytes() - prev.getRawBytes();
+		long sentBytes = now.getSentBytes() - prev.getSentBytes();
+		long encodeNanos = now.getEncodeNanos() - prev.getEncodeNanos();
+
+		Point point = Point.builder(WRITE_METRIC)
+				.addLast("batch_queue", now.getBatchQueueSize())
+				.addLast("send_queue", now.getSendQueueSize())
+				.addLast("retry_queue", now.getRetryQueueSize())
+				.addSum("put_points", now.getPutPoints() - prev.getPutPoints())
+				.addSum("rejected_points", now.getRejectedPoints() - prev.getRejectedPoints())
+				.addSum("dropped_points", now.getDroppedPoints() - prev.getDroppedPoints())
+				.addSum("encoded_points", encoded)
+				.addSum("encode_failures", now.getEncodeFailures() - prev.getEncodeFailures())
+				.addSum("batches", batches)
+				.addSum("raw_bytes", rawBytes)
+				.addSum("sent_bytes", sentBytes)
+				.addSum("sends", now.getSends() - prev.getSends())
+				.addSum("send_failures", now.getSendFailures() - prev.getSendFailures())
+				.addSum("retries", now.getRetries() - prev.getRetries())
+				.addSum("limited_points", now.getLimitedPoints() - prev.getLimitedPoints())
+				.addSum("overflow_points", now.getOverflowPoints() - prev.getOverflowPoints())
+				.addSum("ahead_points", now.getAheadPoints() - prev.getAheadPoints())
+				.addSum("behind_points", now.getBehindPoints() - prev.getBehindPoints())
+				.addSum("invalid_points", now.getInvalidPoints() - prev.getInvalidPoints())
+				.addSum("splits", now.getSplits() - prev.getSplits())
+				.addSum("dropped_events", now.getDroppedEvents() - prev.getDroppedEvents())
+				.addLast("avg_encode_ns", encoded == 0 ? 0 : (double) encodeNanos / encoded)
+				.addLast("avg_batch_size", batches == 0 ? 0 : (double) encoded / batches)
+				.addLast("compression_ratio", sentBytes == 0 ? 0 : (double) rawBytes / sentBytes)
+				.build();
+		this.write.put(point);
+
+		long[] nowCounts = now.getSendLatencyCounts();
+		long[] prevCounts = prev.getSendLatencyCounts();
+		double[] values = new double[nowCounts.length];
+		long count = 0;
+		for (int i = 0; i < nowCounts.length; i++) {
+			long delta = nowCounts[i] - prevCounts[i];
+			values[i] = delta;
+			count += delta;
+		}
+		long min = this.recorder.sendLatencyMin.getThenReset();
+		long max = this.recorder.sendLatencyMax.getThenReset();
+		long sum = this.recorder.sendLatencySum.sumThenReset();
+		if (count > 0) {
+			Point histogram = Point.builder(SEND_LATENCY_METRIC)
+					.addHistogram(count, sum, min, max, now.getSendLatencyBounds(), values)
+					.build();
+			this.write.put(histogram);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Reusable buffer of http request body, grows up to max size.
+ */
+@NotThreadSafe
+final class BodyBuffer {
+	private final int maxSize;
+	private byte[] bytes;
+	private int length;
+
+	/**
+	 * Create body buffer.
+	 * 
+	 * @param initialSize initial buffer size
+	 * @param maxSize     max body size
+	 */
+	BodyBuffer(int initialSize, int maxSize) {
+		this.maxSize = maxSize;
+		this.bytes = new byte[Math.min(initialSize, maxSize)];
+	}
+
+	/**
+	 * Read stream until end into buffer.
+	 * 
+	 * @param in body stream
+	 * @return false if body larger than max size, rest of stream is drained
+	 * @throws IOException read failure
+	 */
+	boolean read(InputStream in) throws IOException {
+		this.length = 0;
+		while (true) {
+			if (this.length == this.bytes.length) {
+				if (this.length >= this.maxSize) {
+					// drain so the connection can be reused
+					while (in.read(this.bytes) >= 0) {
+					}
+					this.length = 0;
+					return false;
+				}
+				byte[] grown = new byte[(int) Math.min(this.maxSize, this.length * 2L)];
+				System.arraycopy(this.bytes, 0, grown, 0, this.length);
+				this.bytes = grown;
+			}
+			int n = in.read(this.bytes, this.length, this.bytes.length - this.length);
+			if (n < 0) {
+				return true;
+			}
+			this.length += n;
+		}
+	}
+
+	/**
+	 * Return buffer, valid from 0 to {@link #length()}.
+	 * 
+	 * @return body bytes
+	 */
+	byte[] bytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * Return length of body read.
+	 * 
+	 * @return body length
+	 */
+	int length() {
+		return this.length;
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.lindb.client.api.DeltaConverter;
+
+/**
+ * Delta conversions of one request against the shared {@link DeltaConverter},
+ * journaled so that conversions of items not accepted by write are rolled
+ * back. A retried request then converts the same cumulative values into the
+ * same deltas instead of losing them.
+ *
+ * Entries are kept in primitive arrays reused across requests of the owning
+ * decoder.
+ */
+@NotThreadSafe
+final class DeltaJournal {
+	private final DeltaConverter converter;
+	private int[] items = new int[64];
+	private long[] keys = new long[64];
+	private int[] offsets = new int[64];
+	private int[] lengths = new int[64];
+	private double[] last = new double[256];
+	private double[] replaced = new double[34];
+	private int size;
+	private int lastLength;
+
+	/**
+	 * Create journal.
+	 * 
+	 * @param converter cumulative state shared by decoders, guarded by itself
+	 */
+	DeltaJournal(DeltaConverter converter) {
+		this.converter = converter;
+	}
+
+	/**
+	 * Convert cumulative values of one series into deltas in place, see
+	 * {@link DeltaConverter#deltas(long, double[], int, long)}.
+	 * 
+	 * @param item   index of item in request written with the deltas
+	 * @param key    series hash
+	 * @param values cumulative values, replaced by deltas
+	 * @param length number of values
+	 * @param now    current time(ms) for ttl
+	 * @return false if the first values of series, nothing to write
+	 */
+	boolean deltas(int item, long key, double[] values, int length, long now) {
+		if (this.size == this.items.length) {
+			int capacity = this.size * 2;
+			this.items = Arrays.copyOf(this.items, capacity);
+			this.keys = Arrays.copyOf(this.keys, capacity);
+			this.offsets = Arrays.copyOf(this.offsets, capacity);
+			this.lengths = Arrays.copyOf(this.lengths, capacity);
+		}
+		if (this.lastLength + length > this.last.length) {
+			this.last = Arrays.copyOf(this.last, Math.max(this.last.length * 2, this.lastLength + length));
+		}
+		if (this.replaced.length < length) {
+			this.replaced = new double[length * 2];
+		}
+		boolean converted;
+		synchronized (this.converter) {
+			converted = this.converter.deltas(key, values, length, now, this.replaced);
+		}
+		if (!converted) {
+			return false;
+		}
+		System.arraycopy(this.replaced, 0, this.last, this.lastLength, length);
+		this.items[this.size] = item;
+		this.keys[this.size] = key;
+		this.offsets[this.size] = this.lastLength;
+		this.lengths[this.size] = length;
+		this.lastLength += length;
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Roll back conversions of items not accepted by write, in reverse order so
+	 * that samples of one series in request restore the oldest state, then
+	 * clear the journal.
+	 * 
+	 * @param accepted number of items accepted from head of request
+	 */
+	void rollback(int accepted) {
+		if (this.size > 0 && this.items[this.size - 1] >= accepted) {
+			synchronized (this.converter) {
+				for (int i = this.size - 1; i >= 0 && this.items[i] >= accepted; i--) {
+					this.converter.restore(this.keys[i], this.last, this.offsets[i], this.lengths[i]);
+				}
+			}
+		}
+		clear();
+	}
+
+	/**
+	 * Clear journal, keeping all conversions.
+	 */
+	void clear() {
+		this.size = 0;
+		this.lastLength = 0;
+	}
+}
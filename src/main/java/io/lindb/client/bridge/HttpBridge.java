@@ -0,0 +1,393 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.ZipException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.lindb.client.api.DeltaConverter;
+import io.lindb.client.api.Write;
+import io.lindb.client.api.WriteOptions;
+import io.lindb.client.internal.Threads;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * Http receiver of metric requests, shared by bridges which only differ by
+ * content type and decoder.
+ *
+ * Listens on one path with a fixed handler thread pool, each handler thread
+ * owns its body buffer, requests are decoded and handed to {@link Write}
+ * waiting up to put timeout. If write pipeline cannot take the whole request,
+ * responds 503 so that sender retries the request, and the rest not taken is
+ * counted as rejected. Cumulative conversions of the rest are rolled back, so
+ * a retry rewrites last values and cumulative values of the accepted part
+ * unchanged(zero deltas), only delta values of the accepted part are counted
+ * again.
+ */
+public abstract class HttpBridge implements AutoCloseable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(HttpBridge.class);
+	public final static String DEFAULT_HOST = "0.0.0.0";
+	public final static int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+	public final static int DEFAULT_MAX_BODY_BYTES = 32 * 1024 * 1024;
+	public final static long DEFAULT_PUT_TIMEOUT = 1000;
+	public final static String DEFAULT_FIELD_NAME = "value";
+	public final static long DEFAULT_CUMULATIVE_TTL = WriteOptions.DEFAULT_CUMULATIVE_TTL;
+	final static int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Http bridge builder.
+	 *
+	 * @param <B> type of builder
+	 */
+	@NotThreadSafe
+	public abstract static class Builder<B extends Builder<B>> {
+		private final Write write;
+		private String host = DEFAULT_HOST;
+		private int port;
+		private String path;
+		private int threads = DEFAULT_THREADS;
+		private int maxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+		private long putTimeout = DEFAULT_PUT_TIMEOUT;
+		private String fieldName = DEFAULT_FIELD_NAME;
+		private long cumulativeTtl = DEFAULT_CUMULATIVE_TTL;
+
+		Builder(Write write, int port, String path) {
+			this.write = write;
+			this.port = port;
+			this.path = path;
+		}
+
+		@SuppressWarnings("unchecked")
+		private B self() {
+			return (B) this;
+		}
+
+		/**
+		 * Set listen host.
+		 * Default value: 0.0.0.0.
+		 * 
+		 * @param host {@link String}
+		 * @return builder
+		 */
+		public B host(final String host) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(host), "host cannot be empty");
+			this.host = host;
+			return self();
+		}
+
+		/**
+		 * Set listen port, 0 for any free port.
+		 * Default value: default port of bridge.
+		 * 
+		 * @param port {@link int}
+		 * @return builder
+		 */
+		public B port(final int port) {
+			Preconditions.checkArgument(port >= 0 && port <= 65535, "invalid port", port);
+			this.port = port;
+			return self();
+		}
+
+		/**
+		 * Set request path.
+		 * Default value: default path of bridge.
+		 * 
+		 * @param path {@link String}
+		 * @return builder
+		 */
+		public B path(final String path) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(path) && path.startsWith("/"),
+					"path must start with /");
+			this.path = path;
+			return self();
+		}
+
+		/**
+		 * Set number of request handler threads.
+		 * Default value: available processors.
+		 * 
+		 * @param threads {@link int}
+		 * @return builder
+		 */
+		public B threads(final int threads) {
+			Preconditions.checkArgument(threads > 0, "threads must be positive", threads);
+			this.threads = threads;
+			return self();
+		}
+
+		/**
+		 * Set max size of compressed and uncompressed request body.
+		 * Default value: 32MB.
+		 * 
+		 * @param maxBodyBytes {@link int}
+		 * @return builder
+		 */
+		public B maxBodyBytes(final int maxBodyBytes) {
+			Preconditions.checkArgument(maxBodyBytes > 0, "max body bytes must be positive", maxBodyBytes);
+			this.maxBodyBytes = maxBodyBytes;
+			return self();
+		}
+
+		/**
+		 * Set max wait time for write pipeline accepting a request.
+		 * Default value: 1000(ms).
+		 * 
+		 * @param putTimeout {@link long}
+		 * @return builder
+		 */
+		public B putTimeout(final long putTimeout) {
+			Preconditions.checkArgument(putTimeout >= 0, "put timeout cannot be negative", putTimeout);
+			this.putTimeout = putTimeout;
+			return self();
+		}
+
+		/**
+		 * Set field name of sample value.
+		 * Default value: value.
+		 * 
+		 * @param fieldName {@link String}
+		 * @return builder
+		 */
+		public B fieldName(final String fieldName) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(fieldName), "field name cannot be empty");
+			this.fieldName = fieldName;
+			return self();
+		}
+
+		/**
+		 * Set ttl of cumulative series state, series not updated within ttl are
+		 * evicted.
+		 * Default value: 600000(ms).
+		 * 
+		 * @param cumulativeTtl {@link long}
+		 * @return builder
+		 */
+		public B cumulativeTtl(final long cumulativeTtl) {
+			Preconditions.checkArgument(cumulativeTtl > 0, "cumulative ttl must be positive", cumulativeTtl);
+			this.cumulativeTtl = cumulativeTtl;
+			return self();
+		}
+	}
+
+	final Write write;
+	final int maxBodyBytes;
+	final long putTimeout;
+	final String fieldName;
+	// cumulative state shared by decoders of all handler threads
+	final DeltaConverter converter;
+	final LongAdder received = new LongAdder();
+	final LongAdder skipped = new LongAdder();
+	final LongAdder accepted = new LongAdder();
+	final LongAdder rejected = new LongAdder();
+	private final String name;
+	private final String host;
+	private final int port;
+	private final String path;
+	private final int threads;
+	private final int successStatus;
+	private final String responseContentType;
+	private final ThreadLocal<BodyBuffer> bodies;
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder badRequests = new LongAdder();
+	private HttpServer server;
+	private ExecutorService executor;
+
+	/**
+	 * Create bridge.
+	 * 
+	 * @param builder             builder of bridge
+	 * @param name                name of bridge, used by thread names and logs
+	 * @param successStatus       http status of accepted request
+	 * @param responseContentType content type of accepted request response,
+	 *                            nullable
+	 */
+	HttpBridge(Builder<?> builder, String name, int successStatus, String responseContentType) {
+		this.write = builder.write;
+		this.host = builder.host;
+		this.port = builder.port;
+		this.path = builder.path;
+		this.threads = builder.threads;
+		this.maxBodyBytes = builder.maxBodyBytes;
+		this.putTimeout = builder.putTimeout;
+		this.fieldName = builder.fieldName;
+		this.converter = new DeltaConverter(builder.cumulativeTtl);
+		this.name = name;
+		this.successStatus = successStatus;
+		this.responseContentType = responseContentType;
+		this.bodies = ThreadLocal.withInitial(() -> new BodyBuffer(INITIAL_BUFFER_SIZE, this.maxBodyBytes));
+	}
+
+	/**
+	 * Start listening requests.
+	 * 
+	 * @throws IOException bind failure
+	 */
+	public synchronized void start() throws IOException {
+		Preconditions.checkState(this.server == null, "%s bridge already started", this.name);
+		HttpServer httpServer = HttpServer.create(new InetSocketAddress(this.host, this.port), 0);
+		this.executor = Executors.newFixedThreadPool(this.threads, Threads.factory("lin-" + this.name, false));
+		httpServer.setExecutor(this.executor);
+		httpServer.createContext(this.path, this::handle);
+		httpServer.start();
+		this.server = httpServer;
+		LOGGER.info("{} bridge listening on {}{}", this.name, httpServer.getAddress(), this.path);
+	}
+
+	/**
+	 * Return bound port, valid after started.
+	 * 
+	 * @return listen port
+	 */
+	public synchronized int getPort() {
+		Preconditions.checkState(this.server != null, "%s bridge not started", this.name);
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Return number of requests received.
+	 * 
+	 * @return requests
+	 */
+	public long getRequests() {
+		return this.requests.sum();
+	}
+
+	/**
+	 * Return number of malformed or unsupported requests.
+	 * 
+	 * @return bad requests
+	 */
+	public long getBadRequests() {
+		return this.badRequests.sum();
+	}
+
+	/**
+	 * Stop listening, write is not closed.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.server == null) {
+			return;
+		}
+		this.server.stop(0);
+		this.executor.shutdownNow();
+		this.server = null;
+		this.executor = null;
+	}
+
+	/**
+	 * Check content type and encoding of request.
+	 * 
+	 * @param contentType content type header, nullable
+	 * @param encoding    content encoding header, nullable
+	 * @return false if not supported, responds 415
+	 */
+	abstract boolean supports(String contentType, String encoding);
+
+	/**
+	 * Return body stream of request decoded by stream content encoding.
+	 * 
+	 * @param in       request body
+	 * @param encoding content encoding header, nullable
+	 * @return body stream
+	 * @throws IOException read failure
+	 */
+	InputStream body(InputStream in, String encoding) throws IOException {
+		return in;
+	}
+
+	/**
+	 * Decode request body and hand off to write, on handler thread.
+	 * 
+	 * @param body   request body, reused by next request of thread
+	 * @param length length of body
+	 * @return http status, see {@link #status(int, int)}
+	 * @throws InterruptedException     thread interrupted
+	 * @throws IllegalArgumentException malformed body
+	 */
+	abstract int write(byte[] body, int length) throws InterruptedException;
+
+	/**
+	 * Count items accepted by write and return http status of request, 503 if
+	 * anything not accepted so that sender retries instead of losing the rest.
+	 * 
+	 * @param count decoded items of request
+	 * @param put   items accepted by write
+	 * @return http status
+	 */
+	int status(int count, int put) {
+		this.accepted.add(put);
+		if (put < count) {
+			this.rejected.add(count - put);
+			return 503;
+		}
+		return this.successStatus;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+			String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+			if (!supports(contentType, encoding)) {
+				this.badRequests.increment();
+				exchange.sendResponseHeaders(415, -1);
+				return;
+			}
+			this.requests.increment();
+			BodyBuffer body = this.bodies.get();
+			if (!body.read(body(exchange.getRequestBody(), encoding))) {
+				this.badRequests.increment();
+				exchange.sendResponseHeaders(413, -1);
+				return;
+			}
+			int status = write(body.bytes(), body.length());
+			if (status == this.successStatus && this.responseContentType != null) {
+				exchange.getResponseHeaders().set("Content-Type", this.responseContentType);
+			}
+			exchange.sendResponseHeaders(status, -1);
+		} catch (IllegalArgumentException | ZipException e) {
+			this.badRequests.increment();
+			LOGGER.warn("decode {} request failure: {}", this.name, e.getMessage());
+			exchange.sendResponseHeaders(400, -1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			exchange.sendResponseHeaders(503, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.Constants;
+import io.lindb.client.api.Write;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * OpenTelemetry metrics receiver, accepts OTLP/HTTP protobuf export requests
+ * and forwards them into {@link Write} as Metric flat buffer records.
+ *
+ * Point the OpenTelemetry SDK OTLP metric exporter(http/protobuf, delta
+ * temporality preferred) at this endpoint, cumulative monotonic sums and
+ * histograms are converted into deltas per series, with state evicted after
+ * cumulative ttl. Each handler thread owns its body
+ * buffer and decoder, data points are encoded straight into records and
+ * handed to write pipeline with
+ * {@link Write#writeRecords(byte[], int, int, long, TimeUnit)}, no points are
+ * built. If write pipeline cannot take all records in put timeout, responds 503
+ * so that exporter retries the request and the rest records are counted as
+ * rejected. Delta sums and histograms of records already accepted are counted
+ * again by the retry.
+ */
+public final class OtlpBridge extends HttpBridge {
+	public final static int DEFAULT_PORT = 4318;
+	public final static String DEFAULT_PATH = "/v1/metrics";
+
+	/**
+	 * OTLP bridge builder.
+	 */
+	@NotThreadSafe
+	public static class Builder extends HttpBridge.Builder<Builder> {
+		private String namespace = Constants.DEFAULT_NAMESPACE;
+
+		private Builder(Write write) {
+			super(write, DEFAULT_PORT, DEFAULT_PATH);
+		}
+
+		/**
+		 * Return the bridge with setting, call {@link OtlpBridge#start()} to listen.
+		 * 
+		 * @return otlp bridge
+		 */
+		public OtlpBridge build() {
+			return new OtlpBridge(this);
+		}
+
+		/**
+		 * Set namespace of metrics.
+		 * Default value: default_ns.
+		 * 
+		 * @param namespace {@link String}
+		 * @return builder
+		 */
+		public Builder namespace(final String namespace) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(namespace), "namespace cannot be empty");
+			this.namespace = namespace;
+			return this;
+		}
+	}
+
+	private final String namespace;
+	private final ThreadLocal<OtlpMetricsDecoder> decoders;
+
+	private OtlpBridge(Builder builder) {
+		super(builder, "otlp", 200, "application/x-protobuf");
+		this.namespace = builder.namespace;
+		this.decoders = ThreadLocal
+				.withInitial(() -> new OtlpMetricsDecoder(this.namespace, this.fieldName, this.converter));
+	}
+
+	/**
+	 * Create bridge builder forwarding metrics into write.
+	 * 
+	 * @param write write pipeline, shared with other producers
+	 * @return builder
+	 */
+	public static Builder builder(Write write) {
+		Preconditions.checkNotNull(write, "write cannot be null");
+		return new Builder(write);
+	}
+
+	/**
+	 * Return number of data points received.
+	 * 
+	 * @return data points
+	 */
+	public long getDataPoints() {
+		return this.received.sum();
+	}
+
+	/**
+	 * Return number of data points skipped(no recorded value, invalid buckets,
+	 * unsupported type or temporality, or first point of cumulative series).
+	 * 
+	 * @return skipped data points
+	 */
+	public long getSkippedPoints() {
+		return this.skipped.sum();
+	}
+
+	/**
+	 * Return number of records put into write.
+	 * 
+	 * @return records
+	 */
+	public long getRecords() {
+		return this.accepted.sum();
+	}
+
+	/**
+	 * Return number of records rejected by write(queue full), rest records of
+	 * partially accepted requests are counted before the request is retried.
+	 * 
+	 * @return rejected records
+	 */
+	public long getRejectedRecords() {
+		return this.rejected.sum();
+	}
+
+	@Override
+	boolean supports(String contentType, String encoding) {
+		// json encoding not supported
+		return (contentType == null || contentType.startsWith("application/x-protobuf"))
+				&& (encoding == null || "gzip".equalsIgnoreCase(encoding) || "identity".equalsIgnoreCase(encoding));
+	}
+
+	@Override
+	InputStream body(InputStream in, String encoding) throws IOException {
+		return "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(in) : in;
+	}
+
+	/**
+	 * Decode export request and write records, empty
+	 * ExportMetricsServiceResponse if accepted.
+	 */
+	@Override
+	int write(byte[] body, int length) throws InterruptedException {
+		OtlpMetricsDecoder decoder = this.decoders.get();
+		int put = 0;
+		try {
+			this.received.add(decoder.decode(body, 0, length));
+			this.skipped.add(decoder.skipped());
+			int count = decoder.recordCount();
+			if (count == 0) {
+				return 200;
+			}
+			put = this.write.writeRecords(decoder.records(), 0, decoder.recordsLength(), this.putTimeout,
+					TimeUnit.MILLISECONDS);
+			return status(count, put);
+		} finally {
+			// converted records not put are converted again when request retried
+			decoder.rollback(put);
+		}
+	}
+}
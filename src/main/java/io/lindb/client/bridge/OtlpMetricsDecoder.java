@@ -0,0 +1,874 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import io.lindb.client.api.DeltaConverter;
+import io.lindb.client.flat.metrics.v1.CompoundField;
+import io.lindb.client.flat.metrics.v1.Exemplar;
+import io.lindb.client.flat.metrics.v1.KeyValue;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.flat.metrics.v1.SimpleField;
+import io.lindb.client.flat.metrics.v1.SimpleFieldType;
+import io.lindb.client.internal.Hashing;
+
+/**
+ * Decode OTLP ExportMetricsServiceRequest(protobuf) straight into size-prefixed
+ * Metric flat buffer records, without building points.
+ *
+ * Resource attributes are decoded into UTF-8 tag bytes once per resource and
+ * copied into each record of the resource, data point attributes with same key
+ * override them. Gauge points are written as last, delta sums as delta sum and
+ * non-monotonic cumulative sums as last(current level). Explicit bucket
+ * histograms are written as compound field with +Inf bound appended, so that
+ * bounds and values have same length. Exemplars are written into exemplar
+ * table of field with span/trace id and value as duration. Exponential
+ * histograms and summaries are skipped.
+ *
+ * Monotonic cumulative sums and cumulative histograms are converted into
+ * deltas per series by the {@link DeltaConverter} shared by decoders of the
+ * bridge(guarded by itself), the first point of a series only initializes the
+ * state and is skipped, min/max of cumulative histograms are not kept since
+ * they cover the whole cumulative period. Conversions of records not accepted
+ * by write are rolled back with {@link #rollback(int)}, so that a retried
+ * request writes the same deltas. Points with unspecified temporality are
+ * skipped.
+ */
+@NotThreadSafe
+final class OtlpMetricsDecoder extends ProtoReader {
+	private final static int TEMPORALITY_DELTA = 1;
+	private final static int TEMPORALITY_CUMULATIVE = 2;
+	// series key discriminators of converted sums and histograms
+	private final static long SUM_SERIES = 1;
+	private final static long HISTOGRAM_SERIES = 2;
+	private final static int FLAG_NO_RECORDED_VALUE = 1;
+	private final static int INITIAL_RECORDS_SIZE = 64 * 1024;
+
+	private final ByteBuffer namespace;
+	private final ByteBuffer fieldName;
+	private final DeltaJournal journal;
+	private final FlatBufferBuilder fb = new FlatBufferBuilder(1024);
+	private final Tags resource = new Tags();
+	private final Tags attributes = new Tags();
+	private ByteBuffer view;
+	private int nameStart;
+	private int nameEnd;
+	private int[] tagOffsets = new int[32];
+	// span id/trace id ranges in request and value of exemplars of current point
+	private int[] exemplarIds = new int[16 * 4];
+	private double[] exemplarValues = new double[16];
+	private int[] exemplarOffsets = new int[16];
+	private int exemplars;
+	private double[] bounds = new double[32];
+	private double[] counts = new double[32];
+	private int boundsSize;
+	private int countsSize;
+	private byte[] records = new byte[INITIAL_RECORDS_SIZE];
+	private int recordsLength;
+	private int recordCount;
+	private int skipped;
+	// cumulative values of current point for delta conversion
+	private double[] cumulative = new double[34];
+	private long now;
+
+	/**
+	 * Create decoder.
+	 * 
+	 * @param namespace namespace of records
+	 * @param fieldName field name of number data point value
+	 * @param converter cumulative state shared by decoders, guarded by itself
+	 */
+	OtlpMetricsDecoder(String namespace, String fieldName, DeltaConverter converter) {
+		this.namespace = ByteBuffer.wrap(namespace.getBytes(StandardCharsets.UTF_8));
+		this.fieldName = ByteBuffer.wrap(fieldName.getBytes(StandardCharsets.UTF_8));
+		this.journal = new DeltaJournal(converter);
+	}
+
+	/**
+	 * Decode request into records, replacing records of previous request.
+	 * 
+	 * @param buf    request bytes
+	 * @param offset offset of request
+	 * @param length length of request
+	 * @return number of data points in request
+	 * @throws IllegalArgumentException malformed request
+	 */
+	int decode(byte[] buf, int offset, int length) {
+		this.buf = buf;
+		this.view = ByteBuffer.wrap(buf);
+		this.pos = offset;
+		this.recordsLength = 0;
+		this.recordCount = 0;
+		this.skipped = 0;
+		this.now = System.currentTimeMillis();
+		this.journal.clear();
+		try {
+			int end = offset + length;
+			while (this.pos < end) {
+				int tag = (int) readVarint(end);
+				if (tag == fieldTag(1, WIRE_LENGTH)) {
+					int resourceMetricsEnd = readLength(end);
+					decodeResourceMetrics(this.pos, resourceMetricsEnd);
+					this.pos = resourceMetricsEnd;
+				} else {
+					skip(tag, end);
+				}
+			}
+			return this.recordCount + this.skipped;
+		} finally {
+			this.buf = null;
+			this.view = null;
+		}
+	}
+
+	/**
+	 * Return records buffer, valid from 0 to {@link #recordsLength()}.
+	 * 
+	 * @return records
+	 */
+	byte[] records() {
+		return this.records;
+	}
+
+	/**
+	 * Return length of records decoded.
+	 * 
+	 * @return records length
+	 */
+	int recordsLength() {
+		return this.recordsLength;
+	}
+
+	/**
+	 * Return number of records decoded.
+	 * 
+	 * @return record count
+	 */
+	int recordCount() {
+		return this.recordCount;
+	}
+
+	/**
+	 * Roll back cumulative state of records of last request not accepted by
+	 * write.
+	 * 
+	 * @param accepted number of records accepted from head of records
+	 */
+	void rollback(int accepted) {
+		this.journal.rollback(accepted);
+	}
+
+	/**
+	 * Return number of data points skipped(no recorded value, invalid buckets,
+	 * unsupported type or temporality, or first point of cumulative series).
+	 * 
+	 * @return skipped data points
+	 */
+	int skipped() {
+		return this.skipped;
+	}
+
+	private void decodeResourceMetrics(int start, int end) {
+		// resource first, scope metrics may be encoded before resource
+		this.resource.clear();
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(1, WIRE_LENGTH)) {
+				int resourceEnd = readLength(end);
+				decodeAttributes(resourceEnd, 1, this.resource);
+				this.pos = resourceEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+		this.pos = start;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(2, WIRE_LENGTH)) {
+				int scopeMetricsEnd = readLength(end);
+				decodeScopeMetrics(scopeMetricsEnd);
+				this.pos = scopeMetricsEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+	}
+
+	private void decodeScopeMetrics(int end) {
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(2, WIRE_LENGTH)) {
+				int metricEnd = readLength(end);
+				decodeMetric(this.pos, metricEnd);
+				this.pos = metricEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+	}
+
+	private void decodeMetric(int start, int end) {
+		this.nameStart = -1;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(1, WIRE_LENGTH)) {
+				int nameEnd = readLength(end);
+				this.nameStart = this.pos;
+				this.nameEnd = nameEnd;
+				this.pos = nameEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+		boolean named = this.nameStart >= 0 && this.nameEnd > this.nameStart;
+		this.pos = start;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if ((tag & 7) != WIRE_LENGTH) {
+				skip(tag, end);
+				continue;
+			}
+			int dataEnd = readLength(end);
+			int field = tag >>> 3;
+			if (!named) {
+				this.skipped += countPoints(dataEnd);
+			} else if (field == 5) {
+				// gauge
+				decodeNumberPoints(dataEnd, SimpleFieldType.Last, false);
+			} else if (field == 7) {
+				decodeSum(this.pos, dataEnd);
+			} else if (field == 9) {
+				decodeHistogram(this.pos, dataEnd);
+			} else if (field == 10 || field == 11) {
+				// exponential histogram, summary
+				this.skipped += countPoints(dataEnd);
+			}
+			this.pos = dataEnd;
+		}
+	}
+
+	private void decodeSum(int start, int end) {
+		long temporality = 0;
+		boolean monotonic = false;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(2, WIRE_VARINT)) {
+				temporality = readVarint(end);
+			} else if (tag == fieldTag(3, WIRE_VARINT)) {
+				monotonic = readVarint(end) != 0;
+			} else {
+				skip(tag, end);
+			}
+		}
+		this.pos = start;
+		if (temporality == TEMPORALITY_DELTA) {
+			decodeNumberPoints(end, SimpleFieldType.DeltaSum, false);
+		} else if (temporality != TEMPORALITY_CUMULATIVE) {
+			this.skipped += countPoints(end);
+		} else if (monotonic) {
+			decodeNumberPoints(end, SimpleFieldType.DeltaSum, true);
+		} else {
+			// up down counter, current level
+			decodeNumberPoints(end, SimpleFieldType.Last, false);
+		}
+	}
+
+	private void decodeHistogram(int start, int end) {
+		long temporality = 0;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(2, WIRE_VARINT)) {
+				temporality = readVarint(end);
+			} else {
+				skip(tag, end);
+			}
+		}
+		this.pos = start;
+		if (temporality == TEMPORALITY_DELTA || temporality == TEMPORALITY_CUMULATIVE) {
+			decodeHistogramPoints(end, temporality == TEMPORALITY_CUMULATIVE);
+		} else {
+			this.skipped += countPoints(end);
+		}
+	}
+
+	private int countPoints(int end) {
+		int points = 0;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(1, WIRE_LENGTH)) {
+				points++;
+			}
+			skip(tag, end);
+		}
+		return points;
+	}
+
+	private void decodeNumberPoints(int end, byte type, boolean cumulative) {
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag != fieldTag(1, WIRE_LENGTH)) {
+				skip(tag, end);
+				continue;
+			}
+			int pointEnd = readLength(end);
+			this.attributes.clear();
+			this.exemplars = 0;
+			long timestamp = 0;
+			double value = Double.NaN;
+			long flags = 0;
+			while (this.pos < pointEnd) {
+				int pointTag = (int) readVarint(pointEnd);
+				if (pointTag == fieldTag(7, WIRE_LENGTH)) {
+					int kvEnd = readLength(pointEnd);
+					decodeKeyValue(kvEnd, this.attributes);
+					this.pos = kvEnd;
+				} else if (pointTag == fieldTag(3, WIRE_FIXED64)) {
+					timestamp = readFixed64(pointEnd);
+				} else if (pointTag == fieldTag(4, WIRE_FIXED64)) {
+					value = readDouble(pointEnd);
+				} else if (pointTag == fieldTag(6, WIRE_FIXED64)) {
+					value = readFixed64(pointEnd);
+				} else if (pointTag == fieldTag(5, WIRE_LENGTH)) {
+					int exemplarEnd = readLength(pointEnd);
+					decodeExemplar(exemplarEnd);
+					this.pos = exemplarEnd;
+				} else if (pointTag == fieldTag(8, WIRE_VARINT)) {
+					flags = readVarint(pointEnd);
+				} else {
+					skip(pointTag, pointEnd);
+				}
+			}
+			if ((flags & FLAG_NO_RECORDED_VALUE) != 0 || Double.isNaN(value)) {
+				this.skipped++;
+				continue;
+			}
+			if (cumulative) {
+				this.cumulative[0] = value;
+				if (!delta(seriesKey(SUM_SERIES), 1)) {
+					this.skipped++;
+					continue;
+				}
+				value = this.cumulative[0];
+			}
+			encodeSimple(timestamp / 1_000_000, type, value);
+		}
+	}
+
+	private void decodeHistogramPoints(int end, boolean cumulative) {
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag != fieldTag(1, WIRE_LENGTH)) {
+				skip(tag, end);
+				continue;
+			}
+			int pointEnd = readLength(end);
+			this.attributes.clear();
+			this.exemplars = 0;
+			this.boundsSize = 0;
+			this.countsSize = 0;
+			long timestamp = 0;
+			double count = 0;
+			double sum = 0;
+			double min = 0;
+			double max = 0;
+			long flags = 0;
+			while (this.pos < pointEnd) {
+				int pointTag = (int) readVarint(pointEnd);
+				switch (pointTag) {
+				case 9 << 3 | WIRE_LENGTH:
+					int kvEnd = readLength(pointEnd);
+					decodeKeyValue(kvEnd, this.attributes);
+					this.pos = kvEnd;
+					break;
+				case 3 << 3 | WIRE_FIXED64:
+					timestamp = readFixed64(pointEnd);
+					break;
+				case 4 << 3 | WIRE_FIXED64:
+					count = readFixed64(pointEnd);
+					break;
+				case 5 << 3 | WIRE_FIXED64:
+					sum = readDouble(pointEnd);
+					break;
+				case 6 << 3 | WIRE_LENGTH:
+					// packed bucket counts
+					int countsEnd = readLength(pointEnd);
+					while (this.pos < countsEnd) {
+						addCount(readFixed64(countsEnd));
+					}
+					break;
+				case 6 << 3 | WIRE_FIXED64:
+					addCount(readFixed64(pointEnd));
+					break;
+				case 7 << 3 | WIRE_LENGTH:
+					// packed explicit bounds
+					int boundsEnd = readLength(pointEnd);
+					while (this.pos < boundsEnd) {
+						addBound(readDouble(boundsEnd));
+					}
+					break;
+				case 7 << 3 | WIRE_FIXED64:
+					addBound(readDouble(pointEnd));
+					break;
+				case 8 << 3 | WIRE_LENGTH:
+					int exemplarEnd = readLength(pointEnd);
+					decodeExemplar(exemplarEnd);
+					this.pos = exemplarEnd;
+					break;
+				case 10 << 3 | WIRE_VARINT:
+					flags = readVarint(pointEnd);
+					break;
+				case 11 << 3 | WIRE_FIXED64:
+					min = readDouble(pointEnd);
+					break;
+				case 12 << 3 | WIRE_FIXED64:
+					max = readDouble(pointEnd);
+					break;
+				default:
+					skip(pointTag, pointEnd);
+					break;
+				}
+			}
+			if (this.countsSize == 0 && this.boundsSize == 0) {
+				// no buckets, all in one +Inf bucket
+				addCount(count);
+			}
+			if ((flags & FLAG_NO_RECORDED_VALUE) != 0 || this.countsSize != this.boundsSize + 1) {
+				this.skipped++;
+				continue;
+			}
+			addBound(Double.POSITIVE_INFINITY);
+			if (cumulative) {
+				int length = this.countsSize + 2;
+				if (this.cumulative.length < length) {
+					this.cumulative = new double[length * 2];
+				}
+				this.cumulative[0] = count;
+				this.cumulative[1] = sum;
+				System.arraycopy(this.counts, 0, this.cumulative, 2, this.countsSize);
+				long key = seriesKey(HISTOGRAM_SERIES);
+				for (int i = 0; i < this.boundsSize; i++) {
+					// bucket layout changed means new series state
+					key = Hashing.hash(key, Double.doubleToLongBits(this.bounds[i]));
+				}
+				if (!delta(key, length)) {
+					this.skipped++;
+					continue;
+				}
+				count = this.cumulative[0];
+				sum = this.cumulative[1];
+				System.arraycopy(this.cumulative, 2, this.counts, 0, this.countsSize);
+				min = 0;
+				max = 0;
+			}
+			encodeCompound(timestamp / 1_000_000, count, sum, min, max);
+		}
+	}
+
+	/**
+	 * Convert cumulative values of current point into deltas in place, journaled
+	 * by index of the record to be written.
+	 */
+	private boolean delta(long key, int length) {
+		return this.journal.deltas(this.recordCount, key, this.cumulative, length, this.now);
+	}
+
+	/**
+	 * Hash series identity of current point, tags combined independent of
+	 * attribute order.
+	 */
+	private long seriesKey(long kind) {
+		long h = Hashing.hash(Hashing.SEED, kind);
+		h = Hashing.hash(h, this.namespace.array(), 0, this.namespace.capacity());
+		h = Hashing.hash(h, this.buf, this.nameStart, this.nameEnd);
+		long tags = 0;
+		for (int i = 0; i < this.attributes.size(); i++) {
+			tags += Hashing.mix(this.attributes.hash(i));
+		}
+		for (int i = 0; i < this.resource.size(); i++) {
+			if (!this.attributes.containsKey(this.resource, i)) {
+				tags += Hashing.mix(this.resource.hash(i));
+			}
+		}
+		return Hashing.hash(h, tags);
+	}
+
+	private void addCount(double count) {
+		if (this.countsSize == this.counts.length) {
+			this.counts = Arrays.copyOf(this.counts, this.countsSize * 2);
+		}
+		this.counts[this.countsSize++] = count;
+	}
+
+	private void addBound(double bound) {
+		if (this.boundsSize == this.bounds.length) {
+			this.bounds = Arrays.copyOf(this.bounds, this.boundsSize * 2);
+		}
+		this.bounds[this.boundsSize++] = bound;
+	}
+
+	private void decodeExemplar(int end) {
+		int spanStart = 0;
+		int spanEnd = 0;
+		int traceStart = 0;
+		int traceEnd = 0;
+		double value = 0;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(4, WIRE_LENGTH)) {
+				spanEnd = readLength(end);
+				spanStart = this.pos;
+				this.pos = spanEnd;
+			} else if (tag == fieldTag(5, WIRE_LENGTH)) {
+				traceEnd = readLength(end);
+				traceStart = this.pos;
+				this.pos = traceEnd;
+			} else if (tag == fieldTag(3, WIRE_FIXED64)) {
+				value = readDouble(end);
+			} else if (tag == fieldTag(6, WIRE_FIXED64)) {
+				value = readFixed64(end);
+			} else {
+				skip(tag, end);
+			}
+		}
+		if (spanEnd == spanStart && traceEnd == traceStart) {
+			// exemplar without trace
+			return;
+		}
+		if (this.exemplars == this.exemplarValues.length) {
+			this.exemplarValues = Arrays.copyOf(this.exemplarValues, this.exemplars * 2);
+			this.exemplarIds = Arrays.copyOf(this.exemplarIds, this.exemplars * 8);
+		}
+		int idx = this.exemplars * 4;
+		this.exemplarIds[idx] = spanStart;
+		this.exemplarIds[idx + 1] = spanEnd;
+		this.exemplarIds[idx + 2] = traceStart;
+		this.exemplarIds[idx + 3] = traceEnd;
+		this.exemplarValues[this.exemplars] = value;
+		this.exemplars++;
+	}
+
+	/**
+	 * Decode repeated KeyValue field of message into tags.
+	 */
+	private void decodeAttributes(int end, int field, Tags tags) {
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(field, WIRE_LENGTH)) {
+				int kvEnd = readLength(end);
+				decodeKeyValue(kvEnd, tags);
+				this.pos = kvEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+	}
+
+	private void decodeKeyValue(int end, Tags tags) {
+		int keyStart = 0;
+		int keyEnd = 0;
+		int valueStart = -1;
+		int valueEnd = -1;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(1, WIRE_LENGTH)) {
+				keyEnd = readLength(end);
+				keyStart = this.pos;
+				this.pos = keyEnd;
+			} else if (tag == fieldTag(2, WIRE_LENGTH)) {
+				valueEnd = readLength(end);
+				valueStart = this.pos;
+				this.pos = valueEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+		if (keyEnd == keyStart || valueStart < 0) {
+			return;
+		}
+		// AnyValue
+		this.pos = valueStart;
+		while (this.pos < valueEnd) {
+			int tag = (int) readVarint(valueEnd);
+			switch (tag) {
+			case 1 << 3 | WIRE_LENGTH:
+				int strEnd = readLength(valueEnd);
+				tags.add(this.buf, keyStart, keyEnd, this.buf, this.pos, strEnd);
+				this.pos = strEnd;
+				break;
+			case 2 << 3 | WIRE_VARINT:
+				byte[] bool = readVarint(valueEnd) != 0 ? Tags.TRUE : Tags.FALSE;
+				tags.add(this.buf, keyStart, keyEnd, bool, 0, bool.length);
+				break;
+			case 3 << 3 | WIRE_VARINT:
+				byte[] intValue = Long.toString(readVarint(valueEnd)).getBytes(StandardCharsets.US_ASCII);
+				tags.add(this.buf, keyStart, keyEnd, intValue, 0, intValue.length);
+				break;
+			case 4 << 3 | WIRE_FIXED64:
+				byte[] doubleValue = Double.toString(readDouble(valueEnd)).getBytes(StandardCharsets.US_ASCII);
+				tags.add(this.buf, keyStart, keyEnd, doubleValue, 0, doubleValue.length);
+				break;
+			default:
+				// array, kvlist and bytes values are not supported as tag
+				skip(tag, valueEnd);
+				break;
+			}
+		}
+	}
+
+	private void encodeSimple(long timestamp, byte type, double value) {
+		this.fb.clear();
+		int nameOffset = createString(this.view, this.nameStart, this.nameEnd);
+		int namespaceOffset = createString(this.namespace, 0, this.namespace.capacity());
+		int keyValuesOffset = writeTags();
+		int exemplarsOffset = writeExemplars();
+		int fieldNameOffset = createString(this.fieldName, 0, this.fieldName.capacity());
+		SimpleField.startSimpleField(this.fb);
+		SimpleField.addName(this.fb, fieldNameOffset);
+		SimpleField.addType(this.fb, type);
+		SimpleField.addValue(this.fb, value);
+		if (exemplarsOffset != 0) {
+			SimpleField.addExemplars(this.fb, exemplarsOffset);
+		}
+		int fieldOffset = SimpleField.endSimpleField(this.fb);
+		Metric.startSimpleFieldsVector(this.fb, 1);
+		this.fb.addOffset(fieldOffset);
+		int fieldsOffset = this.fb.endVector();
+
+		Metric.startMetric(this.fb);
+		Metric.addNamespace(this.fb, namespaceOffset);
+		Metric.addName(this.fb, nameOffset);
+		Metric.addTimestamp(this.fb, timestamp);
+		if (keyValuesOffset != 0) {
+			Metric.addKeyValues(this.fb, keyValuesOffset);
+		}
+		Metric.addHash(this.fb, 1000);
+		Metric.addSimpleFields(this.fb, fieldsOffset);
+		finish();
+	}
+
+	private void encodeCompound(long timestamp, double count, double sum, double min, double max) {
+		this.fb.clear();
+		int nameOffset = createString(this.view, this.nameStart, this.nameEnd);
+		int namespaceOffset = createString(this.namespace, 0, this.namespace.capacity());
+		int keyValuesOffset = writeTags();
+		int exemplarsOffset = writeExemplars();
+		CompoundField.startExplicitBoundsVector(this.fb, this.boundsSize);
+		for (int i = this.boundsSize - 1; i >= 0; i--) {
+			this.fb.addDouble(this.bounds[i]);
+		}
+		int boundsOffset = this.fb.endVector();
+		CompoundField.startValuesVector(this.fb, this.countsSize);
+		for (int i = this.countsSize - 1; i >= 0; i--) {
+			this.fb.addDouble(this.counts[i]);
+		}
+		int valuesOffset = this.fb.endVector();
+		CompoundField.startCompoundField(this.fb);
+		CompoundField.addCount(this.fb, count);
+		CompoundField.addSum(this.fb, sum);
+		CompoundField.addMin(this.fb, min);
+		CompoundField.addMax(this.fb, max);
+		CompoundField.addExplicitBounds(this.fb, boundsOffset);
+		CompoundField.addValues(this.fb, valuesOffset);
+		if (exemplarsOffset != 0) {
+			CompoundField.addExemplars(this.fb, exemplarsOffset);
+		}
+		int compoundOffset = CompoundField.endCompoundField(this.fb);
+
+		Metric.startMetric(this.fb);
+		Metric.addNamespace(this.fb, namespaceOffset);
+		Metric.addName(this.fb, nameOffset);
+		Metric.addTimestamp(this.fb, timestamp);
+		if (keyValuesOffset != 0) {
+			Metric.addKeyValues(this.fb, keyValuesOffset);
+		}
+		Metric.addHash(this.fb, 1000);
+		Metric.addCompoundField(this.fb, compoundOffset);
+		finish();
+	}
+
+	/**
+	 * Write data point attributes and resource attributes not overridden.
+	 */
+	private int writeTags() {
+		int size = 0;
+		int max = this.attributes.size() + this.resource.size();
+		if (max == 0) {
+			return 0;
+		}
+		if (this.tagOffsets.length < max) {
+			this.tagOffsets = new int[max * 2];
+		}
+		for (int i = 0; i < this.attributes.size(); i++) {
+			this.tagOffsets[size++] = this.attributes.write(this.fb, i);
+		}
+		for (int i = 0; i < this.resource.size(); i++) {
+			if (!this.attributes.containsKey(this.resource, i)) {
+				this.tagOffsets[size++] = this.resource.write(this.fb, i);
+			}
+		}
+		Metric.startKeyValuesVector(this.fb, size);
+		for (int i = size - 1; i >= 0; i--) {
+			this.fb.addOffset(this.tagOffsets[i]);
+		}
+		return this.fb.endVector();
+	}
+
+	private int writeExemplars() {
+		if (this.exemplars == 0) {
+			return 0;
+		}
+		if (this.exemplarOffsets.length < this.exemplars) {
+			this.exemplarOffsets = new int[this.exemplars * 2];
+		}
+		for (int i = 0; i < this.exemplars; i++) {
+			int idx = i * 4;
+			int spanOffset = createBytes(this.exemplarIds[idx], this.exemplarIds[idx + 1]);
+			int traceOffset = createBytes(this.exemplarIds[idx + 2], this.exemplarIds[idx + 3]);
+			Exemplar.startExemplar(this.fb);
+			Exemplar.addSpanId(this.fb, spanOffset);
+			Exemplar.addTraceId(this.fb, traceOffset);
+			Exemplar.addDuration(this.fb, (long) this.exemplarValues[i]);
+			this.exemplarOffsets[i] = Exemplar.endExemplar(this.fb);
+		}
+		this.fb.startVector(4, this.exemplars, 4);
+		for (int i = this.exemplars - 1; i >= 0; i--) {
+			this.fb.addOffset(this.exemplarOffsets[i]);
+		}
+		return this.fb.endVector();
+	}
+
+	private int createBytes(int start, int end) {
+		position(this.view, start, end);
+		return this.fb.createByteVector(this.view);
+	}
+
+	private int createString(ByteBuffer bytes, int start, int end) {
+		position(bytes, start, end);
+		return this.fb.createString(bytes);
+	}
+
+	private void finish() {
+		this.fb.finishSizePrefixed(Metric.endMetric(this.fb));
+		ByteBuffer data = this.fb.dataBuffer();
+		int size = data.remaining();
+		if (this.recordsLength + size > this.records.length) {
+			this.records = Arrays.copyOf(this.records, Math.max(this.records.length * 2, this.recordsLength + size));
+		}
+		data.get(this.records, this.recordsLength, size);
+		this.recordsLength += size;
+		this.recordCount++;
+	}
+
+	private static void position(ByteBuffer bytes, int start, int end) {
+		((Buffer) bytes).clear();
+		((Buffer) bytes).position(start);
+		((Buffer) bytes).limit(end);
+	}
+
+	/**
+	 * Tag key/value UTF-8 bytes copied into one buffer.
+	 */
+	private final static class Tags {
+		private final static byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+		private final static byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+		private byte[] bytes = new byte[1024];
+		private ByteBuffer view = ByteBuffer.wrap(this.bytes);
+		private int length;
+		// key start, value start(key end), value end of each tag
+		private int[] offsets = new int[48];
+		private int size;
+
+		private void clear() {
+			this.length = 0;
+			this.size = 0;
+		}
+
+		private int size() {
+			return this.size;
+		}
+
+		private void add(byte[] key, int keyStart, int keyEnd, byte[] value, int valueStart, int valueEnd) {
+			if (valueEnd == valueStart) {
+				return;
+			}
+			int keyLength = keyEnd - keyStart;
+			int valueLength = valueEnd - valueStart;
+			if (this.length + keyLength + valueLength > this.bytes.length) {
+				this.bytes = Arrays.copyOf(this.bytes,
+						Math.max(this.bytes.length * 2, this.length + keyLength + valueLength));
+				this.view = ByteBuffer.wrap(this.bytes);
+			}
+			if (this.size * 3 == this.offsets.length) {
+				this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+			}
+			int idx = this.size * 3;
+			this.offsets[idx] = this.length;
+			System.arraycopy(key, keyStart, this.bytes, this.length, keyLength);
+			this.length += keyLength;
+			this.offsets[idx + 1] = this.length;
+			System.arraycopy(value, valueStart, this.bytes, this.length, valueLength);
+			this.length += valueLength;
+			this.offsets[idx + 2] = this.length;
+			this.size++;
+		}
+
+		private boolean containsKey(Tags other, int index) {
+			int otherStart = other.offsets[index * 3];
+			int otherLength = other.offsets[index * 3 + 1] - otherStart;
+			for (int i = 0; i < this.size; i++) {
+				int start = this.offsets[i * 3];
+				if (this.offsets[i * 3 + 1] - start != otherLength) {
+					continue;
+				}
+				int j = 0;
+				while (j < otherLength && this.bytes[start + j] == other.bytes[otherStart + j]) {
+					j++;
+				}
+				if (j == otherLength) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private long hash(int index) {
+			int idx = index * 3;
+			long h = Hashing.hash(Hashing.SEED, this.bytes, this.offsets[idx], this.offsets[idx + 1]);
+			return Hashing.hash(h, this.bytes, this.offsets[idx + 1], this.offsets[idx + 2]);
+		}
+
+		private int write(FlatBufferBuilder fb, int index) {
+			int idx = index * 3;
+			position(this.view, this.offsets[idx], this.offsets[idx + 1]);
+			int keyOffset = fb.createString(this.view);
+			position(this.view, this.offsets[idx + 1], this.offsets[idx + 2]);
+			int valueOffset = fb.createString(this.view);
+			return KeyValue.createKeyValue(fb, keyOffset, valueOffset);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.api.Point;
+import io.lindb.client.api.Write;
+
+/**
+ * Prometheus remote-write receiver, accepts snappy compressed remote-write
+ * protobuf requests over http and forwards samples into {@link Write}.
+ *
+ * Each handler thread owns its request/uncompressed buffers and decoder, the
+ * decoded points of one request are put into write pipeline with one
+ * {@link Write#putAll(java.util.Collection, long, TimeUnit)} handoff and
+ * encoded in batches by write. If write pipeline cannot take all points in put
+ * timeout, responds 503 so that Prometheus retries the request and the rest
+ * points are counted as rejected. Samples are last values or cumulative, so
+ * retried points already accepted are rewritten unchanged or converted into
+ * zero deltas.
+ */
+public final class PrometheusBridge extends HttpBridge {
+	public final static int DEFAULT_PORT = 9201;
+	public final static String DEFAULT_PATH = "/api/v1/write";
+
+	/**
+	 * Prometheus bridge builder.
+	 */
+	@NotThreadSafe
+	public static class Builder extends HttpBridge.Builder<Builder> {
+
+		private Builder(Write write) {
+			super(write, DEFAULT_PORT, DEFAULT_PATH);
+		}
+
+		/**
+		 * Return the bridge with setting, call {@link PrometheusBridge#start()} to
+		 * listen.
+		 * 
+		 * @return prometheus bridge
+		 */
+		public PrometheusBridge build() {
+			return new PrometheusBridge(this);
+		}
+	}
+
+	/**
+	 * Uncompressed buffer and decoder of one handler thread.
+	 */
+	private final class Handler {
+		private final RemoteWriteDecoder decoder = new RemoteWriteDecoder(fieldName, converter);
+		private final List<Point> points = new ArrayList<>();
+		private byte[] raw = new byte[INITIAL_BUFFER_SIZE];
+	}
+
+	private final ThreadLocal<Handler> handlers = ThreadLocal.withInitial(Handler::new);
+
+	private PrometheusBridge(Builder builder) {
+		super(builder, "prom", 204, null);
+	}
+
+	/**
+	 * Create bridge builder forwarding samples into write.
+	 * 
+	 * @param write write pipeline, shared with other producers
+	 * @return builder
+	 */
+	public static Builder builder(Write write) {
+		Preconditions.checkNotNull(write, "write cannot be null");
+		return new Builder(write);
+	}
+
+	/**
+	 * Return number of samples received.
+	 * 
+	 * @return samples
+	 */
+	public long getSamples() {
+		return this.received.sum();
+	}
+
+	/**
+	 * Return number of histograms skipped, first samples of series only
+	 * initializing cumulative state.
+	 * 
+	 * @return skipped histograms
+	 */
+	public long getSkippedHistograms() {
+		return this.skipped.sum();
+	}
+
+	/**
+	 * Return number of points put into write.
+	 * 
+	 * @return points
+	 */
+	public long getPoints() {
+		return this.accepted.sum();
+	}
+
+	/**
+	 * Return number of points rejected by write(queue full), rest points of
+	 * partially accepted requests are counted before the request is retried.
+	 * 
+	 * @return rejected points
+	 */
+	public long getRejectedPoints() {
+		return this.rejected.sum();
+	}
+
+	@Override
+	boolean supports(String contentType, String encoding) {
+		return encoding == null || "snappy".equalsIgnoreCase(encoding);
+	}
+
+	/**
+	 * Uncompress request body, decode and put points into write.
+	 */
+	@Override
+	int write(byte[] body, int length) throws InterruptedException {
+		Handler handler = this.handlers.get();
+		int rawLength = Snappy.uncompressedLength(body, 0, length);
+		if (rawLength > this.maxBodyBytes) {
+			throw new IllegalArgumentException("uncompressed body too large: " + rawLength);
+		}
+		if (handler.raw.length < rawLength) {
+			handler.raw = new byte[Math.max(rawLength, handler.raw.length * 2)];
+		}
+		Snappy.uncompress(body, 0, length, handler.raw);
+		List<Point> decoded = handler.points;
+		int put = 0;
+		try {
+			this.received.add(handler.decoder.decode(handler.raw, 0, rawLength, decoded));
+			this.skipped.add(handler.decoder.skipped());
+			if (decoded.isEmpty()) {
+				return 204;
+			}
+			put = this.write.putAll(decoded, this.putTimeout, TimeUnit.MILLISECONDS);
+			return status(decoded.size(), put);
+		} finally {
+			// histograms not put are converted again when request retried
+			handler.decoder.rollback(put);
+			decoded.clear();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+/**
+ * Protobuf wire format reader over a byte array, message fields are walked in
+ * place by decoders extending it, so no message objects are built.
+ */
+abstract class ProtoReader {
+	final static int WIRE_VARINT = 0;
+	final static int WIRE_FIXED64 = 1;
+	final static int WIRE_LENGTH = 2;
+	final static int WIRE_FIXED32 = 5;
+
+	byte[] buf;
+	int pos;
+
+	/**
+	 * Return tag of field number and wire type.
+	 */
+	static int fieldTag(int field, int wireType) {
+		return field << 3 | wireType;
+	}
+
+	long readVarint(int end) {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (this.pos >= end) {
+				throw new IllegalArgumentException("protobuf: truncated varint");
+			}
+			byte b = this.buf[this.pos++];
+			result |= (long) (b & 0x7f) << shift;
+			if (b >= 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("protobuf: malformed varint");
+	}
+
+	long readFixed64(int end) {
+		if (this.pos + 8 > end) {
+			throw new IllegalArgumentException("protobuf: truncated fixed64");
+		}
+		long result = 0;
+		for (int i = 7; i >= 0; i--) {
+			result = (result << 8) | (this.buf[this.pos + i] & 0xff);
+		}
+		this.pos += 8;
+		return result;
+	}
+
+	double readDouble(int end) {
+		return Double.longBitsToDouble(readFixed64(end));
+	}
+
+	/**
+	 * Read length of length delimited field, returns end offset of field.
+	 */
+	int readLength(int end) {
+		long length = readVarint(end);
+		if (length < 0 || length > end - this.pos) {
+			throw new IllegalArgumentException("protobuf: truncated message");
+		}
+		return this.pos + (int) length;
+	}
+
+	void skip(int tag, int end) {
+		switch (tag & 7) {
+		case WIRE_VARINT:
+			readVarint(end);
+			break;
+		case WIRE_FIXED64:
+			if (this.pos + 8 > end) {
+				throw new IllegalArgumentException("protobuf: truncated fixed64");
+			}
+			this.pos += 8;
+			break;
+		case WIRE_LENGTH:
+			this.pos = readLength(end);
+			break;
+		case WIRE_FIXED32:
+			if (this.pos + 4 > end) {
+				throw new IllegalArgumentException("protobuf: truncated fixed32");
+			}
+			this.pos += 4;
+			break;
+		default:
+			throw new IllegalArgumentException("protobuf: unsupported wire type " + (tag & 7));
+		}
+	}
+}
@@ -0,0 +1,476 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.lindb.client.api.DeltaConverter;
+import io.lindb.client.api.Point;
+import io.lindb.client.internal.Hashing;
+
+/**
+ * Decode Prometheus remote-write request(protobuf) into points, walking the
+ * wire format directly without building intermediate message objects.
+ *
+ * Each sample becomes a point with one field, counters(name with _total
+ * suffix) are written as cumulative sum and others as last. Samples of
+ * histogram _bucket series are folded with _sum/_count series of same labels
+ * and timestamp into one point with compound field, bucket values converted
+ * from cumulative(le) counts into per bucket counts. Histogram values are
+ * cumulative over time, so count, sum and bucket counts are converted into
+ * deltas per series(labels and bucket bounds), the first sample of a series
+ * only initializes the state and is not written. Conversions of histograms not
+ * accepted by write are rolled back with {@link #rollback(int)}, so that a
+ * retried request writes the same deltas.
+ *
+ * Label strings are cached by bytes, so repeated label names/values of
+ * following series and requests are not decoded again.
+ */
+@NotThreadSafe
+final class RemoteWriteDecoder extends ProtoReader {
+	final static String NAME_LABEL = "__name__";
+	final static String BUCKET_LABEL = "le";
+	private final static String BUCKET_SUFFIX = "_bucket";
+	private final static String SUM_SUFFIX = "_sum";
+	private final static String COUNT_SUFFIX = "_count";
+	private final static String TOTAL_SUFFIX = "_total";
+	private final static int CACHE_SIZE = 4096;
+	private final static int MAX_CACHED_LENGTH = 128;
+
+	private final String fieldName;
+	private final DeltaJournal journal;
+	private final byte[][] cachedBytes = new byte[CACHE_SIZE][];
+	private final String[] cachedStrings = new String[CACHE_SIZE];
+	private final Map<String, String> tags = new HashMap<>();
+	// insertion order keeps samples of a series in time order for conversion
+	private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+	private final List<Histogram> pending = new ArrayList<>();
+	private final StringBuilder key = new StringBuilder();
+	private String[] labelNames = new String[16];
+	private String[] labelValues = new String[16];
+	private double[] cumulative = new double[32];
+	private int labels;
+	private int samples;
+	private int skipped;
+
+	/**
+	 * Create decoder.
+	 * 
+	 * @param fieldName field name of sample value
+	 * @param converter cumulative histogram state shared by decoders, guarded by
+	 *                  itself
+	 */
+	RemoteWriteDecoder(String fieldName, DeltaConverter converter) {
+		this.fieldName = fieldName;
+		this.journal = new DeltaJournal(converter);
+	}
+
+	/**
+	 * Decode write request into points.
+	 * 
+	 * @param buf    request bytes(uncompressed)
+	 * @param offset offset of request
+	 * @param length length of request
+	 * @param points decoded points appended to
+	 * @return number of samples in request
+	 * @throws IllegalArgumentException malformed request
+	 */
+	int decode(byte[] buf, int offset, int length, List<Point> points) {
+		this.buf = buf;
+		this.pos = offset;
+		this.samples = 0;
+		this.skipped = 0;
+		this.histograms.clear();
+		this.pending.clear();
+		this.journal.clear();
+		try {
+			int end = offset + length;
+			while (this.pos < end) {
+				int tag = (int) readVarint(end);
+				if (tag == fieldTag(1, WIRE_LENGTH)) {
+					int seriesEnd = readLength(end);
+					decodeSeries(this.pos, seriesEnd, points);
+					this.pos = seriesEnd;
+				} else {
+					skip(tag, end);
+				}
+			}
+			fold(points);
+			return this.samples;
+		} finally {
+			this.buf = null;
+			this.histograms.clear();
+			this.pending.clear();
+		}
+	}
+
+	/**
+	 * Roll back cumulative state of histograms of last request not accepted by
+	 * write.
+	 * 
+	 * @param accepted number of points accepted from head of decoded points
+	 */
+	void rollback(int accepted) {
+		this.journal.rollback(accepted);
+	}
+
+	/**
+	 * Return number of histograms of last request not written, first samples of
+	 * series only initializing cumulative state.
+	 * 
+	 * @return skipped histograms
+	 */
+	int skipped() {
+		return this.skipped;
+	}
+
+	private void decodeSeries(int start, int end, List<Point> points) {
+		// labels first, samples may be encoded before labels
+		this.labels = 0;
+		this.pos = start;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(1, WIRE_LENGTH)) {
+				int labelEnd = readLength(end);
+				decodeLabel(labelEnd);
+				this.pos = labelEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+		String name = null;
+		String bucket = null;
+		this.tags.clear();
+		for (int i = 0; i < this.labels; i++) {
+			String labelName = this.labelNames[i];
+			String labelValue = this.labelValues[i];
+			if (NAME_LABEL.equals(labelName)) {
+				name = labelValue;
+			} else if (BUCKET_LABEL.equals(labelName)) {
+				bucket = labelValue;
+			} else {
+				this.tags.put(labelName, labelValue);
+			}
+		}
+		if (name == null || name.isEmpty()) {
+			// series without metric name, count samples only
+			countSamples(start, end);
+			return;
+		}
+		if (bucket != null && name.endsWith(BUCKET_SUFFIX)) {
+			double bound = parseBound(bucket);
+			if (!Double.isNaN(bound)) {
+				decodeSamples(start, end, name.substring(0, name.length() - BUCKET_SUFFIX.length()), bound,
+						points);
+				return;
+			}
+		}
+		if (bucket != null) {
+			// le of non bucket series is normal tag
+			this.tags.put(BUCKET_LABEL, bucket);
+		}
+		decodeSamples(start, end, name, Double.NaN, points);
+	}
+
+	private void decodeSamples(int start, int end, String name, double bound, List<Point> points) {
+		this.pos = start;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag != fieldTag(2, WIRE_LENGTH)) {
+				skip(tag, end);
+				continue;
+			}
+			int sampleEnd = readLength(end);
+			double value = Double.NaN;
+			long timestamp = 0;
+			while (this.pos < sampleEnd) {
+				int sampleTag = (int) readVarint(sampleEnd);
+				if (sampleTag == fieldTag(1, WIRE_FIXED64)) {
+					value = readDouble(sampleEnd);
+				} else if (sampleTag == fieldTag(2, WIRE_VARINT)) {
+					timestamp = readVarint(sampleEnd);
+				} else {
+					skip(sampleTag, sampleEnd);
+				}
+			}
+			this.samples++;
+			if (Double.isNaN(value)) {
+				// stale marker or missing value
+				continue;
+			}
+			if (!Double.isNaN(bound)) {
+				histogram(name, timestamp).addBucket(bound, value);
+			} else if (name.endsWith(SUM_SUFFIX) || name.endsWith(COUNT_SUFFIX)) {
+				this.pending.add(new Histogram(name, this.tags, labelsKey(true).toString(), timestamp, value));
+			} else {
+				Point.Builder builder = Point.builder(name, timestamp).addTags(this.tags);
+				if (name.endsWith(TOTAL_SUFFIX)) {
+					builder.addCumulativeSum(this.fieldName, value);
+				} else {
+					builder.addLast(this.fieldName, value);
+				}
+				points.add(builder.build());
+			}
+		}
+	}
+
+	private void countSamples(int start, int end) {
+		this.pos = start;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(2, WIRE_LENGTH)) {
+				this.samples++;
+			}
+			skip(tag, end);
+		}
+	}
+
+	private Histogram histogram(String name, long timestamp) {
+		CharSequence labelsKey = labelsKey(false);
+		String histogramKey = histogramKey(name, labelsKey, timestamp);
+		Histogram histogram = this.histograms.get(histogramKey);
+		if (histogram == null) {
+			histogram = new Histogram(name, this.tags, labelsKey.toString(), timestamp, Double.NaN);
+			this.histograms.put(histogramKey, histogram);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Build key of series labels except metric name(and bucket label).
+	 */
+	private CharSequence labelsKey(boolean withBucket) {
+		this.key.setLength(0);
+		for (int i = 0; i < this.labels; i++) {
+			String labelName = this.labelNames[i];
+			if (NAME_LABEL.equals(labelName) || (!withBucket && BUCKET_LABEL.equals(labelName))) {
+				continue;
+			}
+			this.key.append(labelName).append('=').append(this.labelValues[i]).append('\0');
+		}
+		return this.key;
+	}
+
+	/**
+	 * Fold _sum/_count samples into histograms of same series, samples without
+	 * histogram are written as cumulative sum, then write histograms.
+	 */
+	private void fold(List<Point> points) {
+		for (Histogram sample : this.pending) {
+			boolean sum = sample.name.endsWith(SUM_SUFFIX);
+			String base = sample.name.substring(0,
+					sample.name.length() - (sum ? SUM_SUFFIX.length() : COUNT_SUFFIX.length()));
+			Histogram histogram = null;
+			if (!this.histograms.isEmpty()) {
+				histogram = this.histograms.get(histogramKey(base, sample.labels, sample.timestamp));
+			}
+			if (histogram == null) {
+				points.add(Point.builder(sample.name, sample.timestamp).addTags(sample.tags)
+						.addCumulativeSum(this.fieldName, sample.value).build());
+			} else if (sum) {
+				histogram.sum = sample.value;
+			} else {
+				histogram.count = sample.value;
+			}
+		}
+		if (this.histograms.isEmpty()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (Histogram histogram : this.histograms.values()) {
+			Point point = delta(histogram, points.size(), now);
+			if (point == null) {
+				this.skipped++;
+			} else {
+				points.add(point);
+			}
+		}
+	}
+
+	/**
+	 * Convert cumulative count, sum and bucket counts of histogram into deltas
+	 * since last sample of the series, null if the first sample.
+	 */
+	private Point delta(Histogram histogram, int item, long now) {
+		int length = histogram.size + 2;
+		if (this.cumulative.length < length) {
+			this.cumulative = new double[length * 2];
+		}
+		double total = histogram.bucketCounts(this.cumulative, 2);
+		this.cumulative[0] = Double.isNaN(histogram.count) ? total : histogram.count;
+		this.cumulative[1] = histogram.sum;
+		long key = Hashing.hash(Hashing.hash(Hashing.SEED, histogram.name), histogram.labels);
+		for (int i = 0; i < histogram.size; i++) {
+			// bucket layout changed means new series state
+			key = Hashing.hash(key, Double.doubleToLongBits(histogram.bounds[i]));
+		}
+		if (!this.journal.deltas(item, key, this.cumulative, length, now)) {
+			return null;
+		}
+		return histogram.toPoint(this.cumulative);
+	}
+
+	private static String histogramKey(String name, CharSequence labels, long timestamp) {
+		return new StringBuilder(name.length() + labels.length() + 21).append(name).append('\0').append(labels)
+				.append(timestamp).toString();
+	}
+
+	private void decodeLabel(int end) {
+		String name = null;
+		String value = null;
+		while (this.pos < end) {
+			int tag = (int) readVarint(end);
+			if (tag == fieldTag(1, WIRE_LENGTH)) {
+				int strEnd = readLength(end);
+				name = string(this.pos, strEnd - this.pos);
+				this.pos = strEnd;
+			} else if (tag == fieldTag(2, WIRE_LENGTH)) {
+				int strEnd = readLength(end);
+				value = string(this.pos, strEnd - this.pos);
+				this.pos = strEnd;
+			} else {
+				skip(tag, end);
+			}
+		}
+		if (name == null || name.isEmpty() || value == null || value.isEmpty()) {
+			return;
+		}
+		if (this.labels == this.labelNames.length) {
+			this.labelNames = Arrays.copyOf(this.labelNames, this.labels * 2);
+			this.labelValues = Arrays.copyOf(this.labelValues, this.labels * 2);
+		}
+		this.labelNames[this.labels] = name;
+		this.labelValues[this.labels] = value;
+		this.labels++;
+	}
+
+	private String string(int offset, int length) {
+		if (length == 0) {
+			return "";
+		}
+		if (length > MAX_CACHED_LENGTH) {
+			return new String(this.buf, offset, length, StandardCharsets.UTF_8);
+		}
+		int hash = 1;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + this.buf[offset + i];
+		}
+		int index = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+		byte[] cached = this.cachedBytes[index];
+		if (cached != null && cached.length == length) {
+			int i = 0;
+			while (i < length && cached[i] == this.buf[offset + i]) {
+				i++;
+			}
+			if (i == length) {
+				return this.cachedStrings[index];
+			}
+		}
+		byte[] bytes = new byte[length];
+		System.arraycopy(this.buf, offset, bytes, 0, length);
+		String str = new String(bytes, StandardCharsets.UTF_8);
+		this.cachedBytes[index] = bytes;
+		this.cachedStrings[index] = str;
+		return str;
+	}
+
+	private static double parseBound(String bucket) {
+		if ("+Inf".equals(bucket)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		try {
+			return Double.parseDouble(bucket);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * Buckets of one histogram series at one timestamp, also used to hold pending
+	 * _sum/_count sample.
+	 */
+	private final static class Histogram {
+		private final String name;
+		private final Map<String, String> tags;
+		private final String labels;
+		private final long timestamp;
+		private final double value;
+		private double[] bounds = new double[16];
+		private double[] values = new double[16];
+		private int size;
+		private double sum;
+		private double count = Double.NaN;
+
+		private Histogram(String name, Map<String, String> tags, String labels, long timestamp, double value) {
+			this.name = name;
+			this.tags = new HashMap<>(tags);
+			this.labels = labels;
+			this.timestamp = timestamp;
+			this.value = value;
+		}
+
+		private void addBucket(double bound, double value) {
+			if (this.size == this.bounds.length) {
+				this.bounds = Arrays.copyOf(this.bounds, this.size * 2);
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			// buckets are sent in le order, insertion sort otherwise
+			int i = this.size;
+			while (i > 0 && this.bounds[i - 1] > bound) {
+				this.bounds[i] = this.bounds[i - 1];
+				this.values[i] = this.values[i - 1];
+				i--;
+			}
+			this.bounds[i] = bound;
+			this.values[i] = value;
+			this.size++;
+		}
+
+		/**
+		 * Write per bucket counts converted from cumulative le counts into dst
+		 * from offset, returns total count of buckets.
+		 */
+		private double bucketCounts(double[] dst, int offset) {
+			double previous = 0;
+			for (int i = 0; i < this.size; i++) {
+				dst[offset + i] = Math.max(0, this.values[i] - previous);
+				previous = Math.max(previous, this.values[i]);
+			}
+			return previous;
+		}
+
+		/**
+		 * Build point from delta values laid out as count, sum and bucket counts.
+		 */
+		private Point toPoint(double[] deltas) {
+			double[] bucketBounds = Arrays.copyOf(this.bounds, this.size);
+			double[] bucketValues = Arrays.copyOfRange(deltas, 2, this.size + 2);
+			return Point.builder(this.name, this.timestamp).addTags(this.tags)
+					.addHistogram(deltas[0], deltas[1], 0, 0, bucketBounds, bucketValues).build();
+		}
+	}
+}
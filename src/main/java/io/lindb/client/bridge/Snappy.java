@@ -0,0 +1,151 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+/**
+ * Snappy block format decompressor, decodes into caller owned buffer so no
+ * buffer is allocated per request.
+ */
+final class Snappy {
+	private final static int LITERAL = 0;
+	private final static int COPY_1 = 1;
+	private final static int COPY_2 = 2;
+
+	private Snappy() {
+	}
+
+	/**
+	 * Read uncompressed length from the varint header of compressed block.
+	 * 
+	 * @param src    compressed bytes
+	 * @param offset offset of block
+	 * @param length length of block
+	 * @return uncompressed length
+	 * @throws IllegalArgumentException corrupt header
+	 */
+	static int uncompressedLength(byte[] src, int offset, int length) {
+		int end = offset + length;
+		long result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			if (offset >= end) {
+				throw new IllegalArgumentException("snappy: truncated length header");
+			}
+			int b = src[offset++];
+			result |= (long) (b & 0x7f) << shift;
+			if (b >= 0) {
+				if (result > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("snappy: uncompressed length too large");
+				}
+				return (int) result;
+			}
+		}
+		throw new IllegalArgumentException("snappy: malformed length header");
+	}
+
+	/**
+	 * Decompress block into dest, dest must hold at least
+	 * {@link #uncompressedLength(byte[], int, int)} bytes.
+	 * 
+	 * @param src    compressed bytes
+	 * @param offset offset of block
+	 * @param length length of block
+	 * @param dest   destination buffer
+	 * @return uncompressed length
+	 * @throws IllegalArgumentException corrupt block
+	 */
+	static int uncompress(byte[] src, int offset, int length, byte[] dest) {
+		int expected = uncompressedLength(src, offset, length);
+		if (dest.length < expected) {
+			throw new IllegalArgumentException("snappy: destination too small");
+		}
+		int end = offset + length;
+		// skip length header
+		while (src[offset++] < 0) {
+		}
+		int pos = 0;
+		while (offset < end) {
+			int tag = src[offset++] & 0xff;
+			int len;
+			int copyOffset;
+			switch (tag & 3) {
+			case LITERAL:
+				len = tag >>> 2;
+				if (len >= 60) {
+					int bytes = len - 59;
+					if (offset + bytes > end) {
+						throw new IllegalArgumentException("snappy: truncated literal length");
+					}
+					len = 0;
+					for (int i = 0; i < bytes; i++) {
+						len |= (src[offset++] & 0xff) << (8 * i);
+					}
+				}
+				len++;
+				if (len <= 0 || offset + len > end || pos + len > expected) {
+					throw new IllegalArgumentException("snappy: corrupt literal");
+				}
+				System.arraycopy(src, offset, dest, pos, len);
+				offset += len;
+				pos += len;
+				continue;
+			case COPY_1:
+				if (offset >= end) {
+					throw new IllegalArgumentException("snappy: truncated copy");
+				}
+				len = 4 + ((tag >>> 2) & 7);
+				copyOffset = ((tag >>> 5) << 8) | (src[offset++] & 0xff);
+				break;
+			case COPY_2:
+				if (offset + 2 > end) {
+					throw new IllegalArgumentException("snappy: truncated copy");
+				}
+				len = (tag >>> 2) + 1;
+				copyOffset = (src[offset] & 0xff) | (src[offset + 1] & 0xff) << 8;
+				offset += 2;
+				break;
+			default:
+				if (offset + 4 > end) {
+					throw new IllegalArgumentException("snappy: truncated copy");
+				}
+				len = (tag >>> 2) + 1;
+				copyOffset = (src[offset] & 0xff) | (src[offset + 1] & 0xff) << 8 | (src[offset + 2] & 0xff) << 16
+						| (src[offset + 3] & 0xff) << 24;
+				offset += 4;
+				break;
+			}
+			if (copyOffset <= 0 || copyOffset > pos || pos + len > expected) {
+				throw new IllegalArgumentException("snappy: corrupt copy");
+			}
+			int from = pos - copyOffset;
+			if (copyOffset >= len) {
+				System.arraycopy(dest, from, dest, pos, len);
+				pos += len;
+			} else {
+				// overlapping copy repeats the pattern
+				for (int i = 0; i < len; i++) {
+					dest[pos++] = dest[from + i];
+				}
+			}
+		}
+		if (pos != expected) {
+			throw new IllegalArgumentException("snappy: uncompressed length mismatch");
+		}
+		return pos;
+	}
+}
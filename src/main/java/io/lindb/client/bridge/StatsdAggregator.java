@@ -0,0 +1,447 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.lindb.client.api.Point;
+import io.lindb.client.internal.Hashing;
+import io.lindb.client.internal.LongHashSet;
+import io.lindb.client.internal.LongIntHashMap;
+
+/**
+ * Parse StatsD lines and aggregate them per flush interval.
+ *
+ * Lines(name:value|type[|@rate][|#tag:value,...]) are parsed from bytes, each
+ * series(type + name + tags) is located by 64-bit hash of its bytes in a
+ * primitive map, so only the first line of a series allocates(name, tags and
+ * aggregate state). On flush, counters are written as sum, gauges as last,
+ * sets as last(number of unique values), timers/histograms/distributions as
+ * histogram with configured bucket bounds. Series not updated within ttl are
+ * evicted.
+ */
+@NotThreadSafe
+final class StatsdAggregator {
+	private final static byte COUNTER = 'c';
+	private final static byte GAUGE = 'g';
+	private final static byte TIMER = 't';
+	private final static byte SET = 's';
+	private final static int MISSING = -1;
+	private final static long MAX_EXACT = 1L << 53;
+	private final static double[] POW10 = new double[19];
+
+	static {
+		POW10[0] = 1;
+		for (int i = 1; i < POW10.length; i++) {
+			POW10[i] = POW10[i - 1] * 10;
+		}
+	}
+
+	private final String fieldName;
+	private final double[] bounds;
+	private final long ttl;
+	private final LongIntHashMap index = new LongIntHashMap(256, MISSING);
+	private Aggregate[] aggregates = new Aggregate[256];
+	private int size;
+	private long invalidLines;
+
+	/**
+	 * Create aggregator.
+	 * 
+	 * @param fieldName field name of counter/gauge/set value
+	 * @param bounds    ascending histogram bucket bounds of timer, ends with +Inf
+	 * @param ttl       evict series not updated within ttl(ms)
+	 */
+	StatsdAggregator(String fieldName, double[] bounds, long ttl) {
+		this.fieldName = fieldName;
+		this.bounds = bounds;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Parse lines of packet and aggregate them.
+	 * 
+	 * @param buf    packet bytes
+	 * @param offset offset of packet
+	 * @param length length of packet
+	 * @param now    receive time(ms)
+	 * @return number of lines aggregated
+	 */
+	int parse(byte[] buf, int offset, int length, long now) {
+		int end = offset + length;
+		int lines = 0;
+		int start = offset;
+		for (int i = offset; i <= end; i++) {
+			if (i == end || buf[i] == '\n') {
+				int lineEnd = i;
+				if (lineEnd > start && buf[lineEnd - 1] == '\r') {
+					lineEnd--;
+				}
+				if (lineEnd > start) {
+					if (parseLine(buf, start, lineEnd, now)) {
+						lines++;
+					} else {
+						this.invalidLines++;
+					}
+				}
+				start = i + 1;
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Write series updated since last flush into points, reset their state and
+	 * evict expired series.
+	 * 
+	 * @param timestamp timestamp of points(ms)
+	 * @param points    points appended to
+	 */
+	void flush(long timestamp, List<Point> points) {
+		int live = 0;
+		for (int i = 0; i < this.size; i++) {
+			Aggregate aggregate = this.aggregates[i];
+			if (aggregate.updated) {
+				points.add(aggregate.toPoint(this.fieldName, this.bounds, timestamp));
+				aggregate.reset();
+			} else if (timestamp - aggregate.lastUpdated > this.ttl) {
+				this.index.remove(aggregate.key);
+				continue;
+			}
+			if (live != i) {
+				this.aggregates[live] = aggregate;
+				this.index.put(aggregate.key, live);
+			}
+			live++;
+		}
+		Arrays.fill(this.aggregates, live, this.size, null);
+		this.size = live;
+	}
+
+	/**
+	 * Return number of series being aggregated.
+	 * 
+	 * @return series
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return number of malformed lines.
+	 * 
+	 * @return invalid lines
+	 */
+	long getInvalidLines() {
+		return this.invalidLines;
+	}
+
+	private boolean parseLine(byte[] buf, int start, int end, long now) {
+		int colon = indexOf(buf, start, end, (byte) ':');
+		if (colon <= start) {
+			return false;
+		}
+		int pipe = indexOf(buf, colon + 1, end, (byte) '|');
+		if (pipe < 0 || pipe == colon + 1) {
+			return false;
+		}
+		int typeEnd = indexOf(buf, pipe + 1, end, (byte) '|');
+		if (typeEnd < 0) {
+			typeEnd = end;
+		}
+		byte type = type(buf, pipe + 1, typeEnd);
+		if (type == 0) {
+			return false;
+		}
+		double rate = 1;
+		int tagStart = -1;
+		int tagEnd = -1;
+		int sectionStart = typeEnd + 1;
+		while (sectionStart < end) {
+			int sectionEnd = indexOf(buf, sectionStart, end, (byte) '|');
+			if (sectionEnd < 0) {
+				sectionEnd = end;
+			}
+			if (buf[sectionStart] == '@') {
+				rate = parseDouble(buf, sectionStart + 1, sectionEnd);
+				if (!(rate > 0 && rate <= 1)) {
+					return false;
+				}
+			} else if (buf[sectionStart] == '#') {
+				tagStart = sectionStart + 1;
+				tagEnd = sectionEnd;
+			}
+			sectionStart = sectionEnd + 1;
+		}
+		long hash = Hashing.SEED;
+		hash = hashBytes(hash, buf, start, colon);
+		hash = (hash ^ type) * 0x100000001b3L;
+		if (tagStart >= 0) {
+			hash = hashBytes(hash, buf, tagStart, tagEnd);
+		}
+		hash = Hashing.mix(hash);
+
+		double value = 0;
+		boolean signed = false;
+		if (type != SET) {
+			signed = buf[colon + 1] == '+' || buf[colon + 1] == '-';
+			value = parseDouble(buf, colon + 1, pipe);
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				return false;
+			}
+		}
+		int idx = this.index.get(hash);
+		Aggregate aggregate = idx == MISSING ? newAggregate(hash, type, buf, start, colon, tagStart, tagEnd)
+				: this.aggregates[idx];
+		if (type == SET) {
+			aggregate.set.add(Hashing.mix(hashBytes(Hashing.SEED, buf, colon + 1, pipe)));
+		} else {
+			aggregate.update(value, rate, signed, this.bounds);
+		}
+		aggregate.updated = true;
+		aggregate.lastUpdated = now;
+		return true;
+	}
+
+	private Aggregate newAggregate(long hash, byte type, byte[] buf, int nameStart, int nameEnd, int tagStart,
+			int tagEnd) {
+		String name = new String(buf, nameStart, nameEnd - nameStart, StandardCharsets.UTF_8);
+		Map<String, String> tags = new HashMap<>();
+		if (tagStart >= 0) {
+			int start = tagStart;
+			while (start < tagEnd) {
+				int end = indexOf(buf, start, tagEnd, (byte) ',');
+				if (end < 0) {
+					end = tagEnd;
+				}
+				int colon = indexOf(buf, start, end, (byte) ':');
+				if (colon > start && colon < end - 1) {
+					tags.put(new String(buf, start, colon - start, StandardCharsets.UTF_8),
+							new String(buf, colon + 1, end - colon - 1, StandardCharsets.UTF_8));
+				}
+				start = end + 1;
+			}
+		}
+		Aggregate aggregate = new Aggregate(hash, type, name, tags, this.bounds.length);
+		if (this.size == this.aggregates.length) {
+			this.aggregates = Arrays.copyOf(this.aggregates, this.size * 2);
+		}
+		this.aggregates[this.size] = aggregate;
+		this.index.put(hash, this.size);
+		this.size++;
+		return aggregate;
+	}
+
+	private static byte type(byte[] buf, int start, int end) {
+		int length = end - start;
+		if (length == 1) {
+			switch (buf[start]) {
+			case 'c':
+				return COUNTER;
+			case 'g':
+				return GAUGE;
+			case 'h':
+			case 'd':
+				return TIMER;
+			case 's':
+				return SET;
+			default:
+				return 0;
+			}
+		}
+		if (length == 2 && buf[start] == 'm' && buf[start + 1] == 's') {
+			return TIMER;
+		}
+		return 0;
+	}
+
+	private static int indexOf(byte[] buf, int start, int end, byte b) {
+		for (int i = start; i < end; i++) {
+			if (buf[i] == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static long hashBytes(long h, byte[] buf, int start, int end) {
+		for (int i = start; i < end; i++) {
+			h ^= buf[i] & 0xff;
+			h *= 0x100000001b3L;
+		}
+		h ^= 0xff;
+		h *= 0x100000001b3L;
+		return h;
+	}
+
+	/**
+	 * Parse decimal number from bytes, returns NaN if invalid. Plain decimals are
+	 * parsed without allocation, exponent or long mantissa falls back to
+	 * {@link Double#parseDouble(String)}.
+	 */
+	static double parseDouble(byte[] buf, int start, int end) {
+		if (start >= end) {
+			return Double.NaN;
+		}
+		int i = start;
+		boolean negative = false;
+		if (buf[i] == '-' || buf[i] == '+') {
+			negative = buf[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		boolean any = false;
+		int digits = 0;
+		int scale = 0;
+		boolean dot = false;
+		for (; i < end; i++) {
+			byte b = buf[i];
+			if (b >= '0' && b <= '9') {
+				if (digits == 18) {
+					return parseSlow(buf, start, end);
+				}
+				any = true;
+				mantissa = mantissa * 10 + (b - '0');
+				if (mantissa != 0) {
+					digits++;
+				}
+				if (dot) {
+					scale++;
+				}
+			} else if (b == '.' && !dot) {
+				dot = true;
+			} else {
+				return parseSlow(buf, start, end);
+			}
+		}
+		if (!any || scale >= POW10.length || mantissa > MAX_EXACT) {
+			return parseSlow(buf, start, end);
+		}
+		double value = scale == 0 ? mantissa : mantissa / POW10[scale];
+		return negative ? -value : value;
+	}
+
+	private static double parseSlow(byte[] buf, int start, int end) {
+		try {
+			return Double.parseDouble(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * Aggregated state of one series.
+	 */
+	private final static class Aggregate {
+		private final long key;
+		private final byte type;
+		private final String name;
+		private final Map<String, String> tags;
+		private final double[] buckets;
+		private final LongHashSet set;
+		private double value;
+		private double count;
+		private double sum;
+		private double min;
+		private double max;
+		private boolean updated;
+		private long lastUpdated;
+
+		private Aggregate(long key, byte type, String name, Map<String, String> tags, int bounds) {
+			this.key = key;
+			this.type = type;
+			this.name = name;
+			this.tags = tags;
+			this.buckets = type == TIMER ? new double[bounds] : null;
+			this.set = type == SET ? new LongHashSet(16) : null;
+			reset();
+		}
+
+		private void update(double value, double rate, boolean signed, double[] bounds) {
+			switch (this.type) {
+			case COUNTER:
+				this.value += value / rate;
+				break;
+			case GAUGE:
+				// signed gauge value is delta of last value
+				this.value = signed ? this.value + value : value;
+				break;
+			default:
+				double weight = 1 / rate;
+				this.count += weight;
+				this.sum += value * weight;
+				this.min = Math.min(this.min, value);
+				this.max = Math.max(this.max, value);
+				int bucket = Arrays.binarySearch(bounds, value);
+				if (bucket < 0) {
+					bucket = -bucket - 1;
+				}
+				this.buckets[Math.min(bucket, bounds.length - 1)] += weight;
+				break;
+			}
+		}
+
+		private Point toPoint(String fieldName, double[] bounds, long timestamp) {
+			Point.Builder builder = Point.builder(this.name, timestamp).addTags(this.tags);
+			switch (this.type) {
+			case COUNTER:
+				builder.addSum(fieldName, this.value);
+				break;
+			case GAUGE:
+				builder.addLast(fieldName, this.value);
+				break;
+			case SET:
+				builder.addLast(fieldName, this.set.size());
+				break;
+			default:
+				builder.addHistogram(this.count, this.sum, this.min, this.max, bounds.clone(), this.buckets.clone());
+				break;
+			}
+			return builder.build();
+		}
+
+		private void reset() {
+			this.updated = false;
+			switch (this.type) {
+			case COUNTER:
+				this.value = 0;
+				break;
+			case GAUGE:
+				// gauge keeps last value
+				break;
+			case SET:
+				this.set.clear();
+				break;
+			default:
+				this.count = 0;
+				this.sum = 0;
+				this.min = Double.POSITIVE_INFINITY;
+				this.max = Double.NEGATIVE_INFINITY;
+				Arrays.fill(this.buckets, 0);
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,397 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.api.Point;
+import io.lindb.client.api.Write;
+import io.lindb.client.internal.Threads;
+import io.lindb.client.util.StringUtils;
+
+/**
+ * StatsD UDP listener, aggregates received lines per flush interval and puts
+ * aggregated points into {@link Write}.
+ *
+ * One receiver thread reads datagrams from non-blocking
+ * {@link DatagramChannel} into a direct buffer, parses and aggregates lines,
+ * and flushes aggregates at each flush interval, so aggregation needs no
+ * locking. Points of one flush are put with one
+ * {@link Write#putAll(java.util.Collection)} handoff, points rejected by write
+ * are counted and dropped.
+ */
+public final class StatsdListener implements AutoCloseable {
+	private final static Logger LOGGER = LoggerFactory.getLogger(StatsdListener.class);
+	public final static String DEFAULT_HOST = "0.0.0.0";
+	public final static int DEFAULT_PORT = 8125;
+	public final static long DEFAULT_FLUSH_INTERVAL = 10 * 1000;
+	public final static int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	public final static long DEFAULT_SERIES_TTL = 5 * 60 * 1000;
+	public final static String DEFAULT_FIELD_NAME = "value";
+	public final static double[] DEFAULT_TIMER_BOUNDS = new double[] { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500,
+			5000, 10000, Double.POSITIVE_INFINITY };
+	// max datagrams drained per round, so flush and close are checked under load
+	private final static int MAX_RECEIVE_PACKETS = 1024;
+
+	/**
+	 * StatsD listener builder.
+	 */
+	@NotThreadSafe
+	public static class Builder {
+		private final Write write;
+		private String host = DEFAULT_HOST;
+		private int port = DEFAULT_PORT;
+		private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+		private int bufferSize = DEFAULT_BUFFER_SIZE;
+		private long seriesTtl = DEFAULT_SERIES_TTL;
+		private String fieldName = DEFAULT_FIELD_NAME;
+		private double[] timerBounds = DEFAULT_TIMER_BOUNDS;
+
+		private Builder(Write write) {
+			this.write = write;
+		}
+
+		/**
+		 * Return the listener with setting, call {@link StatsdListener#start()} to
+		 * listen.
+		 * 
+		 * @return statsd listener
+		 */
+		public StatsdListener build() {
+			return new StatsdListener(this);
+		}
+
+		/**
+		 * Set listen host.
+		 * Default value: 0.0.0.0.
+		 * 
+		 * @param host {@link String}
+		 * @return builder
+		 */
+		public Builder host(final String host) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(host), "host cannot be empty");
+			this.host = host;
+			return this;
+		}
+
+		/**
+		 * Set listen port, 0 for any free port.
+		 * Default value: 8125.
+		 * 
+		 * @param port {@link int}
+		 * @return builder
+		 */
+		public Builder port(final int port) {
+			Preconditions.checkArgument(port >= 0 && port <= 65535, "invalid port", port);
+			this.port = port;
+			return this;
+		}
+
+		/**
+		 * Set aggregation flush interval.
+		 * Default value: 10000(ms).
+		 * 
+		 * @param flushInterval {@link long}
+		 * @return builder
+		 */
+		public Builder flushInterval(final long flushInterval) {
+			Preconditions.checkArgument(flushInterval > 0, "flush interval must be positive", flushInterval);
+			this.flushInterval = flushInterval;
+			return this;
+		}
+
+		/**
+		 * Set receive buffer size, max datagram size.
+		 * Default value: 64KB.
+		 * 
+		 * @param bufferSize {@link int}
+		 * @return builder
+		 */
+		public Builder bufferSize(final int bufferSize) {
+			Preconditions.checkArgument(bufferSize >= 512, "buffer size must be at least 512", bufferSize);
+			this.bufferSize = bufferSize;
+			return this;
+		}
+
+		/**
+		 * Set ttl of series aggregation state, series not updated within ttl are
+		 * evicted.
+		 * Default value: 300000(ms).
+		 * 
+		 * @param seriesTtl {@link long}
+		 * @return builder
+		 */
+		public Builder seriesTtl(final long seriesTtl) {
+			Preconditions.checkArgument(seriesTtl > 0, "series ttl must be positive", seriesTtl);
+			this.seriesTtl = seriesTtl;
+			return this;
+		}
+
+		/**
+		 * Set field name of counter/gauge/set value.
+		 * Default value: value.
+		 * 
+		 * @param fieldName {@link String}
+		 * @return builder
+		 */
+		public Builder fieldName(final String fieldName) {
+			Preconditions.checkArgument(StringUtils.isNotEmpty(fieldName), "field name cannot be empty");
+			this.fieldName = fieldName;
+			return this;
+		}
+
+		/**
+		 * Set histogram bucket bounds of timer, +Inf bound is appended if missing.
+		 * Default value: 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000,
+		 * 10000, +Inf.
+		 * 
+		 * @param timerBounds ascending bucket bounds
+		 * @return builder
+		 */
+		public Builder timerBounds(final double... timerBounds) {
+			Preconditions.checkArgument(timerBounds != null && timerBounds.length > 0, "timer bounds cannot be empty");
+			for (int i = 1; i < timerBounds.length; i++) {
+				Preconditions.checkArgument(timerBounds[i] > timerBounds[i - 1], "timer bounds must be ascending");
+			}
+			double[] bounds = timerBounds;
+			if (bounds[bounds.length - 1] != Double.POSITIVE_INFINITY) {
+				bounds = Arrays.copyOf(bounds, bounds.length + 1);
+				bounds[bounds.length - 1] = Double.POSITIVE_INFINITY;
+			} else {
+				bounds = bounds.clone();
+			}
+			this.timerBounds = bounds;
+			return this;
+		}
+	}
+
+	private final Write write;
+	private final String host;
+	private final int port;
+	private final long flushInterval;
+	private final int bufferSize;
+	private final StatsdAggregator aggregator;
+	private final LongAdder packets = new LongAdder();
+	private final LongAdder lines = new LongAdder();
+	private final LongAdder invalidLines = new LongAdder();
+	private final LongAdder points = new LongAdder();
+	private final LongAdder rejectedPoints = new LongAdder();
+	private DatagramChannel channel;
+	private Selector selector;
+	private Thread receiver;
+	private volatile boolean running;
+
+	private StatsdListener(Builder builder) {
+		this.write = builder.write;
+		this.host = builder.host;
+		this.port = builder.port;
+		this.flushInterval = builder.flushInterval;
+		this.bufferSize = builder.bufferSize;
+		this.aggregator = new StatsdAggregator(builder.fieldName, builder.timerBounds, builder.seriesTtl);
+	}
+
+	/**
+	 * Create listener builder putting aggregated points into write.
+	 * 
+	 * @param write write pipeline, shared with other producers
+	 * @return builder
+	 */
+	public static Builder builder(Write write) {
+		Preconditions.checkNotNull(write, "write cannot be null");
+		return new Builder(write);
+	}
+
+	/**
+	 * Start receiving StatsD datagrams.
+	 * 
+	 * @throws IOException bind failure
+	 */
+	public synchronized void start() throws IOException {
+		Preconditions.checkState(this.channel == null, "statsd listener already started");
+		DatagramChannel datagramChannel = DatagramChannel.open();
+		try {
+			datagramChannel.setOption(StandardSocketOptions.SO_RCVBUF, Math.max(this.bufferSize, 4 * 1024 * 1024));
+			datagramChannel.bind(new InetSocketAddress(this.host, this.port));
+			datagramChannel.configureBlocking(false);
+			this.selector = Selector.open();
+			datagramChannel.register(this.selector, SelectionKey.OP_READ);
+		} catch (IOException e) {
+			datagramChannel.close();
+			throw e;
+		}
+		this.channel = datagramChannel;
+		this.running = true;
+		this.receiver = Threads.newThread("lin-statsd", this::receive, false);
+		this.receiver.start();
+		LOGGER.info("statsd listener listening on {}", datagramChannel.getLocalAddress());
+	}
+
+	/**
+	 * Return bound port, valid after started.
+	 * 
+	 * @return listen port
+	 * @throws IOException channel closed
+	 */
+	public synchronized int getPort() throws IOException {
+		Preconditions.checkState(this.channel != null, "statsd listener not started");
+		return ((InetSocketAddress) this.channel.getLocalAddress()).getPort();
+	}
+
+	/**
+	 * Return number of datagrams received.
+	 * 
+	 * @return packets
+	 */
+	public long getPackets() {
+		return this.packets.sum();
+	}
+
+	/**
+	 * Return number of lines aggregated.
+	 * 
+	 * @return lines
+	 */
+	public long getLines() {
+		return this.lines.sum();
+	}
+
+	/**
+	 * Return number of malformed lines.
+	 * 
+	 * @return invalid lines
+	 */
+	public long getInvalidLines() {
+		return this.invalidLines.sum();
+	}
+
+	/**
+	 * Return number of aggregated points put into write.
+	 * 
+	 * @return points
+	 */
+	public long getPoints() {
+		return this.points.sum();
+	}
+
+	/**
+	 * Return number of aggregated points rejected by write(queue full).
+	 * 
+	 * @return rejected points
+	 */
+	public long getRejectedPoints() {
+		return this.rejectedPoints.sum();
+	}
+
+	/**
+	 * Stop receiving and flush pending aggregates, write is not closed.
+	 * 
+	 * @throws InterruptedException interrupted waiting receiver thread
+	 */
+	@Override
+	public synchronized void close() throws InterruptedException {
+		if (this.channel == null) {
+			return;
+		}
+		this.running = false;
+		this.selector.wakeup();
+		this.receiver.join();
+		try {
+			this.selector.close();
+			this.channel.close();
+		} catch (IOException e) {
+			LOGGER.warn("close statsd channel failure", e);
+		}
+		this.channel = null;
+	}
+
+	private void receive() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(this.bufferSize);
+		byte[] packet = new byte[this.bufferSize];
+		List<Point> flushed = new ArrayList<>();
+		long nextFlush = System.currentTimeMillis() + this.flushInterval;
+		try {
+			while (this.running) {
+				long wait = nextFlush - System.currentTimeMillis();
+				if (wait > 0) {
+					this.selector.select(wait);
+					this.selector.selectedKeys().clear();
+				}
+				long now = System.currentTimeMillis();
+				int received = 0;
+				while (received++ < MAX_RECEIVE_PACKETS && this.channel.receive(buffer) != null) {
+					((Buffer) buffer).flip();
+					int length = buffer.remaining();
+					buffer.get(packet, 0, length);
+					((Buffer) buffer).clear();
+					parse(packet, length, now);
+				}
+				if (now >= nextFlush) {
+					flush(now, flushed);
+					nextFlush = Math.max(nextFlush + this.flushInterval, now + 1);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.error("receive statsd datagram failure, listener stopped", e);
+		} finally {
+			flush(System.currentTimeMillis(), flushed);
+		}
+	}
+
+	private void parse(byte[] packet, int length, long now) {
+		long invalid = this.aggregator.getInvalidLines();
+		this.packets.increment();
+		this.lines.add(this.aggregator.parse(packet, 0, length, now));
+		this.invalidLines.add(this.aggregator.getInvalidLines() - invalid);
+	}
+
+	private void flush(long now, List<Point> flushed) {
+		try {
+			this.aggregator.flush(now, flushed);
+			if (flushed.isEmpty()) {
+				return;
+			}
+			int put = this.write.putAll(flushed);
+			this.points.add(put);
+			if (put < flushed.size()) {
+				this.rejectedPoints.add(flushed.size() - put);
+				LOGGER.warn("write queue full, drop {} aggregated statsd points", flushed.size() - put);
+			}
+		} finally {
+			flushed.clear();
+		}
+	}
+}
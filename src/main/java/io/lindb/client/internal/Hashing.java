@@ -0,0 +1,111 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+/**
+ * 64-bit string hashing for series identity and sketches, FNV-1a over chars
+ * finalized by murmur3 fmix64.
+ */
+public final class Hashing {
+	/**
+	 * FNV-1a 64-bit offset basis, initial seed of {@link #hash(long, String)}.
+	 */
+	public static final long SEED = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+	private Hashing() {
+	}
+
+	/**
+	 * Hash string into seed, with separator so that ("ab","c") != ("a","bc").
+	 * 
+	 * @param h     seed or previous hash
+	 * @param value string value
+	 * @return hash
+	 */
+	public static long hash(long h, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			h ^= value.charAt(i);
+			h *= PRIME;
+		}
+		h ^= 0xff;
+		h *= PRIME;
+		return h;
+	}
+
+	/**
+	 * Hash bytes into seed, with separator same as {@link #hash(long, String)}.
+	 * 
+	 * @param h     seed or previous hash
+	 * @param bytes bytes
+	 * @param start start of bytes
+	 * @param end   end of bytes
+	 * @return hash
+	 */
+	public static long hash(long h, byte[] bytes, int start, int end) {
+		for (int i = start; i < end; i++) {
+			h ^= bytes[i] & 0xff;
+			h *= PRIME;
+		}
+		h ^= 0xff;
+		h *= PRIME;
+		return h;
+	}
+
+	/**
+	 * Hash 64-bit value into seed.
+	 * 
+	 * @param h     seed or previous hash
+	 * @param value value
+	 * @return hash
+	 */
+	public static long hash(long h, long value) {
+		for (int i = 0; i < Long.BYTES; i++) {
+			h ^= value & 0xff;
+			h *= PRIME;
+			value >>>= 8;
+		}
+		return h;
+	}
+
+	/**
+	 * Return well mixed 64-bit hash of string.
+	 * 
+	 * @param value string value
+	 * @return hash
+	 */
+	public static long hash(String value) {
+		return mix(hash(SEED, value));
+	}
+
+	/**
+	 * Murmur3 fmix64 finalizer, spreads all input bits into all output bits.
+	 * 
+	 * @param h hash
+	 * @return mixed hash
+	 */
+	public static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
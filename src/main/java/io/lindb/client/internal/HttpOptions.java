@@ -80,6 +80,18 @@ public final class HttpOptions {
 			return this;
 		}
 
+		/**
+		 * Set if running http async calls on virtual threads.
+		 * Only take effect on JDK 21+, else using platform threads.
+		 * 
+		 * @param useVirtualThreads {@link boolean}
+		 * @return builder
+		 */
+		public Builder useVirtualThreads(boolean useVirtualThreads) {
+			this.options.useVirtualThreads = useVirtualThreads;
+			return this;
+		}
+
 		/**
 		 * Rreturn http options based on settings.
 		 * 
@@ -107,6 +119,7 @@ public final class HttpOptions {
 	private long connectTimeout;
 	private long readTimeout;
 	private long writeTimeout;
+	private boolean useVirtualThreads;
 
 	private HttpOptions() {
 	}
@@ -138,4 +151,13 @@ public final class HttpOptions {
 		return writeTimeout;
 	}
 
+	/**
+	 * Return if using virtual threads for http async calls
+	 * 
+	 * @return if true using virtual threads
+	 */
+	public boolean isUseVirtualThreads() {
+		return useVirtualThreads;
+	}
+
 }
@@ -0,0 +1,131 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Open addressing set of primitive long, avoids boxing of series hashes.
+ */
+@NotThreadSafe
+public final class LongHashSet {
+	private static final long EMPTY = 0L;
+
+	private long[] keys;
+	private int mask;
+	private int size;
+	private boolean hasEmptyKey;
+
+	/**
+	 * Create set with expected size.
+	 * 
+	 * @param expected expected size
+	 */
+	public LongHashSet(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+		this.keys = new long[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Add key into set.
+	 * 
+	 * @param key key
+	 * @return if true key not exists before
+	 */
+	public boolean add(long key) {
+		if (key == EMPTY) {
+			if (this.hasEmptyKey) {
+				return false;
+			}
+			this.hasEmptyKey = true;
+			this.size++;
+			return true;
+		}
+		int idx = (int) Hashing.mix(key) & this.mask;
+		while (this.keys[idx] != EMPTY) {
+			if (this.keys[idx] == key) {
+				return false;
+			}
+			idx = (idx + 1) & this.mask;
+		}
+		this.keys[idx] = key;
+		this.size++;
+		if (this.size > (this.keys.length >> 1) + (this.keys.length >> 2)) {
+			rehash();
+		}
+		return true;
+	}
+
+	/**
+	 * Check if key exists.
+	 * 
+	 * @param key key
+	 * @return if true key exists
+	 */
+	public boolean contains(long key) {
+		if (key == EMPTY) {
+			return this.hasEmptyKey;
+		}
+		int idx = (int) Hashing.mix(key) & this.mask;
+		while (this.keys[idx] != EMPTY) {
+			if (this.keys[idx] == key) {
+				return true;
+			}
+			idx = (idx + 1) & this.mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Return the number of keys.
+	 * 
+	 * @return size
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Remove all keys.
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, EMPTY);
+		this.size = 0;
+		this.hasEmptyKey = false;
+	}
+
+	private void rehash() {
+		long[] old = this.keys;
+		this.keys = new long[old.length << 1];
+		this.mask = this.keys.length - 1;
+		for (long key : old) {
+			if (key == EMPTY) {
+				continue;
+			}
+			int idx = (int) Hashing.mix(key) & this.mask;
+			while (this.keys[idx] != EMPTY) {
+				idx = (idx + 1) & this.mask;
+			}
+			this.keys[idx] = key;
+		}
+	}
+}
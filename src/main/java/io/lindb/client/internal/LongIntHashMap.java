@@ -0,0 +1,167 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Open addressing map of primitive long to int with linear probing, avoids
+ * boxing on lookup.
+ */
+@NotThreadSafe
+public final class LongIntHashMap {
+	private final int missingValue;
+	private long[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int mask;
+	private int size;
+
+	/**
+	 * Create map with expected size.
+	 * 
+	 * @param expected     expected size
+	 * @param missingValue value returned by get if key not exists
+	 */
+	public LongIntHashMap(int expected, int missingValue) {
+		this.missingValue = missingValue;
+		allocate(Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1);
+	}
+
+	/**
+	 * Return value of key.
+	 * 
+	 * @param key key
+	 * @return value, or missing value if not exists
+	 */
+	public int get(long key) {
+		int idx = slot(key);
+		while (this.used[idx]) {
+			if (this.keys[idx] == key) {
+				return this.values[idx];
+			}
+			idx = (idx + 1) & this.mask;
+		}
+		return this.missingValue;
+	}
+
+	/**
+	 * Put key/value.
+	 * 
+	 * @param key   key
+	 * @param value value
+	 */
+	public void put(long key, int value) {
+		int idx = slot(key);
+		while (this.used[idx]) {
+			if (this.keys[idx] == key) {
+				this.values[idx] = value;
+				return;
+			}
+			idx = (idx + 1) & this.mask;
+		}
+		this.used[idx] = true;
+		this.keys[idx] = key;
+		this.values[idx] = value;
+		this.size++;
+		if (this.size > (this.keys.length >> 1) + (this.keys.length >> 2)) {
+			rehash();
+		}
+	}
+
+	/**
+	 * Remove key.
+	 * 
+	 * @param key key
+	 * @return if true key removed
+	 */
+	public boolean remove(long key) {
+		int idx = slot(key);
+		while (this.used[idx]) {
+			if (this.keys[idx] == key) {
+				// backward shift deletion
+				int hole = idx;
+				int next = (hole + 1) & this.mask;
+				while (this.used[next]) {
+					int home = slot(this.keys[next]);
+					if (((next - home) & this.mask) >= ((next - hole) & this.mask)) {
+						this.keys[hole] = this.keys[next];
+						this.values[hole] = this.values[next];
+						hole = next;
+					}
+					next = (next + 1) & this.mask;
+				}
+				this.used[hole] = false;
+				this.size--;
+				return true;
+			}
+			idx = (idx + 1) & this.mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Return the number of keys.
+	 * 
+	 * @return size
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Remove all keys.
+	 */
+	public void clear() {
+		Arrays.fill(this.used, false);
+		this.size = 0;
+	}
+
+	private int slot(long key) {
+		return (int) Hashing.mix(key) & this.mask;
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+		this.used = new boolean[capacity];
+		this.mask = capacity - 1;
+	}
+
+	private void rehash() {
+		long[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		boolean[] oldUsed = this.used;
+		allocate(oldKeys.length << 1);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (!oldUsed[i]) {
+				continue;
+			}
+			int idx = slot(oldKeys[i]);
+			while (this.used[idx]) {
+				idx = (idx + 1) & this.mask;
+			}
+			this.used[idx] = true;
+			this.keys[idx] = oldKeys[i];
+			this.values[idx] = oldValues[i];
+		}
+	}
+}
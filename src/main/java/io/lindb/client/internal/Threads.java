@@ -0,0 +1,155 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread utilities, create platform or virtual(JDK 21+) threads.
+ *
+ * Virtual threads are resolved by reflection, so the client still builds and
+ * runs on Java 8 and falls back to platform threads on older runtimes.
+ */
+public final class Threads {
+	private final static Logger LOGGER = LoggerFactory.getLogger(Threads.class);
+	private final static Method OF_VIRTUAL;
+	private final static Method BUILDER_NAME;
+	private final static Method BUILDER_FACTORY;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			name = builderClass.getMethod("name", String.class);
+			factory = builderClass.getMethod("factory");
+		} catch (Throwable e) {
+			// virtual thread not supported(JDK < 21), using platform thread
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = name;
+		BUILDER_FACTORY = factory;
+	}
+
+	private Threads() {
+	}
+
+	/**
+	 * Check if current runtime supports virtual thread.
+	 *
+	 * @return if virtual thread supported
+	 */
+	public static boolean isVirtualSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Create a named thread, virtual thread if required and supported, else
+	 * platform daemon thread.
+	 *
+	 * @param name     thread name
+	 * @param runnable thread task
+	 * @param virtual  if using virtual thread
+	 * @return new thread(not started)
+	 */
+	public static Thread newThread(String name, Runnable runnable, boolean virtual) {
+		if (virtual) {
+			ThreadFactory factory = virtualFactory(name);
+			if (factory != null) {
+				return factory.newThread(runnable);
+			}
+		}
+		Thread thread = new Thread(runnable);
+		thread.setName(name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Create thread factory with thread name prefix, each thread named as
+	 * prefix-N.
+	 *
+	 * @param prefix  thread name prefix
+	 * @param virtual if using virtual thread
+	 * @return thread factory
+	 */
+	public static ThreadFactory factory(String prefix, boolean virtual) {
+		final AtomicInteger seq = new AtomicInteger();
+		return runnable -> newThread(prefix + "-" + seq.incrementAndGet(), runnable, virtual);
+	}
+
+	/**
+	 * Return the number of lock stripes for state shared by producer threads,
+	 * power of two not less than available processors.
+	 *
+	 * @return stripes
+	 */
+	public static int stripes() {
+		return Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+	}
+
+	/**
+	 * Return the stripe of current thread.
+	 *
+	 * @param stripes number of stripes, power of two
+	 * @return stripe index
+	 */
+	public static int stripe(int stripes) {
+		return (int) Thread.currentThread().getId() & (stripes - 1);
+	}
+
+	/**
+	 * Create an unbounded cached executor for http async calls, same as okhttp
+	 * default dispatcher executor, but threads created by given factory.
+	 *
+	 * @param prefix  thread name prefix
+	 * @param virtual if using virtual thread
+	 * @return executor service
+	 */
+	public static ExecutorService newCachedExecutor(String prefix, boolean virtual) {
+		return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+				factory(prefix, virtual));
+	}
+
+	private static ThreadFactory virtualFactory(String name) {
+		if (OF_VIRTUAL == null) {
+			return null;
+		}
+		try {
+			Object builder = OF_VIRTUAL.invoke(null);
+			builder = BUILDER_NAME.invoke(builder, name);
+			return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+		} catch (Throwable e) {
+			LOGGER.warn("create virtual thread factory failure, using platform thread", e);
+			return null;
+		}
+	}
+}
@@ -38,6 +38,7 @@ public class WriteClient {
 	private final static MediaType MEDIT_FLAT = MediaType.parse("application/flatbuffer");
 
 	private final OkHttpClient client;
+	private final String database;
 	private String url;
 
 	/**
@@ -47,10 +48,31 @@ public class WriteClient {
 	 * @param client {@link OkHttpClient} http client
 	 */
 	public WriteClient(String url, OkHttpClient client) {
+		this(null, url, client);
+	}
+
+	/**
+	 * Create http write clinet instance for database.
+	 * 
+	 * @param database database name
+	 * @param url      write url path
+	 * @param client   {@link OkHttpClient} http client
+	 */
+	public WriteClient(String database, String url, OkHttpClient client) {
+		this.database = database;
 		this.url = url;
 		this.client = client;
 	}
 
+	/**
+	 * Return the database name which write data into, maybe null.
+	 * 
+	 * @return database name
+	 */
+	public String getDatabase() {
+		return database;
+	}
+
 	/**
 	 * Write metric point data.
 	 * 
@@ -60,6 +82,18 @@ public class WriteClient {
 	 * @throws IOException when send error
 	 */
 	public boolean writeMetric(byte[] data, boolean compress) throws IOException {
+		return isSuccessful(write(data, compress));
+	}
+
+	/**
+	 * Write metric point data, then return http status code of response.
+	 * 
+	 * @param data     write point data
+	 * @param compress if compress point data
+	 * @return http status code
+	 * @throws IOException when send error
+	 */
+	public int write(byte[] data, boolean compress) throws IOException {
 		Request.Builder rb = new Request.Builder()
 				.header("User-Agent", HttpClient.USER_AGENT)
 				.url(url);
@@ -70,15 +104,37 @@ public class WriteClient {
 		Call call = this.client.newCall(request);
 		try (Response response = call.execute()) {
 			try {
-				if (response.isSuccessful()) {
-					return true;
+				if (!response.isSuccessful()) {
+					LOGGER.warn("write metric failure, error msg: {}", response.body().string());
 				}
-				LOGGER.warn("write metric failure, error msg: {}", response.body().string());
+				return response.code();
 			} finally {
 				response.body().close();
 			}
 		}
-		return false;
+	}
+
+	/**
+	 * Check if http status code is successful.
+	 * 
+	 * @param status http status code
+	 * @return if status in [200..300)
+	 */
+	public static boolean isSuccessful(int status) {
+		return status >= 200 && status < 300;
+	}
+
+	/**
+	 * Check if failed write can be retried with same data, only timeout(408),
+	 * throttled(429), server errors(5xx) and io failures are retryable, other
+	 * statuses(client errors caused by data itself, redirects) are not.
+	 * 
+	 * @param status http status code, or -1 used by callers when
+	 *               {@link #write(byte[], boolean)} failed with io exception
+	 * @return if retryable
+	 */
+	public static boolean isRetryable(int status) {
+		return status == -1 || status == 408 || status == 429 || (status >= 500 && status < 600);
 	}
 
 	/**
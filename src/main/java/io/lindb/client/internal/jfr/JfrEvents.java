@@ -0,0 +1,152 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal.jfr;
+
+/**
+ * Facade of client JDK Flight Recorder events.
+ *
+ * Event classes are only loaded when JFR is available in current runtime,
+ * else all methods are no-op. JFR can be disabled explicitly by system
+ * property lindb.client.jfr=false.
+ */
+public final class JfrEvents {
+	private final static boolean AVAILABLE = checkAvailable();
+
+	private JfrEvents() {
+	}
+
+	private static boolean checkAvailable() {
+		if ("false".equalsIgnoreCase(System.getProperty("lindb.client.jfr"))) {
+			return false;
+		}
+		try {
+			Class.forName("jdk.jfr.Event");
+			return JfrRecorder.isAvailable();
+		} catch (Throwable e) {
+			// JFR not supported
+			return false;
+		}
+	}
+
+	/**
+	 * Check if JFR events are available.
+	 *
+	 * @return if available
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * Record a batch encode event.
+	 *
+	 * @param database    database name
+	 * @param points      number of points in batch
+	 * @param bytes       encoded bytes
+	 * @param encodeNanos time spent on encoding
+	 */
+	public static void encode(String database, int points, long bytes, long encodeNanos) {
+		if (AVAILABLE) {
+			JfrRecorder.encode(database, points, bytes, encodeNanos);
+		}
+	}
+
+	/**
+	 * Begin a gzip compression event.
+	 *
+	 * @return event handle, null if JFR not available
+	 */
+	public static Object beginCompress() {
+		return AVAILABLE ? JfrRecorder.beginCompress() : null;
+	}
+
+	/**
+	 * End a gzip compression event.
+	 *
+	 * @param event           event handle
+	 * @param database        database name
+	 * @param rawBytes        bytes before compression
+	 * @param compressedBytes bytes after compression
+	 */
+	public static void endCompress(Object event, String database, long rawBytes, long compressedBytes) {
+		if (event != null) {
+			JfrRecorder.endCompress(event, database, rawBytes, compressedBytes);
+		}
+	}
+
+	/**
+	 * Begin a http send event.
+	 *
+	 * @return event handle, null if JFR not available
+	 */
+	public static Object beginSend() {
+		return AVAILABLE ? JfrRecorder.beginSend() : null;
+	}
+
+	/**
+	 * End a http send event.
+	 *
+	 * @param event    event handle
+	 * @param database database name
+	 * @param bytes    sent bytes
+	 * @param status   http status code, -1 if io error
+	 */
+	public static void endSend(Object event, String database, long bytes, int status) {
+		if (event != null) {
+			JfrRecorder.endSend(event, database, bytes, status);
+		}
+	}
+
+	/**
+	 * Begin a retry event.
+	 *
+	 * @return event handle, null if JFR not available
+	 */
+	public static Object beginRetry() {
+		return AVAILABLE ? JfrRecorder.beginRetry() : null;
+	}
+
+	/**
+	 * End a retry event.
+	 *
+	 * @param event    event handle
+	 * @param database database name
+	 * @param points   number of points in retry batch
+	 * @param attempt  retry attempt
+	 * @param success  if retry successfully
+	 */
+	public static void endRetry(Object event, String database, int points, int attempt, boolean success) {
+		if (event != null) {
+			JfrRecorder.endRetry(event, database, points, attempt, success);
+		}
+	}
+
+	/**
+	 * Record a queue full rejection event.
+	 *
+	 * @param database database name
+	 * @param queue    queue name
+	 * @param capacity queue capacity
+	 */
+	public static void queueFull(String database, String queue, int capacity) {
+		if (AVAILABLE) {
+			JfrRecorder.queueFull(database, queue, capacity);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Create and commit JFR events, only loaded by {@link JfrEvents} when JFR is
+ * available.
+ */
+final class JfrRecorder {
+
+	private JfrRecorder() {
+	}
+
+	static boolean isAvailable() {
+		return FlightRecorder.isAvailable();
+	}
+
+	static void encode(String database, int points, long bytes, long encodeNanos) {
+		EncodeEvent event = new EncodeEvent();
+		if (event.shouldCommit()) {
+			event.database = database;
+			event.points = points;
+			event.bytes = bytes;
+			event.encodeTime = encodeNanos;
+			event.commit();
+		}
+	}
+
+	static Object beginCompress() {
+		CompressEvent event = new CompressEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endCompress(Object handle, String database, long rawBytes, long compressedBytes) {
+		CompressEvent event = (CompressEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.database = database;
+			event.rawBytes = rawBytes;
+			event.compressedBytes = compressedBytes;
+			event.commit();
+		}
+	}
+
+	static Object beginSend() {
+		SendEvent event = new SendEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endSend(Object handle, String database, long bytes, int status) {
+		SendEvent event = (SendEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.database = database;
+			event.bytes = bytes;
+			event.status = status;
+			event.commit();
+		}
+	}
+
+	static Object beginRetry() {
+		RetryEvent event = new RetryEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endRetry(Object handle, String database, int points, int attempt, boolean success) {
+		RetryEvent event = (RetryEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.database = database;
+			event.points = points;
+			event.attempt = attempt;
+			event.success = success;
+			event.commit();
+		}
+	}
+
+	static void queueFull(String database, String queue, int capacity) {
+		QueueFullEvent event = new QueueFullEvent();
+		if (event.shouldCommit()) {
+			event.database = database;
+			event.queue = queue;
+			event.capacity = capacity;
+			event.commit();
+		}
+	}
+}
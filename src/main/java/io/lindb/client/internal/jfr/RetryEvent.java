@@ -0,0 +1,48 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Re-send failed batch data to broker.
+ */
+@Name("io.lindb.client.Retry")
+@Label("Retry")
+@Category({ "LinDB", "Client" })
+@Description("Re-send failed batch data to broker.")
+@StackTrace(false)
+final class RetryEvent extends Event {
+	@Label("Database")
+	String database;
+
+	@Label("Points")
+	int points;
+
+	@Label("Attempt")
+	int attempt;
+
+	@Label("Success")
+	boolean success;
+}
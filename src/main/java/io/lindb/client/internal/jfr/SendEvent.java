@@ -0,0 +1,48 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Send batch data to broker by http.
+ */
+@Name("io.lindb.client.Send")
+@Label("HTTP Send")
+@Category({ "LinDB", "Client" })
+@Description("Send batch data to broker by http.")
+@StackTrace(false)
+final class SendEvent extends Event {
+	@Label("Database")
+	String database;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	@Label("Status")
+	@Description("Http status code, -1 if io error")
+	int status;
+}
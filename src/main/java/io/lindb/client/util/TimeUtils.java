@@ -0,0 +1,72 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time utilities
+ */
+public final class TimeUtils {
+
+	private TimeUtils() {
+	}
+
+	/**
+	 * Parse duration string of database option(interval/ahead/behind), like 10s,
+	 * 5m, 1h, 1d, 1M(30 days), 1y(365 days), also supports ms.
+	 * 
+	 * @param duration duration string
+	 * @return duration(ms)
+	 * @throws IllegalArgumentException if duration string is invalid
+	 */
+	public static long parseDuration(final String duration) {
+		if (duration == null) {
+			throw new IllegalArgumentException("duration is null");
+		}
+		String str = duration.trim();
+		int i = 0;
+		while (i < str.length() && Character.isDigit(str.charAt(i))) {
+			i++;
+		}
+		if (i == 0 || i == str.length()) {
+			throw new IllegalArgumentException("invalid duration: " + duration);
+		}
+		long value = Long.parseLong(str.substring(0, i));
+		String unit = str.substring(i);
+		switch (unit) {
+			case "ms":
+				return value;
+			case "s":
+				return TimeUnit.SECONDS.toMillis(value);
+			case "m":
+				return TimeUnit.MINUTES.toMillis(value);
+			case "h":
+				return TimeUnit.HOURS.toMillis(value);
+			case "d":
+				return TimeUnit.DAYS.toMillis(value);
+			case "M":
+				return TimeUnit.DAYS.toMillis(value * 30);
+			case "y":
+				return TimeUnit.DAYS.toMillis(value * 365);
+			default:
+				throw new IllegalArgumentException("invalid duration unit: " + duration);
+		}
+	}
+}
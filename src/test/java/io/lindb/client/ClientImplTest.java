@@ -24,6 +24,8 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.lindb.client.api.Write;
+
 public class ClientImplTest {
 	private final static Logger LOGGER = LoggerFactory.getLogger(ClientImplTest.class);
 
@@ -39,4 +41,13 @@ public class ClientImplTest {
 		assertNotNull(client.metadataManager());
 		client.close();
 	}
+
+	@Test
+	public void virtualThreads() throws Exception {
+		Client client = new ClientImpl("http://localhost:9000", Options.builder().useVirtualThreads(true).build());
+		Write write = client.write("test");
+		assertNotNull(write);
+		write.close();
+		client.close();
+	}
 }
@@ -23,9 +23,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import io.lindb.client.api.CardinalityPolicy;
 import io.lindb.client.api.WriteOptions;
 import io.lindb.client.internal.HttpOptions;
 
@@ -75,6 +77,48 @@ public class OptionsTest {
 		assertThrows(IllegalArgumentException.class, () -> {
 			Options.builder().sendQueue(-1);
 		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().statsInterval(-1);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().cumulativeTtl(-1);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().maxSeriesPerMetric(-1);
+		});
+		assertThrows(NullPointerException.class, () -> {
+			Options.builder().cardinalityPolicy(null);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().cardinalityWindow(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().maxCardinalityMetrics(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().topK(-1);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().topKInterval(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().schemaRefreshInterval(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().retryBatchBytes(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().eventInterval(-1);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().eventQueue(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().chunkSize(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Options.builder().chunkLinger(0);
+		});
 	}
 
 	@Test
@@ -94,6 +138,28 @@ public class OptionsTest {
 		assertEquals(WriteOptions.DEFAULT_RETRY_QUEUE, writeOptions.getRetryQueue());
 		assertEquals(WriteOptions.DEFAULT_BATCH_QUEUE, writeOptions.getBatchQueue());
 		assertEquals(WriteOptions.DEFAULT_SEND_QUEUE, writeOptions.getSendQueue());
+		assertEquals(WriteOptions.DEFAULT_USE_VIRTUAL_THREADS, writeOptions.isUseVirtualThreads());
+		assertFalse(httpOptions.isUseVirtualThreads());
+		assertEquals(WriteOptions.DEFAULT_JMX_ENABLED, writeOptions.isJmxEnabled());
+		assertEquals(WriteOptions.DEFAULT_STATS_INTERVAL, writeOptions.getStatsInterval());
+		assertEquals(WriteOptions.DEFAULT_CUMULATIVE_TTL, writeOptions.getCumulativeTtl());
+		assertEquals(WriteOptions.DEFAULT_MAX_SERIES_PER_METRIC, writeOptions.getMaxSeriesPerMetric());
+		assertEquals(WriteOptions.DEFAULT_CARDINALITY_POLICY, writeOptions.getCardinalityPolicy());
+		assertEquals(WriteOptions.DEFAULT_CARDINALITY_WINDOW, writeOptions.getCardinalityWindow());
+		assertEquals(WriteOptions.DEFAULT_MAX_CARDINALITY_METRICS, writeOptions.getMaxCardinalityMetrics());
+		assertEquals(WriteOptions.DEFAULT_TOP_K, writeOptions.getTopK());
+		assertEquals(WriteOptions.DEFAULT_TOP_K_INTERVAL, writeOptions.getTopKInterval());
+		assertEquals(WriteOptions.DEFAULT_SCHEMA_AWARE, writeOptions.isSchemaAware());
+		assertEquals(WriteOptions.DEFAULT_SCHEMA_REFRESH_INTERVAL, writeOptions.getSchemaRefreshInterval());
+		assertEquals(WriteOptions.DEFAULT_SORT_BATCH, writeOptions.isSortBatch());
+		assertEquals(WriteOptions.DEFAULT_RETRY_BATCH_BYTES, writeOptions.getRetryBatchBytes());
+		assertEquals(WriteOptions.DEFAULT_EVENT_INTERVAL, writeOptions.getEventInterval());
+		assertEquals(WriteOptions.DEFAULT_EVENT_QUEUE, writeOptions.getEventQueue());
+		assertEquals(WriteOptions.DEFAULT_ACK_TRACKING, writeOptions.isAckTracking());
+		assertEquals(WriteOptions.DEFAULT_CHUNK_SIZE, writeOptions.getChunkSize());
+		assertEquals(WriteOptions.DEFAULT_CHUNK_LINGER, writeOptions.getChunkLinger());
+		assertEquals(WriteOptions.DEFAULT_ENCODE_ON_PUT, writeOptions.isEncodeOnPut());
+		assertEquals(WriteOptions.DEFAULT_RUNTIME_METRICS_INTERVAL, writeOptions.getRuntimeMetricsInterval());
 		assertNull(writeOptions.getDefaultTags());
 
 		// test options
@@ -108,12 +174,34 @@ public class OptionsTest {
 				.retryQueue(7)
 				.batchQueue(8)
 				.sendQueue(9)
+				.useVirtualThreads(true)
+				.jmxEnabled(true)
+				.statsInterval(10)
+				.cumulativeTtl(11)
+				.maxSeriesPerMetric(12)
+				.cardinalityPolicy(CardinalityPolicy.OVERFLOW)
+				.cardinalityWindow(20)
+				.maxCardinalityMetrics(21)
+				.topK(13)
+				.topKInterval(14)
+				.schemaAware(true)
+				.schemaRefreshInterval(1000)
+				.sortBatch(true)
+				.retryBatchBytes(1024)
+				.eventInterval(15)
+				.eventQueue(16)
+				.ackTracking(true)
+				.chunkSize(17)
+				.chunkLinger(18)
+				.encodeOnPut(true)
+				.runtimeMetricsInterval(19)
 				.addDefaultTag("key", "value")
 				.build();
 		httpOptions = options.getHttpOptions();
 		assertEquals(1, httpOptions.getConnectTimeout());
 		assertEquals(2, httpOptions.getWriteTimeout());
 		assertEquals(3, httpOptions.getReadTimeout());
+		assertTrue(httpOptions.isUseVirtualThreads());
 
 		writeOptions = options.getWriteOptions();
 		assertFalse(writeOptions.isUseGZip());
@@ -123,6 +211,27 @@ public class OptionsTest {
 		assertEquals(7, writeOptions.getRetryQueue());
 		assertEquals(8, writeOptions.getBatchQueue());
 		assertEquals(9, writeOptions.getSendQueue());
+		assertTrue(writeOptions.isUseVirtualThreads());
+		assertTrue(writeOptions.isJmxEnabled());
+		assertEquals(10, writeOptions.getStatsInterval());
+		assertEquals(11, writeOptions.getCumulativeTtl());
+		assertEquals(12, writeOptions.getMaxSeriesPerMetric());
+		assertEquals(CardinalityPolicy.OVERFLOW, writeOptions.getCardinalityPolicy());
+		assertEquals(20, writeOptions.getCardinalityWindow());
+		assertEquals(21, writeOptions.getMaxCardinalityMetrics());
+		assertEquals(13, writeOptions.getTopK());
+		assertEquals(14, writeOptions.getTopKInterval());
+		assertTrue(writeOptions.isSchemaAware());
+		assertEquals(1000, writeOptions.getSchemaRefreshInterval());
+		assertTrue(writeOptions.isSortBatch());
+		assertEquals(1024, writeOptions.getRetryBatchBytes());
+		assertEquals(15, writeOptions.getEventInterval());
+		assertEquals(16, writeOptions.getEventQueue());
+		assertTrue(writeOptions.isAckTracking());
+		assertEquals(17, writeOptions.getChunkSize());
+		assertEquals(18, writeOptions.getChunkLinger());
+		assertTrue(writeOptions.isEncodeOnPut());
+		assertEquals(19, writeOptions.getRuntimeMetricsInterval());
 		assertNotNull(writeOptions.getDefaultTags());
 	}
 }
@@ -0,0 +1,37 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.annotation;
+
+/**
+ * Typed metric of http requests, writer generated by
+ * {@link MetricWriterProcessor} at test compile.
+ */
+@Metric(value = "http_requests", namespace = "web")
+public interface HttpMetrics extends AutoCloseable {
+
+	void record(@Tag("path") String path, @Tag("method") String method, @Sum("count") int count,
+			@Max("latency") double latency);
+
+	boolean error(@Tag("path") String path, @Sum("errors") long errors, @Timestamp long timestamp);
+
+	boolean flush();
+
+	@Override
+	void close();
+}
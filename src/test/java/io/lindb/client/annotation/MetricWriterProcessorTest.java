@@ -0,0 +1,145 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.api.Write;
+import io.lindb.client.testing.FakeBroker;
+
+public class MetricWriterProcessorTest {
+
+	@Metric("gc")
+	interface Gc {
+		void pause(@Tag("collector") String collector, @Last("pause") float pause);
+	}
+
+	@Test
+	public void write() throws Exception {
+		Map<String, Double> fields = new ConcurrentHashMap<>();
+		List<String> series = Collections.synchronizedList(new ArrayList<>());
+		try (FakeBroker broker = FakeBroker.builder().listener((db, metric) -> {
+			Map<String, String> tags = new TreeMap<>();
+			for (int i = 0; i < metric.keyValuesLength(); i++) {
+				tags.put(metric.keyValues(i).key(), metric.keyValues(i).value());
+			}
+			series.add(metric.namespace() + ":" + metric.name() + tags);
+			for (int i = 0; i < metric.simpleFieldsLength(); i++) {
+				fields.merge(metric.name() + "." + metric.simpleFields(i).name(), metric.simpleFields(i).value(),
+						Double::sum);
+			}
+			if (metric.name().equals("http_requests") && metric.simpleFields(0).name().equals("errors")) {
+				fields.put("errors.timestamp", (double) metric.timestamp());
+			}
+		}).build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(),
+					Options.builder().chunkSize(100).chunkLinger(60_000).flushInterval(10).build());
+			Write write = client.write("db");
+			Gc gc = new MetricWriterProcessorTest_GcWriter(write);
+			long now = System.currentTimeMillis();
+			try (HttpMetrics metrics = new HttpMetricsWriter(write)) {
+				for (int i = 0; i < 10; i++) {
+					metrics.record(i % 2 == 0 ? "/a" : "/b", "GET", 1, i);
+				}
+				assertTrue(metrics.error("/a", 2, now));
+				gc.pause("G1", 1.5f);
+				assertTrue(metrics.flush());
+			}
+			((AutoCloseable) gc).close();
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 12 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			write.close();
+			client.close();
+			assertEquals(12, broker.getPoints());
+			assertEquals(10, fields.get("http_requests.count"), 0);
+			// values of all received points summed by listener
+			assertEquals(45, fields.get("http_requests.latency"), 0);
+			assertEquals(2, fields.get("http_requests.errors"), 0);
+			assertEquals(now, fields.get("errors.timestamp"), 0);
+			assertEquals(1.5, fields.get("gc.pause"), 0);
+			assertTrue(series.contains("web:http_requests{method=GET, path=/a}"));
+			assertTrue(series.contains("web:http_requests{method=GET, path=/b}"));
+			assertTrue(series.contains("default_ns:gc{collector=G1}"));
+		}
+	}
+
+	@Test
+	public void invalid() {
+		assertError("@Metric(\"m\") class M {}", "only applies to interface");
+		assertError("@Metric(\"\") interface M { void r(@Sum(\"f\") double f); }", "metric name cannot be empty");
+		assertError("@Metric(\"m\") interface M { int r(@Sum(\"f\") double f); }", "must return void or boolean");
+		assertError("@Metric(\"m\") interface M { void r(@Tag(\"t\") String t); }", "at least one field");
+		assertError("@Metric(\"m\") interface M { void r(double f); }", "exactly one of");
+		assertError("@Metric(\"m\") interface M { void r(@Tag(\"t\") int t, @Sum(\"f\") double f); }",
+				"tag parameter must be String");
+		assertError("@Metric(\"m\") interface M { void r(@Sum(\"f\") String f); }", "primitive number");
+		assertError("@Metric(\"m\") interface M { void r(@Sum(\"f\") double f, @Max(\"f\") double g); }",
+				"unique: f");
+		assertError("@Metric(\"m\") interface M { void r(@Timestamp int t, @Sum(\"f\") double f); }",
+				"timestamp parameter");
+	}
+
+	private static void assertError(String source, String message) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///test/M.java"),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return "package test; import io.lindb.client.annotation.*; " + source;
+			}
+		};
+		List<String> options = new ArrayList<>();
+		options.add("-proc:only");
+		options.add("-processor");
+		options.add(MetricWriterProcessor.class.getName());
+		options.add("-classpath");
+		options.add(System.getProperty("java.class.path"));
+		compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file)).call();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getMessage(null).contains(message)) {
+				return;
+			}
+		}
+		throw new AssertionError("no error '" + message + "' in " + diagnostics.getDiagnostics());
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class AckTrackerTest {
+
+	private WriteEntry entry(AckTracker.Batch batch, int points) {
+		WriteEntry entry = new WriteEntry(new byte[0], new ArrayList<>());
+		for (int i = 0; i < points; i++) {
+			entry.getPoints().add(Point.builder("test").addLast("f", 1).build());
+		}
+		entry.track(batch);
+		return entry;
+	}
+
+	@Test
+	public void watermark() throws Exception {
+		AckTracker tracker = new AckTracker();
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i + 1, tracker.assign());
+		}
+		WriteEntry first = entry(tracker.batch(4, 4, false), 4);
+		WriteEntry second = entry(tracker.batch(7, 3, false), 3);
+		assertNull(tracker.batch(7, 0, false));
+		CompletableFuture<Long> flush = tracker.flush();
+
+		// out of order completion, watermark waits for first batch
+		tracker.resolve(second, false);
+		assertEquals(0, tracker.acked());
+		assertFalse(tracker.await(7, 10, TimeUnit.MILLISECONDS));
+		tracker.resolve(first, false);
+		assertEquals(7, tracker.acked());
+		assertTrue(tracker.await(7, 10, TimeUnit.MILLISECONDS));
+		assertFalse(flush.isDone());
+
+		tracker.batch(10, 0, false);
+		assertEquals(10, tracker.acked());
+		assertEquals(0, tracker.lost());
+		assertEquals(Long.valueOf(10), flush.get(1, TimeUnit.SECONDS));
+		assertTrue(tracker.flush().isDone());
+	}
+
+	@Test
+	public void lost() throws Exception {
+		AckTracker tracker = new AckTracker();
+		tracker.assign(10);
+		// 1 point dropped by decoder in first batch
+		WriteEntry first = entry(tracker.batch(4, 3, true), 3);
+		WriteEntry second = entry(tracker.batch(7, 3, false), 3);
+		CompletableFuture<Long> flush = tracker.flush();
+		tracker.resolve(first, false);
+		assertEquals(4, tracker.acked());
+		assertEquals(4, tracker.lost());
+		// points rejected by broker
+		tracker.resolve(second, true);
+		tracker.batch(10, 0, false);
+		assertEquals(10, tracker.acked());
+		assertEquals(7, tracker.lost());
+		assertTrue(flush.isCompletedExceptionally());
+		// batch of sequence dropped, batch after lost watermark acked
+		assertFalse(tracker.await(6, 0, TimeUnit.MILLISECONDS));
+		assertTrue(tracker.await(9, 0, TimeUnit.MILLISECONDS));
+
+		// flush after lost watermark completes normally
+		tracker.assign(2);
+		flush = tracker.flush();
+		WriteEntry third = entry(tracker.batch(12, 2, false), 2);
+		AtomicBoolean locked = new AtomicBoolean(true);
+		flush.thenRun(() -> locked.set(Thread.holdsLock(tracker)));
+		tracker.resolve(third, false);
+		assertEquals(Long.valueOf(12), flush.get(1, TimeUnit.SECONDS));
+		// completed after tracker lock released
+		assertFalse(locked.get());
+		assertEquals(7, tracker.lost());
+	}
+
+	@Test
+	public void close() throws Exception {
+		AckTracker tracker = new AckTracker();
+		tracker.assign();
+		CompletableFuture<Long> flush = tracker.flush();
+		tracker.close();
+		assertTrue(flush.isCompletedExceptionally());
+		assertFalse(tracker.await(1, 1, TimeUnit.SECONDS));
+		try {
+			tracker.flush().get();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+}
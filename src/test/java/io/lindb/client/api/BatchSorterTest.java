@@ -0,0 +1,115 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BatchSorterTest {
+
+	private static Point point(String ns, String name, String host, long timestamp) {
+		return Point.builder(name, timestamp).namespace(ns).addTag("host", host).addLast("f", timestamp).build();
+	}
+
+	@Test
+	public void sort() {
+		List<Point> points = Arrays.asList(
+				point(null, "mem", "a", 2),
+				point(null, "cpu", "b", 3),
+				point("ns", "cpu", "a", 1),
+				point(null, "cpu", "a", 2),
+				point(null, "cpu", "b", 1),
+				point(null, "cpu", "a", 1),
+				point(null, "cpu", "a", 1));
+		int[] index = new BatchSorter().sort(points);
+		// default_ns < ns, cpu < mem
+		assertEquals(Arrays.asList(5, 6, 3), firstSeries(index, points, 0, 3));
+		assertEquals(Arrays.asList(4, 1), firstSeries(index, points, 3, 5));
+		assertEquals(0, index[5]);
+		assertEquals(2, index[6]);
+	}
+
+	private static List<Integer> firstSeries(int[] index, List<Point> points, int from, int to) {
+		List<Integer> result = new ArrayList<>();
+		String host = points.get(index[from]).getTags().get("host");
+		for (int i = from; i < to; i++) {
+			assertEquals(host, points.get(index[i]).getTags().get("host"));
+			result.add(index[i]);
+		}
+		return result;
+	}
+
+	@Test
+	public void sort_random() {
+		Random random = new Random(42);
+		BatchSorter sorter = new BatchSorter();
+		for (int size : new int[] { 0, 1, 15, 16, 100, 3000 }) {
+			List<Point> points = new ArrayList<>();
+			for (int i = 0; i < size; i++) {
+				points.add(point(null, "m" + random.nextInt(5), "h" + random.nextInt(50), random.nextInt(10)));
+			}
+			int[] index = sorter.sort(points);
+			boolean[] seen = new boolean[size];
+			for (int i = 0; i < size; i++) {
+				seen[index[i]] = true;
+			}
+			for (boolean s : seen) {
+				assertTrue(s);
+			}
+			for (int i = 1; i < size; i++) {
+				Point prev = points.get(index[i - 1]);
+				Point cur = points.get(index[i]);
+				int c = prev.getName().compareTo(cur.getName());
+				assertTrue(c <= 0);
+				if (c == 0 && DeltaConverter.seriesHash(prev) == DeltaConverter.seriesHash(cur)) {
+					assertTrue(prev.getTimestamp() < cur.getTimestamp()
+							|| prev.getTimestamp() == cur.getTimestamp() && index[i - 1] < index[i]);
+				}
+			}
+			// each series is contiguous
+			List<Long> series = new ArrayList<>();
+			for (int i = 0; i < size; i++) {
+				long h = DeltaConverter.seriesHash(points.get(index[i]));
+				if (series.isEmpty() || series.get(series.size() - 1) != h) {
+					assertTrue(!series.contains(h));
+					series.add(h);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void reuse() {
+		BatchSorter sorter = new BatchSorter();
+		int[] index = sorter.sort(Collections.nCopies(32, point(null, "cpu", "a", 1)));
+		for (int i = 0; i < 32; i++) {
+			assertEquals(i, index[i]);
+		}
+		assertSame(index, sorter.sort(Collections.singletonList(point(null, "cpu", "a", 1))));
+	}
+}
@@ -18,11 +18,13 @@
  */
 package io.lindb.client.api;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -61,6 +63,35 @@ public class BlockingWriteImplTest extends BaseClientTest {
 		}
 	}
 
+	@Test
+	public void writeSeries() throws Exception {
+		MockWebServer server = new MockWebServer();
+		final AtomicInteger requests = new AtomicInteger();
+		final Dispatcher dispatcher = new Dispatcher() {
+
+			@Override
+			public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+				requests.incrementAndGet();
+				return new MockResponse().setResponseCode(200);
+			}
+		};
+		server.setDispatcher(dispatcher);
+		WriteClient client = new WriteClient(server.url("/test").toString(), cli);
+
+		WriteOptions options = WriteOptions.builder().batchSize(2).build();
+		Series series = Series.builder("test").timestamps(new long[] { 1, 2, 3 })
+				.addLast("last", new double[] { 1, 2, 3 }).build();
+
+		BlockingWriteImpl write = new BlockingWriteImpl(options, client);
+		try {
+			write.writeSeries(null);
+			write.writeSeries(series);
+			assertEquals(2, requests.get());
+		} finally {
+			server.close();
+		}
+	}
+
 	@Test
 	public void writeFailure() throws Exception {
 		MockWebServer server = new MockWebServer();
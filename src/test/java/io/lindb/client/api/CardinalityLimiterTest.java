@@ -0,0 +1,222 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.testing.FakeBroker;
+
+public class CardinalityLimiterTest {
+
+	private static Point point(String metric, String host, String requestId) {
+		return Point.builder(metric).addTag("host", host).addTag("request_id", requestId).addSum("count", 1)
+				.build();
+	}
+
+	@Test
+	public void drop() {
+		assertThrows(IllegalArgumentException.class, () -> new CardinalityLimiter(0, CardinalityPolicy.DROP, 60_000, 16, 0));
+		assertThrows(NullPointerException.class, () -> new CardinalityLimiter(1, null, 60_000, 16, 0));
+
+		CardinalityLimiter limiter = new CardinalityLimiter(10, CardinalityPolicy.DROP, 60_000, 16, 0);
+		for (int i = 0; i < 10; i++) {
+			Point point = point("http", "host-" + (i % 2), "req-" + i);
+			assertSame(point, limiter.admit(point, 0));
+		}
+		// new series dropped
+		for (int i = 10; i < 1000; i++) {
+			assertNull(limiter.admit(point("http", "host-" + (i % 2), "req-" + i), 0));
+		}
+		// admitted series still written
+		Point point = point("http", "host-1", "req-3");
+		assertSame(point, limiter.admit(point, 0));
+		// limit per metric
+		point = point("rpc", "host-1", "req-100");
+		assertSame(point, limiter.admit(point, 0));
+
+		assertEquals(1000, limiter.estimateSeries(null, "http"), 50);
+		assertEquals(1000, limiter.estimateTagValues(null, "http", "request_id"), 50);
+		assertEquals(2, limiter.estimateTagValues(null, "http", "host"));
+		assertEquals(0, limiter.estimateTagValues(null, "http", "none"));
+		assertEquals(0, limiter.estimateSeries("ns", "http"));
+		assertEquals(0, limiter.estimateTagValues("ns", "http", "host"));
+	}
+
+	@Test
+	public void overflow() {
+		CardinalityLimiter limiter = new CardinalityLimiter(4, CardinalityPolicy.OVERFLOW, 60_000, 16, 0);
+		Set<String> series = new HashSet<>();
+		for (int i = 0; i < 1000; i++) {
+			Point point = point("http", "host-" + (i % 2), "req-" + i);
+			Point admitted = limiter.admit(point, 0);
+			if (i >= 4) {
+				assertNotSame(point, admitted);
+				// highest cardinality tag collapsed
+				assertEquals(CardinalityLimiter.OVERFLOW_VALUE, admitted.getTags().get("request_id"));
+				assertEquals(point.getTags().get("host"), admitted.getTags().get("host"));
+				// original point not changed
+				assertEquals("req-" + i, point.getTags().get("request_id"));
+			}
+			series.add(admitted.getTags().toString());
+		}
+		// 4 admitted + one overflow series per host
+		assertEquals(6, series.size());
+
+		// no tags
+		Point point = Point.builder("http").addSum("count", 1).build();
+		limiter = new CardinalityLimiter(1, CardinalityPolicy.OVERFLOW, 60_000, 16, 0);
+		assertSame(point, limiter.admit(point, 0));
+		// tags collapsed until series known
+		for (int i = 0; i < 10; i++) {
+			Point admitted = limiter.admit(Point.builder("http").addTag("host", "host-" + i)
+					.addTag("ip", "ip-" + i).addSum("count", 1).build(), 0);
+			long collapsed = admitted.getTags().values().stream()
+					.filter(CardinalityLimiter.OVERFLOW_VALUE::equals).count();
+			// overflow budget used up by first one, then all tags collapsed
+			assertEquals(i == 0 ? 1 : 2, collapsed);
+		}
+	}
+
+	@Test
+	public void window() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new CardinalityLimiter(1, CardinalityPolicy.DROP, 0, 16, 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new CardinalityLimiter(1, CardinalityPolicy.DROP, 1000, 0, 0));
+		CardinalityLimiter limiter = new CardinalityLimiter(1, CardinalityPolicy.DROP, 1000, 16, 0);
+		Point point = point("http", "host", "req-1");
+		assertSame(point, limiter.admit(point, 0));
+		assertNull(limiter.admit(point("http", "host", "req-2"), 999));
+		// state reset after window, new series admitted
+		point = point("http", "host", "req-2");
+		assertSame(point, limiter.admit(point, 1000));
+		assertEquals(1, limiter.estimateSeries(null, "http"));
+		assertNull(limiter.admit(point("http", "host", "req-1"), 1500));
+	}
+
+	@Test
+	public void maxMetrics() {
+		CardinalityLimiter limiter = new CardinalityLimiter(1, CardinalityPolicy.DROP, 60_000, 2, 0);
+		limiter.admit(point("a", "host", "req-1"), 0);
+		limiter.admit(point("b", "host", "req-1"), 0);
+		// a used recently, b evicted
+		limiter.admit(point("a", "host", "req-1"), 0);
+		limiter.admit(point("c", "host", "req-1"), 0);
+		assertEquals(2, limiter.metrics());
+		assertEquals(1, limiter.estimateSeries(null, "a"));
+		assertEquals(0, limiter.estimateSeries(null, "b"));
+		// evicted metric starts over
+		Point point = point("b", "host", "req-2");
+		assertSame(point, limiter.admit(point, 0));
+		assertEquals(2, limiter.metrics());
+	}
+
+	@Test
+	public void maxTagKeys() {
+		CardinalityLimiter limiter = new CardinalityLimiter(1, CardinalityPolicy.OVERFLOW, 60_000, 16, 0);
+		for (int i = 0; i < CardinalityLimiter.MAX_TAG_KEYS * 2; i++) {
+			limiter.admit(Point.builder("http").addTag("key-" + i, "v").addSum("count", 1).build(), 0);
+		}
+		assertEquals(1, limiter.estimateTagValues(null, "http", "key-0"));
+		// dynamic tag keys beyond max not tracked
+		assertEquals(0, limiter.estimateTagValues(null, "http", "key-" + CardinalityLimiter.MAX_TAG_KEYS));
+		Point point = Point.builder("http").addTag("key-" + CardinalityLimiter.MAX_TAG_KEYS, "w").addSum("count", 1)
+				.build();
+		assertEquals(CardinalityLimiter.OVERFLOW_VALUE,
+				limiter.admit(point, 0).getTags().get("key-" + CardinalityLimiter.MAX_TAG_KEYS));
+		// reset by window
+		limiter.admit(point, 60_000);
+		assertEquals(1, limiter.estimateTagValues(null, "http", "key-" + CardinalityLimiter.MAX_TAG_KEYS));
+	}
+
+	@Test
+	public void write() throws Exception {
+		AtomicInteger events = new AtomicInteger();
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(),
+					Options.builder().maxSeriesPerMetric(5).flushInterval(50).build());
+			Write write = client.write("db", (event, points, e) -> {
+				assertEquals(EventType.cardinality, event);
+				events.addAndGet(points.size());
+			});
+			for (int i = 0; i < 20; i++) {
+				assertTrue(write.put(point("http", "host", "req-" + i)));
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 5 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			WriteStats stats = write.stats();
+			write.close();
+			client.close();
+			assertEquals(5, broker.getPoints());
+			assertEquals(5, broker.getSeries());
+			assertEquals(15, events.get());
+			assertEquals(15, stats.getLimitedPoints());
+			assertEquals(15, stats.getDroppedPoints());
+			assertEquals(0, stats.getOverflowPoints());
+		}
+	}
+
+	@Test
+	public void writeRecords() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(), Options.builder().maxSeriesPerMetric(2)
+					.cardinalityPolicy(CardinalityPolicy.OVERFLOW).flushInterval(50).build());
+			Write write = client.write("db");
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			RowBuilder builder = new RowBuilder();
+			for (int i = 0; i < 10; i++) {
+				byte[] record = builder.build(point("http", "host", "req-" + i), null);
+				out.write(record, 0, record.length);
+				builder.reset();
+			}
+			byte[] records = out.toByteArray();
+			assertEquals(10, write.writeRecords(records, 0, records.length, 1, TimeUnit.SECONDS));
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 10 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			WriteStats stats = write.stats();
+			write.close();
+			client.close();
+			assertEquals(10, broker.getPoints());
+			// new series over limit encoded again with collapsed tags
+			assertEquals(3, broker.getSeries());
+			assertEquals(8, stats.getOverflowPoints());
+			assertEquals(0, stats.getLimitedPoints());
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.lindb.client.flat.metrics.v1.Metric;
+
+public class CsvParserTest {
+	private final RecordEncoder encoder = new RecordEncoder(null, null, FieldType.Last, Collections.emptyMap());
+
+	private static CsvParser parser(String header, ImportOptions options) {
+		byte[] b = header.getBytes(StandardCharsets.UTF_8);
+		return new CsvParser(b, b.length, options);
+	}
+
+	private int parse(CsvParser parser, String line) {
+		byte[] b = line.getBytes(StandardCharsets.UTF_8);
+		int state = parser.parse(b, b.length, encoder, 42);
+		if (state == RecordParser.OK && !encoder.finish()) {
+			return RecordParser.INVALID;
+		}
+		return state;
+	}
+
+	private Metric last() {
+		List<Metric> metrics = RecordEncoderTest.decode(encoder);
+		return metrics.get(metrics.size() - 1);
+	}
+
+	@Test
+	public void parse() {
+		ImportOptions options = ImportOptions.builder().format(ImportFormat.CSV).nameColumn("name")
+				.addTagColumn("host").build();
+		CsvParser parser = parser("\uFEFFname, timestamp,host,usage,note\r\n", options);
+		assertEquals(RecordParser.OK, parse(parser, "cpu,1000,\"h,1\",1.5,abc\r"));
+		Metric metric = last();
+		assertEquals("cpu", metric.name());
+		assertEquals(1000, metric.timestamp());
+		assertEquals("host", metric.keyValues(0).key());
+		assertEquals("h,1", metric.keyValues(0).value());
+		// non-numeric field skipped
+		assertEquals(1, metric.simpleFieldsLength());
+		assertEquals("usage", metric.simpleFields(0).name());
+		assertEquals(RecordParser.OK, parse(parser, "cpu,1000,h1,1,2"));
+		assertEquals("note", last().simpleFields(1).name());
+
+		// quoted quote, missing trailing columns, no timestamp
+		assertEquals(RecordParser.OK, parse(parser, "\"c\"\"q\",,,2"));
+		metric = last();
+		assertEquals("c\"q", metric.name());
+		assertEquals(42, metric.timestamp());
+		assertEquals(0, metric.keyValuesLength());
+		assertEquals(2, metric.simpleFields(0).value(), 0);
+
+		assertEquals(RecordParser.EMPTY, parse(parser, " \r"));
+		assertEquals(RecordParser.INVALID, parse(parser, "cpu,abc,h1,1"));
+		assertEquals(RecordParser.INVALID, parse(parser, "cpu,1,h1,1,2,3"));
+		// no fields
+		assertEquals(RecordParser.INVALID, parse(parser, "cpu,1,h1,,x"));
+	}
+
+	@Test
+	public void metricName() {
+		ImportOptions options = ImportOptions.builder().format(ImportFormat.CSV).metricName("mem")
+				.timestampColumn("ts").separator(';').build();
+		CsvParser parser = parser("ts;used;free", options);
+		assertEquals(RecordParser.OK, parse(parser, "5;1;2"));
+		Metric metric = last();
+		assertEquals("mem", metric.name());
+		assertEquals(5, metric.timestamp());
+		assertEquals(2, metric.simpleFieldsLength());
+	}
+
+	@Test
+	public void nameColumnNotFound() {
+		ImportOptions options = ImportOptions.builder().format(ImportFormat.CSV).nameColumn("name").build();
+		assertThrows(IllegalArgumentException.class, () -> parser("ts,usage", options));
+	}
+}
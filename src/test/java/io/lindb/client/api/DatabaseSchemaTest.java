@@ -0,0 +1,76 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import io.lindb.client.model.DatabaseOption;
+import io.lindb.client.model.Interval;
+
+public class DatabaseSchemaTest {
+
+	private static Interval interval(String interval) {
+		Interval i = new Interval();
+		i.setInterval(interval);
+		i.setRetention("30d");
+		return i;
+	}
+
+	@Test
+	public void of() {
+		DatabaseOption option = new DatabaseOption();
+		option.setIntervals(Arrays.asList(interval("5m"), interval("10s"), interval("1h")));
+		option.setAhead("1h");
+		option.setBehind("2h");
+		DatabaseSchema schema = DatabaseSchema.of(option);
+		assertEquals(10_000, schema.getInterval());
+		long now = 1_700_000_000_000L;
+		assertFalse(schema.isAhead(now + 3_600_000, now));
+		assertTrue(schema.isAhead(now + 3_600_001, now));
+		assertFalse(schema.isBehind(now - 7_200_000, now));
+		assertTrue(schema.isBehind(now - 7_200_001, now));
+	}
+
+	@Test
+	public void of_missing() {
+		assertEquals(DatabaseSchema.NONE, DatabaseSchema.of(null));
+		DatabaseOption option = new DatabaseOption();
+		option.setIntervals(Arrays.asList(interval("bad"), interval(null)));
+		option.setAhead("1w");
+		DatabaseSchema schema = DatabaseSchema.of(option);
+		assertEquals(0, schema.getInterval());
+		assertFalse(schema.isAhead(Long.MAX_VALUE, 0));
+		assertFalse(schema.isBehind(0, Long.MAX_VALUE));
+	}
+
+	@Test
+	public void align() {
+		DatabaseSchema schema = new DatabaseSchema(10_000, Long.MAX_VALUE, Long.MAX_VALUE);
+		assertEquals(1_700_000_000_000L, schema.align(1_700_000_009_999L));
+		assertEquals(1_700_000_010_000L, schema.align(1_700_000_010_000L));
+		assertEquals(-10_000, schema.align(-1));
+		assertEquals(123, DatabaseSchema.NONE.align(123));
+	}
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.lindb.client.internal.BaseClientTest;
+import io.lindb.client.internal.WriteClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class DeltaConverterTest extends BaseClientTest {
+
+	private static Point cumulative(String host, double value) {
+		return Point.builder("jvm.gc").addTag("host", host).addTag("gc", "g1").addCumulativeSum("count", value)
+				.build();
+	}
+
+	private static double sum(Point point, int idx) {
+		Field field = point.getSimpleFields().get(idx);
+		assertTrue(field instanceof SimpleField);
+		RowBuilder builder = new RowBuilder();
+		// converted field must be encodable
+		assertTrue(builder.build(point, null).length > 0);
+		return ((SimpleField) field).getValue();
+	}
+
+	@Test
+	public void convert() {
+		DeltaConverter converter = new DeltaConverter(1000);
+		// first value initializes state only
+		assertNull(converter.convert(cumulative("a", 10), 0));
+		assertEquals(1, converter.size());
+		assertEquals(5, sum(converter.convert(cumulative("a", 15), 1), 0), 0);
+		assertEquals(0, sum(converter.convert(cumulative("a", 15), 2), 0), 0);
+		// counter reset
+		assertEquals(3, sum(converter.convert(cumulative("a", 3), 3), 0), 0);
+		// other series
+		assertNull(converter.convert(cumulative("b", 100), 4));
+		assertEquals(2, converter.size());
+
+		// tag order independent
+		Point p1 = Point.builder("m").addTag("a", "1").addTag("b", "2").addSum("x", 1).build();
+		Point p2 = Point.builder("m").addTag("b", "2").addTag("a", "1").addSum("x", 1).build();
+		assertEquals(DeltaConverter.seriesHash(p1), DeltaConverter.seriesHash(p2));
+		Point p3 = Point.builder("m").addTag("a", "12").addSum("x", 1).build();
+		Point p4 = Point.builder("m").addTag("a1", "2").addSum("x", 1).build();
+		assertFalse(DeltaConverter.seriesHash(p3) == DeltaConverter.seriesHash(p4));
+	}
+
+	@Test
+	public void mixedFields() {
+		DeltaConverter converter = new DeltaConverter(1000);
+		Point point = Point.builder("cpu").addLast("load", 1).addCumulativeSum("ticks", 100).build();
+		Point converted = converter.convert(point, 0);
+		// keep other fields
+		assertEquals(1, converted.getSimpleFields().size());
+		converted = converter.convert(
+				Point.builder("cpu").addLast("load", 2).addCumulativeSum("ticks", 150).build(), 1);
+		assertEquals(2, converted.getSimpleFields().size());
+		assertEquals(50, sum(converted, 1), 0);
+
+		// point without cumulative field not changed
+		point = Point.builder("cpu").addSum("f", 1).build();
+		assertSame(point, converter.convert(point));
+
+		// cumulative field cannot be added with compound field
+		point = Point.builder("cpu").addHistogram(1, 1, 1, 1, new double[] { 1 }, new double[] { 1 })
+				.addCumulativeSum("f", 1).build();
+		assertFalse(point.hasCumulativeFields());
+		assertNull(point.getSimpleFields());
+		// empty field name ignored
+		assertFalse(Point.builder("cpu").addCumulativeSum("", 1).build().hasCumulativeFields());
+
+		// not converted field cannot be written
+		assertThrows(IllegalStateException.class,
+				() -> new RowBuilder().build(Point.builder("cpu").addCumulativeSum("f", 1).build(), null));
+	}
+
+	@Test
+	public void evict() {
+		assertThrows(IllegalArgumentException.class, () -> new DeltaConverter(0));
+		DeltaConverter converter = new DeltaConverter(100);
+		int n = 10_000;
+		for (int i = 0; i < n; i++) {
+			assertNull(converter.convert(cumulative("host-" + i, i), 0));
+		}
+		assertEquals(n, converter.size());
+		for (int i = 0; i < n; i++) {
+			if (i % 2 == 0) {
+				assertEquals(1, sum(converter.convert(cumulative("host-" + i, i + 1), 50), 0), 0);
+			}
+		}
+		// odd series expired
+		assertEquals(n / 2, converter.evict(120));
+		assertEquals(n / 2, converter.size());
+		for (int i = 0; i < n; i++) {
+			Point point = converter.convert(cumulative("host-" + i, i + 2), 130);
+			if (i % 2 == 0) {
+				assertEquals(1, sum(point, 0), 0);
+			} else {
+				assertNull(point);
+			}
+		}
+		assertEquals(n, converter.evict(1000));
+		assertEquals(0, converter.size());
+		// evicted when converting after ttl
+		assertNull(converter.convert(cumulative("a", 1), 2000));
+		assertNull(converter.convert(cumulative("b", 1), 2050));
+		assertEquals(1, sum(converter.convert(cumulative("a", 2), 2090), 0), 0);
+		assertEquals(2, converter.size());
+		assertNull(converter.convert(cumulative("c", 1), 2300));
+		assertEquals(1, converter.size());
+	}
+
+	@Test
+	public void deltas() {
+		DeltaConverter converter = new DeltaConverter(1000);
+		double[] values = { 10, 100 };
+		// first values initialize state only
+		assertFalse(converter.deltas(1, values, 2, 0));
+		assertEquals(10, values[0], 0);
+		values[0] = 12;
+		values[1] = 150;
+		assertTrue(converter.deltas(1, values, 2, 1));
+		assertEquals(2, values[0], 0);
+		assertEquals(50, values[1], 0);
+		// any component going backwards resets whole series, counting from 0
+		values[0] = 13;
+		values[1] = 20;
+		assertTrue(converter.deltas(1, values, 2, 2));
+		assertEquals(13, values[0], 0);
+		assertEquals(20, values[1], 0);
+		values[0] = 14;
+		values[1] = 25;
+		assertTrue(converter.deltas(1, values, 2, 3));
+		assertEquals(1, values[0], 0);
+		assertEquals(5, values[1], 0);
+		// other key has own state
+		assertFalse(converter.deltas(2, values, 2, 4));
+		// idle state evicted after ttl
+		assertFalse(converter.deltas(1, values, 2, 3000));
+	}
+
+	@Test
+	public void restore() {
+		DeltaConverter converter = new DeltaConverter(1000);
+		double[] values = { 10, 100 };
+		double[] last = new double[2];
+		assertFalse(converter.deltas(1, values, 2, 0, last));
+		values[0] = 12;
+		values[1] = 150;
+		assertTrue(converter.deltas(1, values, 2, 1, last));
+		assertEquals(10, last[0], 0);
+		assertEquals(100, last[1], 0);
+		// rolled back conversion converts same values into same deltas again
+		converter.restore(1, last, 0, 2);
+		values[0] = 12;
+		values[1] = 150;
+		assertTrue(converter.deltas(1, values, 2, 2, last));
+		assertEquals(2, values[0], 0);
+		assertEquals(50, values[1], 0);
+	}
+
+	@Test
+	public void blockingWrite() throws Exception {
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(204));
+		try {
+			WriteClient client = new WriteClient(server.url("/test").toString(), cli);
+			BlockingWriteImpl write = new BlockingWriteImpl(WriteOptions.builder().build(), client);
+			List<Point> points = new ArrayList<>();
+			points.add(cumulative("a", 1));
+			// initial values not sent
+			write.write(points);
+			assertEquals(0, server.getRequestCount());
+			points.clear();
+			points.add(cumulative("a", 2));
+			write.write(points);
+			assertEquals(1, server.getRequestCount());
+		} finally {
+			server.close();
+		}
+	}
+}
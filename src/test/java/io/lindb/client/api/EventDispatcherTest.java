@@ -0,0 +1,174 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Test;
+
+public class EventDispatcherTest {
+	private final Point point = Point.builder("test").addSum("sum", 1.0).build();
+
+	@Test
+	public void coalesce() throws Exception {
+		List<EventType> events = new CopyOnWriteArrayList<>();
+		List<List<Point>> points = new CopyOnWriteArrayList<>();
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		EventDispatcher dispatcher = new EventDispatcher((event, ps, e) -> {
+			events.add(event);
+			points.add(ps);
+			errors.add(e);
+		}, 60_000, 100, new LongAdder());
+		dispatcher.start(false);
+		RuntimeException first = new RuntimeException("first");
+		for (int i = 0; i < 20; i++) {
+			dispatcher.error(EventType.send, Arrays.asList(point, point), i == 0 ? first : new RuntimeException());
+		}
+		dispatcher.error(EventType.decode, Arrays.asList(point), new RuntimeException());
+		// failures flushed when closing
+		dispatcher.close(5, TimeUnit.SECONDS);
+		assertEquals(Arrays.asList(EventType.decode, EventType.send), events);
+		assertEquals(1, points.get(0).size());
+		assertEquals(40, points.get(1).size());
+		assertSame(EventType.decode, events.get(0));
+		// single failure notified as is
+		assertEquals(RuntimeException.class, errors.get(0).getClass());
+		CoalescedException coalesced = (CoalescedException) errors.get(1);
+		assertEquals(20, coalesced.getFailures());
+		assertEquals(0, coalesced.getOmittedPoints());
+		assertSame(first, coalesced.getCause());
+		assertEquals(8, coalesced.getSuppressed().length);
+		// exceptions of callers not modified
+		assertEquals(0, first.getSuppressed().length);
+	}
+
+	@Test
+	public void coalesce_maxPoints() throws Exception {
+		List<List<Point>> points = new CopyOnWriteArrayList<>();
+		List<Throwable> errors = new CopyOnWriteArrayList<>();
+		EventDispatcher dispatcher = new EventDispatcher((event, ps, e) -> {
+			points.add(ps);
+			errors.add(e);
+		}, 60_000, 100, new LongAdder());
+		dispatcher.start(false);
+		RuntimeException e = new RuntimeException();
+		List<Point> batch = Collections.nCopies(EventDispatcher.MAX_POINTS / 2 + 1, point);
+		for (int i = 0; i < 3; i++) {
+			dispatcher.error(EventType.send, batch, e);
+		}
+		dispatcher.close(5, TimeUnit.SECONDS);
+		assertEquals(EventDispatcher.MAX_POINTS, points.get(0).size());
+		CoalescedException coalesced = (CoalescedException) errors.get(0);
+		assertEquals(3, coalesced.getFailures());
+		assertEquals(batch.size() * 3 - EventDispatcher.MAX_POINTS, coalesced.getOmittedPoints());
+		// same exception not repeated as suppressed
+		assertSame(e, coalesced.getCause());
+		assertEquals(0, coalesced.getSuppressed().length);
+	}
+
+	@Test
+	public void immediate() throws Exception {
+		CountDownLatch notified = new CountDownLatch(3);
+		EventDispatcher dispatcher = new EventDispatcher((event, ps, e) -> notified.countDown(), 0, 100,
+				new LongAdder());
+		dispatcher.start(false);
+		try {
+			for (int i = 0; i < 3; i++) {
+				dispatcher.error(EventType.send, Arrays.asList(point), new RuntimeException());
+				Thread.sleep(20);
+			}
+			assertTrue(notified.await(5, TimeUnit.SECONDS));
+		} finally {
+			dispatcher.close(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void slowListener() throws Exception {
+		CountDownLatch block = new CountDownLatch(1);
+		LongAdder dropped = new LongAdder();
+		EventDispatcher dispatcher = new EventDispatcher((event, ps, e) -> {
+			try {
+				block.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}, 0, 2, dropped);
+		dispatcher.start(false);
+		long start = System.nanoTime();
+		for (int i = 0; i < 100; i++) {
+			dispatcher.error(EventType.send, Arrays.asList(point), new RuntimeException());
+		}
+		// caller never blocked by listener
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+		assertTrue(dropped.sum() >= 97);
+		block.countDown();
+		dispatcher.close(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void success() throws Exception {
+		AtomicLong acked = new AtomicLong();
+		AtomicLong bytes = new AtomicLong();
+		EventDispatcher dispatcher = new EventDispatcher(new EventListener() {
+			@Override
+			public void onError(EventType event, List<Point> points, Throwable e) {
+				throw new IllegalStateException("listener failure");
+			}
+
+			@Override
+			public void onSuccess(int points, long size, long latencyNanos) {
+				acked.addAndGet(points);
+				bytes.addAndGet(size);
+			}
+		}, 0, 100, new LongAdder());
+		dispatcher.start(false);
+		dispatcher.error(EventType.send, Arrays.asList(point), new RuntimeException());
+		dispatcher.success(10, 100, 1);
+		dispatcher.success(5, 50, 1);
+		dispatcher.close(5, TimeUnit.SECONDS);
+		assertEquals(15, acked.get());
+		assertEquals(150, bytes.get());
+	}
+
+	@Test
+	public void notStarted() throws Exception {
+		List<EventType> events = new CopyOnWriteArrayList<>();
+		LongAdder dropped = new LongAdder();
+		EventDispatcher dispatcher = new EventDispatcher((event, ps, e) -> events.add(event), 1_000, 1, dropped);
+		// acks skipped, listener not override onSuccess
+		dispatcher.success(1, 1, 1);
+		dispatcher.error(EventType.send, Arrays.asList(point), new RuntimeException());
+		dispatcher.error(EventType.retry, Arrays.asList(point), new RuntimeException());
+		assertEquals(Arrays.asList(EventType.send, EventType.retry), events);
+		assertEquals(0, dropped.sum());
+		dispatcher.close(5, TimeUnit.SECONDS);
+	}
+}
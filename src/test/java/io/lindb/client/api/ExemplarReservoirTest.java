@@ -0,0 +1,124 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ExemplarReservoirTest {
+	private static final byte[] TRACE = new byte[16];
+	private static final byte[] SPAN = new byte[8];
+
+	@Test
+	public void slowest() {
+		ExemplarReservoir reservoir = ExemplarReservoir.slowest(3);
+		assertEquals(3, reservoir.buckets());
+		assertSame(Collections.emptyList(), reservoir.drain());
+		assertTrue(reservoir.offer(0, 10, TRACE, SPAN));
+		assertFalse(reservoir.offer(0, 5, TRACE, SPAN));
+		assertFalse(reservoir.offer(0, 10, TRACE, SPAN));
+		assertTrue(reservoir.offer(0, 20, "01", "02"));
+		assertTrue(reservoir.offer(2, 1, TRACE, SPAN));
+		// not sampled, hex not decoded
+		assertFalse(reservoir.offer(2, 0, "invalid", "invalid"));
+		List<Exemplar> exemplars = reservoir.drain();
+		assertEquals(2, exemplars.size());
+		assertEquals(Exemplar.of("01", "02", 20), exemplars.get(0));
+		assertEquals(1, exemplars.get(1).getDuration());
+		// new interval
+		assertTrue(reservoir.drain().isEmpty());
+		assertTrue(reservoir.offer(0, 1, TRACE, SPAN));
+		assertThrows(IndexOutOfBoundsException.class, () -> reservoir.offer(3, 1, TRACE, SPAN));
+		assertThrows(IllegalArgumentException.class, () -> ExemplarReservoir.slowest(0));
+	}
+
+	@Test
+	public void random() {
+		ExemplarReservoir reservoir = ExemplarReservoir.random(1);
+		int[] kept = new int[4];
+		for (int round = 0; round < 4000; round++) {
+			for (int i = 0; i < kept.length; i++) {
+				reservoir.offer(0, i, TRACE, SPAN);
+			}
+			List<Exemplar> exemplars = reservoir.drain();
+			assertEquals(1, exemplars.size());
+			kept[(int) exemplars.get(0).getDuration()]++;
+		}
+		// each offer kept with probability 1/4
+		for (int count : kept) {
+			assertTrue("kept: " + count, count > 800 && count < 1200);
+		}
+		// first offer of interval always sampled
+		assertTrue(reservoir.offer(0, 1, TRACE, SPAN));
+	}
+
+	@Test
+	public void concurrent() throws Exception {
+		ExemplarReservoir reservoir = ExemplarReservoir.slowest(4);
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int t = 0; t < threads; t++) {
+			int offset = t;
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < 100_000; i++) {
+					reservoir.offer(i & 3, i * threads + offset, TRACE, SPAN);
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		List<Exemplar> exemplars = reservoir.drain();
+		assertEquals(4, exemplars.size());
+		for (int bucket = 0; bucket < 4; bucket++) {
+			// slowest of bucket: max i with i & 3 == bucket, max offset
+			long expected = (99_996L + bucket) * threads + threads - 1;
+			assertEquals(expected, exemplars.get(bucket).getDuration());
+		}
+	}
+
+	@Test
+	public void bucketOf() {
+		double[] bounds = new double[] { 1, 10, 100, Double.POSITIVE_INFINITY };
+		assertEquals(0, ExemplarReservoir.bucketOf(bounds, 0.5));
+		assertEquals(0, ExemplarReservoir.bucketOf(bounds, 1));
+		assertEquals(1, ExemplarReservoir.bucketOf(bounds, 1.5));
+		assertEquals(2, ExemplarReservoir.bucketOf(bounds, 100));
+		assertEquals(3, ExemplarReservoir.bucketOf(bounds, 1000));
+		assertEquals(0, ExemplarReservoir.bucketOf(new double[] { 1 }, 1000));
+	}
+}
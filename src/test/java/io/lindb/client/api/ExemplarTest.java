@@ -0,0 +1,49 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+public class ExemplarTest {
+
+	@Test
+	public void hex() {
+		Exemplar exemplar = Exemplar.of("4bf92f3577b34da6a3ce929d0e0e4736", "00F067AA0BA902B7", 10);
+		assertEquals(16, exemplar.getTraceId().length);
+		assertArrayEquals(new byte[] { 0x00, (byte) 0xf0, 0x67, (byte) 0xaa, 0x0b, (byte) 0xa9, 0x02, (byte) 0xb7 },
+				exemplar.getSpanId());
+		assertEquals(10, exemplar.getDuration());
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736/00f067aa0ba902b7=10", exemplar.toString());
+		assertEquals(exemplar, Exemplar.of("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", 10));
+		assertEquals(exemplar.hashCode(),
+				Exemplar.of("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", 10).hashCode());
+		assertNotEquals(exemplar, Exemplar.of("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", 11));
+		assertNotEquals(exemplar, null);
+
+		assertThrows(IllegalArgumentException.class, () -> Exemplar.of("abc", "00", 1));
+		assertThrows(IllegalArgumentException.class, () -> Exemplar.of("zz", "00", 1));
+		assertThrows(NullPointerException.class, () -> Exemplar.of(null, "00", 1));
+		assertThrows(NullPointerException.class, () -> new Exemplar(new byte[1], null, 1));
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.testing.FakeBroker;
+
+public class HeavyHitterTrackerTest {
+
+	@Test
+	public void spaceSaving() {
+		assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<Long>(0, k -> ""));
+		Function<Long, String> label = k -> "item-" + k;
+		SpaceSaving<Long> sketch = new SpaceSaving<>(20, label);
+		Random random = new Random(1);
+		long total = 0;
+		for (int i = 0; i < 100_000; i++) {
+			long item;
+			if (i % 10 < 3) {
+				// 3 heavy hitters, 10% each
+				item = i % 10;
+			} else {
+				item = 100 + random.nextInt(10_000);
+			}
+			sketch.add(item, item, 1);
+			total++;
+		}
+		List<HeavyHitter> top = sketch.top(3);
+		assertEquals(3, top.size());
+		for (HeavyHitter hitter : top) {
+			assertTrue(hitter.getKey(), hitter.getKey().matches("item-[0-2]"));
+			// overestimated by at most error, error bounded by total/capacity
+			assertTrue(hitter.getCount() >= 10_000);
+			assertTrue(hitter.getCount() - hitter.getError() <= 10_000);
+			assertTrue(hitter.getError() <= total / 20);
+		}
+		assertTrue(top.get(0).getCount() >= top.get(1).getCount());
+		assertEquals(20, sketch.top(100).size());
+		sketch.clear();
+		assertEquals(0, sketch.top(3).size());
+
+		// exact when items less than capacity
+		sketch.add(1, 1L, 5);
+		sketch.add(2, 2L, 3);
+		sketch.add(1, 1L, 1);
+		top = sketch.top(2);
+		assertEquals("item-1=6(±0)", top.get(0).toString());
+		assertEquals("item-2", top.get(1).getKey());
+		assertEquals(3, top.get(1).getCount());
+		assertEquals(0, top.get(1).getError());
+	}
+
+	@Test
+	public void track() {
+		assertThrows(IllegalArgumentException.class, () -> new HeavyHitterTracker(0, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new HeavyHitterTracker(1, 0, 0));
+		HeavyHitterTracker tracker = new HeavyHitterTracker(2, 100, 0);
+		assertSame(HeavyHitters.EMPTY, tracker.snapshot());
+		for (int i = 0; i < 100; i++) {
+			tracker.record(Point.builder("noisy").addTag("host", "a").addTag("b", "1").addSum("f", 1).build(), 10);
+			if (i % 10 == 0) {
+				tracker.record(Point.builder("quiet").namespace("ns").addSum("f", 1).build(), 200);
+			}
+		}
+		// interval not completed
+		tracker.rotate(50);
+		assertSame(HeavyHitters.EMPTY, tracker.snapshot());
+		tracker.rotate(100);
+		HeavyHitters hitters = tracker.snapshot();
+		assertEquals(0, hitters.getStart());
+		assertEquals(100, hitters.getEnd());
+		assertEquals("default_ns:noisy", hitters.getMetricsByPoints().get(0).getKey());
+		assertEquals(100, hitters.getMetricsByPoints().get(0).getCount());
+		assertEquals("ns:quiet", hitters.getMetricsByBytes().get(0).getKey());
+		assertEquals(2000, hitters.getMetricsByBytes().get(0).getCount());
+		assertEquals("default_ns:noisy{b=1,host=a}", hitters.getSeriesByPoints().get(0).getKey());
+		assertEquals("ns:quiet{}", hitters.getSeriesByBytes().get(0).getKey());
+		assertTrue(hitters.toString().contains("noisy"));
+
+		// new interval
+		tracker.rotate(250);
+		hitters = tracker.snapshot();
+		assertEquals(100, hitters.getStart());
+		assertTrue(hitters.getMetricsByPoints().isEmpty());
+	}
+
+	@Test
+	public void write() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(),
+					Options.builder().topK(1).topKInterval(50).flushInterval(10).build());
+			Write write = client.write("db");
+			assertSame(HeavyHitters.EMPTY, write.stats().getHeavyHitters());
+			for (int i = 0; i < 100; i++) {
+				write.put(Point.builder(i % 4 == 3 ? "quiet" : "noisy").addSum("f", 1).build());
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (write.stats().getHeavyHitters().getMetricsByPoints().isEmpty()
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			HeavyHitters hitters = write.stats().getHeavyHitters();
+			write.close();
+			client.close();
+			assertEquals(1, hitters.getMetricsByPoints().size());
+			assertEquals("default_ns:noisy", hitters.getMetricsByPoints().get(0).getKey());
+		}
+	}
+
+	@Test
+	public void write_encodeOnPut() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(), Options.builder().topK(1).topKInterval(50)
+					.flushInterval(10).encodeOnPut(true).build());
+			Write write = client.write("db");
+			Thread[] producers = new Thread[4];
+			for (int t = 0; t < producers.length; t++) {
+				producers[t] = new Thread(() -> {
+					for (int i = 0; i < 1000; i++) {
+						write.put(Point.builder(i % 4 == 3 ? "quiet" : "noisy").addTag("i", "" + (i % 50))
+								.addSum("f", 1).build());
+					}
+				});
+				producers[t].start();
+			}
+			for (Thread producer : producers) {
+				producer.join();
+			}
+			// rotated by flusher, decoder thread not running
+			long deadline = System.currentTimeMillis() + 5000;
+			while (write.stats().getHeavyHitters().getMetricsByPoints().isEmpty()
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			HeavyHitters hitters = write.stats().getHeavyHitters();
+			write.close();
+			client.close();
+			assertEquals("default_ns:noisy", hitters.getMetricsByPoints().get(0).getKey());
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class ImportCheckpointTest {
+
+	@Test
+	public void resume() throws Exception {
+		Path dir = Files.createTempDirectory("checkpoint");
+		Path path = dir.resolve("import.ckpt");
+		long[] boundaries = { 0, 100, 200, 300 };
+		ImportCheckpoint checkpoint = ImportCheckpoint.open(path, "file:1", boundaries);
+		assertEquals(0, checkpoint.resumed());
+		assertEquals(100, checkpoint.offset(1));
+		checkpoint.update(0, 50);
+		checkpoint.update(0, 40);
+		checkpoint.update(1, 500);
+		checkpoint.saveIfDue(0);
+
+		checkpoint = ImportCheckpoint.open(path, "file:1", boundaries);
+		assertEquals(2, checkpoint.resumed());
+		assertEquals(50, checkpoint.offset(0));
+		// bounded by region end
+		assertEquals(200, checkpoint.offset(1));
+		assertEquals(200, checkpoint.offset(2));
+
+		assertThrows(IOException.class, () -> ImportCheckpoint.open(path, "file:2", boundaries));
+		assertThrows(IOException.class, () -> ImportCheckpoint.open(path, "file:1", new long[] { 0, 300 }));
+
+		checkpoint.delete();
+		assertFalse(Files.exists(path));
+		assertFalse(Files.exists(dir.resolve("import.ckpt.tmp")));
+		Files.delete(dir);
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ImportOptionsTest {
+	@Test
+	public void invalidOptions() {
+		assertThrows(NullPointerException.class, () -> ImportOptions.builder().format(null));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().parallelism(0));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().maxInFlight(0));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().batchSize(0));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().regionSize(0));
+		assertThrows(IllegalArgumentException.class,
+				() -> ImportOptions.builder().regionSize(ImportOptions.MAX_REGION_SIZE + 1));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().maxRetries(-1));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().checkpointInterval(-1));
+		assertThrows(NullPointerException.class, () -> ImportOptions.builder().fieldType(null));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().addFieldType("", FieldType.Sum));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().separator('"'));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().timestampColumn(""));
+		assertThrows(IllegalArgumentException.class, () -> ImportOptions.builder().addTagColumn(null));
+		// csv requires metric name
+		assertThrows(IllegalArgumentException.class,
+				() -> ImportOptions.builder().format(ImportFormat.CSV).build());
+	}
+
+	@Test
+	public void options() {
+		ImportOptions options = ImportOptions.builder().build();
+		assertEquals(ImportFormat.LINE, options.getFormat());
+		assertEquals(TimeUnit.NANOSECONDS, options.getPrecision());
+		assertEquals(ImportOptions.DEFAULT_BATCH_SIZE, options.getBatchSize());
+		assertEquals(ImportOptions.DEFAULT_MAX_IN_FLIGHT, options.getMaxInFlight());
+		assertEquals(ImportOptions.DEFAULT_REGION_SIZE, options.getRegionSize());
+		assertEquals(FieldType.Last, options.getFieldType());
+		assertTrue(options.getFieldTypes().isEmpty());
+
+		options = ImportOptions.builder().format(ImportFormat.CSV).metricName("cpu").nameColumn("name")
+				.addTagColumn("host").addFieldType("count", FieldType.Sum).parallelism(2).maxInFlight(3)
+				.batchSize(10).regionSize(1024).maxRetries(0).checkpointInterval(0).namespace("ns").build();
+		assertEquals(TimeUnit.MILLISECONDS, options.getPrecision());
+		assertEquals("cpu", options.getMetricName());
+		assertEquals("name", options.getNameColumn());
+		assertEquals(ImportOptions.DEFAULT_TIMESTAMP_COLUMN, options.getTimestampColumn());
+		assertTrue(options.getTagColumns().contains("host"));
+		assertEquals(FieldType.Sum, options.getFieldTypes().get("count"));
+		assertEquals(2, options.getParallelism());
+		assertEquals(3, options.getMaxInFlight());
+		assertEquals(10, options.getBatchSize());
+		assertEquals(1024, options.getRegionSize());
+		assertEquals(0, options.getMaxRetries());
+		assertEquals(0, options.getCheckpointInterval());
+		assertEquals("ns", options.getNamespace());
+		assertEquals(',', options.getSeparator());
+	}
+}
@@ -0,0 +1,189 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import io.lindb.client.Constants;
+import io.lindb.client.internal.BaseClientTest;
+import io.lindb.client.internal.WriteClient;
+import io.lindb.client.testing.FakeBroker;
+
+public class ImporterImplTest extends BaseClientTest {
+
+	private static Path lineFile(int lines) throws IOException {
+		StringBuilder sb = new StringBuilder("# generated\n");
+		for (int i = 0; i < lines; i++) {
+			sb.append("cpu,host=h").append(i % 10).append(" usage=").append(i).append(".5,count=").append(i)
+					.append("i ").append(1_700_000_000_000_000_000L + i * 1_000_000L).append('\n');
+			if (i % 100 == 0) {
+				sb.append("malformed line\n\n");
+			}
+		}
+		Path file = Files.createTempFile("import", ".lp");
+		Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static ImporterImpl importer(FakeBroker broker, ImportOptions options, boolean useGZip) {
+		WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+		WriteOptions writeOptions = WriteOptions.builder().useGZip(useGZip).addDefaultTag("dc", "sh").build();
+		return new ImporterImpl(options, writeOptions, client);
+	}
+
+	@Test
+	public void importLine() throws Exception {
+		Path file = lineFile(1000);
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			ImportOptions options = ImportOptions.builder().parallelism(2).maxInFlight(2).batchSize(50)
+					.regionSize(4096).build();
+			ImportResult result = importer(broker, options, true).importFile(file);
+			assertEquals(1000, result.getPoints());
+			assertEquals(10, result.getSkippedLines());
+			assertTrue(result.getRegions() > 1);
+			assertTrue(result.getBatches() >= 1000 / 50);
+			assertEquals(0, result.getResumedRegions());
+			assertEquals(1000, broker.getPoints());
+			assertEquals(0, broker.getInvalidPoints());
+			assertEquals(10, broker.getSeries());
+			assertEquals(result.getSentBytes(), broker.getBytes());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void importCsv() throws Exception {
+		StringBuilder sb = new StringBuilder("name,timestamp,host,usage\n");
+		for (int i = 0; i < 100; i++) {
+			sb.append(i % 2 == 0 ? "cpu" : "mem").append(',').append(1000 + i).append(",h1,").append(i).append('\n');
+		}
+		Path file = Files.createTempFile("import", ".csv");
+		Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+		AtomicLong timestamps = new AtomicLong();
+		try (FakeBroker broker = FakeBroker.builder()
+				.listener((db, metric) -> timestamps.addAndGet(metric.timestamp())).build().start()) {
+			ImportOptions options = ImportOptions.builder().format(ImportFormat.CSV).nameColumn("name")
+					.addTagColumn("host").batchSize(30).regionSize(256).build();
+			ImportResult result = importer(broker, options, false).importFile(file);
+			assertEquals(100, result.getPoints());
+			assertEquals(0, result.getSkippedLines());
+			assertEquals(100, broker.getPoints());
+			assertEquals(2, broker.getSeries());
+			assertEquals(100 * 1000 + 99 * 100 / 2, timestamps.get());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void retry() throws Exception {
+		Path file = lineFile(10);
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			broker.inject(FakeBroker.Fault.SERVER_ERROR, 1);
+			ImportOptions options = ImportOptions.builder().maxRetries(1).build();
+			assertEquals(10, importer(broker, options, true).importFile(file).getPoints());
+			assertEquals(10, broker.getPoints());
+			assertEquals(2, broker.getWriteRequests());
+
+			broker.inject(FakeBroker.Fault.SERVER_ERROR, 1);
+			ImporterImpl importer = importer(broker, ImportOptions.builder().maxRetries(0).build(), true);
+			assertThrows(IOException.class, () -> importer.importFile(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void rejected() throws Exception {
+		Path file = lineFile(10);
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			// no database, rejected with 400
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API, cli);
+			ImporterImpl importer = new ImporterImpl(ImportOptions.builder().maxRetries(3).build(),
+					WriteOptions.builder().build(), client);
+			ImportResult result = importer.importFile(file);
+			// bad batch skipped without retry
+			assertEquals(0, result.getPoints());
+			assertEquals(10, result.getRejectedPoints());
+			assertEquals(0, result.getBatches());
+			assertEquals(1, broker.getWriteRequests());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void resumeFromCheckpoint() throws Exception {
+		Path file = lineFile(500);
+		Path checkpoint = Files.createTempDirectory("import").resolve("import.ckpt");
+		AtomicReference<FakeBroker> ref = new AtomicReference<>();
+		try (FakeBroker broker = FakeBroker.builder().listener((db, metric) -> {
+			if (ref.get().getPoints() == 120) {
+				// fail the request after 4th batch
+				ref.get().inject(FakeBroker.Fault.SERVER_ERROR, 1);
+			}
+		}).build().start()) {
+			ref.set(broker);
+			ImportOptions options = ImportOptions.builder().parallelism(1).batchSize(30).regionSize(8192)
+					.maxRetries(0).checkpointInterval(0).build();
+			ImporterImpl importer = importer(broker, options, true);
+			assertThrows(IOException.class, () -> importer.importFile(file, checkpoint));
+			assertTrue(Files.exists(checkpoint));
+			assertEquals(120, broker.getPoints());
+
+			ImportResult result = importer.importFile(file, checkpoint);
+			assertEquals(380, result.getPoints());
+			assertTrue(result.getResumedRegions() > 0);
+			// no point sent twice
+			assertEquals(500, broker.getPoints());
+			assertFalse(Files.exists(checkpoint));
+		} finally {
+			Files.delete(file);
+			Files.delete(checkpoint.getParent());
+		}
+	}
+
+	@Test
+	public void checkpointMismatch() throws Exception {
+		Path file = lineFile(10);
+		Path checkpoint = Files.createTempFile("import", ".ckpt");
+		Files.write(checkpoint, "identity=other\n".getBytes(StandardCharsets.UTF_8));
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			ImporterImpl importer = importer(broker, ImportOptions.builder().build(), true);
+			assertThrows(IOException.class, () -> importer.importFile(file, checkpoint));
+			assertEquals(0, broker.getWriteRequests());
+		} finally {
+			Files.delete(file);
+			Files.delete(checkpoint);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.lindb.client.flat.metrics.v1.KeyValue;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.flat.metrics.v1.SimpleField;
+
+public class LineProtocolParserTest {
+	private final LineProtocolParser parser = new LineProtocolParser(TimeUnit.NANOSECONDS);
+	private final RecordEncoder encoder = new RecordEncoder(null, null, FieldType.Last, Collections.emptyMap());
+
+	private int parse(String line) {
+		byte[] b = line.getBytes(StandardCharsets.UTF_8);
+		int state = parser.parse(b, b.length, encoder, 42);
+		if (state == RecordParser.OK && !encoder.finish()) {
+			return RecordParser.INVALID;
+		}
+		return state;
+	}
+
+	private Metric last() {
+		List<Metric> metrics = RecordEncoderTest.decode(encoder);
+		return metrics.get(metrics.size() - 1);
+	}
+
+	@Test
+	public void parse() {
+		assertEquals(RecordParser.OK,
+				parse("cpu,host=h1,region=us\\ west usage=1.5,count=3i,up=t,down=FALSE,max=7u 1700000000123456789"));
+		Metric metric = last();
+		assertEquals("cpu", metric.name());
+		assertEquals(1700000000123L, metric.timestamp());
+		assertEquals(2, metric.keyValuesLength());
+		KeyValue kv = metric.keyValues(1);
+		assertEquals("region", kv.key());
+		assertEquals("us west", kv.value());
+		assertEquals(5, metric.simpleFieldsLength());
+		double[] values = { 1.5, 3, 1, 0, 7 };
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], metric.simpleFields(i).value(), 0);
+		}
+	}
+
+	@Test
+	public void escapes() {
+		assertEquals(RecordParser.OK, parse("my\\ metric\\,x,t\\=k=v\\,1 f\\ 1=2,s=\"a \\\" b, c=1\" \r"));
+		Metric metric = last();
+		assertEquals("my metric,x", metric.name());
+		assertEquals("t=k", metric.keyValues(0).key());
+		assertEquals("v,1", metric.keyValues(0).value());
+		// string field skipped, no timestamp
+		assertEquals(1, metric.simpleFieldsLength());
+		SimpleField field = metric.simpleFields(0);
+		assertEquals("f 1", field.name());
+		assertEquals(42, metric.timestamp());
+	}
+
+	@Test
+	public void emptyAndInvalid() {
+		assertEquals(RecordParser.EMPTY, parse(""));
+		assertEquals(RecordParser.EMPTY, parse("   \r"));
+		assertEquals(RecordParser.EMPTY, parse("# comment"));
+		assertEquals(RecordParser.INVALID, parse("cpu"));
+		assertEquals(RecordParser.INVALID, parse("cpu,host usage=1"));
+		assertEquals(RecordParser.INVALID, parse("cpu usage"));
+		assertEquals(RecordParser.INVALID, parse("cpu usage="));
+		assertEquals(RecordParser.INVALID, parse("cpu usage=abc"));
+		assertEquals(RecordParser.INVALID, parse("cpu usage=tru"));
+		assertEquals(RecordParser.INVALID, parse("cpu usage=1 12x"));
+		assertEquals(RecordParser.INVALID, parse("cpu s=\"unterminated"));
+		// only string fields
+		assertEquals(RecordParser.INVALID, parse("cpu s=\"a\""));
+	}
+
+	@Test
+	public void precision() {
+		LineProtocolParser seconds = new LineProtocolParser(TimeUnit.SECONDS);
+		byte[] b = "cpu f=1 1700000000".getBytes(StandardCharsets.UTF_8);
+		assertEquals(RecordParser.OK, seconds.parse(b, b.length, encoder, 0));
+		encoder.finish();
+		assertEquals(1700000000000L, last().timestamp());
+	}
+}
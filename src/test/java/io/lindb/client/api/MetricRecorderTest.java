@@ -0,0 +1,172 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.lindb.client.internal.WriteClient;
+import okhttp3.OkHttpClient;
+
+public class MetricRecorderTest {
+	private final WriteClient client = new WriteClient("http://localhost:9000", new OkHttpClient());
+
+	@Test
+	public void record() throws Exception {
+		WriteOptions options = WriteOptions.builder().chunkSize(3).chunkLinger(60_000).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		try (MetricRecorder recorder = write.recorder("ns", "http", new String[] { "path", "method" },
+				new String[] { "count", "latency" }, new FieldType[] { FieldType.Sum, FieldType.Max })) {
+			assertTrue(recorder.record(1, new String[] { "/a", "GET" }, new double[] { 1, 10 }));
+			assertTrue(recorder.record(2, new String[] { "/b", "GET" }, new double[] { 2, 20 }));
+			assertEquals(0, write.sendBuffers.size());
+			// full chunk handed off as one batch
+			assertTrue(recorder.record(3, new String[] { "/a", "GET" }, new double[] { 3, 30 }));
+			assertEquals(2, recorder.templates());
+			assertEquals(1, write.sendBuffers.size());
+			List<Point> points = write.sendBuffers.poll().getPoints();
+			assertEquals(3, points.size());
+			Point point = points.get(2);
+			assertEquals("ns", point.getNamespace());
+			assertEquals("http", point.getName());
+			assertEquals(3, point.getTimestamp());
+			assertEquals("/a", point.getTags().get("path"));
+			assertEquals("GET", point.getTags().get("method"));
+			SimpleField count = (SimpleField) point.getSimpleFields().get(0);
+			assertEquals("count", count.getName());
+			assertEquals(FieldType.Sum, count.getType());
+			assertEquals(3, count.getValue(), 0);
+			SimpleField latency = (SimpleField) point.getSimpleFields().get(1);
+			assertEquals(FieldType.Max, latency.getType());
+			assertEquals(30, latency.getValue(), 0);
+			assertEquals("/b", points.get(1).getTags().get("path"));
+			assertEquals(3, write.stats().getPutPoints());
+			assertThrows(IllegalArgumentException.class,
+					() -> recorder.record(4, new String[] { "/a" }, new double[] { 1, 1 }));
+			assertThrows(IllegalArgumentException.class, () -> recorder.record(4, new String[] { "/a", "GET" }, 1));
+		}
+	}
+
+	@Test
+	public void record_singleField() throws Exception {
+		WriteImpl write = new WriteImpl(WriteOptions.builder().build(), client, false);
+		MetricRecorder recorder = write.recorder(null, "gc", new String[0], new String[] { "pause" },
+				new FieldType[] { FieldType.Last });
+		String[] tagValues = new String[0];
+		assertTrue(recorder.record(5, tagValues, 1.5));
+		assertTrue(recorder.record(6, tagValues, 0));
+		assertTrue(recorder.flush());
+		List<Point> points = write.sendBuffers.poll().getPoints();
+		assertEquals(2, points.size());
+		assertEquals(1.5, ((SimpleField) points.get(0).getSimpleFields().get(0)).getValue(), 0);
+		// zero value patched into template slot
+		assertEquals(0, ((SimpleField) points.get(1).getSimpleFields().get(0)).getValue(), 0);
+		assertEquals(6, points.get(1).getTimestamp());
+		assertTrue(recorder.flush());
+		assertEquals(0, write.sendBuffers.size());
+	}
+
+	@Test
+	public void record_arity() throws Exception {
+		WriteImpl write = new WriteImpl(WriteOptions.builder().build(), client, false);
+		MetricRecorder recorder = write.recorder(null, "http", new String[] { "path", "method" },
+				new String[] { "count", "latency" }, new FieldType[] { FieldType.Sum, FieldType.Max });
+		assertTrue(recorder.record(1, "/a", "GET", 1, 10));
+		// same series as array record, template shared
+		assertTrue(recorder.record(2, new String[] { "/a", "GET" }, new double[] { 2, 20 }));
+		assertTrue(recorder.record(3, "/b", "GET", 3, 30));
+		assertEquals(2, recorder.templates());
+		assertThrows(IllegalArgumentException.class, () -> recorder.record(4, "/a", 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> recorder.record(4, "/a", "GET", 1));
+		assertTrue(recorder.flush());
+		List<Point> points = write.sendBuffers.poll().getPoints();
+		assertEquals(3, points.size());
+		assertEquals("/a", points.get(0).getTags().get("path"));
+		assertEquals("GET", points.get(0).getTags().get("method"));
+		assertEquals(10, ((SimpleField) points.get(0).getSimpleFields().get(1)).getValue(), 0);
+		assertEquals("/b", points.get(2).getTags().get("path"));
+		assertEquals(3, ((SimpleField) points.get(2).getSimpleFields().get(0)).getValue(), 0);
+
+		MetricRecorder gc = write.recorder(null, "gc", new String[0], new String[] { "pause" },
+				new FieldType[] { FieldType.Last });
+		assertTrue(gc.record(5, 1.5));
+		assertTrue(gc.record(6, new String[0], 2.5));
+		assertEquals(1, gc.templates());
+		assertTrue(gc.flush());
+		assertEquals(2, write.sendBuffers.poll().getPoints().size());
+	}
+
+	@Test
+	public void recorder_invalid() throws Exception {
+		WriteImpl write = new WriteImpl(WriteOptions.builder().build(), client, false);
+		assertThrows(IllegalArgumentException.class, () -> write.recorder(null, "", new String[0],
+				new String[] { "f" }, new FieldType[] { FieldType.Sum }));
+		assertThrows(IllegalArgumentException.class,
+				() -> write.recorder(null, "m", new String[0], new String[0], new FieldType[0]));
+		assertThrows(IllegalArgumentException.class, () -> write.recorder(null, "m", new String[0],
+				new String[] { "f", "g" }, new FieldType[] { FieldType.Sum }));
+		WriteImpl acked = new WriteImpl(WriteOptions.builder().ackTracking(true).build(), client, false);
+		assertThrows(IllegalStateException.class, () -> acked.recorder(null, "m", new String[0],
+				new String[] { "f" }, new FieldType[] { FieldType.Sum }));
+	}
+
+	@Test
+	public void record_seriesLimit() throws Exception {
+		WriteOptions options = WriteOptions.builder().maxSeriesPerMetric(1).cardinalityPolicy(CardinalityPolicy.DROP)
+				.build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		MetricRecorder recorder = write.recorder(null, "m", new String[] { "host" }, new String[] { "f" },
+				new FieldType[] { FieldType.Sum });
+		assertTrue(recorder.record(1, new String[] { "a" }, 1));
+		assertFalse(recorder.record(1, new String[] { "b" }, 1));
+		assertTrue(recorder.record(1, new String[] { "a" }, 1));
+		assertEquals(1, recorder.templates());
+		assertEquals(1, write.stats().getLimitedPoints());
+		recorder.flush();
+		assertEquals(2, write.sendBuffers.poll().getPoints().size());
+	}
+
+	@Test
+	public void linger() throws Exception {
+		WriteOptions options = WriteOptions.builder().chunkSize(100).chunkLinger(10).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		MetricRecorder recorder = write.recorder(null, "m", new String[0], new String[] { "f" },
+				new FieldType[] { FieldType.Sum });
+		recorder.record(1, new String[0], 1);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (write.sendBuffers.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(1, write.sendBuffers.size());
+		recorder.close();
+		recorder.record(2, new String[0], 1);
+		// detached from write, not handed off by linger
+		Thread.sleep(50);
+		assertEquals(1, write.sendBuffers.size());
+		recorder.handoffIfLingering(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+		assertEquals(2, write.sendBuffers.size());
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.lindb.client.internal.WriteClient;
+import okhttp3.OkHttpClient;
+
+public class PointBatcherTest {
+	private final WriteClient client = new WriteClient("http://localhost:9000", new OkHttpClient());
+	private final Point point = Point.builder("test").addLast("f", 1).build();
+
+	@Test
+	public void chunk() throws Exception {
+		WriteOptions options = WriteOptions.builder().chunkSize(3).chunkLinger(60_000).batchQueue(5).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		try (PointBatcher batcher = write.batcher()) {
+			assertTrue(batcher.add(point));
+			assertTrue(batcher.add(point));
+			assertEquals(0, write.points.size());
+			// full chunk handed off in one handoff
+			assertTrue(batcher.add(point));
+			assertEquals(3, write.points.size());
+			assertTrue(batcher.add(point));
+			assertTrue(batcher.add(point));
+			// queue full, tail of chunk rejected
+			assertFalse(batcher.add(point));
+			assertEquals(5, write.points.size());
+			assertEquals(5, write.stats().getPutPoints());
+			assertEquals(1, write.stats().getRejectedPoints());
+			assertTrue(batcher.flush());
+			write.points.poll();
+			assertTrue(batcher.add(point, 10, TimeUnit.MILLISECONDS));
+			assertTrue(batcher.add(point, 10, TimeUnit.MILLISECONDS));
+			// only 1 point handed off before timeout
+			assertFalse(batcher.add(point, 10, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	@Test
+	public void blockingHandoff() throws Exception {
+		WriteOptions options = WriteOptions.builder().chunkSize(1).chunkLinger(60_000).batchQueue(1).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		PointBatcher batcher = write.batcher();
+		assertTrue(batcher.add(point));
+		AtomicBoolean put = new AtomicBoolean();
+		Thread producer = new Thread(() -> {
+			try {
+				put.set(batcher.add(point, 10, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		producer.start();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (producer.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		// waiting handoff not holding lock
+		long start = System.nanoTime();
+		assertTrue(batcher.flush());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+		write.points.poll();
+		producer.join(5000);
+		assertTrue(put.get());
+		batcher.close();
+	}
+
+	@Test
+	public void linger() throws Exception {
+		WriteOptions options = WriteOptions.builder().chunkSize(100).chunkLinger(10).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		PointBatcher batcher = write.batcher();
+		batcher.add(point);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (write.points.size() < 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(1, write.points.size());
+		batcher.add(point);
+		batcher.handoffIfLingering(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+		assertEquals(2, write.points.size());
+		batcher.close();
+	}
+
+	@Test
+	public void lingerRejected() throws Exception {
+		List<EventType> events = new ArrayList<>();
+		AtomicInteger failed = new AtomicInteger();
+		WriteOptions options = WriteOptions.builder().chunkSize(100).chunkLinger(60_000).batchQueue(1).build();
+		WriteImpl write = new WriteImpl(options, client, false, (event, points, e) -> {
+			events.add(event);
+			failed.addAndGet(points.size());
+		});
+		PointBatcher batcher = write.batcher();
+		batcher.add(point);
+		batcher.add(point);
+		// queue full, tail of lingering chunk reported as dropped
+		assertFalse(batcher.handoffIfLingering(System.nanoTime() + TimeUnit.MINUTES.toNanos(2)));
+		assertEquals(1, write.points.size());
+		assertEquals(1, write.stats().getDroppedPoints());
+		assertEquals(Collections.singletonList(EventType.send), events);
+		assertEquals(1, failed.get());
+		batcher.add(point);
+		// flush of close reported too
+		batcher.close();
+		assertEquals(2, write.stats().getDroppedPoints());
+		assertEquals(2, failed.get());
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class PointQueueTest {
+
+	private List<Point> points(int n) {
+		List<Point> points = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			points.add(Point.builder("p" + i).addLast("f", 1).build());
+		}
+		return points;
+	}
+
+	@Test
+	public void offerAndPoll() throws Exception {
+		PointQueue queue = new PointQueue(3);
+		List<Point> points = points(5);
+		assertTrue(queue.isEmpty());
+		assertTrue(queue.offer(points.get(0)));
+		assertEquals(2, queue.offer(points.subList(1, 5)));
+		assertFalse(queue.offer(points.get(3)));
+		assertFalse(queue.offer(points.get(3), 10, TimeUnit.MILLISECONDS));
+		assertEquals(0, queue.offer(points.subList(3, 5)));
+		assertEquals(3, queue.size());
+		assertArrayEquals(points.subList(0, 3).toArray(), queue.toArray());
+
+		// wrap around
+		assertSame(points.get(0), queue.poll());
+		assertSame(points.get(1), queue.poll(10, TimeUnit.MILLISECONDS));
+		assertEquals(2, queue.offer(points.subList(3, 5)));
+		assertArrayEquals(Arrays.asList(points.get(2), points.get(3), points.get(4)).toArray(), queue.toArray());
+		assertSame(points.get(2), queue.poll());
+		assertSame(points.get(3), queue.poll());
+		assertSame(points.get(4), queue.poll());
+		assertNull(queue.poll());
+		assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void offerWait() throws Exception {
+		PointQueue queue = new PointQueue(2);
+		List<Point> points = points(6);
+		Thread consumer = new Thread(() -> {
+			try {
+				for (int i = 0; i < 6; i++) {
+					assertSame(points.get(i), queue.poll(5, TimeUnit.SECONDS));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		consumer.start();
+		// chunk larger than capacity handed over while consumer drains
+		assertEquals(5, queue.offer(points.subList(0, 5), 5, TimeUnit.SECONDS));
+		assertTrue(queue.offer(points.get(5), 5, TimeUnit.SECONDS));
+		consumer.join(5000);
+		assertTrue(queue.isEmpty());
+	}
+}
@@ -24,7 +24,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -114,4 +116,27 @@ public class PointTest {
 		assertNotNull(point.getCompoundField());
 		assertEquals(1.0, point.getCompoundField().getCount(), 0);
 	}
+
+	@Test
+	public void exemplars() {
+		List<Exemplar> exemplars = Collections.singletonList(Exemplar.of("01", "02", 3));
+		Point point = Point.builder("name")
+				.addExemplars(exemplars) // ignore exemplars, because no field
+				.addSum("sum", 1.0)
+				.addLast("last", 1.0)
+				.addExemplars(exemplars)
+				.addExemplars(null)
+				.addExemplars(exemplars)
+				.addCumulativeSum("total", 1.0)
+				.addExemplars(exemplars) // ignore exemplars of cumulative sum
+				.build();
+		assertNull(((SimpleField) point.getSimpleFields().get(0)).getExemplars());
+		assertEquals(2, ((SimpleField) point.getSimpleFields().get(1)).getExemplars().size());
+
+		point = Point.builder("name")
+				.addHistogram(1.0, 1.0, 1, 1, new double[] { 1 }, new double[] { 1 })
+				.addExemplars(exemplars)
+				.build();
+		assertEquals(exemplars, point.getCompoundField().getExemplars());
+	}
 }
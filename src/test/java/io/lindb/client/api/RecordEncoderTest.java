@@ -0,0 +1,134 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.lindb.client.Constants;
+import io.lindb.client.flat.metrics.v1.Metric;
+
+public class RecordEncoderTest {
+
+	/**
+	 * Decode size-prefixed records of encoder batch.
+	 */
+	static List<Metric> decode(RecordEncoder encoder) {
+		ByteBuffer buf = ByteBuffer.wrap(Arrays.copyOf(encoder.batch(), encoder.batchBytes()))
+				.order(ByteOrder.LITTLE_ENDIAN);
+		List<Metric> metrics = new ArrayList<>();
+		int pos = 0;
+		while (pos < buf.limit()) {
+			int size = buf.getInt(pos);
+			ByteBuffer record = ByteBuffer.wrap(buf.array(), pos + 4, size).slice().order(ByteOrder.LITTLE_ENDIAN);
+			metrics.add(Metric.getRootAsMetric(record));
+			pos += 4 + size;
+		}
+		return metrics;
+	}
+
+	@Test
+	public void sameAsRowBuilder() {
+		Map<String, String> defaultTags = Collections.singletonMap("dc", "sh");
+		RecordEncoder encoder = new RecordEncoder("ns", defaultTags, FieldType.Last,
+				Collections.singletonMap("count", FieldType.Sum));
+		byte[] src = "cpu,host=h1 usage=1.5,count=0".getBytes(StandardCharsets.UTF_8);
+		encoder.reset();
+		encoder.name(src, 0, 3);
+		encoder.addTag(src, 4, 8, src, 9, 11);
+		encoder.addField(src, 12, 17, 1.5);
+		encoder.addField(src, 22, 27, 0);
+		encoder.timestamp(1000);
+		assertTrue(encoder.finish());
+
+		Point point = Point.builder("cpu", 1000).namespace("ns").addTag("host", "h1").addLast("usage", 1.5)
+				.addSum("count", 0).build();
+		RowBuilder builder = new RowBuilder();
+		byte[] expect = builder.build(point, defaultTags);
+		assertArrayEquals(expect, Arrays.copyOf(encoder.batch(), encoder.batchBytes()));
+		assertEquals(1, encoder.batchPoints());
+
+		// second record appended
+		encoder.reset();
+		encoder.name(src, 0, 3);
+		encoder.addField(src, 12, 17, 2);
+		assertTrue(encoder.finish());
+		assertEquals(2, encoder.batchPoints());
+		List<Metric> metrics = decode(encoder);
+		assertEquals(2, metrics.size());
+		assertEquals(1, metrics.get(1).keyValuesLength());
+		assertEquals("ns", metrics.get(1).namespace());
+		assertEquals(2, metrics.get(1).simpleFields(0).value(), 0);
+
+		encoder.clearBatch();
+		assertEquals(0, encoder.batchBytes());
+		assertEquals(0, encoder.batchPoints());
+	}
+
+	@Test
+	public void invalidRecord() {
+		RecordEncoder encoder = new RecordEncoder(null, null, FieldType.Last, Collections.emptyMap());
+		byte[] src = "cpu".getBytes(StandardCharsets.UTF_8);
+		encoder.reset();
+		assertFalse(encoder.finish());
+		encoder.name(src, 0, 3);
+		// empty field name and tag ignored
+		encoder.addField(src, 0, 0, 1);
+		encoder.addTag(src, 0, 3, src, 1, 1);
+		assertFalse(encoder.finish());
+		assertEquals(0, encoder.batchBytes());
+		encoder.addField(src, 0, 1, 1);
+		assertTrue(encoder.finish());
+		assertEquals(Constants.DEFAULT_NAMESPACE, decode(encoder).get(0).namespace());
+	}
+
+	@Test
+	public void grow() {
+		RecordEncoder encoder = new RecordEncoder(null, null, FieldType.Max, Collections.emptyMap());
+		byte[] src = new byte[1024];
+		Arrays.fill(src, (byte) 'a');
+		for (int n = 0; n < 200; n++) {
+			encoder.reset();
+			encoder.name(src, 0, 512);
+			for (int i = 0; i < 40; i++) {
+				encoder.addTag(src, 0, 10 + i, src, 0, 100);
+				encoder.addField(src, 0, 10 + i, i);
+			}
+			assertTrue(encoder.finish());
+		}
+		List<Metric> metrics = decode(encoder);
+		assertEquals(200, metrics.size());
+		assertEquals(40, metrics.get(199).keyValuesLength());
+		assertEquals(40, metrics.get(199).simpleFieldsLength());
+		assertEquals(FieldType.Max.value(), metrics.get(199).simpleFields(39).type());
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class RecordParserTest {
+
+	private static double parseDouble(String s) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		return RecordParser.parseDouble(b, 0, b.length);
+	}
+
+	private static long parseLong(String s) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		return RecordParser.parseLong(b, 0, b.length);
+	}
+
+	@Test
+	public void parseDouble() {
+		String[] values = { "0", "1", "-1", "+2.5", "3.14159", "0.1", "-0.0", "123456789.123456", "1e10", "-2.5E-3",
+				"12345678901234567890", "0.30000000000000004", "9007199254740993", ".5", "5." };
+		for (String value : values) {
+			assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+					Double.doubleToLongBits(parseDouble(value)));
+		}
+		assertTrue(Double.isNaN(parseDouble("")));
+		assertTrue(Double.isNaN(parseDouble("-")));
+		assertTrue(Double.isNaN(parseDouble("abc")));
+		assertTrue(Double.isNaN(parseDouble("1.2.3")));
+	}
+
+	@Test
+	public void parseLong() {
+		assertEquals(0, parseLong("0"));
+		assertEquals(-42, parseLong("-42"));
+		assertEquals(1700000000000000000L, parseLong("1700000000000000000"));
+		assertEquals(Long.MIN_VALUE, parseLong(""));
+		assertEquals(Long.MIN_VALUE, parseLong("+"));
+		assertEquals(Long.MIN_VALUE, parseLong("12a"));
+		assertEquals(Long.MAX_VALUE, parseLong("9223372036854775807"));
+		assertEquals(Long.MIN_VALUE, parseLong("9223372036854775808"));
+		assertEquals(Long.MIN_VALUE, parseLong("12345678901234567890"));
+	}
+
+	@Test
+	public void trim() {
+		byte[] line = "  a b \t\r".getBytes(StandardCharsets.UTF_8);
+		assertEquals(5, RecordParser.trimEnd(line, line.length));
+		assertEquals(2, RecordParser.skipSpaces(line, 0, line.length));
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RecordPointsTest {
+
+	@Test
+	public void decode() {
+		Point[] points = new Point[] {
+				Point.builder("cpu", 10).namespace("ns").addTag("host", "h1").addTag("ip", "1.1.1.1")
+						.addLast("last", 1).addExemplars(Collections.singletonList(Exemplar.of("01", "02", 3)))
+						.addSum("sum", 2).addMin("min", 3).addMax("max", 4).addFirst("first", 5)
+						.build(),
+				Point.builder("latency", 20).addTag("path", "/")
+						.addHistogram(3, 5, 1, 3, new double[] { 1, Double.POSITIVE_INFINITY }, new double[] { 1, 2 })
+						.addExemplars(Arrays.asList(Exemplar.of("01", "02", 3), Exemplar.of("03", "04", 5)))
+						.build() };
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RowBuilder builder = new RowBuilder();
+		byte[][] records = new byte[points.length][];
+		out.write(1);
+		for (int i = 0; i < points.length; i++) {
+			records[i] = builder.build(points[i], null);
+			builder.reset();
+			out.write(records[i], 0, records[i].length);
+		}
+		byte[] data = out.toByteArray();
+		int[] offsets = RecordPoints.offsets(data, 1, data.length - 1);
+		assertArrayEquals(new int[] { 1, 1 + records[0].length }, offsets);
+		List<Point> decoded = new RecordPoints(data, offsets);
+		assertEquals(2, decoded.size());
+		Point cpu = decoded.get(0);
+		assertEquals("cpu", cpu.getName());
+		assertEquals("ns", cpu.getNamespace());
+		assertEquals(10, cpu.getTimestamp());
+		assertEquals(points[0].getTags(), cpu.getTags());
+		assertEquals(5, cpu.getSimpleFields().size());
+		assertNull(cpu.getCompoundField());
+		assertEquals(Exemplar.of("01", "02", 3), ((SimpleField) cpu.getSimpleFields().get(0)).getExemplars().get(0));
+		assertNull(((SimpleField) cpu.getSimpleFields().get(1)).getExemplars());
+		Point latency = decoded.get(1);
+		assertEquals(20, latency.getTimestamp());
+		assertEquals(3, latency.getCompoundField().getCount(), 0);
+		// re-encoded records are same as written
+		for (int i = 0; i < points.length; i++) {
+			assertArrayEquals(records[i], builder.build(decoded.get(i), null));
+			builder.reset();
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> decoded.get(2));
+	}
+
+	@Test
+	public void timestamp() {
+		byte[] record = new RowBuilder().build(Point.builder("cpu", 1234).addLast("f", 1).build(), null);
+		int position = RecordPoints.timestampPosition(record, 0);
+		assertEquals(1234, RecordPoints.timestamp(record, position));
+		RecordPoints.timestamp(record, position, 1000);
+		assertEquals(1000, RecordPoints.point(record, 0).getTimestamp());
+		// default 0 omitted by flat buffer
+		record = new RowBuilder().build(Point.builder("cpu", 0).addLast("f", 1).build(), null);
+		assertEquals(-1, RecordPoints.timestampPosition(record, 0));
+		assertEquals(0, RecordPoints.timestamp(record, -1));
+	}
+
+	@Test
+	public void offsets_malformed() {
+		byte[] record = new RowBuilder().build(Point.builder("cpu").addLast("f", 1).build(), null);
+		assertEquals(0, RecordPoints.offsets(record, 0, 0).length);
+		assertThrows(IllegalArgumentException.class, () -> RecordPoints.offsets(record, 0, 3));
+		assertThrows(IllegalArgumentException.class, () -> RecordPoints.offsets(record, 0, record.length - 1));
+		assertThrows(IllegalArgumentException.class, () -> RecordPoints.offsets(new byte[4], 0, 4));
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class RecordTemplateTest {
+
+	@Test
+	public void simpleFields() {
+		Map<String, String> defaultTags = Collections.singletonMap("dc", "sh");
+		RecordTemplate template = RecordTemplate.of(Point.builder("cpu", 1).namespace("ns").addTag("host", "h1")
+				.addSum("sum", 0).addLast("last", 0).build(), defaultTags);
+		assertEquals(2, template.slots());
+		byte[] data = new byte[template.recordSize() + 3];
+		assertEquals(data.length, template.write(1000, data, 3));
+		template.set(data, 3, 0, 1.5);
+		template.set(data, 3, 1, 2);
+
+		Point point = Point.builder("cpu", 1000).namespace("ns").addTag("host", "h1")
+				.addSum("sum", 1.5).addLast("last", 2).build();
+		byte[] expect = new RowBuilder().build(point, defaultTags);
+		byte[] record = new byte[template.recordSize()];
+		System.arraycopy(data, 3, record, 0, record.length);
+		assertArrayEquals(expect, record);
+	}
+
+	@Test
+	public void histogram() {
+		double[] bounds = new double[] { 1, 10, Double.POSITIVE_INFINITY };
+		RecordTemplate template = RecordTemplate.of(Point.builder("latency").addTag("path", "/")
+				.addHistogram(1, 1, 1, 1, bounds, new double[] { 1, 0, 0 })
+				.addExemplars(Collections.singletonList(Exemplar.of("01", "02", 3))).build(), null);
+		assertEquals(7, template.slots());
+		byte[] data = new byte[template.recordSize()];
+		template.write(20, data, 0);
+		double[] values = new double[] { 6, 30, 0.5, 12, 2, 3, 1 };
+		for (int i = 0; i < values.length; i++) {
+			template.set(data, 0, i, values[i]);
+		}
+		// exemplars of template point are not kept
+		Point point = Point.builder("latency", 20).addTag("path", "/")
+				.addHistogram(6, 30, 0.5, 12, bounds, new double[] { 2, 3, 1 }).build();
+		assertArrayEquals(new RowBuilder().build(point, null), data);
+	}
+
+	@Test
+	public void invalid() {
+		assertThrows(IllegalArgumentException.class, () -> RecordTemplate.of(Point.builder("cpu").build(), null));
+		assertThrows(IllegalArgumentException.class,
+				() -> RecordTemplate.of(Point.builder("cpu").addCumulativeSum("total", 0).build(), null));
+	}
+}
@@ -21,11 +21,16 @@ package io.lindb.client.api;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Test;
 
+import io.lindb.client.flat.metrics.v1.Metric;
+
 public class RowBuilderTest {
 	@Test
 	public void build() {
@@ -66,4 +71,33 @@ public class RowBuilderTest {
 		assertTrue(data2.length > 0);
 		builder.reset();
 	}
+
+	@Test
+	public void exemplars() {
+		RowBuilder builder = new RowBuilder();
+		Point point = Point.builder("cpu").addSum("sum", 1.0).build();
+		byte[] data = builder.build(point, null);
+		builder.reset();
+		point = Point.builder("cpu").addSum("sum", 1.0)
+				.addExemplars(Collections.singletonList(Exemplar.of("0102", "03", 4))).build();
+		byte[] withExemplars = builder.build(point, null);
+		builder.reset();
+		assertTrue(data.length < withExemplars.length);
+
+		Metric metric = Metric.getRootAsMetric(ByteBuffer.wrap(withExemplars, 4, withExemplars.length - 4).slice());
+		io.lindb.client.flat.metrics.v1.Exemplar exemplar = metric.simpleFields(0).exemplars(0);
+		assertEquals(2, exemplar.traceIdLength());
+		assertEquals(2, exemplar.traceId(1));
+		assertEquals(1, exemplar.spanIdLength());
+		assertEquals(3, exemplar.spanId(0));
+		assertEquals(4, exemplar.duration());
+
+		point = Point.builder("cpu")
+				.addHistogram(1.0, 1.0, 1.0, 1.0, new double[] { 1.0 }, new double[] { 1.2 })
+				.addExemplars(Arrays.asList(Exemplar.of("01", "02", 3), Exemplar.of("04", "05", 6))).build();
+		data = builder.build(point, null);
+		metric = Metric.getRootAsMetric(ByteBuffer.wrap(data, 4, data.length - 4).slice());
+		assertEquals(2, metric.compoundField().exemplarsLength());
+		assertEquals(6, metric.compoundField().exemplars(1).duration());
+	}
 }
@@ -0,0 +1,139 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import io.lindb.client.Constants;
+import io.lindb.client.internal.BaseClientTest;
+import io.lindb.client.internal.WriteClient;
+import io.lindb.client.testing.FakeBroker;
+
+public class RuntimeMetricsCollectorTest extends BaseClientTest {
+
+	private static List<Point> points(WriteImpl write) {
+		WriteEntry entry = write.sendBuffers.poll();
+		return entry == null ? Collections.emptyList() : entry.getPoints();
+	}
+
+	@Test
+	public void collect() throws Exception {
+		WriteOptions options = WriteOptions.builder().batchSize(10_000).build();
+		WriteImpl write = new WriteImpl(options, new WriteClient("http://localhost:9000", cli), false);
+		RuntimeMetricsCollector collector = new RuntimeMetricsCollector(write,
+				Collections.singletonMap("app", "test"));
+		try {
+			int records = collector.collect(1000);
+			List<Point> points = points(write);
+			assertEquals(records, points.size());
+			Set<String> names = new HashSet<>();
+			for (Point point : points) {
+				names.add(point.getName());
+				assertEquals(1000, point.getTimestamp());
+				assertEquals("test", point.getTags().get("app"));
+			}
+			assertTrue(names.contains(RuntimeMetricsCollector.MEMORY_METRIC));
+			assertTrue(names.contains(RuntimeMetricsCollector.MEMORY_POOL_METRIC));
+			assertTrue(names.contains(RuntimeMetricsCollector.GC_METRIC));
+			assertTrue(names.contains(RuntimeMetricsCollector.THREADS_METRIC));
+			assertTrue(names.contains(RuntimeMetricsCollector.CLASSES_METRIC));
+			assertTrue(names.contains(RuntimeMetricsCollector.BUFFER_POOL_METRIC));
+
+			List<String> collectors = collector.pauseCollectors();
+			if (collectors.isEmpty()) {
+				// gc notification not supported by runtime
+				return;
+			}
+			String gc = collectors.get(0);
+			collector.recordPause(gc, 3);
+			collector.recordPause(gc, 300);
+			assertEquals(records + 1, collector.collect(2000));
+			Point pause = null;
+			for (Point point : points(write)) {
+				if (point.getName().equals(RuntimeMetricsCollector.GC_PAUSE_METRIC)) {
+					pause = point;
+				}
+			}
+			assertEquals(gc, pause.getTags().get("gc"));
+			assertEquals(2, pause.getCompoundField().getCount(), 0);
+			// pauses drained
+			assertEquals(records, collector.collect(3000));
+		} finally {
+			collector.close();
+		}
+	}
+
+	@Test
+	public void concurrentCycle() throws Exception {
+		assertTrue(RuntimeMetricsCollector.isConcurrentCycle("ZGC Cycles", "end of GC cycle"));
+		assertTrue(RuntimeMetricsCollector.isConcurrentCycle("ZGC Major Cycles", null));
+		assertTrue(RuntimeMetricsCollector.isConcurrentCycle("Shenandoah Cycles", "end of GC cycle"));
+		assertTrue(RuntimeMetricsCollector.isConcurrentCycle("G1 Concurrent GC", "end of concurrent GC pause"));
+		assertFalse(RuntimeMetricsCollector.isConcurrentCycle("G1 Young Generation", "end of minor GC"));
+		assertFalse(RuntimeMetricsCollector.isConcurrentCycle("ZGC Pauses", "end of GC pause"));
+		assertFalse(RuntimeMetricsCollector.isConcurrentCycle("Shenandoah Pauses", "end of GC pause"));
+		assertFalse(RuntimeMetricsCollector.isConcurrentCycle("PS MarkSweep", "end of major GC"));
+		WriteImpl write = new WriteImpl(WriteOptions.builder().build(), new WriteClient("http://localhost:9000", cli),
+				false);
+		RuntimeMetricsCollector collector = new RuntimeMetricsCollector(write, Collections.emptyMap());
+		try {
+			// no pause series of concurrent cycle collectors of runtime
+			for (String gc : collector.pauseCollectors()) {
+				assertFalse(RuntimeMetricsCollector.isConcurrentCycle(gc, null));
+			}
+		} finally {
+			collector.close();
+		}
+	}
+
+	@Test
+	public void gcNotification() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().runtimeMetricsInterval(100).build();
+			WriteImpl write = new WriteImpl(options, client);
+			System.gc();
+			long deadline = System.currentTimeMillis() + 5_000;
+			while (broker.getPoints() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(50);
+			}
+			write.close();
+			assertTrue(broker.getPoints() > 0);
+			assertEquals(0, broker.getInvalidPoints());
+			assertFalse(write.stats().getPutPoints() == 0);
+		}
+	}
+
+	@Test
+	public void ackTracking() {
+		WriteOptions options = WriteOptions.builder().runtimeMetricsInterval(100).ackTracking(true).build();
+		assertThrows(IllegalArgumentException.class,
+				() -> new WriteImpl(options, new WriteClient("http://localhost:9000", cli), false));
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Constants;
+import io.lindb.client.Options;
+import io.lindb.client.internal.HttpClient;
+import io.lindb.client.testing.FakeBroker;
+import okhttp3.OkHttpClient;
+
+public class SchemaRefresherTest {
+	private final static String SCHEMAS = "[{\"name\":\"_internal\",\"option\":{\"intervals\":[{\"interval\":\"1m\"}]}},"
+			+ "{\"name\":\"db\",\"storage\":\"s\",\"option\":{\"intervals\":[{\"interval\":\"5m\",\"retention\":\"3M\"},"
+			+ "{\"interval\":\"10s\",\"retention\":\"30d\"}],\"ahead\":\"1h\",\"behind\":\"1h\",\"unknown\":1}}]";
+
+	private final OkHttpClient cli = new OkHttpClient.Builder().readTimeout(5, TimeUnit.SECONDS).build();
+
+	@Test
+	public void refresh() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			StateQuery query = new StateQueryImpl(broker.getEndpoint() + Constants.EXEC_API, new HttpClient(cli));
+			SchemaRefresher refresher = new SchemaRefresher("db", query);
+			assertSame(DatabaseSchema.NONE, refresher.schema());
+			// no response, keep previous
+			refresher.run();
+			assertSame(DatabaseSchema.NONE, refresher.schema());
+
+			broker.stubExec("show schemas", SCHEMAS);
+			assertTrue(refresher.refresh());
+			DatabaseSchema schema = refresher.schema();
+			assertEquals(10_000, schema.getInterval());
+
+			SchemaRefresher notFound = new SchemaRefresher("other", query);
+			assertFalse(notFound.refresh());
+			assertSame(DatabaseSchema.NONE, notFound.schema());
+		}
+	}
+
+	@Test
+	public void schemaAwareWrite() throws Exception {
+		List<Long> timestamps = new CopyOnWriteArrayList<>();
+		List<EventType> events = new CopyOnWriteArrayList<>();
+		List<Point> dropped = new CopyOnWriteArrayList<>();
+		try (FakeBroker broker = FakeBroker.builder()
+				.listener((database, metric) -> timestamps.add(metric.timestamp())).build().start()) {
+			broker.stubExec("show schemas", SCHEMAS);
+			Client client = ClientFactory.create(broker.getEndpoint(),
+					Options.builder().schemaAware(true).flushInterval(100).build());
+			Write write = client.write("db", (event, points, e) -> {
+				events.add(event);
+				dropped.addAll(points);
+			});
+			long now = System.currentTimeMillis();
+			write.put(Point.builder("cpu", now - 1_000).addLast("f", 1).build());
+			write.put(Point.builder("cpu", now + 2 * 3_600_000).addLast("f", 1).build());
+			write.put(Point.builder("cpu", now - 2 * 3_600_000).addLast("f", 1).build());
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			WriteStats stats = write.stats();
+			write.close();
+			client.close();
+
+			assertEquals(1, broker.getPoints());
+			assertEquals((now - 1_000) / 10_000 * 10_000, (long) timestamps.get(0));
+			assertEquals(1, stats.getAheadPoints());
+			assertEquals(1, stats.getBehindPoints());
+			assertEquals(2, stats.getDroppedPoints());
+			// failures of same type coalesced into one notification
+			assertEquals(1, events.size());
+			assertEquals(EventType.timestamp, events.get(0));
+			assertEquals(2, dropped.size());
+		}
+	}
+
+	@Test
+	public void schemaAwareWriteRecords() throws Exception {
+		List<Long> timestamps = new CopyOnWriteArrayList<>();
+		List<Point> dropped = new CopyOnWriteArrayList<>();
+		try (FakeBroker broker = FakeBroker.builder()
+				.listener((database, metric) -> timestamps.add(metric.timestamp())).build().start()) {
+			broker.stubExec("show schemas", SCHEMAS);
+			Client client = ClientFactory.create(broker.getEndpoint(),
+					Options.builder().schemaAware(true).flushInterval(100).build());
+			Write write = client.write("db", (event, points, e) -> dropped.addAll(points));
+			long now = System.currentTimeMillis();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			RowBuilder builder = new RowBuilder();
+			for (long timestamp : new long[] { now - 2 * 3_600_000, now - 1_000, now + 2 * 3_600_000 }) {
+				byte[] record = builder.build(Point.builder("cpu", timestamp).addLast("f", 1).build(), null);
+				out.write(record, 0, record.length);
+				builder.reset();
+			}
+			byte[] records = out.toByteArray();
+			// dropped records are consumed too
+			assertEquals(3, write.writeRecords(records, 0, records.length, 1, TimeUnit.SECONDS));
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			WriteStats stats = write.stats();
+			write.close();
+			client.close();
+
+			assertEquals(1, broker.getPoints());
+			// timestamp rounded in place
+			assertEquals((now - 1_000) / 10_000 * 10_000, (long) timestamps.get(0));
+			assertEquals(1, stats.getAheadPoints());
+			assertEquals(1, stats.getBehindPoints());
+			assertEquals(2, stats.getDroppedPoints());
+			assertEquals(2, dropped.size());
+		}
+	}
+}
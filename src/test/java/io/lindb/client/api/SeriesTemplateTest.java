@@ -0,0 +1,83 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.lindb.client.flat.metrics.v1.Metric;
+
+public class SeriesTemplateTest {
+
+	@Test
+	public void sameAsRowBuilder() {
+		Map<String, String> defaultTags = Collections.singletonMap("dc", "sh");
+		Series series = Series.builder("cpu").namespace("ns").addTag("host", "h1")
+				.timestamps(new long[] { 1000, 2000, 3000 })
+				.addSum("sum", new double[] { 1.5, -2, Double.MAX_VALUE })
+				.addLast("last", new double[] { 7, 8, 9 })
+				.build();
+		SeriesTemplate template = SeriesTemplate.of(series, defaultTags);
+		byte[] data = template.encode(0, 3);
+		assertEquals(3 * template.recordSize(), data.length);
+
+		RowBuilder builder = new RowBuilder();
+		for (int i = 0; i < 3; i++) {
+			Point point = Point.builder("cpu", series.timestamp(i)).namespace("ns").addTag("host", "h1")
+					.addSum("sum", series.value(0, i)).addLast("last", series.value(1, i)).build();
+			byte[] expect = builder.build(point, defaultTags);
+			builder.reset();
+			byte[] record = new byte[template.recordSize()];
+			System.arraycopy(data, i * record.length, record, 0, record.length);
+			assertArrayEquals(expect, record);
+		}
+	}
+
+	@Test
+	public void defaultValues() {
+		Series series = Series.builder("cpu")
+				.timestamps(new long[] { 0, 5 })
+				.addMin("min", new double[] { 0, -0.0 })
+				.build();
+		SeriesTemplate template = SeriesTemplate.of(series, null);
+		byte[] data = new byte[template.recordSize()];
+		template.write(1, 42, data, 0);
+		// zero values kept in record, decoded as written
+		ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		buf.position(4);
+		Metric metric = Metric.getRootAsMetric(buf);
+		assertEquals("cpu", metric.name());
+		assertEquals(42, metric.timestamp());
+		assertEquals(1, metric.simpleFieldsLength());
+		assertEquals("min", metric.simpleFields(0).name());
+		assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(metric.simpleFields(0).value()));
+		assertEquals(FieldType.Min.value(), metric.simpleFields(0).type());
+
+		template.write(0, 0, data, 0);
+		assertEquals(0, Metric.getRootAsMetric((ByteBuffer) buf.position(4)).timestamp());
+		assertEquals(data.length - 4, ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).getInt());
+	}
+}
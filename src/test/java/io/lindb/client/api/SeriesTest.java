@@ -0,0 +1,97 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SeriesTest {
+
+	@Test
+	public void build() {
+		Series series = Series.builder("cpu").namespace("ns").addTag("host", "h1")
+				.addTags(Collections.singletonMap("ip", "1.1.1.1"))
+				.timestamps(new long[] { 10, 20 })
+				.addSum("sum", new double[] { 1, 2 })
+				.addMax("max", new double[] { 3, 4 })
+				.build();
+		assertEquals("cpu", series.getName());
+		assertEquals("ns", series.getNamespace());
+		assertEquals(2, series.getTags().size());
+		assertEquals(2, series.size());
+		assertEquals(2, series.fields());
+		assertEquals(20, series.timestamp(1));
+		assertEquals(4, series.value(1, 1), 0);
+
+		assertNull(Series.builder("cpu").timestamps(new long[0]).addLast("f", new double[0]).build().getTags());
+	}
+
+	@Test
+	public void invalid() {
+		assertThrows(IllegalArgumentException.class,
+				() -> Series.builder("").timestamps(new long[1]).addLast("f", new double[1]).build());
+		assertThrows(NullPointerException.class, () -> Series.builder("cpu").addLast("f", new double[1]).build());
+		assertThrows(IllegalArgumentException.class, () -> Series.builder("cpu").timestamps(new long[1]).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> Series.builder("cpu").timestamps(new long[1]).addLast("f", new double[2]).build());
+		assertThrows(IllegalArgumentException.class, () -> Series.builder("cpu").addLast("", new double[1]));
+		assertThrows(IllegalArgumentException.class, () -> Series.builder("cpu").addTag("host", ""));
+	}
+
+	@Test
+	public void points() {
+		Series series = Series.builder("cpu").addTag("host", "h1")
+				.timestamps(new long[] { 10, 20, 30 })
+				.addFirst("first", new double[] { 1, 2, 3 })
+				.addMin("min", new double[] { 4, 5, 6 })
+				.build();
+		List<Point> points = series.points(1, 3);
+		assertEquals(2, points.size());
+		Point point = points.get(1);
+		assertEquals("cpu", point.getName());
+		assertEquals(30, point.getTimestamp());
+		assertEquals("h1", point.getTags().get("host"));
+		assertEquals(2, point.getSimpleFields().size());
+		assertThrows(IndexOutOfBoundsException.class, () -> points.get(2));
+
+		// aligned timestamps
+		point = series.points(new int[] { 2 }, new long[] { 25 }, 1).get(0);
+		assertEquals(25, point.getTimestamp());
+
+		Series collapsed = series.withTags(Collections.singletonMap("host", "_overflow"));
+		assertEquals("_overflow", collapsed.points(0, 1).get(0).getTags().get("host"));
+		assertEquals(3, collapsed.size());
+
+		// values copied into view, arrays of series reused after write
+		double[] values = new double[] { 7, 8, 9 };
+		Series reused = Series.builder("cpu").timestamps(new long[] { 10, 20, 30 }).addLast("f", values).build();
+		List<Point> view = reused.points(new int[] { 0, 2 }, new long[] { 10, 30 }, 2);
+		List<Point> range = reused.points(1, 3);
+		Arrays.fill(values, 0);
+		assertEquals(9, ((SimpleField) view.get(1).getSimpleFields().get(0)).getValue(), 0);
+		assertEquals(8, ((SimpleField) range.get(0).getSimpleFields().get(0)).getValue(), 0);
+	}
+}
@@ -18,10 +18,17 @@
  */
 package io.lindb.client.api;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -35,4 +42,136 @@ public class WriteEntryTest {
 		assertTrue(entry.getPoints().isEmpty());
 		assertEquals("test", new String(entry.getData()));
 	}
+
+	@Test
+	public void split() throws Exception {
+		RowBuilder builder = new RowBuilder();
+		List<Point> points = new ArrayList<>();
+		List<byte[]> records = new ArrayList<>();
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		for (int i = 0; i < 5; i++) {
+			Point point = Point.builder("cpu-" + i).addLast("f", i).build();
+			byte[] record = builder.build(point, null);
+			builder.reset();
+			points.add(point);
+			records.add(record);
+			data.write(record);
+		}
+		WriteEntry entry = new WriteEntry(data.toByteArray(), points);
+		entry.increaseRetry();
+		WriteEntry[] parts = entry.split();
+		assertEquals(points.subList(0, 2), parts[0].getPoints());
+		assertEquals(points.subList(2, 5), parts[1].getPoints());
+		assertEquals(1, parts[0].getRetry());
+		assertEquals(1, parts[1].getRetry());
+		ByteArrayOutputStream left = new ByteArrayOutputStream();
+		left.write(records.get(0));
+		left.write(records.get(1));
+		assertArrayEquals(left.toByteArray(), parts[0].getData());
+		assertEquals(data.size() - left.size(), parts[1].getData().length);
+
+		WriteEntry[] single = parts[0].split();
+		assertEquals(Collections.singletonList(points.get(0)), single[0].getPoints());
+		assertArrayEquals(records.get(0), single[0].getData());
+		assertNull(single[0].split());
+	}
+
+	@Test
+	public void split_notAligned() {
+		List<Point> points = Arrays.asList(Point.builder("a").addLast("f", 1).build(),
+				Point.builder("b").addLast("f", 1).build());
+		assertNull(new WriteEntry(null, points).split());
+		assertNull(new WriteEntry(new byte[] { 1, 0 }, points).split());
+		assertNull(new WriteEntry(new byte[] { 1, 0, 0, 0, 9 }, points).split());
+		assertNull(new WriteEntry(new byte[] { 1, 0, 0, 0, 9, 1, 0, 0, 0, 9, 0 }, points).split());
+		assertNull(new WriteEntry(new byte[] { 1, 0, 0, 0, 9, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff },
+				points).split());
+	}
+
+	private static WriteEntry entry(RowBuilder builder, String... names) throws Exception {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		List<Point> points = new ArrayList<>();
+		for (String name : names) {
+			Point point = Point.builder(name).addLast("f", 1).build();
+			data.write(builder.build(point, null));
+			builder.reset();
+			points.add(point);
+		}
+		return new WriteEntry(data.toByteArray(), points);
+	}
+
+	@Test
+	public void mergeAndPartition() throws Exception {
+		RowBuilder builder = new RowBuilder();
+		WriteEntry a = entry(builder, "a1", "a2");
+		WriteEntry b = entry(builder, "b1");
+		WriteEntry c = entry(builder, "c1", "c2");
+		a.increaseRetry();
+		a.increaseRetry();
+		b.increaseRetry();
+		assertSame(a, WriteEntry.merge(Collections.singletonList(a)));
+
+		WriteEntry merged = WriteEntry.merge(Arrays.asList(a, b, c));
+		assertEquals(5, merged.getPoints().size());
+		assertEquals(a.getData().length + b.getData().length + c.getData().length, merged.getData().length);
+		assertEquals(2, merged.getRetry());
+		assertEquals(2, merged.getRetry(1));
+		assertEquals(1, merged.getRetry(2));
+		assertEquals(0, merged.getRetry(4));
+		merged.increaseRetry();
+		assertEquals(3, merged.getRetry());
+		assertEquals(1, merged.getRetry(4));
+
+		WriteEntry[] parts = merged.partition(2);
+		assertEquals(Arrays.asList(c.getPoints().get(0), c.getPoints().get(1)), parts[0].getPoints());
+		assertArrayEquals(c.getData(), parts[0].getData());
+		assertEquals(1, parts[0].getRetry());
+		assertEquals(3, parts[1].getPoints().size());
+		assertEquals(3, parts[1].getRetry(0));
+		assertEquals(2, parts[1].getRetry(2));
+
+		// split keeps retry count of points
+		WriteEntry[] halves = parts[1].split();
+		assertEquals(3, halves[0].getRetry());
+		assertEquals(2, halves[1].getRetry(1));
+
+		assertNull(merged.partition(10)[1]);
+		assertNull(merged.partition(1)[0]);
+		// same retry count
+		WriteEntry[] whole = c.partition(1);
+		assertSame(c, whole[0]);
+		assertNull(whole[1]);
+	}
+
+	@Test
+	public void trackAcks() throws Exception {
+		RowBuilder builder = new RowBuilder();
+		AckTracker tracker = new AckTracker();
+		tracker.assign();
+		tracker.assign();
+		tracker.assign();
+		WriteEntry a = entry(builder, "a1", "a2");
+		WriteEntry b = entry(builder, "b1");
+		assertNull(a.getAcks());
+		a.track(tracker.batch(2, 2, false));
+		b.track(tracker.batch(3, 1, false));
+		b.increaseRetry();
+
+		WriteEntry merged = WriteEntry.merge(Arrays.asList(a, b));
+		assertSame(a.getAcks()[0], merged.getAcks()[1]);
+		assertSame(b.getAcks()[0], merged.getAcks()[2]);
+		WriteEntry[] parts = merged.partition(1);
+		assertSame(a.getAcks()[0], parts[0].getAcks()[1]);
+		assertSame(b.getAcks()[0], parts[1].getAcks()[0]);
+		WriteEntry[] halves = merged.split();
+		assertEquals(1, halves[0].getAcks().length);
+		assertSame(b.getAcks()[0], halves[1].getAcks()[1]);
+
+		// all points of merged entry settled
+		tracker.resolve(halves[1], false);
+		assertEquals(0, tracker.acked());
+		tracker.resolve(halves[0], false);
+		assertEquals(3, tracker.acked());
+	}
+
 }
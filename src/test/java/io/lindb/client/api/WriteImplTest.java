@@ -18,19 +18,32 @@
  */
 package io.lindb.client.api;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.lindb.client.Constants;
 import io.lindb.client.internal.BaseClientTest;
 import io.lindb.client.internal.WriteClient;
+import io.lindb.client.testing.FakeBroker;
 import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -437,6 +450,458 @@ public class WriteImplTest extends BaseClientTest {
 		write.decodeConsumer.process();
 	}
 
+	@Test
+	public void decodeConsumer_sortBatch() throws Exception {
+		WriteOptions options = WriteOptions.builder().batchSize(3).sortBatch(true).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		Point mem = Point.builder("mem", 1).addLast("f", 1).build();
+		Point cpu2 = Point.builder("cpu", 2).addLast("f", 1).build();
+		Point cpu1 = Point.builder("cpu", 1).addLast("f", 1).build();
+		for (Point point : new Point[] { mem, cpu2, cpu1 }) {
+			write.points.put(point);
+			write.decodeConsumer.process();
+		}
+		WriteEntry entry = write.sendBuffers.poll();
+		assertEquals(Arrays.asList(cpu1, cpu2, mem), entry.getPoints());
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		RowBuilder builder = new RowBuilder();
+		for (Point point : entry.getPoints()) {
+			expected.write(builder.build(point, null));
+			builder.reset();
+		}
+		assertArrayEquals(expected.toByteArray(), entry.getData());
+	}
+
+	@Test
+	public void splitInvalidPoints() throws Exception {
+		List<EventType> events = new CopyOnWriteArrayList<>();
+		List<Point> invalid = new CopyOnWriteArrayList<>();
+		try (FakeBroker broker = FakeBroker.builder().atomic(true).build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(100).build();
+			WriteImpl write = new WriteImpl(options, client, (event, points, e) -> {
+				events.add(event);
+				invalid.addAll(points);
+			});
+			Point poison = Point.builder("cpu", 0).addLast("f", 1).build();
+			for (int i = 0; i < 100; i++) {
+				write.put(i == 37 ? poison : Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build());
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 99 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			WriteStats stats = write.stats();
+			write.close();
+			assertEquals(99, broker.getPoints());
+			assertEquals(Collections.singletonList(EventType.invalid), events);
+			assertEquals(Collections.singletonList(poison), invalid);
+			assertEquals(1, stats.getInvalidPoints());
+			assertEquals(1, stats.getDroppedPoints());
+			assertEquals(6, stats.getSplits());
+			assertEquals(0, stats.getRetries());
+		}
+	}
+
+	@Test
+	public void splitPayloadLimit() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().atomic(true).maxPayload(4096).build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(100).useGZip(false).build();
+			WriteImpl write = new WriteImpl(options, client);
+			for (int i = 0; i < 100; i++) {
+				write.put(Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build());
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 100 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			WriteStats stats = write.stats();
+			write.close();
+			assertEquals(100, broker.getPoints());
+			assertTrue(broker.getPayloadRejects() > 0);
+			assertTrue(stats.getSplits() > 0);
+			assertEquals(0, stats.getDroppedPoints());
+		}
+	}
+
+	@Test
+	public void splitBudget() throws Exception {
+		List<Point> invalid = new CopyOnWriteArrayList<>();
+		try (FakeBroker broker = FakeBroker.builder().atomic(true).build().start()) {
+			// database missing, broker rejects every request
+			WriteClient client = new WriteClient(broker.getEndpoint() + Constants.WRITE_API, cli);
+			WriteOptions options = WriteOptions.builder().batchSize(1000).flushInterval(1000).build();
+			WriteImpl write = new WriteImpl(options, client, (event, points, e) -> invalid.addAll(points));
+			for (int i = 0; i < 1000; i++) {
+				write.put(Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build());
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (invalid.size() < 1000 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			write.close();
+			assertEquals(1000, invalid.size());
+			// 1 + 4 sends per halving level
+			assertTrue(broker.getWriteRequests() <= 41);
+		}
+	}
+
+	@Test
+	public void successAck() throws Exception {
+		AtomicLong acked = new AtomicLong();
+		AtomicLong bytes = new AtomicLong();
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(10).build();
+			WriteImpl write = new WriteImpl(options, client, new EventListener() {
+				@Override
+				public void onError(EventType event, List<Point> points, Throwable e) {
+				}
+
+				@Override
+				public void onSuccess(int points, long size, long latencyNanos) {
+					acked.addAndGet(points);
+					bytes.addAndGet(size);
+				}
+			});
+			for (int i = 0; i < 100; i++) {
+				write.put(Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build());
+			}
+			write.close();
+			assertEquals(100, acked.get());
+			assertEquals(write.stats().getSentBytes(), bytes.get());
+		}
+	}
+
+	@Test
+	public void ackTracking() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(30).flushInterval(60_000).ackTracking(true)
+					.build();
+			WriteImpl write = new WriteImpl(options, client);
+			long seq = 0;
+			for (int i = 0; i < 100; i++) {
+				long next = write.putSequenced(Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build());
+				assertEquals(seq + 1, next);
+				seq = next;
+			}
+			assertEquals(0, write.putSequenced(null));
+			assertTrue(write.put(Point.builder("cpu").addLast("f", 1).build()));
+			// flush sends partial batch without waiting flush interval
+			assertEquals(Long.valueOf(101), write.flush().get(5, TimeUnit.SECONDS));
+			assertTrue(write.awaitAcked(seq, 0, TimeUnit.MILLISECONDS));
+			assertEquals(101, write.ackedSequence());
+			assertEquals(101, broker.getPoints());
+			write.close();
+			assertEquals(-1, write.putSequenced(Point.builder("cpu").addLast("f", 1).build()));
+		}
+	}
+
+	@Test
+	public void ackTracking_dropped() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().atomic(true).build().start()) {
+			// database missing, broker rejects every point
+			WriteClient client = new WriteClient(broker.getEndpoint() + Constants.WRITE_API, cli);
+			WriteOptions options = WriteOptions.builder().batchSize(10).ackTracking(true).build();
+			WriteImpl write = new WriteImpl(options, client);
+			long seq = 0;
+			for (int i = 0; i < 25; i++) {
+				seq = write.putSequenced(Point.builder("cpu").addLast("f", 1).build());
+			}
+			CompletableFuture<Long> flush = write.flush();
+			// invalid points are settled after reported, but not durable
+			assertFalse(write.awaitAcked(seq, 5, TimeUnit.SECONDS));
+			assertEquals(seq, write.ackedSequence());
+			assertEquals(25, write.stats().getInvalidPoints());
+			assertEquals(seq, write.lostSequence());
+			assertThrows(ExecutionException.class, () -> flush.get(5, TimeUnit.SECONDS));
+			write.close();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void ackTracking_disabled() throws Exception {
+		WriteImpl write = new WriteImpl(WriteOptions.builder().build(), client, false);
+		write.flush();
+	}
+
+	@Test
+	public void putAll() throws Exception {
+		WriteOptions options = WriteOptions.builder().batchQueue(3).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		Point point = Point.builder("test").addSum("sum", 1.0).build();
+		assertEquals(0, write.putAll(Collections.emptyList()));
+		assertEquals(3, write.putAll(Arrays.asList(point, null, point)));
+		// invalid points ignored, rest rejected from 3rd point(2nd valid point)
+		assertEquals(2, write.putAll(Arrays.asList(null, point, point, Point.builder("").build(), point)));
+		assertEquals(0, write.putAll(Arrays.asList(point), 10, TimeUnit.MILLISECONDS));
+		assertEquals(3, write.stats().getPutPoints());
+		assertEquals(3, write.stats().getRejectedPoints());
+	}
+
+	@Test
+	public void putAll_ackTracking() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(100).ackTracking(true).build();
+			WriteImpl write = new WriteImpl(options, client);
+			List<Point> points = new ArrayList<>();
+			for (int i = 0; i < 250; i++) {
+				points.add(Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build());
+			}
+			assertEquals(250, write.putAll(points, 1, TimeUnit.SECONDS));
+			try (PointBatcher batcher = write.batcher()) {
+				for (Point point : points) {
+					batcher.add(point);
+				}
+			}
+			assertEquals(Long.valueOf(500), write.flush().get(5, TimeUnit.SECONDS));
+			assertEquals(500, broker.getPoints());
+			write.close();
+		}
+	}
+
+	@Test
+	public void encodeOnPut() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(50).encodeOnPut(true).sortBatch(true).build();
+			WriteImpl write = new WriteImpl(options, client);
+			Thread[] producers = new Thread[4];
+			for (int t = 0; t < producers.length; t++) {
+				final int producer = t;
+				producers[t] = new Thread(() -> {
+					for (int i = 0; i < 1000; i++) {
+						try {
+							assertTrue(write.put(Point.builder("cpu").addTag("p", "" + producer).addTag("i", "" + i)
+									.addLast("f", 1).addCumulativeSum("c", i).build(), 1, TimeUnit.SECONDS));
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				});
+				producers[t].start();
+			}
+			for (Thread producer : producers) {
+				producer.join();
+			}
+			assertEquals(0, write.points.size());
+			write.close();
+			WriteStats stats = write.stats();
+			assertEquals(4000, stats.getPutPoints());
+			assertEquals(4000, stats.getEncodedPoints());
+			assertEquals(4000, broker.getPoints());
+		}
+	}
+
+	@Test
+	public void encodeOnPut_linger() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(100).flushInterval(20).encodeOnPut(true).build();
+			WriteImpl write = new WriteImpl(options, client);
+			try {
+				assertTrue(write.put(Point.builder("cpu").addLast("f", 1).build()));
+				assertEquals(1, write.putAll(Arrays.asList(Point.builder("cpu").addLast("f", 1).build())));
+				long deadline = System.currentTimeMillis() + 5000;
+				while (broker.getPoints() < 2 && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10);
+				}
+				// batch of idle producer handed off by flusher
+				assertEquals(2, broker.getPoints());
+			} finally {
+				write.close();
+			}
+		}
+	}
+
+	@Test
+	public void encodeOnPut_rejectAfterClose() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(100).encodeOnPut(true).build();
+			WriteImpl write = new WriteImpl(options, client);
+			Point point = Point.builder("cpu").addLast("f", 1).build();
+			assertTrue(write.put(point));
+			write.close();
+			// pending encoder drained, later puts rejected instead of lost
+			assertEquals(1, broker.getPoints());
+			assertFalse(write.put(point));
+			assertEquals(0, write.putAll(Arrays.asList(point, point)));
+			assertEquals(1, write.stats().getPutPoints());
+		}
+	}
+
+	@Test
+	public void encodeOnPut_sendQueueFull() throws Exception {
+		WriteOptions options = WriteOptions.builder().batchSize(2).sendQueue(1).encodeOnPut(true).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		Point point = Point.builder("test").addLast("f", 1).build();
+		// 1st batch queued, 2nd batch pending, 3rd batch full
+		assertEquals(6, write.putAll(Arrays.asList(point, point, point, point, point, point)));
+		assertFalse(write.put(point));
+		assertEquals(1, write.sendBuffers.size());
+		write.sendBuffers.poll();
+		// pending batch handed off, then point accepted
+		assertTrue(write.put(point));
+		assertEquals(1, write.sendBuffers.size());
+		assertEquals(6 + 1, write.stats().getPutPoints());
+		assertEquals(1, write.stats().getRejectedPoints());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void encodeOnPut_ackTracking() throws Exception {
+		new WriteImpl(WriteOptions.builder().encodeOnPut(true).ackTracking(true).build(), client, false);
+	}
+
+	@Test
+	public void writeSeries() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(100).build();
+			WriteImpl write = new WriteImpl(options, client);
+			long[] timestamps = new long[250];
+			double[] values = new double[250];
+			long now = System.currentTimeMillis();
+			for (int i = 0; i < timestamps.length; i++) {
+				timestamps[i] = now - i * 1000;
+				values[i] = i;
+			}
+			Series series = Series.builder("cpu").addTag("host", "h1").timestamps(timestamps)
+					.addLast("f", values).build();
+			assertEquals(0, write.writeSeries(null, 1, TimeUnit.SECONDS));
+			assertEquals(250, write.writeSeries(series, 1, TimeUnit.SECONDS));
+			write.close();
+			WriteStats stats = write.stats();
+			assertEquals(250, stats.getPutPoints());
+			assertEquals(250, stats.getEncodedPoints());
+			assertEquals(3, stats.getBatches());
+			assertEquals(250, broker.getPoints());
+			assertEquals(0, write.writeSeries(series, 1, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void writeSeries_sendQueueFull() throws Exception {
+		WriteOptions options = WriteOptions.builder().batchSize(2).sendQueue(1).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		Series series = Series.builder("test").timestamps(new long[] { 1, 2, 3, 4, 5 })
+				.addLast("f", new double[] { 1, 2, 3, 4, 5 }).build();
+		// 1st batch queued, rest rejected
+		assertEquals(2, write.writeSeries(series, 10, TimeUnit.MILLISECONDS));
+		WriteEntry entry = write.sendBuffers.poll();
+		assertEquals(2, entry.getPoints().size());
+		assertEquals(2, entry.getPoints().get(1).getTimestamp());
+		assertEquals(2, write.stats().getPutPoints());
+		assertEquals(3, write.stats().getRejectedPoints());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void writeSeries_ackTracking() throws Exception {
+		WriteImpl write = new WriteImpl(WriteOptions.builder().ackTracking(true).build(), client, false);
+		write.writeSeries(Series.builder("test").timestamps(new long[1]).addLast("f", new double[1]).build(), 0,
+				TimeUnit.MILLISECONDS);
+	}
+
+	private static byte[] records(int count, long timestamp) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RowBuilder builder = new RowBuilder();
+		for (int i = 0; i < count; i++) {
+			byte[] record = builder.build(Point.builder("cpu", timestamp + i).addTag("host", "h" + i % 10)
+					.addLast("f", i).build(), null);
+			out.write(record, 0, record.length);
+			builder.reset();
+		}
+		return out.toByteArray();
+	}
+
+	@Test
+	public void writeRecords() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(100).build();
+			WriteImpl write = new WriteImpl(options, client);
+			byte[] records = records(250, System.currentTimeMillis());
+			assertEquals(0, write.writeRecords(null, 0, 0, 1, TimeUnit.SECONDS));
+			assertEquals(250, write.writeRecords(records, 0, records.length, 1, TimeUnit.SECONDS));
+			assertThrows(IllegalArgumentException.class,
+					() -> write.writeRecords(records, 0, records.length - 1, 1, TimeUnit.SECONDS));
+			write.close();
+			WriteStats stats = write.stats();
+			assertEquals(250, stats.getPutPoints());
+			assertEquals(3, stats.getBatches());
+			assertEquals(250, broker.getPoints());
+			assertEquals(10, broker.getSeries());
+			assertEquals(0, write.writeRecords(records, 0, records.length, 1, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void writeRecords_sendQueueFull() throws Exception {
+		WriteOptions options = WriteOptions.builder().batchSize(2).sendQueue(1).build();
+		WriteImpl write = new WriteImpl(options, client, false);
+		byte[] records = records(5, 1);
+		// 1st batch queued, rest rejected
+		assertEquals(2, write.writeRecords(records, 0, records.length, 10, TimeUnit.MILLISECONDS));
+		WriteEntry entry = write.sendBuffers.poll();
+		// records decoded into points for failure report
+		assertEquals(2, entry.getPoints().size());
+		assertEquals(2, entry.getPoints().get(1).getTimestamp());
+		assertEquals(2, write.stats().getPutPoints());
+		assertEquals(3, write.stats().getRejectedPoints());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void writeRecords_ackTracking() throws Exception {
+		WriteImpl write = new WriteImpl(WriteOptions.builder().ackTracking(true).build(), client, false);
+		byte[] records = records(1, 1);
+		write.writeRecords(records, 0, records.length, 0, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void retryCoalesce() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			WriteOptions options = WriteOptions.builder().batchSize(5).maxRetries(2).retryQueue(10).build();
+			WriteImpl write = new WriteImpl(options, client, false);
+			RowBuilder builder = new RowBuilder();
+			for (int i = 0; i < 4; i++) {
+				Point point = Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build();
+				WriteEntry entry = new WriteEntry(builder.build(point, null), Collections.singletonList(point));
+				builder.reset();
+				// points retried different times
+				for (int r = 0; r < i % 2; r++) {
+					entry.increaseRetry();
+				}
+				write.retryQueue.put(entry);
+			}
+			broker.inject(FakeBroker.Fault.SERVER_ERROR, 1);
+			write.retryConsumer.process();
+			// merged into one request, points reached max retry dropped
+			assertEquals(1, broker.getWriteRequests());
+			assertEquals(1, write.retryQueue.size());
+			assertEquals(2, write.retryQueue.peek().getPoints().size());
+			assertEquals(2, write.stats().getDroppedPoints());
+
+			write.retryConsumer.process();
+			assertEquals(2, broker.getWriteRequests());
+			assertEquals(2, broker.getPoints());
+			assertTrue(write.retryQueue.isEmpty());
+
+			// limited by batch size
+			for (int i = 0; i < 7; i++) {
+				Point point = Point.builder("cpu").addTag("i", "" + i).addLast("f", 1).build();
+				write.retryQueue.put(new WriteEntry(builder.build(point, null), Collections.singletonList(point)));
+				builder.reset();
+			}
+			write.retryConsumer.process();
+			assertEquals(7, broker.getPoints());
+			assertEquals(2, write.retryQueue.size());
+		}
+	}
+
 	@Test
 	public void sendConsumer_isRunning() throws Exception {
 		WriteOptions options = WriteOptions.builder().retryQueue(1).maxRetries(2)
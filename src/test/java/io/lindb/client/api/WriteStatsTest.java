@@ -0,0 +1,120 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import io.lindb.client.internal.BaseClientTest;
+import io.lindb.client.internal.WriteClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class WriteStatsTest extends BaseClientTest {
+
+	@Test
+	public void sendLatency() throws Exception {
+		WriteImpl write = new WriteImpl(WriteOptions.builder().build(), new WriteClient("http://localhost:9000", cli),
+				false);
+		WriteStatsRecorder recorder = write.stats;
+		assertEquals(0, recorder.snapshot().getSendLatency(0.99), 0);
+		for (int i = 0; i < 99; i++) {
+			recorder.send(10, TimeUnit.MILLISECONDS.toNanos(1), true);
+		}
+		recorder.send(10, TimeUnit.MILLISECONDS.toNanos(300), false);
+		WriteStats stats = recorder.snapshot();
+		assertEquals(1, stats.getSendLatency(0.5), 0);
+		assertEquals(1, stats.getSendLatency(0.99), 0);
+		assertEquals(500, stats.getSendLatency(1), 0);
+		assertEquals(100, stats.getSends());
+		assertEquals(1, stats.getSendFailures());
+		assertEquals(1000, stats.getSentBytes());
+	}
+
+	@Test
+	public void writeStats() throws Exception {
+		MockWebServer server = new MockWebServer();
+		server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+			@Override
+			public MockResponse dispatch(okhttp3.mockwebserver.RecordedRequest request) {
+				return new MockResponse().setResponseCode(200);
+			}
+		});
+		WriteClient client = new WriteClient("db", server.url("/test").toString(), cli);
+		WriteOptions options = WriteOptions.builder().batchSize(2).jmxEnabled(true).build();
+		WriteImpl write = new WriteImpl(options, client);
+		MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		ObjectName pattern = new ObjectName("io.lindb.client:type=Write,*");
+		try {
+			Set<ObjectName> names = mbeanServer.queryNames(pattern, null);
+			assertEquals(1, names.size());
+			for (int i = 0; i < 4; i++) {
+				assertTrue(write.put(Point.builder("test").addLast("last", 1.0).build()));
+			}
+			long deadline = System.currentTimeMillis() + 5_000;
+			while (write.stats().getSends() < 2 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			WriteStats stats = write.stats();
+			assertEquals(4, stats.getPutPoints());
+			assertEquals(4, stats.getEncodedPoints());
+			assertEquals(2, stats.getBatches());
+			assertEquals(2, stats.getAvgBatchSize(), 0);
+			assertTrue(stats.getAvgEncodeNanos() > 0);
+			assertEquals(2, stats.getSends());
+			assertTrue(stats.getCompressionRatio() > 0);
+			assertEquals(0, stats.getDroppedPoints());
+			assertEquals(4L, mbeanServer.getAttribute(names.iterator().next(), "PutPoints"));
+		} finally {
+			write.close();
+			server.close();
+		}
+		assertTrue(mbeanServer.queryNames(pattern, null).isEmpty());
+		assertFalse(write.put(Point.builder("test").addLast("last", 1.0).build()));
+		assertEquals(1, write.stats().getRejectedPoints());
+	}
+
+	@Test
+	public void report() throws Exception {
+		WriteOptions options = WriteOptions.builder().build();
+		WriteImpl write = new WriteImpl(options, new WriteClient("http://localhost:9000", cli), false);
+		write.stats.send(100, TimeUnit.MILLISECONDS.toNanos(3), true);
+		write.stats.rawBytes.add(300);
+		WriteStatsReporter reporter = new WriteStatsReporter(write, write.stats);
+		write.stats.send(100, TimeUnit.MILLISECONDS.toNanos(3), true);
+		reporter.run();
+		// stats point + send latency histogram point
+		assertEquals(2, write.points.size());
+		assertEquals(WriteStatsReporter.WRITE_METRIC, write.points.poll().getName());
+		assertEquals(WriteStatsReporter.SEND_LATENCY_METRIC, write.points.poll().getName());
+		// no send, no histogram
+		reporter.run();
+		assertEquals(1, write.points.size());
+	}
+}
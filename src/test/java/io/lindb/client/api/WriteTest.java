@@ -0,0 +1,90 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class WriteTest {
+
+	/**
+	 * Write implementing required methods only, accepts up to capacity points.
+	 */
+	private static class ListWrite implements Write, BlockingWrite {
+		private final List<Point> points = new ArrayList<>();
+		private final int capacity;
+
+		private ListWrite(int capacity) {
+			this.capacity = capacity;
+		}
+
+		@Override
+		public boolean put(Point point) {
+			if (this.points.size() >= this.capacity) {
+				return false;
+			}
+			return this.points.add(point);
+		}
+
+		@Override
+		public boolean put(Point point, long timeout, TimeUnit unit) {
+			return put(point);
+		}
+
+		@Override
+		public void write(List<Point> points) {
+			this.points.addAll(points);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	@Test
+	public void defaults() throws Exception {
+		ListWrite write = new ListWrite(3);
+		Point point = Point.builder("cpu").addLast("f", 1).build();
+		// null points ignored as put
+		assertEquals(3, write.putAll(Arrays.asList(point, null, point)));
+		assertEquals(1, write.putAll(Arrays.asList(point, point), 1, TimeUnit.SECONDS));
+		assertEquals(3, write.points.size());
+
+		Series series = Series.builder("cpu").timestamps(new long[] { 1, 2 }).addLast("f", new double[] { 1, 2 })
+				.build();
+		ListWrite seriesWrite = new ListWrite(10);
+		assertEquals(2, seriesWrite.writeSeries(series, 1, TimeUnit.SECONDS));
+		seriesWrite.writeSeries(series);
+		assertEquals(4, seriesWrite.points.size());
+		assertEquals(2, seriesWrite.points.get(1).getTimestamp());
+
+		assertThrows(UnsupportedOperationException.class, write::batcher);
+		assertThrows(UnsupportedOperationException.class, write::stats);
+		assertThrows(UnsupportedOperationException.class, () -> write.putSequenced(point));
+		assertThrows(UnsupportedOperationException.class,
+				() -> write.writeRecords(new byte[0], 0, 0, 1, TimeUnit.SECONDS));
+	}
+}
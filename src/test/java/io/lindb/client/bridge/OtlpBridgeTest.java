@@ -0,0 +1,155 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.api.Write;
+import io.lindb.client.internal.BaseClientTest;
+import io.lindb.client.testing.FakeBroker;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+public class OtlpBridgeTest extends BaseClientTest {
+	private static final MediaType PROTOBUF = MediaType.get("application/x-protobuf");
+	private static final MediaType JSON = MediaType.get("application/json");
+
+	private static int post(OtlpBridge bridge, String path, MediaType type, String encoding, byte[] body)
+			throws IOException {
+		Request.Builder request = new Request.Builder()
+				.url("http://127.0.0.1:" + bridge.getPort() + path)
+				.post(RequestBody.create(body, type));
+		if (encoding != null) {
+			request.header("Content-Encoding", encoding);
+		}
+		try (Response response = cli.newCall(request.build()).execute()) {
+			return response.code();
+		}
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(body);
+		}
+		return out.toByteArray();
+	}
+
+	@Test
+	public void forward() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(),
+					Options.builder().flushInterval(100).build());
+			Write write = client.write("db");
+			long now = System.currentTimeMillis() * 1_000_000;
+			try (OtlpBridge bridge = OtlpBridge.builder(write).host("127.0.0.1").port(0).threads(2).build()) {
+				bridge.start();
+				assertThrows(IllegalStateException.class, bridge::start);
+				for (int r = 0; r < 10; r++) {
+					OtlpRequest request = new OtlpRequest().resource("service.name", "api");
+					for (int i = 0; i < 100; i++) {
+						request.gauge("cpu", now + r, i, "host", "h" + i);
+					}
+					request.histogram("latency", now + r, 3, 5, 1, 3, new double[] { 1 }, new long[] { 1, 2 })
+							.summary("summary", 1);
+					byte[] body = request.toByteArray();
+					assertEquals(200, post(bridge, OtlpBridge.DEFAULT_PATH, PROTOBUF, r % 2 == 0 ? null : "gzip",
+							r % 2 == 0 ? body : gzip(body)));
+				}
+				assertEquals(10, bridge.getRequests());
+				assertEquals(1020, bridge.getDataPoints());
+				assertEquals(10, bridge.getSkippedPoints());
+				assertEquals(1010, bridge.getRecords());
+				assertEquals(0, bridge.getRejectedRecords());
+			} finally {
+				write.close();
+			}
+			assertEquals(1010, broker.getPoints());
+			assertEquals(0, broker.getInvalidPoints());
+			assertEquals(101, broker.getSeries());
+		}
+	}
+
+	@Test
+	public void badRequests() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint());
+			Write write = client.write("db");
+			try (OtlpBridge bridge = OtlpBridge.builder(write).host("127.0.0.1").port(0).threads(1)
+					.maxBodyBytes(1024).build()) {
+				bridge.start();
+				byte[] body = new OtlpRequest().gauge("cpu", 1_000_000, 1).toByteArray();
+				assertEquals(200, post(bridge, OtlpBridge.DEFAULT_PATH, PROTOBUF, "identity", body));
+				// empty request
+				assertEquals(200, post(bridge, OtlpBridge.DEFAULT_PATH, PROTOBUF, null, new byte[0]));
+				assertEquals(415, post(bridge, OtlpBridge.DEFAULT_PATH, JSON, null, body));
+				assertEquals(415, post(bridge, OtlpBridge.DEFAULT_PATH, PROTOBUF, "snappy", body));
+				assertEquals(400, post(bridge, OtlpBridge.DEFAULT_PATH, PROTOBUF, null, new byte[] { 10, 20 }));
+				assertEquals(400, post(bridge, OtlpBridge.DEFAULT_PATH, PROTOBUF, "gzip", body));
+				assertEquals(413, post(bridge, OtlpBridge.DEFAULT_PATH, PROTOBUF, null, new byte[4096]));
+				assertEquals(404, post(bridge, "/other", PROTOBUF, null, body));
+				assertEquals(5, bridge.getBadRequests());
+				assertEquals(1, bridge.getRecords());
+			} finally {
+				write.close();
+			}
+		}
+	}
+
+	@Test
+	public void builder() throws Exception {
+		assertThrows(NullPointerException.class, () -> OtlpBridge.builder(null));
+		Client client = ClientFactory.create("http://localhost:9000");
+		Write write = client.write("db");
+		try {
+			OtlpBridge.Builder builder = OtlpBridge.builder(write);
+			assertThrows(IllegalArgumentException.class, () -> builder.port(65536));
+			assertThrows(IllegalArgumentException.class, () -> builder.path("v1"));
+			assertThrows(IllegalArgumentException.class, () -> builder.threads(0));
+			assertThrows(IllegalArgumentException.class, () -> builder.maxBodyBytes(0));
+			assertThrows(IllegalArgumentException.class, () -> builder.putTimeout(-1));
+			assertThrows(IllegalArgumentException.class, () -> builder.namespace(""));
+			assertThrows(IllegalArgumentException.class, () -> builder.fieldName(""));
+			OtlpBridge bridge = builder.port(0).namespace("otel").build();
+			assertThrows(IllegalStateException.class, bridge::getPort);
+			// retried if anything not accepted
+			assertEquals(503, bridge.status(10, 0));
+			assertEquals(503, bridge.status(10, 4));
+			assertEquals(200, bridge.status(10, 10));
+			assertEquals(14, bridge.getRecords());
+			assertEquals(16, bridge.getRejectedRecords());
+			// close before start is no-op
+			bridge.close();
+		} finally {
+			write.close();
+		}
+	}
+}
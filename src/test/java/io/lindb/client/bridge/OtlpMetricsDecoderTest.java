@@ -0,0 +1,273 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.lindb.client.api.DeltaConverter;
+import io.lindb.client.flat.metrics.v1.CompoundField;
+import io.lindb.client.flat.metrics.v1.Exemplar;
+import io.lindb.client.flat.metrics.v1.KeyValue;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.flat.metrics.v1.SimpleField;
+import io.lindb.client.flat.metrics.v1.SimpleFieldType;
+
+public class OtlpMetricsDecoderTest {
+	private static final long NOW = 1_700_000_000_000L;
+
+	@Test
+	public void decode_simple() {
+		byte[] request = new OtlpRequest()
+				.resource("service.name", "api", "host", "h1")
+				.gauge("cpu", NOW * 1_000_000, 0.5, "host", "h2", "core", "0")
+				.sum("requests", true, NOW * 1_000_000, 10, "path", "/")
+				.sum("total", 2, false, NOW * 1_000_000, 100)
+				.toByteArray();
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		assertEquals(3, decoder.decode(request, 0, request.length));
+		assertEquals(3, decoder.recordCount());
+		assertEquals(0, decoder.skipped());
+		List<Metric> metrics = metrics(decoder);
+		assertEquals(3, metrics.size());
+
+		Metric cpu = metrics.get(0);
+		assertEquals("cpu", cpu.name());
+		assertEquals("ns", cpu.namespace());
+		assertEquals(NOW, cpu.timestamp());
+		Map<String, String> tags = tags(cpu);
+		assertEquals(3, tags.size());
+		// data point attribute overrides resource attribute
+		assertEquals("h2", tags.get("host"));
+		assertEquals("0", tags.get("core"));
+		assertEquals("api", tags.get("service.name"));
+		assertEquals(1, cpu.simpleFieldsLength());
+		SimpleField field = cpu.simpleFields(0);
+		assertEquals("value", field.name());
+		assertEquals(SimpleFieldType.Last, field.type());
+		assertEquals(0.5, field.value(), 0);
+
+		Metric requests = metrics.get(1);
+		assertEquals("requests", requests.name());
+		assertEquals(3, tags(requests).size());
+		assertEquals(SimpleFieldType.DeltaSum, requests.simpleFields(0).type());
+		assertEquals(10, requests.simpleFields(0).value(), 0);
+
+		Metric total = metrics.get(2);
+		assertEquals(2, tags(total).size());
+		assertEquals(SimpleFieldType.Last, total.simpleFields(0).type());
+		assertEquals(100, total.simpleFields(0).value(), 0);
+	}
+
+	@Test
+	public void decode_histogram() {
+		byte[] request = new OtlpRequest()
+				.exemplar(new byte[] { 1, 2 }, new byte[] { 3, 4, 5 }, 120)
+				.histogram("latency", NOW * 1_000_000, 10, 500, 1, 300, new double[] { 10, 100 },
+						new long[] { 2, 5, 3 }, "path", "/")
+				.toByteArray();
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		assertEquals(1, decoder.decode(request, 0, request.length));
+		Metric metric = metrics(decoder).get(0);
+		assertEquals("latency", metric.name());
+		assertEquals(0, metric.simpleFieldsLength());
+		CompoundField field = metric.compoundField();
+		assertEquals(10, field.count(), 0);
+		assertEquals(500, field.sum(), 0);
+		assertEquals(1, field.min(), 0);
+		assertEquals(300, field.max(), 0);
+		assertEquals(3, field.explicitBoundsLength());
+		assertEquals(3, field.valuesLength());
+		double[] bounds = { 10, 100, Double.POSITIVE_INFINITY };
+		double[] values = { 2, 5, 3 };
+		for (int i = 0; i < 3; i++) {
+			assertEquals(bounds[i], field.explicitBounds(i), 0);
+			assertEquals(values[i], field.values(i), 0);
+		}
+		assertEquals(1, field.exemplarsLength());
+		Exemplar exemplar = field.exemplars(0);
+		assertEquals(2, exemplar.spanIdLength());
+		assertEquals(2, exemplar.spanId(1));
+		assertEquals(3, exemplar.traceIdLength());
+		assertEquals(5, exemplar.traceId(2));
+		assertEquals(120, exemplar.duration());
+	}
+
+	@Test
+	public void decode_cumulative() {
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		double[] bounds = { 10, 100 };
+		byte[] request = new OtlpRequest()
+				.sum("requests", 2, true, NOW * 1_000_000, 10, "path", "/", "host", "h1")
+				.histogram("latency", 2, NOW * 1_000_000, 10, 500, 1, 300, bounds, new long[] { 2, 5, 3 })
+				.sum("unknown", 0, true, NOW * 1_000_000, 10)
+				.histogram("unknown", 0, NOW * 1_000_000, 1, 1, 1, 1, bounds, new long[] { 1, 0, 0 })
+				.toByteArray();
+		// first cumulative points only seed state
+		assertEquals(4, decoder.decode(request, 0, request.length));
+		assertEquals(0, decoder.recordCount());
+		assertEquals(4, decoder.skipped());
+
+		// attribute order not matter for series
+		request = new OtlpRequest()
+				.sum("requests", 2, true, NOW * 1_000_000, 25, "host", "h1", "path", "/")
+				.histogram("latency", 2, NOW * 1_000_000, 14, 700, 1, 300, bounds, new long[] { 3, 7, 4 })
+				.toByteArray();
+		assertEquals(2, decoder.decode(request, 0, request.length));
+		assertEquals(2, decoder.recordCount());
+		List<Metric> metrics = metrics(decoder);
+		SimpleField field = metrics.get(0).simpleFields(0);
+		assertEquals(SimpleFieldType.DeltaSum, field.type());
+		assertEquals(15, field.value(), 0);
+		CompoundField histogram = metrics.get(1).compoundField();
+		assertEquals(4, histogram.count(), 0);
+		assertEquals(200, histogram.sum(), 0);
+		assertEquals(0, histogram.min(), 0);
+		assertEquals(0, histogram.max(), 0);
+		double[] values = { 1, 2, 1 };
+		for (int i = 0; i < 3; i++) {
+			assertEquals(values[i], histogram.values(i), 0);
+		}
+
+		// counter reset counts from 0
+		request = new OtlpRequest().sum("requests", 2, true, NOW * 1_000_000, 3, "path", "/", "host", "h1")
+				.toByteArray();
+		decoder.decode(request, 0, request.length);
+		assertEquals(3, metrics(decoder).get(0).simpleFields(0).value(), 0);
+		request = new OtlpRequest().sum("requests", 2, true, NOW * 1_000_000, 8, "path", "/", "host", "h1")
+				.toByteArray();
+		decoder.decode(request, 0, request.length);
+		assertEquals(5, metrics(decoder).get(0).simpleFields(0).value(), 0);
+	}
+
+	@Test
+	public void decode_rollback() {
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		double[] bounds = { 10 };
+		byte[] request = new OtlpRequest().sum("requests", 2, true, NOW * 1_000_000, 10)
+				.histogram("latency", 2, NOW * 1_000_000, 2, 20, 1, 1, bounds, new long[] { 1, 1 }).toByteArray();
+		decoder.decode(request, 0, request.length);
+		decoder.rollback(0);
+		request = new OtlpRequest().sum("requests", 2, true, NOW * 1_000_000, 25)
+				.histogram("latency", 2, NOW * 1_000_000, 5, 50, 1, 1, bounds, new long[] { 3, 2 }).toByteArray();
+		decoder.decode(request, 0, request.length);
+		// histogram record not accepted, retried request writes same deltas
+		decoder.rollback(1);
+		decoder.decode(request, 0, request.length);
+		List<Metric> metrics = metrics(decoder);
+		assertEquals(2, metrics.size());
+		assertEquals(0, metrics.get(0).simpleFields(0).value(), 0);
+		assertEquals(3, metrics.get(1).compoundField().count(), 0);
+		decoder.rollback(2);
+		decoder.decode(request, 0, request.length);
+		assertEquals(0, metrics(decoder).get(1).compoundField().count(), 0);
+	}
+
+	@Test
+	public void decode_exemplar() {
+		byte[] request = new OtlpRequest()
+				.exemplar(new byte[] { 1 }, new byte[] { 2 }, 5)
+				.exemplar(new byte[] { 3 }, new byte[] { 4 }, 6)
+				.sum("requests", true, NOW * 1_000_000, 10)
+				.toByteArray();
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		decoder.decode(request, 0, request.length);
+		SimpleField field = metrics(decoder).get(0).simpleFields(0);
+		assertEquals(2, field.exemplarsLength());
+		assertEquals(3, field.exemplars(1).spanId(0));
+		assertEquals(6, field.exemplars(1).duration());
+	}
+
+	@Test
+	public void decode_skipped() {
+		byte[] request = new OtlpRequest()
+				.resource("host", "h1")
+				.noRecordedValue("cpu", NOW * 1_000_000)
+				.summary("latency", 2)
+				// bucket counts not match bounds
+				.histogram("bad", NOW * 1_000_000, 1, 1, 1, 1, new double[] { 1, 2 }, new long[] { 1 })
+				.gauge("mem", NOW * 1_000_000, 1)
+				.resource("host", "h2")
+				.gauge("mem", NOW * 1_000_000, 2)
+				.toByteArray();
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		assertEquals(6, decoder.decode(request, 0, request.length));
+		assertEquals(2, decoder.recordCount());
+		assertEquals(4, decoder.skipped());
+		List<Metric> metrics = metrics(decoder);
+		assertEquals("h1", tags(metrics.get(0)).get("host"));
+		assertEquals("h2", tags(metrics.get(1)).get("host"));
+	}
+
+	@Test
+	public void decode_reuse() {
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		byte[] request = new OtlpRequest().gauge("cpu", NOW * 1_000_000, 1).gauge("mem", NOW * 1_000_000, 2)
+				.toByteArray();
+		decoder.decode(request, 0, request.length);
+		int length = decoder.recordsLength();
+		request = new OtlpRequest().gauge("cpu", NOW * 1_000_000, 1).toByteArray();
+		decoder.decode(request, 0, request.length);
+		assertEquals(1, decoder.recordCount());
+		assertEquals(length / 2, decoder.recordsLength(), 8);
+		assertEquals(0, decoder.decode(new byte[0], 0, 0));
+		assertEquals(0, decoder.recordsLength());
+	}
+
+	@Test
+	public void decode_malformed() {
+		byte[] request = new OtlpRequest().gauge("cpu", NOW * 1_000_000, 1).toByteArray();
+		OtlpMetricsDecoder decoder = new OtlpMetricsDecoder("ns", "value", new DeltaConverter(60_000));
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(request, 0, request.length - 1));
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(new byte[] { (byte) 0xff }, 0, 1));
+	}
+
+	private static List<Metric> metrics(OtlpMetricsDecoder decoder) {
+		List<Metric> metrics = new ArrayList<>();
+		ByteBuffer buf = ByteBuffer.wrap(decoder.records(), 0, decoder.recordsLength())
+				.order(ByteOrder.LITTLE_ENDIAN);
+		while (buf.hasRemaining()) {
+			int size = buf.getInt();
+			ByteBuffer record = buf.slice();
+			((Buffer) record).limit(size);
+			metrics.add(Metric.getRootAsMetric(record));
+			((Buffer) buf).position(buf.position() + size);
+		}
+		return metrics;
+	}
+
+	private static Map<String, String> tags(Metric metric) {
+		Map<String, String> tags = new HashMap<>();
+		for (int i = 0; i < metric.keyValuesLength(); i++) {
+			KeyValue kv = metric.keyValues(i);
+			tags.put(kv.key(), kv.value());
+		}
+		return tags;
+	}
+}
@@ -0,0 +1,314 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build OTLP ExportMetricsServiceRequest protobuf for testing.
+ */
+final class OtlpRequest {
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private ByteArrayOutputStream resource;
+	private ByteArrayOutputStream metrics = new ByteArrayOutputStream();
+	private final List<ByteArrayOutputStream> exemplars = new ArrayList<>();
+
+	/**
+	 * Start new resource metrics, metrics added after belong to it.
+	 * 
+	 * @param attributes resource attribute key/value pairs
+	 * @return request
+	 */
+	OtlpRequest resource(String... attributes) {
+		flushResource();
+		this.resource = new ByteArrayOutputStream();
+		writeAttributes(this.resource, 1, attributes);
+		return this;
+	}
+
+	/**
+	 * Add exemplar to next data point.
+	 * 
+	 * @param spanId  span id
+	 * @param traceId trace id
+	 * @param value   exemplar value
+	 * @return request
+	 */
+	OtlpRequest exemplar(byte[] spanId, byte[] traceId, double value) {
+		ByteArrayOutputStream exemplar = new ByteArrayOutputStream();
+		writeDouble(exemplar, 3, value);
+		writeBytes(exemplar, 4, spanId);
+		writeBytes(exemplar, 5, traceId);
+		this.exemplars.add(exemplar);
+		return this;
+	}
+
+	/**
+	 * Add gauge metric with one data point.
+	 * 
+	 * @param name       metric name
+	 * @param time       time(ns)
+	 * @param value      value
+	 * @param attributes attribute key/value pairs
+	 * @return request
+	 */
+	OtlpRequest gauge(String name, long time, double value, String... attributes) {
+		ByteArrayOutputStream gauge = new ByteArrayOutputStream();
+		writeMessage(gauge, 1, numberPoint(time, value, attributes));
+		return metric(name, 5, gauge);
+	}
+
+	/**
+	 * Add sum metric with one integer data point.
+	 * 
+	 * @param name       metric name
+	 * @param delta      delta or cumulative temporality
+	 * @param time       time(ns)
+	 * @param value      value
+	 * @param attributes attribute key/value pairs
+	 * @return request
+	 */
+	OtlpRequest sum(String name, boolean delta, long time, long value, String... attributes) {
+		return sum(name, delta ? 1 : 2, true, time, value, attributes);
+	}
+
+	/**
+	 * Add sum metric with one data point.
+	 * 
+	 * @param name        metric name
+	 * @param temporality aggregation temporality(0 unspecified, 1 delta, 2
+	 *                    cumulative)
+	 * @param monotonic   if sum is monotonic
+	 * @param time        time(ns)
+	 * @param value       value
+	 * @param attributes  attribute key/value pairs
+	 * @return request
+	 */
+	OtlpRequest sum(String name, int temporality, boolean monotonic, long time, long value,
+			String... attributes) {
+		ByteArrayOutputStream point = new ByteArrayOutputStream();
+		writeAttributes(point, 7, attributes);
+		writeFixed64(point, 3, time);
+		writeFixed64(point, 6, value);
+		writeExemplars(point, 5);
+		ByteArrayOutputStream sum = new ByteArrayOutputStream();
+		writeMessage(sum, 1, point);
+		writeVarint(sum, 2 << 3);
+		writeVarint(sum, temporality);
+		writeVarint(sum, 3 << 3);
+		writeVarint(sum, monotonic ? 1 : 0);
+		return metric(name, 7, sum);
+	}
+
+	/**
+	 * Add histogram metric with one data point.
+	 * 
+	 * @param name       metric name
+	 * @param time       time(ns)
+	 * @param count      count
+	 * @param sum        sum
+	 * @param min        min
+	 * @param max        max
+	 * @param bounds     explicit bounds
+	 * @param counts     bucket counts
+	 * @param attributes attribute key/value pairs
+	 * @return request
+	 */
+	OtlpRequest histogram(String name, long time, long count, double sum, double min, double max,
+			double[] bounds, long[] counts, String... attributes) {
+		return histogram(name, 1, time, count, sum, min, max, bounds, counts, attributes);
+	}
+
+	/**
+	 * Add histogram metric with one data point.
+	 * 
+	 * @param name        metric name
+	 * @param temporality aggregation temporality(0 unspecified, 1 delta, 2
+	 *                    cumulative)
+	 * @param time        time(ns)
+	 * @param count       count
+	 * @param sum         sum
+	 * @param min         min
+	 * @param max         max
+	 * @param bounds      explicit bounds
+	 * @param counts      bucket counts
+	 * @param attributes  attribute key/value pairs
+	 * @return request
+	 */
+	OtlpRequest histogram(String name, int temporality, long time, long count, double sum, double min,
+			double max, double[] bounds, long[] counts, String... attributes) {
+		ByteArrayOutputStream point = new ByteArrayOutputStream();
+		writeFixed64(point, 3, time);
+		writeFixed64(point, 4, count);
+		writeDouble(point, 5, sum);
+		ByteArrayOutputStream packed = new ByteArrayOutputStream();
+		for (long c : counts) {
+			writeLong(packed, c);
+		}
+		writeMessage(point, 6, packed);
+		packed = new ByteArrayOutputStream();
+		for (double b : bounds) {
+			writeLong(packed, Double.doubleToLongBits(b));
+		}
+		writeMessage(point, 7, packed);
+		writeExemplars(point, 8);
+		writeAttributes(point, 9, attributes);
+		writeDouble(point, 11, min);
+		writeDouble(point, 12, max);
+		ByteArrayOutputStream histogram = new ByteArrayOutputStream();
+		writeMessage(histogram, 1, point);
+		writeVarint(histogram, 2 << 3);
+		writeVarint(histogram, temporality);
+		return metric(name, 9, histogram);
+	}
+
+	/**
+	 * Add gauge metric with one data point flagged as no recorded value.
+	 * 
+	 * @param name metric name
+	 * @param time time(ns)
+	 * @return request
+	 */
+	OtlpRequest noRecordedValue(String name, long time) {
+		ByteArrayOutputStream point = numberPoint(time, 0);
+		writeVarint(point, 8 << 3);
+		writeVarint(point, 1);
+		ByteArrayOutputStream gauge = new ByteArrayOutputStream();
+		writeMessage(gauge, 1, point);
+		return metric(name, 5, gauge);
+	}
+
+	/**
+	 * Add summary metric with data points.
+	 * 
+	 * @param name   metric name
+	 * @param points number of data points
+	 * @return request
+	 */
+	OtlpRequest summary(String name, int points) {
+		ByteArrayOutputStream summary = new ByteArrayOutputStream();
+		for (int i = 0; i < points; i++) {
+			ByteArrayOutputStream point = new ByteArrayOutputStream();
+			writeFixed64(point, 4, 1);
+			writeMessage(summary, 1, point);
+		}
+		return metric(name, 11, summary);
+	}
+
+	byte[] toByteArray() {
+		flushResource();
+		return this.out.toByteArray();
+	}
+
+	private ByteArrayOutputStream numberPoint(long time, double value, String... attributes) {
+		ByteArrayOutputStream point = new ByteArrayOutputStream();
+		writeFixed64(point, 2, time);
+		writeFixed64(point, 3, time);
+		writeDouble(point, 4, value);
+		writeExemplars(point, 5);
+		writeAttributes(point, 7, attributes);
+		return point;
+	}
+
+	private OtlpRequest metric(String name, int field, ByteArrayOutputStream data) {
+		ByteArrayOutputStream metric = new ByteArrayOutputStream();
+		writeString(metric, 1, name);
+		writeString(metric, 2, "description");
+		writeMessage(metric, field, data);
+		writeMessage(this.metrics, 2, metric);
+		return this;
+	}
+
+	private void flushResource() {
+		if (this.resource == null && this.metrics.size() == 0) {
+			return;
+		}
+		ByteArrayOutputStream resourceMetrics = new ByteArrayOutputStream();
+		// scope metrics before resource, decoder must not depend on field order
+		ByteArrayOutputStream scope = new ByteArrayOutputStream();
+		writeString(scope, 1, "io.lindb");
+		writeMessage(this.metrics, 1, scope);
+		writeMessage(resourceMetrics, 2, this.metrics);
+		if (this.resource != null) {
+			writeMessage(resourceMetrics, 1, this.resource);
+		}
+		writeString(resourceMetrics, 3, "https://opentelemetry.io/schemas/1.21.0");
+		writeMessage(this.out, 1, resourceMetrics);
+		this.resource = null;
+		this.metrics = new ByteArrayOutputStream();
+	}
+
+	private void writeExemplars(ByteArrayOutputStream point, int field) {
+		for (ByteArrayOutputStream exemplar : this.exemplars) {
+			writeMessage(point, field, exemplar);
+		}
+		this.exemplars.clear();
+	}
+
+	private static void writeAttributes(ByteArrayOutputStream out, int field, String[] attributes) {
+		for (int i = 0; i < attributes.length; i += 2) {
+			ByteArrayOutputStream value = new ByteArrayOutputStream();
+			writeString(value, 1, attributes[i + 1]);
+			ByteArrayOutputStream kv = new ByteArrayOutputStream();
+			writeString(kv, 1, attributes[i]);
+			writeMessage(kv, 2, value);
+			writeMessage(out, field, kv);
+		}
+	}
+
+	private static void writeString(ByteArrayOutputStream out, int field, String value) {
+		writeBytes(out, field, value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void writeBytes(ByteArrayOutputStream out, int field, byte[] bytes) {
+		writeVarint(out, field << 3 | 2);
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeMessage(ByteArrayOutputStream out, int field, ByteArrayOutputStream message) {
+		writeBytes(out, field, message.toByteArray());
+	}
+
+	private static void writeDouble(ByteArrayOutputStream out, int field, double value) {
+		writeFixed64(out, field, Double.doubleToLongBits(value));
+	}
+
+	private static void writeFixed64(ByteArrayOutputStream out, int field, long value) {
+		writeVarint(out, field << 3 | 1);
+		writeLong(out, value);
+	}
+
+	private static void writeLong(ByteArrayOutputStream out, long value) {
+		for (int b = 0; b < 8; b++) {
+			out.write((int) (value >>> (8 * b)));
+		}
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7fL) != 0) {
+			out.write((int) ((value & 0x7f) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+}
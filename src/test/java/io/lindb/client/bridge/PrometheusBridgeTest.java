@@ -0,0 +1,135 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.api.Write;
+import io.lindb.client.internal.BaseClientTest;
+import io.lindb.client.testing.FakeBroker;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+public class PrometheusBridgeTest extends BaseClientTest {
+	private static final MediaType PROTOBUF = MediaType.get("application/x-protobuf");
+
+	private static int post(PrometheusBridge bridge, String path, String encoding, byte[] body) throws IOException {
+		Request.Builder request = new Request.Builder()
+				.url("http://127.0.0.1:" + bridge.getPort() + path)
+				.post(RequestBody.create(body, PROTOBUF));
+		if (encoding != null) {
+			request.header("Content-Encoding", encoding);
+		}
+		try (Response response = cli.newCall(request.build()).execute()) {
+			return response.code();
+		}
+	}
+
+	@Test
+	public void forward() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(),
+					Options.builder().flushInterval(100).build());
+			Write write = client.write("db");
+			try (PrometheusBridge bridge = PrometheusBridge.builder(write).host("127.0.0.1").port(0).threads(2)
+					.build()) {
+				bridge.start();
+				assertThrows(IllegalStateException.class, bridge::start);
+				for (int r = 0; r < 10; r++) {
+					RemoteWriteRequest request = new RemoteWriteRequest();
+					for (int i = 0; i < 100; i++) {
+						request.sample(i, 1000 + r, "__name__", "cpu", "host", "h" + i);
+					}
+					request.sample(1, 1000 + r, "__name__", "latency_bucket", "le", "1")
+							.sample(3, 1000 + r, "__name__", "latency_bucket", "le", "+Inf")
+							.sample(5, 1000 + r, "__name__", "latency_sum")
+							.sample(3, 1000 + r, "__name__", "latency_count");
+					assertEquals(204, post(bridge, PrometheusBridge.DEFAULT_PATH, "snappy", request.toSnappy()));
+				}
+				assertEquals(10, bridge.getRequests());
+				assertEquals(1040, bridge.getSamples());
+				// first histogram only initializes cumulative state
+				assertEquals(1, bridge.getSkippedHistograms());
+				assertEquals(1009, bridge.getPoints());
+				assertEquals(0, bridge.getRejectedPoints());
+			} finally {
+				write.close();
+			}
+			assertEquals(1009, broker.getPoints());
+			assertEquals(0, broker.getInvalidPoints());
+			assertEquals(101, broker.getSeries());
+		}
+	}
+
+	@Test
+	public void badRequests() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint());
+			Write write = client.write("db");
+			try (PrometheusBridge bridge = PrometheusBridge.builder(write).host("127.0.0.1").port(0).threads(1)
+					.maxBodyBytes(1024).build()) {
+				bridge.start();
+				byte[] body = new RemoteWriteRequest().sample(1, 1000, "__name__", "cpu").toSnappy();
+				// content encoding is optional
+				assertEquals(204, post(bridge, PrometheusBridge.DEFAULT_PATH, null, body));
+				assertEquals(415, post(bridge, PrometheusBridge.DEFAULT_PATH, "gzip", body));
+				assertEquals(400, post(bridge, PrometheusBridge.DEFAULT_PATH, "snappy", new byte[] { 1, 2, 3 }));
+				assertEquals(413, post(bridge, PrometheusBridge.DEFAULT_PATH, "snappy", new byte[4096]));
+				assertEquals(404, post(bridge, "/other", "snappy", body));
+				assertEquals(3, bridge.getBadRequests());
+				assertEquals(1, bridge.getPoints());
+			} finally {
+				write.close();
+			}
+		}
+	}
+
+	@Test
+	public void builder() throws Exception {
+		assertThrows(NullPointerException.class, () -> PrometheusBridge.builder(null));
+		Client client = ClientFactory.create("http://localhost:9000");
+		Write write = client.write("db");
+		try {
+			PrometheusBridge.Builder builder = PrometheusBridge.builder(write);
+			assertThrows(IllegalArgumentException.class, () -> builder.port(65536));
+			assertThrows(IllegalArgumentException.class, () -> builder.path("api"));
+			assertThrows(IllegalArgumentException.class, () -> builder.threads(0));
+			assertThrows(IllegalArgumentException.class, () -> builder.maxBodyBytes(0));
+			assertThrows(IllegalArgumentException.class, () -> builder.putTimeout(-1));
+			assertThrows(IllegalArgumentException.class, () -> builder.fieldName(""));
+			assertThrows(IllegalArgumentException.class, () -> builder.cumulativeTtl(0));
+			PrometheusBridge bridge = builder.build();
+			assertThrows(IllegalStateException.class, bridge::getPort);
+			// close before start is no-op
+			bridge.close();
+		} finally {
+			write.close();
+		}
+	}
+}
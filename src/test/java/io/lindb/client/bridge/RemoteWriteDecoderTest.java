@@ -0,0 +1,185 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import io.lindb.client.api.DeltaConverter;
+import io.lindb.client.api.Point;
+import io.lindb.client.api.RowBuilder;
+import io.lindb.client.flat.metrics.v1.CompoundField;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.flat.metrics.v1.SimpleFieldType;
+
+public class RemoteWriteDecoderTest {
+
+	private static List<Point> decode(RemoteWriteDecoder decoder, RemoteWriteRequest request, int samples) {
+		byte[] bytes = request.toByteArray();
+		List<Point> points = new ArrayList<>();
+		assertEquals(samples, decoder.decode(bytes, 0, bytes.length, points));
+		points.sort(Comparator.comparing(Point::getName).thenComparingLong(Point::getTimestamp));
+		return points;
+	}
+
+	private static Metric encode(Point point) {
+		ByteBuffer buf = ByteBuffer.wrap(new RowBuilder().build(point, null));
+		buf.position(4);
+		return Metric.getRootAsMetric(buf.slice());
+	}
+
+	private static String buckets(CompoundField field) {
+		Map<Double, Double> buckets = new TreeMap<>();
+		for (int i = 0; i < field.explicitBoundsLength(); i++) {
+			buckets.put(field.explicitBounds(i), field.values(i));
+		}
+		return buckets.entrySet().toString();
+	}
+
+	@Test
+	public void decodeSamples() {
+		RemoteWriteDecoder decoder = new RemoteWriteDecoder("value", new DeltaConverter(60_000));
+		RemoteWriteRequest request = new RemoteWriteRequest()
+				.series(new String[] { "__name__", "cpu_usage", "host", "h1", "le", "x" }, new double[] { 0.5, 0.7 },
+						new long[] { 1000, 2000 })
+				.sample(10, 1000, "__name__", "http_requests_total", "code", "200")
+				.sample(Double.NaN, 1000, "__name__", "stale")
+				.sample(1, 1000, "job", "no_name");
+		List<Point> points = decode(decoder, request, 5);
+		assertEquals(3, points.size());
+
+		Point cpu = points.get(0);
+		assertEquals("cpu_usage", cpu.getName());
+		assertEquals(1000, cpu.getTimestamp());
+		assertEquals("h1", cpu.getTags().get("host"));
+		// le of non bucket series kept as tag
+		assertEquals("x", cpu.getTags().get("le"));
+		Metric metric = encode(cpu);
+		assertEquals(SimpleFieldType.Last, metric.simpleFields(0).type());
+		assertEquals("value", metric.simpleFields(0).name());
+		assertEquals(0.5, metric.simpleFields(0).value(), 0);
+		assertEquals(2000, points.get(1).getTimestamp());
+
+		Point counter = points.get(2);
+		assertEquals("http_requests_total", counter.getName());
+		assertEquals("200", counter.getTags().get("code"));
+		// cumulative sum must be converted by write before encoding
+		assertThrows(IllegalStateException.class, () -> encode(counter));
+
+		// label strings cached across requests
+		List<Point> again = decode(decoder, request, 5);
+		assertEquals(3, again.size());
+		assertEquals(cpu.getTags(), again.get(0).getTags());
+	}
+
+	@Test
+	public void foldHistogram() {
+		RemoteWriteDecoder decoder = new RemoteWriteDecoder("value", new DeltaConverter(60_000));
+		RemoteWriteRequest request = new RemoteWriteRequest()
+				.sample(6, 1000, "__name__", "latency_count", "path", "/a")
+				.sample(5, 1000, "__name__", "latency_bucket", "le", "5", "path", "/a")
+				.sample(2, 1000, "__name__", "latency_bucket", "le", "1", "path", "/a")
+				.sample(6, 1000, "__name__", "latency_bucket", "le", "+Inf", "path", "/a")
+				.sample(12.5, 1000, "__name__", "latency_sum", "path", "/a")
+				// other series of same histogram, without _sum/_count
+				.sample(3, 1000, "__name__", "latency_bucket", "le", "1", "path", "/b")
+				.sample(4, 1000, "__name__", "latency_bucket", "le", "+Inf", "path", "/b")
+				// summary without buckets
+				.sample(7, 1000, "__name__", "rpc_count", "path", "/a");
+		// first samples of histogram series only initialize cumulative state
+		List<Point> points = decode(decoder, request, 8);
+		assertEquals(1, points.size());
+		assertEquals(2, decoder.skipped());
+		Point summary = points.get(0);
+		assertEquals("rpc_count", summary.getName());
+		assertThrows(IllegalStateException.class, () -> encode(summary));
+
+		request = new RemoteWriteRequest()
+				.sample(10, 2000, "__name__", "latency_count", "path", "/a")
+				.sample(7, 2000, "__name__", "latency_bucket", "le", "5", "path", "/a")
+				.sample(3, 2000, "__name__", "latency_bucket", "le", "1", "path", "/a")
+				.sample(10, 2000, "__name__", "latency_bucket", "le", "+Inf", "path", "/a")
+				.sample(20.5, 2000, "__name__", "latency_sum", "path", "/a")
+				.sample(3, 2000, "__name__", "latency_bucket", "le", "1", "path", "/b")
+				.sample(6, 2000, "__name__", "latency_bucket", "le", "+Inf", "path", "/b");
+		points = decode(decoder, request, 7);
+		assertEquals(2, points.size());
+		assertEquals(0, decoder.skipped());
+
+		Point a = points.get(0).getTags().get("path").equals("/a") ? points.get(0) : points.get(1);
+		Point b = a == points.get(0) ? points.get(1) : points.get(0);
+		assertEquals("latency", a.getName());
+		assertEquals(2000, a.getTimestamp());
+		assertNull(a.getTags().get("le"));
+		assertNotNull(a.getCompoundField());
+		// cumulative values converted into deltas since last request
+		CompoundField field = encode(a).compoundField();
+		assertEquals(4, field.count(), 0);
+		assertEquals(8, field.sum(), 0);
+		assertEquals("[1.0=1.0, 5.0=1.0, Infinity=2.0]", buckets(field));
+
+		field = encode(b).compoundField();
+		assertEquals(2, field.count(), 0);
+		assertEquals(0, field.sum(), 0);
+		assertEquals("[1.0=0.0, Infinity=2.0]", buckets(field));
+	}
+
+	@Test
+	public void rollback() {
+		RemoteWriteDecoder decoder = new RemoteWriteDecoder("value", new DeltaConverter(60_000));
+		decode(decoder, new RemoteWriteRequest().sample(1, 1000, "__name__", "latency_bucket", "le", "+Inf"), 1);
+		decoder.rollback(0);
+		RemoteWriteRequest request = new RemoteWriteRequest()
+				.sample(5, 2000, "__name__", "cpu_usage")
+				.sample(4, 2000, "__name__", "latency_bucket", "le", "+Inf");
+		assertEquals(2, decode(decoder, request, 2).size());
+		// histogram not accepted, retried request writes same deltas
+		decoder.rollback(1);
+		List<Point> points = decode(decoder, request, 2);
+		assertEquals(3, encode(points.get(1)).compoundField().count(), 0);
+		decoder.rollback(2);
+		points = decode(decoder, request, 2);
+		assertEquals(0, encode(points.get(1)).compoundField().count(), 0);
+	}
+
+	@Test
+	public void malformed() {
+		RemoteWriteDecoder decoder = new RemoteWriteDecoder("value", new DeltaConverter(60_000));
+		byte[] bytes = new RemoteWriteRequest().sample(1, 1000, "__name__", "cpu").toByteArray();
+		List<Point> points = new ArrayList<>();
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(bytes, 0, bytes.length - 1, points));
+		// unsupported wire type
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(new byte[] { 0x0f }, 0, 1, points));
+		// decoder usable after failure
+		points.clear();
+		assertEquals(1, decoder.decode(bytes, 0, bytes.length, points));
+		assertEquals(1, points.size());
+	}
+}
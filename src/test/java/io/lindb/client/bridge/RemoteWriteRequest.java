@@ -0,0 +1,104 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.iq80.snappy.Snappy;
+
+/**
+ * Build Prometheus remote-write request protobuf for testing.
+ */
+final class RemoteWriteRequest {
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	/**
+	 * Add time series.
+	 * 
+	 * @param labels     label name/value pairs
+	 * @param values     sample values
+	 * @param timestamps sample timestamps(ms)
+	 * @return request
+	 */
+	RemoteWriteRequest series(String[] labels, double[] values, long[] timestamps) {
+		ByteArrayOutputStream series = new ByteArrayOutputStream();
+		for (int i = 0; i < labels.length; i += 2) {
+			ByteArrayOutputStream label = new ByteArrayOutputStream();
+			writeString(label, 1, labels[i]);
+			writeString(label, 2, labels[i + 1]);
+			writeMessage(series, 1, label);
+		}
+		for (int i = 0; i < values.length; i++) {
+			ByteArrayOutputStream sample = new ByteArrayOutputStream();
+			writeVarint(sample, 1 << 3 | 1);
+			long bits = Double.doubleToLongBits(values[i]);
+			for (int b = 0; b < 8; b++) {
+				sample.write((int) (bits >>> (8 * b)));
+			}
+			writeVarint(sample, 2 << 3);
+			writeVarint(sample, timestamps[i]);
+			writeMessage(series, 2, sample);
+		}
+		writeMessage(this.out, 1, series);
+		return this;
+	}
+
+	/**
+	 * Add one sample series.
+	 * 
+	 * @param value     sample value
+	 * @param timestamp sample timestamp(ms)
+	 * @param labels    label name/value pairs
+	 * @return request
+	 */
+	RemoteWriteRequest sample(double value, long timestamp, String... labels) {
+		return series(labels, new double[] { value }, new long[] { timestamp });
+	}
+
+	byte[] toByteArray() {
+		return this.out.toByteArray();
+	}
+
+	byte[] toSnappy() {
+		return Snappy.compress(toByteArray());
+	}
+
+	private static void writeString(ByteArrayOutputStream out, int field, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarint(out, field << 3 | 2);
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeMessage(ByteArrayOutputStream out, int field, ByteArrayOutputStream message) {
+		byte[] bytes = message.toByteArray();
+		writeVarint(out, field << 3 | 2);
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7fL) != 0) {
+			out.write((int) ((value & 0x7f) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SnappyTest {
+
+	private static byte[] roundTrip(byte[] data) {
+		byte[] compressed = org.iq80.snappy.Snappy.compress(data);
+		assertEquals(data.length, Snappy.uncompressedLength(compressed, 0, compressed.length));
+		byte[] dest = new byte[data.length];
+		assertEquals(data.length, Snappy.uncompress(compressed, 0, compressed.length, dest));
+		return dest;
+	}
+
+	@Test
+	public void uncompress() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			sb.append("http_requests_total{method=\"GET\",code=\"200\",instance=\"host").append(i % 17).append("\"}");
+		}
+		byte[] text = sb.toString().getBytes(StandardCharsets.UTF_8);
+		assertArrayEquals(text, roundTrip(text));
+
+		byte[] random = new byte[100_000];
+		new Random(7).nextBytes(random);
+		assertArrayEquals(random, roundTrip(random));
+
+		// overlapping copy
+		byte[] repeated = new byte[5000];
+		Arrays.fill(repeated, (byte) 'a');
+		assertArrayEquals(repeated, roundTrip(repeated));
+
+		assertArrayEquals(new byte[0], roundTrip(new byte[0]));
+	}
+
+	@Test
+	public void corrupt() {
+		byte[] data = "abcdabcdabcdabcdabcdabcd".getBytes(StandardCharsets.UTF_8);
+		byte[] compressed = org.iq80.snappy.Snappy.compress(data);
+		byte[] dest = new byte[data.length];
+		// truncated
+		assertThrows(IllegalArgumentException.class,
+				() -> Snappy.uncompress(compressed, 0, compressed.length - 1, dest));
+		// destination too small
+		assertThrows(IllegalArgumentException.class,
+				() -> Snappy.uncompress(compressed, 0, compressed.length, new byte[1]));
+		// copy offset before start
+		byte[] badCopy = new byte[] { 4, 0x01, 0x05 };
+		assertThrows(IllegalArgumentException.class, () -> Snappy.uncompress(badCopy, 0, badCopy.length, dest));
+		assertThrows(IllegalArgumentException.class,
+				() -> Snappy.uncompressedLength(new byte[] { (byte) 0x80 }, 0, 1));
+	}
+}
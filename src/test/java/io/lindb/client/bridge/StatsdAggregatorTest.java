@@ -0,0 +1,160 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import io.lindb.client.api.Point;
+import io.lindb.client.api.RowBuilder;
+import io.lindb.client.flat.metrics.v1.CompoundField;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.flat.metrics.v1.SimpleFieldType;
+
+public class StatsdAggregatorTest {
+	private static final double[] BOUNDS = new double[] { 10, 100, Double.POSITIVE_INFINITY };
+
+	private static int parse(StatsdAggregator aggregator, String lines, long now) {
+		byte[] bytes = lines.getBytes(StandardCharsets.UTF_8);
+		return aggregator.parse(bytes, 0, bytes.length, now);
+	}
+
+	private static List<Point> flush(StatsdAggregator aggregator, long timestamp) {
+		List<Point> points = new ArrayList<>();
+		aggregator.flush(timestamp, points);
+		points.sort(Comparator.comparing(Point::getName));
+		return points;
+	}
+
+	private static Metric encode(Point point) {
+		ByteBuffer buf = ByteBuffer.wrap(new RowBuilder().build(point, null));
+		buf.position(4);
+		return Metric.getRootAsMetric(buf.slice());
+	}
+
+	@Test
+	public void aggregate() {
+		StatsdAggregator aggregator = new StatsdAggregator("value", BOUNDS, 60_000);
+		assertEquals(9, parse(aggregator, "requests:1|c|#path:/a,code:200\n"
+				+ "requests:2|c|#path:/a,code:200\r\n"
+				+ "requests:1|c|@0.5|#path:/a,code:200\n"
+				+ "requests:1|c|#path:/b\n"
+				+ "heap:100|g\nheap:+20|g\n"
+				+ "latency:5|ms\nlatency:50|ms|@0.5\nlatency:500.5|h\n", 1000));
+		assertEquals(0, aggregator.getInvalidLines());
+		assertEquals(4, aggregator.size());
+
+		List<Point> points = flush(aggregator, 2000);
+		assertEquals(4, points.size());
+		Metric heap = encode(points.get(0));
+		assertEquals("heap", heap.name());
+		assertEquals(2000, heap.timestamp());
+		assertEquals(SimpleFieldType.Last, heap.simpleFields(0).type());
+		assertEquals(120, heap.simpleFields(0).value(), 0);
+
+		Metric latency = encode(points.get(1));
+		CompoundField field = latency.compoundField();
+		assertEquals(4, field.count(), 0);
+		assertEquals(5 + 100 + 500.5, field.sum(), 0);
+		assertEquals(5, field.min(), 0);
+		assertEquals(500.5, field.max(), 0);
+		Map<Double, Double> buckets = new TreeMap<>();
+		for (int i = 0; i < field.explicitBoundsLength(); i++) {
+			buckets.put(field.explicitBounds(i), field.values(i));
+		}
+		assertEquals("{10.0=1.0, 100.0=2.0, Infinity=1.0}", buckets.toString());
+
+		Point a = points.get(2).getTags().containsKey("code") ? points.get(2) : points.get(3);
+		assertEquals("requests", a.getName());
+		assertEquals("/a", a.getTags().get("path"));
+		assertEquals("200", a.getTags().get("code"));
+		assertEquals(SimpleFieldType.DeltaSum, encode(a).simpleFields(0).type());
+		assertEquals(5, encode(a).simpleFields(0).value(), 0);
+
+		// only updated series flushed, gauge keeps last value
+		parse(aggregator, "heap:-20|g", 3000);
+		points = flush(aggregator, 4000);
+		assertEquals(1, points.size());
+		assertEquals(100, encode(points.get(0)).simpleFields(0).value(), 0);
+		assertTrue(flush(aggregator, 5000).isEmpty());
+	}
+
+	@Test
+	public void set() {
+		StatsdAggregator aggregator = new StatsdAggregator("value", BOUNDS, 60_000);
+		parse(aggregator, "users:alice|s\nusers:bob|s\nusers:alice|s", 1000);
+		List<Point> points = flush(aggregator, 1000);
+		assertEquals(2, encode(points.get(0)).simpleFields(0).value(), 0);
+		parse(aggregator, "users:carol|s", 2000);
+		assertEquals(1, encode(flush(aggregator, 2000).get(0)).simpleFields(0).value(), 0);
+	}
+
+	@Test
+	public void invalid() {
+		StatsdAggregator aggregator = new StatsdAggregator("value", BOUNDS, 60_000);
+		assertEquals(1, parse(aggregator, "\n:1|c\nname|c\nname:|c\nname:1\nname:1|x\nname:abc|c\n"
+				+ "name:1|c|@2\nname:NaN|g\nname:1e2|c\n", 1000));
+		assertEquals(8, aggregator.getInvalidLines());
+		// invalid lines do not create series
+		assertEquals(1, aggregator.size());
+		assertEquals(100, encode(flush(aggregator, 1000).get(0)).simpleFields(0).value(), 0);
+	}
+
+	@Test
+	public void evict() {
+		StatsdAggregator aggregator = new StatsdAggregator("value", BOUNDS, 1000);
+		parse(aggregator, "a:1|c\nb:1|c\nc:1|g", 1000);
+		assertEquals(3, flush(aggregator, 1000).size());
+		parse(aggregator, "b:1|c", 1500);
+		assertEquals(1, flush(aggregator, 2500).size());
+		// a and c expired, b kept
+		assertEquals(1, aggregator.size());
+		parse(aggregator, "a:2|c\nb:3|c", 3000);
+		List<Point> points = flush(aggregator, 3000);
+		assertEquals(2, points.size());
+		assertEquals(2, encode(points.get(0)).simpleFields(0).value(), 0);
+		assertEquals(3, encode(points.get(1)).simpleFields(0).value(), 0);
+	}
+
+	@Test
+	public void parseDouble() {
+		byte[] bytes = "12.5|-0.25|+3|007|1e3|.5|abc|-|123456789012345678901".getBytes(StandardCharsets.UTF_8);
+		double[] expected = new double[] { 12.5, -0.25, 3, 7, 1000, 0.5, Double.NaN, Double.NaN,
+				123456789012345678901d };
+		int start = 0;
+		for (double value : expected) {
+			int end = start;
+			while (end < bytes.length && bytes[end] != '|') {
+				end++;
+			}
+			assertEquals(value, StatsdAggregator.parseDouble(bytes, start, end), 0);
+			start = end + 1;
+		}
+	}
+}
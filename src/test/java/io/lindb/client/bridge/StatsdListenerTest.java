@@ -0,0 +1,139 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.api.Write;
+import io.lindb.client.testing.FakeBroker;
+
+public class StatsdListenerTest {
+
+	@Test
+	public void listen() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(), Options.builder().flushInterval(100).build());
+			Write write = client.write("db");
+			try {
+				StatsdListener listener = StatsdListener.builder(write).host("127.0.0.1").port(0).flushInterval(60_000)
+						.timerBounds(1, 10).build();
+				listener.start();
+				assertThrows(IllegalStateException.class, listener::start);
+				try (DatagramChannel sender = DatagramChannel.open()) {
+					InetSocketAddress target = new InetSocketAddress("127.0.0.1", listener.getPort());
+					for (int i = 0; i < 100; i++) {
+						String packet = "requests:1|c|#host:h" + (i % 10) + "\nlatency:" + i + "|ms\nbad line";
+						sender.send(ByteBuffer.wrap(packet.getBytes(StandardCharsets.UTF_8)), target);
+					}
+				}
+				long deadline = System.currentTimeMillis() + 10_000;
+				while (listener.getPackets() < 100 && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10);
+				}
+				// flush pending aggregates on close
+				listener.close();
+				listener.close();
+				assertEquals(100, listener.getPackets());
+				assertEquals(200, listener.getLines());
+				assertEquals(100, listener.getInvalidLines());
+				assertEquals(11, listener.getPoints());
+				assertEquals(0, listener.getRejectedPoints());
+			} finally {
+				write.close();
+			}
+			assertEquals(11, broker.getPoints());
+			assertEquals(0, broker.getInvalidPoints());
+			assertEquals(11, broker.getSeries());
+		}
+	}
+
+	@Test
+	public void flushUnderLoad() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			Client client = ClientFactory.create(broker.getEndpoint(), Options.builder().flushInterval(100).build());
+			Write write = client.write("db");
+			AtomicBoolean sending = new AtomicBoolean(true);
+			try {
+				StatsdListener listener = StatsdListener.builder(write).host("127.0.0.1").port(0).flushInterval(50)
+						.build();
+				listener.start();
+				InetSocketAddress target = new InetSocketAddress("127.0.0.1", listener.getPort());
+				Thread sender = new Thread(() -> {
+					try (DatagramChannel channel = DatagramChannel.open()) {
+						ByteBuffer packet = ByteBuffer.wrap("requests:1|c".getBytes(StandardCharsets.UTF_8));
+						while (sending.get()) {
+							channel.send(packet, target);
+							packet.rewind();
+						}
+					} catch (Exception e) {
+						// stop sending
+					}
+				});
+				sender.start();
+				long deadline = System.currentTimeMillis() + 10_000;
+				while (listener.getPoints() == 0 && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10);
+				}
+				// flushed and closed while datagrams keep arriving
+				assertTrue(listener.getPoints() > 0);
+				listener.close();
+				sending.set(false);
+				sender.join();
+			} finally {
+				sending.set(false);
+				write.close();
+			}
+		}
+	}
+
+	@Test
+	public void builder() throws Exception {
+		assertThrows(NullPointerException.class, () -> StatsdListener.builder(null));
+		Client client = ClientFactory.create("http://localhost:9000");
+		Write write = client.write("db");
+		try {
+			StatsdListener.Builder builder = StatsdListener.builder(write);
+			assertThrows(IllegalArgumentException.class, () -> builder.port(-1));
+			assertThrows(IllegalArgumentException.class, () -> builder.flushInterval(0));
+			assertThrows(IllegalArgumentException.class, () -> builder.bufferSize(100));
+			assertThrows(IllegalArgumentException.class, () -> builder.seriesTtl(0));
+			assertThrows(IllegalArgumentException.class, () -> builder.fieldName(null));
+			assertThrows(IllegalArgumentException.class, () -> builder.timerBounds());
+			assertThrows(IllegalArgumentException.class, () -> builder.timerBounds(10, 1));
+			StatsdListener listener = builder.build();
+			assertThrows(IllegalStateException.class, listener::getPort);
+			listener.close();
+		} finally {
+			write.close();
+		}
+	}
+}
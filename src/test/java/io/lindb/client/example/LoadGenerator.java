@@ -0,0 +1,247 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Options;
+import io.lindb.client.api.BlockingWrite;
+import io.lindb.client.api.Point;
+import io.lindb.client.api.Write;
+import io.lindb.client.api.WriteStats;
+import io.lindb.client.testing.FakeBroker;
+
+/**
+ * End-to-end load generator, drives Write.put or BlockingWrite.write at fixed
+ * target rate, reports put latency and delivery latency percentiles, points/s
+ * and bytes/s.
+ *
+ * Latencies are measured from the intended start time of each operation
+ * instead of the actual start time, so stalls of the client are not hidden by
+ * coordinated omission. Delivery latency is measured by embedded fake broker
+ * from point timestamp(set to the intended time), so only available without
+ * endpoint.
+ *
+ * Usage: key=value args, e.g.
+ * mode=put rate=50000 threads=4 duration=30 metrics=10 series=1000 tags=5
+ * fields=mixed endpoint=http://localhost:9000 database=_internal
+ */
+public class LoadGenerator {
+	private final String endpoint;
+	private final String database;
+	private final boolean blocking;
+	private final long rate;
+	private final int threads;
+	private final int durationSeconds;
+	private final int metrics;
+	private final int series;
+	private final int tags;
+	private final String fields;
+	private final int batch;
+	private final long brokerLatencyMillis;
+
+	private final Recorder putLatency = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+	private final Recorder deliveryLatency = new Recorder(TimeUnit.SECONDS.toMillis(600), 3);
+	private final LongAdder points = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	LoadGenerator(Map<String, String> args) {
+		this.endpoint = args.get("endpoint");
+		this.database = args.getOrDefault("database", "load");
+		this.blocking = "blocking".equals(args.getOrDefault("mode", "put"));
+		this.rate = Long.parseLong(args.getOrDefault("rate", "10000"));
+		this.threads = Integer.parseInt(args.getOrDefault("threads", "4"));
+		this.durationSeconds = Integer.parseInt(args.getOrDefault("duration", "30"));
+		this.metrics = Integer.parseInt(args.getOrDefault("metrics", "10"));
+		this.series = Integer.parseInt(args.getOrDefault("series", "1000"));
+		this.tags = Integer.parseInt(args.getOrDefault("tags", "5"));
+		this.fields = args.getOrDefault("fields", "simple");
+		this.batch = Integer.parseInt(args.getOrDefault("batch", "100"));
+		this.brokerLatencyMillis = Long.parseLong(args.getOrDefault("brokerLatency", "0"));
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> params = new HashMap<>();
+		for (String arg : args) {
+			int idx = arg.indexOf('=');
+			if (idx > 0) {
+				params.put(arg.substring(0, idx), arg.substring(idx + 1));
+			}
+		}
+		new LoadGenerator(params).run();
+	}
+
+	void run() throws Exception {
+		FakeBroker broker = null;
+		String brokerEndpoint = this.endpoint;
+		if (brokerEndpoint == null) {
+			broker = FakeBroker.builder()
+					.latency(this.brokerLatencyMillis, TimeUnit.MILLISECONDS)
+					.listener((db, metric) -> deliveryLatency
+							.recordValue(Math.max(0, System.currentTimeMillis() - metric.timestamp())))
+					.build().start();
+			brokerEndpoint = broker.getEndpoint();
+		}
+		Client client = ClientFactory.create(brokerEndpoint, Options.builder().build());
+		Write write = this.blocking ? null : client.write(this.database);
+		BlockingWrite blockingWrite = this.blocking ? client.blockingWrite(this.database) : null;
+
+		System.out.printf("mode=%s rate=%d/s threads=%d duration=%ds metrics=%d series=%d tags=%d fields=%s%n",
+				this.blocking ? "blocking" : "put", this.rate, this.threads, this.durationSeconds, this.metrics,
+				this.series, this.tags, this.fields);
+
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(this.durationSeconds);
+		CountDownLatch done = new CountDownLatch(this.threads);
+		for (int i = 0; i < this.threads; i++) {
+			final int id = i;
+			Thread producer = new Thread(() -> {
+				try {
+					produce(id, start, end, write, blockingWrite);
+				} finally {
+					done.countDown();
+				}
+			}, "load-producer-" + i);
+			producer.setDaemon(true);
+			producer.start();
+		}
+		Histogram putTotal = null;
+		Histogram deliveryTotal = null;
+		long lastPoints = 0;
+		while (!done.await(1, TimeUnit.SECONDS)) {
+			Histogram put = this.putLatency.getIntervalHistogram();
+			Histogram delivery = this.deliveryLatency.getIntervalHistogram();
+			putTotal = add(putTotal, put);
+			deliveryTotal = add(deliveryTotal, delivery);
+			long now = this.points.sum();
+			System.out.printf("points/s: %d, put p50/p99/max(us): %.1f/%.1f/%.1f, delivery p99(ms): %d%n",
+					now - lastPoints, put.getValueAtPercentile(50) / 1e3, put.getValueAtPercentile(99) / 1e3,
+					put.getMaxValue() / 1e3, delivery.getValueAtPercentile(99));
+			lastPoints = now;
+		}
+		if (write != null) {
+			write.close();
+		}
+		putTotal = add(putTotal, this.putLatency.getIntervalHistogram());
+		deliveryTotal = add(deliveryTotal, this.deliveryLatency.getIntervalHistogram());
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println("==== summary ====");
+		System.out.printf("points: %d, failures: %d, points/s: %.0f%n", this.points.sum(), this.failures.sum(),
+				this.points.sum() / seconds);
+		if (write != null) {
+			WriteStats stats = write.stats();
+			System.out.printf("raw bytes/s: %.0f, sent bytes/s: %.0f, compression ratio: %.2f%n",
+					stats.getRawBytes() / seconds, stats.getSentBytes() / seconds, stats.getCompressionRatio());
+		}
+		if (broker != null) {
+			System.out.printf("broker points: %d, series: %d, bytes/s: %.0f, raw bytes/s: %.0f%n",
+					broker.getPoints(), broker.getSeries(), broker.getBytes() / seconds,
+					broker.getRawBytes() / seconds);
+		}
+		System.out.printf("%s latency(us, coordinated omission corrected):%n", this.blocking ? "write" : "put");
+		putTotal.outputPercentileDistribution(System.out, 5, 1e3);
+		if (broker != null) {
+			System.out.println("delivery latency(ms):");
+			deliveryTotal.outputPercentileDistribution(System.out, 5, 1.0);
+			broker.close();
+		}
+		client.close();
+	}
+
+	private void produce(int id, long start, long end, Write write, BlockingWrite blockingWrite) {
+		int pointsPerOp = this.blocking ? this.batch : 1;
+		// per thread interval between intended start time of operations
+		double interval = 1e9 * pointsPerOp * this.threads / this.rate;
+		long seq = id;
+		List<Point> buffer = new ArrayList<>(pointsPerOp);
+		for (long i = 0;; i++) {
+			long intended = start + (long) (i * interval);
+			if (intended >= end) {
+				return;
+			}
+			long now;
+			while ((now = System.nanoTime()) < intended) {
+				LockSupport.parkNanos(intended - now);
+			}
+			// point timestamp is the intended time, delivery latency also corrected
+			long timestamp = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(now - intended);
+			boolean ok = true;
+			try {
+				if (blockingWrite != null) {
+					buffer.clear();
+					for (int j = 0; j < pointsPerOp; j++) {
+						buffer.add(newPoint(seq, timestamp));
+						seq += this.threads;
+					}
+					blockingWrite.write(buffer);
+				} else {
+					ok = write.put(newPoint(seq, timestamp), 60, TimeUnit.SECONDS);
+					seq += this.threads;
+				}
+			} catch (Exception e) {
+				ok = false;
+			}
+			this.putLatency.recordValue(Math.min(System.nanoTime() - intended, TimeUnit.SECONDS.toNanos(60)));
+			if (ok) {
+				this.points.add(pointsPerOp);
+			} else {
+				this.failures.add(pointsPerOp);
+			}
+		}
+	}
+
+	private Point newPoint(long seq, long timestamp) {
+		int metric = (int) (seq % this.metrics);
+		int s = (int) (seq / this.metrics % this.series);
+		Point.Builder builder = Point.builder("load.metric_" + metric, timestamp);
+		for (int i = 0; i < this.tags; i++) {
+			// first tag carries series id, others are derived
+			builder.addTag("tag_" + i, i == 0 ? "series_" + s : "value_" + (s % (i + 10)));
+		}
+		boolean compound = "compound".equals(this.fields) || ("mixed".equals(this.fields) && metric % 2 == 1);
+		if (compound) {
+			builder.addHistogram(10, 100, 1, 50, new double[] { 5, 10, 50, Double.POSITIVE_INFINITY },
+					new double[] { 2, 3, 4, 1 });
+		} else {
+			builder.addSum("count", 1).addLast("gauge", seq % 100).addMax("max", seq % 1000);
+		}
+		return builder.build();
+	}
+
+	private static Histogram add(Histogram total, Histogram interval) {
+		if (total == null) {
+			return interval.copy();
+		}
+		total.add(interval);
+		return total;
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+	@Test
+	public void estimate() {
+		assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+		HyperLogLog hll = new HyperLogLog(10);
+		assertEquals(0, hll.estimate());
+		for (int i = 0; i < 100; i++) {
+			hll.add(Hashing.hash("value-" + i));
+			// duplicated values
+			hll.add(Hashing.hash("value-" + i));
+		}
+		assertEquals(100, hll.estimate(), 5);
+		for (int i = 100; i < 100_000; i++) {
+			hll.add(Hashing.hash("value-" + i));
+		}
+		// 3 * standard error
+		assertEquals(100_000, hll.estimate(), 100_000 * 0.1);
+	}
+}
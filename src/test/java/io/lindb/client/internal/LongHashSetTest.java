@@ -0,0 +1,49 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LongHashSetTest {
+
+	@Test
+	public void set() {
+		LongHashSet set = new LongHashSet(2);
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.contains(0));
+		for (long i = 1; i <= 10_000; i++) {
+			assertTrue(set.add(i * 31));
+		}
+		assertFalse(set.add(31));
+		assertEquals(10_001, set.size());
+		for (long i = 1; i <= 10_000; i++) {
+			assertTrue(set.contains(i * 31));
+			assertFalse(set.contains(i * 31 + 1));
+		}
+		set.clear();
+		assertEquals(0, set.size());
+		assertFalse(set.contains(0));
+		assertFalse(set.contains(31));
+	}
+}
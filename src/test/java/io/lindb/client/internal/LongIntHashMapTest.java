@@ -0,0 +1,66 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+
+	@Test
+	public void map() {
+		LongIntHashMap map = new LongIntHashMap(2, -1);
+		assertEquals(-1, map.get(0));
+		map.put(0, 10);
+		assertEquals(10, map.get(0));
+		map.put(0, 11);
+		assertEquals(11, map.get(0));
+		assertEquals(1, map.size());
+		assertTrue(map.remove(0));
+		assertFalse(map.remove(0));
+		assertEquals(-1, map.get(0));
+
+		// random put/remove against java map
+		Map<Long, Integer> expected = new HashMap<>();
+		Random random = new Random(1);
+		for (int i = 0; i < 100_000; i++) {
+			long key = random.nextInt(2_000);
+			if (random.nextBoolean()) {
+				map.put(key, i);
+				expected.put(key, i);
+			} else {
+				assertEquals(expected.remove(key) != null, map.remove(key));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		for (long key = 0; key < 2_000; key++) {
+			assertEquals(expected.getOrDefault(key, -1).intValue(), map.get(key));
+		}
+		map.clear();
+		assertEquals(0, map.size());
+		assertEquals(-1, map.get(1));
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ThreadsTest {
+
+	@Test
+	public void platformThread() {
+		Thread thread = Threads.newThread("test", () -> {
+		}, false);
+		assertEquals("test", thread.getName());
+		assertTrue(thread.isDaemon());
+	}
+
+	@Test
+	public void virtualThread() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		// fallback to platform thread if runtime not support virtual thread
+		Thread thread = Threads.newThread("test-virtual", latch::countDown, true);
+		assertEquals("test-virtual", thread.getName());
+		assertTrue(thread.isDaemon());
+		thread.start();
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void factory() throws Exception {
+		ThreadFactory factory = Threads.factory("lin", Threads.isVirtualSupported());
+		assertEquals("lin-1", factory.newThread(() -> {
+		}).getName());
+		assertEquals("lin-2", factory.newThread(() -> {
+		}).getName());
+
+		ExecutorService executor = Threads.newCachedExecutor("lin-http", true);
+		try {
+			assertEquals(Boolean.TRUE, executor.submit(() -> true).get(1, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -18,6 +18,7 @@
  */
 package io.lindb.client.internal;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
@@ -33,6 +34,20 @@ import okhttp3.mockwebserver.MockWebServer;
 
 public class WriteClientTest extends BaseClientTest {
 
+	@Test
+	public void isRetryable() {
+		assertTrue(WriteClient.isRetryable(-1));
+		assertTrue(WriteClient.isRetryable(408));
+		assertTrue(WriteClient.isRetryable(429));
+		assertTrue(WriteClient.isRetryable(500));
+		assertTrue(WriteClient.isRetryable(503));
+		assertFalse(WriteClient.isRetryable(400));
+		assertFalse(WriteClient.isRetryable(404));
+		assertFalse(WriteClient.isRetryable(413));
+		assertFalse(WriteClient.isRetryable(302));
+		assertFalse(WriteClient.isRetryable(100));
+	}
+
 	@Test
 	public void writeMetric() throws IOException {
 		// Create a MockWebServer.
@@ -54,6 +69,25 @@ public class WriteClientTest extends BaseClientTest {
 		}
 	}
 
+	@Test
+	public void write() throws IOException {
+		MockWebServer server = new MockWebServer();
+		try {
+			server.enqueue(new MockResponse().setResponseCode(204));
+			server.enqueue(new MockResponse().setBody("too many requests").setResponseCode(429));
+			server.start();
+
+			WriteClient client = new WriteClient("db", server.url(Constants.WRITE_API).toString(), cli);
+			assertEquals("db", client.getDatabase());
+			assertEquals(204, client.write("data".getBytes(), true));
+			assertEquals(429, client.write("data".getBytes(), false));
+			assertTrue(WriteClient.isSuccessful(200));
+			assertFalse(WriteClient.isSuccessful(429));
+		} finally {
+			server.close();
+		}
+	}
+
 	@Test
 	public void sendMetric() throws IOException {
 		// Create a MockWebServer.
@@ -0,0 +1,83 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.internal.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrEventsTest {
+
+	@Test
+	public void recordEvents() throws Exception {
+		Assume.assumeTrue(JfrEvents.isAvailable());
+		File file = File.createTempFile("lindb-client", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("io.lindb.client.Encode");
+			recording.enable("io.lindb.client.Compress");
+			recording.enable("io.lindb.client.Send");
+			recording.enable("io.lindb.client.Retry");
+			recording.enable("io.lindb.client.QueueFull");
+			recording.start();
+
+			JfrEvents.encode("db", 10, 100, 1000);
+			JfrEvents.endCompress(JfrEvents.beginCompress(), "db", 100, 10);
+			JfrEvents.endSend(JfrEvents.beginSend(), "db", 10, 204);
+			JfrEvents.endRetry(JfrEvents.beginRetry(), "db", 10, 1, true);
+			JfrEvents.queueFull("db", "batch", 1024);
+
+			recording.stop();
+			recording.dump(file.toPath());
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+		Map<String, RecordedEvent> eventsByName = new HashMap<>();
+		for (RecordedEvent event : events) {
+			eventsByName.put(event.getEventType().getName(), event);
+		}
+		assertEquals(5, eventsByName.size());
+		RecordedEvent send = eventsByName.get("io.lindb.client.Send");
+		assertEquals("db", send.getString("database"));
+		assertEquals(204, send.getInt("status"));
+		assertNull(send.getStackTrace());
+		assertEquals(10, eventsByName.get("io.lindb.client.Encode").getInt("points"));
+		assertEquals("batch", eventsByName.get("io.lindb.client.QueueFull").getString("queue"));
+		assertTrue(eventsByName.get("io.lindb.client.Retry").getBoolean("success"));
+		file.delete();
+	}
+
+	@Test
+	public void noopWithoutHandle() {
+		// null handle means JFR not available, should be ignored
+		JfrEvents.endCompress(null, "db", 1, 1);
+		JfrEvents.endSend(null, "db", 1, 200);
+		JfrEvents.endRetry(null, "db", 1, 1, false);
+	}
+}
@@ -0,0 +1,643 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.testing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+import com.google.common.base.Preconditions;
+
+import io.lindb.client.Constants;
+import io.lindb.client.flat.metrics.v1.CompoundField;
+import io.lindb.client.flat.metrics.v1.KeyValue;
+import io.lindb.client.flat.metrics.v1.Metric;
+import io.lindb.client.model.ExecParams;
+import io.lindb.client.util.JsonUtil;
+import io.lindb.client.util.StringUtils;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * Embedded fake LinDB broker for throughput and fault-injection testing.
+ *
+ * Write api decodes size-prefixed(gzip) Metric flat buffers, counts and
+ * validates points/series; exec api returns stubbed json by sql. Faults can be
+ * injected by rate or enqueued for next requests.
+ */
+public class FakeBroker implements Closeable {
+	/**
+	 * Fault injected into write request.
+	 */
+	public enum Fault {
+		/**
+		 * Response 503 service unavailable.
+		 */
+		SERVER_ERROR,
+		/**
+		 * Response 429 too many requests with Retry-After header.
+		 */
+		THROTTLE,
+		/**
+		 * Close connection after request read, without response.
+		 */
+		RESET,
+	}
+
+	/**
+	 * Listener of received metric, invoked on broker thread for each valid point.
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * Called when received a valid metric point.
+		 *
+		 * @param database database name
+		 * @param metric   decoded metric(only valid during callback)
+		 */
+		void onMetric(String database, Metric metric);
+	}
+
+	private final MockWebServer server = new MockWebServer();
+	private final long latencyMillis;
+	private final double serverErrorRate;
+	private final double throttleRate;
+	private final double resetRate;
+	private final int retryAfterSeconds;
+	private final long slowReadBytes;
+	private final long slowReadPeriodMillis;
+	private final boolean validate;
+	private final boolean atomic;
+	private final long maxPayload;
+	private final Listener listener;
+	private final Random random;
+	private final Queue<Fault> faults = new ConcurrentLinkedQueue<>();
+	private final Map<String, String> execResponses = new ConcurrentHashMap<>();
+	private final Set<String> series = ConcurrentHashMap.newKeySet();
+
+	private final LongAdder writeRequests = new LongAdder();
+	private final LongAdder execRequests = new LongAdder();
+	private final LongAdder points = new LongAdder();
+	private final LongAdder invalidPoints = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder rawBytes = new LongAdder();
+	private final LongAdder serverErrors = new LongAdder();
+	private final LongAdder throttles = new LongAdder();
+	private final LongAdder resets = new LongAdder();
+	private final LongAdder payloadRejects = new LongAdder();
+
+	private FakeBroker(Builder builder) {
+		this.latencyMillis = builder.latencyMillis;
+		this.serverErrorRate = builder.serverErrorRate;
+		this.throttleRate = builder.throttleRate;
+		this.resetRate = builder.resetRate;
+		this.retryAfterSeconds = builder.retryAfterSeconds;
+		this.slowReadBytes = builder.slowReadBytes;
+		this.slowReadPeriodMillis = builder.slowReadPeriodMillis;
+		this.validate = builder.validate;
+		this.atomic = builder.atomic;
+		this.maxPayload = builder.maxPayload;
+		this.listener = builder.listener;
+		this.random = new Random(builder.seed);
+		this.server.setDispatcher(new BrokerDispatcher());
+	}
+
+	/**
+	 * Create fake broker builder.
+	 *
+	 * @return builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Start fake broker on random port.
+	 *
+	 * @return this broker
+	 * @throws IOException if start failure
+	 */
+	public FakeBroker start() throws IOException {
+		this.server.start();
+		return this;
+	}
+
+	/**
+	 * Return broker endpoint, like http://127.0.0.1:port.
+	 *
+	 * @return broker endpoint
+	 */
+	public String getEndpoint() {
+		String url = this.server.url("/").toString();
+		return url.substring(0, url.length() - 1);
+	}
+
+	/**
+	 * Inject fault into next write requests, enqueued faults take precedence over
+	 * fault rates.
+	 *
+	 * @param fault fault type
+	 * @param times number of requests
+	 */
+	public void inject(Fault fault, int times) {
+		for (int i = 0; i < times; i++) {
+			this.faults.add(fault);
+		}
+	}
+
+	/**
+	 * Stub exec api response for sql.
+	 *
+	 * @param sql  lin query language
+	 * @param json response body
+	 */
+	public void stubExec(String sql, String json) {
+		this.execResponses.put(sql, json);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.server.close();
+	}
+
+	/**
+	 * Return the number of write requests.
+	 *
+	 * @return request count
+	 */
+	public long getWriteRequests() {
+		return writeRequests.sum();
+	}
+
+	/**
+	 * Return the number of exec requests.
+	 *
+	 * @return request count
+	 */
+	public long getExecRequests() {
+		return execRequests.sum();
+	}
+
+	/**
+	 * Return the number of accepted valid points.
+	 *
+	 * @return point count
+	 */
+	public long getPoints() {
+		return points.sum();
+	}
+
+	/**
+	 * Return the number of invalid points.
+	 *
+	 * @return point count
+	 */
+	public long getInvalidPoints() {
+		return invalidPoints.sum();
+	}
+
+	/**
+	 * Return the number of distinct series(namespace+metric+tags) received.
+	 *
+	 * @return series count
+	 */
+	public long getSeries() {
+		return series.size();
+	}
+
+	/**
+	 * Return request body bytes of accepted write requests.
+	 *
+	 * @return bytes
+	 */
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	/**
+	 * Return decompressed bytes of accepted write requests.
+	 *
+	 * @return bytes
+	 */
+	public long getRawBytes() {
+		return rawBytes.sum();
+	}
+
+	/**
+	 * Return the number of injected 5xx responses.
+	 *
+	 * @return response count
+	 */
+	public long getServerErrors() {
+		return serverErrors.sum();
+	}
+
+	/**
+	 * Return the number of injected 429 responses.
+	 *
+	 * @return response count
+	 */
+	public long getThrottles() {
+		return throttles.sum();
+	}
+
+	/**
+	 * Return the number of injected connection resets.
+	 *
+	 * @return reset count
+	 */
+	public long getResets() {
+		return resets.sum();
+	}
+
+	/**
+	 * Return the number of write requests rejected by payload limit(413).
+	 *
+	 * @return request count
+	 */
+	public long getPayloadRejects() {
+		return payloadRejects.sum();
+	}
+
+	private Fault nextFault() {
+		Fault fault = this.faults.poll();
+		if (fault != null) {
+			return fault;
+		}
+		double r;
+		synchronized (this.random) {
+			r = this.random.nextDouble();
+		}
+		if (r < this.serverErrorRate) {
+			return Fault.SERVER_ERROR;
+		}
+		r -= this.serverErrorRate;
+		if (r < this.throttleRate) {
+			return Fault.THROTTLE;
+		}
+		r -= this.throttleRate;
+		if (r < this.resetRate) {
+			return Fault.RESET;
+		}
+		return null;
+	}
+
+	private MockResponse newResponse(int code) {
+		MockResponse response = new MockResponse().setResponseCode(code);
+		if (this.latencyMillis > 0) {
+			response.setHeadersDelay(this.latencyMillis, TimeUnit.MILLISECONDS);
+		}
+		return response;
+	}
+
+	private MockResponse write(RecordedRequest request) throws IOException {
+		this.writeRequests.increment();
+		Fault fault = nextFault();
+		if (fault != null) {
+			switch (fault) {
+				case SERVER_ERROR:
+					this.serverErrors.increment();
+					return newResponse(503).setBody("injected server error");
+				case THROTTLE:
+					this.throttles.increment();
+					return newResponse(429).setHeader("Retry-After", this.retryAfterSeconds)
+							.setBody("injected throttle");
+				case RESET:
+					this.resets.increment();
+					return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+				default:
+					break;
+			}
+		}
+		String database = request.getRequestUrl().queryParameter("db");
+		if (StringUtils.isEmpty(database)) {
+			return newResponse(400).setBody("database name is empty");
+		}
+		byte[] body = request.getBody().readByteArray();
+		if (this.maxPayload > 0 && body.length > this.maxPayload) {
+			this.payloadRejects.increment();
+			return newResponse(413).setBody("payload too large: " + body.length);
+		}
+		byte[] data = body;
+		if ("gzip".equals(request.getHeader("Content-Encoding"))) {
+			data = gunzip(body);
+		}
+		List<String> errors = decode(database, data, !this.atomic);
+		if (errors.isEmpty() && this.atomic) {
+			decode(database, data, true);
+		}
+		if (!errors.isEmpty()) {
+			return newResponse(400).setBody(String.join(";", errors));
+		}
+		this.bytes.add(body.length);
+		this.rawBytes.add(data.length);
+		return newResponse(204);
+	}
+
+	/**
+	 * Decode size-prefixed metric records, returns validation errors, valid points
+	 * are ingested if commit.
+	 */
+	private List<String> decode(String database, byte[] data, boolean commit) {
+		List<String> errors = new ArrayList<>();
+		ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		Metric metric = new Metric();
+		int pos = 0;
+		while (pos < data.length) {
+			if (data.length - pos < 4) {
+				errors.add("truncated size prefix at " + pos);
+				break;
+			}
+			int size = buf.getInt(pos);
+			if (size <= 0 || pos + 4 + size > data.length) {
+				errors.add("invalid record size " + size + " at " + pos);
+				break;
+			}
+			ByteBuffer record = ((ByteBuffer) buf.duplicate().position(pos + 4).limit(pos + 4 + size)).slice()
+					.order(ByteOrder.LITTLE_ENDIAN);
+			pos += 4 + size;
+			Metric.getRootAsMetric(record, metric);
+			String error = this.validate ? validate(metric) : null;
+			if (error != null) {
+				this.invalidPoints.increment();
+				errors.add(error);
+				continue;
+			}
+			if (!commit) {
+				continue;
+			}
+			this.points.increment();
+			this.series.add(seriesKey(metric));
+			if (this.listener != null) {
+				this.listener.onMetric(database, metric);
+			}
+		}
+		return errors;
+	}
+
+	private static String validate(Metric metric) {
+		if (StringUtils.isEmpty(metric.name())) {
+			return "metric name is empty";
+		}
+		if (metric.timestamp() <= 0) {
+			return "invalid timestamp of " + metric.name();
+		}
+		CompoundField compound = metric.compoundField();
+		if (metric.simpleFieldsLength() == 0 && compound == null) {
+			return "no fields of " + metric.name();
+		}
+		if (compound != null && compound.explicitBoundsLength() != compound.valuesLength()) {
+			return "bounds/values length mismatch of " + metric.name();
+		}
+		return null;
+	}
+
+	private static String seriesKey(Metric metric) {
+		List<String> tags = new ArrayList<>(metric.keyValuesLength());
+		KeyValue kv = new KeyValue();
+		for (int i = 0; i < metric.keyValuesLength(); i++) {
+			metric.keyValues(kv, i);
+			tags.add(kv.key() + "=" + kv.value());
+		}
+		tags.sort(null);
+		return metric.namespace() + ":" + metric.name() + tags;
+	}
+
+	private static byte[] gunzip(byte[] data) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+			byte[] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) > 0) {
+				out.write(buf, 0, n);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	private MockResponse exec(RecordedRequest request) throws Exception {
+		this.execRequests.increment();
+		ExecParams params = JsonUtil.toObject(request.getBody().readUtf8(), ExecParams.class);
+		String json = params == null ? null : this.execResponses.get(params.getSql());
+		if (json == null) {
+			return newResponse(404).setBody("no stub for sql");
+		}
+		return newResponse(200).setBody(json);
+	}
+
+	private class BrokerDispatcher extends Dispatcher {
+		@Override
+		public MockResponse dispatch(RecordedRequest request) {
+			String path = request.getRequestUrl().encodedPath();
+			try {
+				if (Constants.WRITE_API.equals(path)) {
+					return write(request);
+				}
+				if (Constants.EXEC_API.equals(path)) {
+					return exec(request);
+				}
+				return new MockResponse().setResponseCode(404);
+			} catch (Exception e) {
+				return new MockResponse().setResponseCode(500).setBody(String.valueOf(e.getMessage()));
+			}
+		}
+
+		@Override
+		public MockResponse peek() {
+			MockResponse response = new MockResponse().setSocketPolicy(SocketPolicy.KEEP_OPEN);
+			// request body is read with peeked response's throttle policy
+			if (slowReadBytes > 0) {
+				response.throttleBody(slowReadBytes, slowReadPeriodMillis, TimeUnit.MILLISECONDS);
+			}
+			return response;
+		}
+	}
+
+	/**
+	 * Fake broker builder.
+	 */
+	public static class Builder {
+		private long latencyMillis;
+		private double serverErrorRate;
+		private double throttleRate;
+		private double resetRate;
+		private int retryAfterSeconds = 1;
+		private long slowReadBytes;
+		private long slowReadPeriodMillis;
+		private boolean validate = true;
+		private boolean atomic;
+		private long maxPayload;
+		private Listener listener;
+		private long seed = 0;
+
+		/**
+		 * Set response latency of each request.
+		 *
+		 * @param latency latency
+		 * @param unit    time unit
+		 * @return builder
+		 */
+		public Builder latency(long latency, TimeUnit unit) {
+			Preconditions.checkArgument(latency >= 0, "latency must be >= 0");
+			this.latencyMillis = unit.toMillis(latency);
+			return this;
+		}
+
+		/**
+		 * Set rate of 503 responses.
+		 *
+		 * @param rate rate, [0, 1]
+		 * @return builder
+		 */
+		public Builder serverErrorRate(double rate) {
+			Preconditions.checkArgument(rate >= 0 && rate <= 1, "rate must be in [0, 1]");
+			this.serverErrorRate = rate;
+			return this;
+		}
+
+		/**
+		 * Set rate of 429 responses with Retry-After header.
+		 *
+		 * @param rate              rate, [0, 1]
+		 * @param retryAfterSeconds Retry-After seconds
+		 * @return builder
+		 */
+		public Builder throttleRate(double rate, int retryAfterSeconds) {
+			Preconditions.checkArgument(rate >= 0 && rate <= 1, "rate must be in [0, 1]");
+			Preconditions.checkArgument(retryAfterSeconds >= 0, "retry after must be >= 0");
+			this.throttleRate = rate;
+			this.retryAfterSeconds = retryAfterSeconds;
+			return this;
+		}
+
+		/**
+		 * Set rate of connection resets.
+		 *
+		 * @param rate rate, [0, 1]
+		 * @return builder
+		 */
+		public Builder resetRate(double rate) {
+			Preconditions.checkArgument(rate >= 0 && rate <= 1, "rate must be in [0, 1]");
+			this.resetRate = rate;
+			return this;
+		}
+
+		/**
+		 * Read request body slowly, sleep period after each bytes read.
+		 *
+		 * @param bytes  bytes per period
+		 * @param period period
+		 * @param unit   time unit
+		 * @return builder
+		 */
+		public Builder slowRead(long bytes, long period, TimeUnit unit) {
+			Preconditions.checkArgument(bytes > 0, "bytes must be > 0");
+			this.slowReadBytes = bytes;
+			this.slowReadPeriodMillis = unit.toMillis(period);
+			return this;
+		}
+
+		/**
+		 * Set if validate received points.
+		 *
+		 * @param validate if validate
+		 * @return builder
+		 */
+		public Builder validate(boolean validate) {
+			this.validate = validate;
+			return this;
+		}
+
+		/**
+		 * Set if a rejected write request ingests nothing, else valid points of
+		 * rejected request are still ingested.
+		 *
+		 * @param atomic if all-or-nothing
+		 * @return builder
+		 */
+		public Builder atomic(boolean atomic) {
+			this.atomic = atomic;
+			return this;
+		}
+
+		/**
+		 * Set max request body bytes, larger request rejected with 413, 0 means no
+		 * limit.
+		 *
+		 * @param maxPayload max bytes
+		 * @return builder
+		 */
+		public Builder maxPayload(long maxPayload) {
+			Preconditions.checkArgument(maxPayload >= 0, "max payload must be >= 0");
+			this.maxPayload = maxPayload;
+			return this;
+		}
+
+		/**
+		 * Set listener of received points.
+		 *
+		 * @param listener listener
+		 * @return builder
+		 */
+		public Builder listener(Listener listener) {
+			this.listener = listener;
+			return this;
+		}
+
+		/**
+		 * Set random seed of fault injection.
+		 *
+		 * @param seed random seed
+		 * @return builder
+		 */
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * Build fake broker(not started).
+		 *
+		 * @return fake broker
+		 */
+		public FakeBroker build() {
+			Preconditions.checkArgument(serverErrorRate + throttleRate + resetRate <= 1,
+					"sum of fault rates must be <= 1");
+			return new FakeBroker(this);
+		}
+	}
+}
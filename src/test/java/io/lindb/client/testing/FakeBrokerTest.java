@@ -0,0 +1,181 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import io.lindb.client.Client;
+import io.lindb.client.ClientFactory;
+import io.lindb.client.Constants;
+import io.lindb.client.api.Point;
+import io.lindb.client.api.RowBuilder;
+import io.lindb.client.api.Write;
+import io.lindb.client.internal.WriteClient;
+import okhttp3.OkHttpClient;
+
+public class FakeBrokerTest {
+	private final OkHttpClient cli = new OkHttpClient.Builder().readTimeout(5, TimeUnit.SECONDS)
+			.retryOnConnectionFailure(false).build();
+
+	private static byte[] encode(Point... points) throws IOException {
+		RowBuilder builder = new RowBuilder();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (Point point : points) {
+			out.write(builder.build(point, null));
+			builder.reset();
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	@Test
+	public void write() throws IOException {
+		AtomicLong received = new AtomicLong();
+		try (FakeBroker broker = FakeBroker.builder().listener((db, metric) -> {
+			assertEquals("db", db);
+			received.incrementAndGet();
+		}).build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			byte[] data = encode(
+					Point.builder("cpu").addTag("host", "a").addSum("f", 1).build(),
+					Point.builder("cpu").addTag("host", "b").addSum("f", 1).build(),
+					Point.builder("cpu").addTag("host", "a").addSum("f", 2).build());
+			byte[] compressed = gzip(data);
+			assertEquals(204, client.write(compressed, true));
+			assertEquals(3, broker.getPoints());
+			assertEquals(2, broker.getSeries());
+			assertEquals(3, received.get());
+			assertEquals(data.length, broker.getRawBytes());
+			assertEquals(compressed.length, broker.getBytes());
+
+			// truncated data
+			assertEquals(400, client.write(new byte[] { 1, 2 }, false));
+			// missing database
+			WriteClient noDB = new WriteClient(broker.getEndpoint() + Constants.WRITE_API, cli);
+			assertEquals(400, noDB.write(data, false));
+			assertEquals(3, broker.getWriteRequests());
+		}
+	}
+
+	@Test
+	public void validate() throws IOException {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			byte[] data = encode(Point.builder("cpu", 0).addSum("f", 1).build(),
+					Point.builder("cpu").addSum("f", 1).build());
+			assertEquals(400, client.write(data, false));
+			assertEquals(1, broker.getInvalidPoints());
+			assertEquals(1, broker.getPoints());
+		}
+		try (FakeBroker broker = FakeBroker.builder().validate(false).build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			assertEquals(204, client.write(encode(Point.builder("cpu", 0).addSum("f", 1).build()), false));
+			assertEquals(1, broker.getPoints());
+		}
+	}
+
+	@Test
+	public void faults() throws IOException {
+		try (FakeBroker broker = FakeBroker.builder().latency(10, TimeUnit.MILLISECONDS)
+				.throttleRate(0, 3).build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			byte[] data = encode(Point.builder("cpu").addSum("f", 1).build());
+			broker.inject(FakeBroker.Fault.SERVER_ERROR, 1);
+			broker.inject(FakeBroker.Fault.THROTTLE, 1);
+			broker.inject(FakeBroker.Fault.RESET, 1);
+			assertEquals(503, client.write(data, false));
+			assertEquals(429, client.write(data, false));
+			assertThrows(IOException.class, () -> client.write(data, false));
+			assertEquals(204, client.write(data, false));
+			assertEquals(1, broker.getServerErrors());
+			assertEquals(1, broker.getThrottles());
+			assertEquals(1, broker.getResets());
+			assertEquals(1, broker.getPoints());
+		}
+		// all requests failure by rate
+		try (FakeBroker broker = FakeBroker.builder().serverErrorRate(1).build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			assertEquals(503, client.write(encode(Point.builder("cpu").addSum("f", 1).build()), false));
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> FakeBroker.builder().serverErrorRate(0.6).resetRate(0.6).build());
+	}
+
+	@Test
+	public void slowRead() throws IOException {
+		try (FakeBroker broker = FakeBroker.builder().slowRead(64, 20, TimeUnit.MILLISECONDS).build().start()) {
+			WriteClient client = new WriteClient("db", broker.getEndpoint() + Constants.WRITE_API + "?db=db", cli);
+			byte[] data = encode(Point.builder("cpu").addTag("host", "a").addSum("f", 1).build(),
+					Point.builder("cpu").addTag("host", "b").addSum("f", 1).build());
+			long start = System.nanoTime();
+			assertEquals(204, client.write(data, false));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 20);
+		}
+	}
+
+	@Test
+	public void writeWithRetry() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			broker.inject(FakeBroker.Fault.SERVER_ERROR, 1);
+			Client client = ClientFactory.create(broker.getEndpoint());
+			Write write = client.write("db");
+			for (int i = 0; i < 10; i++) {
+				write.put(Point.builder("cpu").addTag("host", "host-" + i).addSum("f", 1).build());
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (broker.getPoints() < 10 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			write.close();
+			client.close();
+			assertEquals(10, broker.getPoints());
+			assertEquals(10, broker.getSeries());
+			assertEquals(1, broker.getServerErrors());
+		}
+	}
+
+	@Test
+	public void exec() throws Exception {
+		try (FakeBroker broker = FakeBroker.builder().build().start()) {
+			broker.stubExec("show databases", "[\"_internal\"]");
+			Client client = ClientFactory.create(broker.getEndpoint());
+			assertEquals(1, client.stateQuery().databaseNames().size());
+			assertThrows(Exception.class, () -> client.stateQuery().master());
+			assertEquals(2, broker.getExecRequests());
+			client.close();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to LinDB under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. LinDB licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.lindb.client.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+public class TimeUtilsTest {
+	@Test
+	public void parseDuration() {
+		assertEquals(10, TimeUtils.parseDuration("10ms"));
+		assertEquals(10_000, TimeUtils.parseDuration("10s"));
+		assertEquals(5 * 60_000, TimeUtils.parseDuration("5m"));
+		assertEquals(3_600_000, TimeUtils.parseDuration(" 1h "));
+		assertEquals(2 * 86_400_000L, TimeUtils.parseDuration("2d"));
+		assertEquals(30 * 86_400_000L, TimeUtils.parseDuration("1M"));
+		assertEquals(365 * 86_400_000L, TimeUtils.parseDuration("1y"));
+	}
+
+	@Test
+	public void parseInvalidDuration() {
+		assertThrows(IllegalArgumentException.class, () -> TimeUtils.parseDuration(null));
+		assertThrows(IllegalArgumentException.class, () -> TimeUtils.parseDuration(""));
+		assertThrows(IllegalArgumentException.class, () -> TimeUtils.parseDuration("10"));
+		assertThrows(IllegalArgumentException.class, () -> TimeUtils.parseDuration("s"));
+		assertThrows(IllegalArgumentException.class, () -> TimeUtils.parseDuration("10w"));
+	}
+}